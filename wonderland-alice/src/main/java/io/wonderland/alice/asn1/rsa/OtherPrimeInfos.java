@@ -89,6 +89,15 @@ public class OtherPrimeInfos implements BerType, Serializable {
     if (lengthVal == 0) {
       return tlByteCount;
     }
+    if (lengthVal > 0) {
+      //SEQUENCE OF OtherPrimeInfo, keep all elements as raw parameters
+      byte[] content = new byte[lengthVal];
+      if (is.readNBytes(content, 0, lengthVal) != lengthVal) {
+        throw new IOException("Unexpected end of sequence, length tag: " + lengthVal);
+      }
+      parameters = new BerAny(content);
+      return tlByteCount + lengthVal;
+    }
     vByteCount += berTag.decode(is);
 
     parameters = new BerAny();
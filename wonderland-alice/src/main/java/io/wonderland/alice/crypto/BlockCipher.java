@@ -39,6 +39,59 @@ public interface BlockCipher extends ICipher {
   int processBlock(byte[] in, int inOff, byte[] out, int outOff)
       throws RuntimeCipherException, IllegalStateException;
 
+  /**
+   * Process blocks consecutive blocks of input. Default implementation calls
+   * {@link #processBlock(byte[], int, byte[], int)} block after block, block modes override it to
+   * process independent blocks concurrently.
+   *
+   * @param in     the array containing the input data.
+   * @param inOff  offset into the in array the data starts at.
+   * @param blocks number of whole blocks to process.
+   * @param out    the array the output data will be copied into.
+   * @param outOff the offset into the out array the output will start at.
+   * @return the number of bytes produced.
+   * @throws RuntimeCipherException other exceptions cipher might throw
+   * @throws IllegalStateException  if the cipher isn't initialized.
+   */
+  default int processBlocks(byte[] in, int inOff, int blocks, byte[] out, int outOff)
+      throws RuntimeCipherException, IllegalStateException {
+    int blockSize = getBlockSize();
+    int produced = 0;
+    for (int i = 0; i < blocks; i++) {
+      produced += processBlock(in, inOff + i * blockSize, out, outOff + produced);
+    }
+    return produced;
+  }
+
+  /**
+   * Size a last block holding len bytes is padded to. Default is a whole block, ciphers that can
+   * process a shorter last block return less.
+   *
+   * @param len number of message bytes in last block, at most {@link #getBlockSize()}.
+   * @return padded size of last block.
+   */
+  default int getFinalBlockSize(int len) {
+    return getBlockSize();
+  }
+
+  /**
+   * Process last block of {@link #getFinalBlockSize(int)} bytes. Default implementation expects a
+   * whole block and calls {@link #processBlock(byte[], int, byte[], int)}.
+   *
+   * @param in     the array containing the input data.
+   * @param inOff  offset into the in array the data starts at.
+   * @param len    size of last block.
+   * @param out    the array the output data will be copied into.
+   * @param outOff the offset into the out array the output will start at.
+   * @return the number of bytes produced.
+   * @throws RuntimeCipherException other exceptions cipher might throw
+   * @throws IllegalStateException  if the cipher isn't initialized.
+   */
+  default int processFinalBlock(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException, IllegalStateException {
+    return processBlock(in, inOff, out, outOff);
+  }
+
   /**
    * Reset the cipher. After resetting, the cipher is in the same state as it was after the last
    * init (if there was one).
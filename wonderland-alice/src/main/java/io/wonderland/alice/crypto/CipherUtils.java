@@ -0,0 +1,61 @@
+package io.wonderland.alice.crypto;
+
+import static io.wonderland.alice.exception.ExceptionMessages.ARRAY_OFFSET_NOT_VALID;
+import static io.wonderland.alice.exception.ExceptionMessages.INPUT_LENGTH_NOT_VALID;
+import static io.wonderland.alice.exception.ExceptionMessages.OUTPUT_BUFFER_TOO_SHORT;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Common argument checks shared by cipher implementations.
+ */
+public final class CipherUtils {
+
+  private CipherUtils() {
+  }
+
+  /**
+   * Validate a bulk operation before touching any memory. Slice in[inOff, inOff + len) must be
+   * inside input array and out[outOff, outOff + len) must be inside output array.
+   *
+   * @param in                input array
+   * @param inOff             offset into input array
+   * @param len               number of bytes to be processed
+   * @param out               output array
+   * @param outOff            offset into output array
+   * @param nullInputMessage  message of exception thrown when input array is null
+   * @throws IllegalArgumentException if any of the slices is out of bounds
+   */
+  public static void checkBounds(byte[] in, int inOff, int len, byte[] out, int outOff,
+      String nullInputMessage) throws IllegalArgumentException {
+    if (in == null) {
+      throw new IllegalArgumentException(nullInputMessage);
+    }
+    if (inOff < 0 || outOff < 0) {
+      throw new IllegalArgumentException(ARRAY_OFFSET_NOT_VALID);
+    }
+    if (len < 0 || len > in.length - inOff) {
+      throw new IllegalArgumentException(INPUT_LENGTH_NOT_VALID);
+    }
+    if (out == null || len > out.length - outOff) {
+      throw new IllegalArgumentException(OUTPUT_BUFFER_TOO_SHORT);
+    }
+  }
+
+  /**
+   * Validate a buffer operation, all remaining bytes of input must fit in output.
+   *
+   * @param in  input buffer
+   * @param out output buffer
+   * @return number of bytes to be processed
+   * @throws IllegalArgumentException if output has less remaining space than input
+   */
+  public static int checkBounds(ByteBuffer in, ByteBuffer out) throws IllegalArgumentException {
+    int len = in.remaining();
+    if (out.remaining() < len) {
+      throw new IllegalArgumentException(OUTPUT_BUFFER_TOO_SHORT);
+    }
+    return len;
+  }
+
+}
@@ -1,6 +1,9 @@
 package io.wonderland.alice.crypto;
 
 import io.wonderland.alice.exception.CipherException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.Key;
 import java.util.List;
 import java.util.Map;
@@ -19,12 +22,30 @@ public interface ProductCipher {
 
   List<Cipher> getCiphers();
 
+  /**
+   * Push input through every stage.
+   *
+   * @param input bytes to process
+   * @return bytes last stage produced so far, possibly empty
+   */
   byte[] update(byte[] input);
 
   byte[] doFinal() throws CipherException, IllegalStateException;
 
   byte[] doFinal(byte[] input) throws CipherException, IllegalStateException;
 
+  /**
+   * Stream whole input through every stage into output and finish stages. Input is read in
+   * bounded chunks, memory doesn't grow with input length.
+   *
+   * @param in  input stream, read till end
+   * @param out output stream, not closed
+   * @return number of bytes written to out
+   * @throws CipherException if a stage fails
+   * @throws IOException     if reading or writing fails
+   */
+  long process(InputStream in, OutputStream out) throws CipherException, IOException;
+
   void reset();
 
 }
@@ -1,19 +1,77 @@
 package io.wonderland.alice.crypto;
 
 import io.wonderland.alice.exception.CipherException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.crypto.Cipher;
 import org.apache.commons.lang3.ArrayUtils;
 
-//todo to re-implement & test
+/**
+ * Cascade of ciphers, output of stage i is input of stage i+1.
+ * <br>
+ * <br> Input is pushed through stages in chunks of at most chunk size bytes, every stage emits
+ * what it can as soon as it can, nothing is accumulated in front of first stage. At doFinal stages
+ * are finished in order, final output of stage i being last input of stage i+1.
+ * <br> Ciphers whose output depends on whole message, transpositions over message length
+ * (Railfence) or single block RSA, hold their input themselves and emit nothing before doFinal, so
+ * output never depends on how input was split.
+ * <br>
+ * <br> {@link #process(InputStream, OutputStream)} reads full chunks whatever size reads of stream
+ * return and streams in constant memory, except for input held by such ciphers. Pipelined instances
+ * run every stage on its own thread, stages are connected by bounded ring buffers
+ * ({@link ArrayBlockingQueue}) of queue capacity chunks, so a slow stage applies back pressure
+ * instead of memory growing.
+ */
 public final class ProductCipherImpl implements ProductCipher {
 
+  public static final int DEFAULT_CHUNK_SIZE = StreamCipher.BUFFER_CHUNK_SIZE;
+  public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+  private static final byte[] EMPTY = new byte[0];
+  //end of stream marker, compared by identity
+  private static final byte[] END = new byte[0];
+  private static final long POLL_MILLIS = 100;
+
   private final List<Cipher> ciphers = new ArrayList<>();
-  private byte[] inputBuffer;
+  private final List<Key> keys = new ArrayList<>();
+  private final int chunkSize;
+  private final int queueCapacity;
+  private final boolean pipelined;
+  private boolean encryption;
 
+  /**
+   * Stages run on caller thread.
+   */
+  public ProductCipherImpl() {
+    this(DEFAULT_CHUNK_SIZE, DEFAULT_QUEUE_CAPACITY, false);
+  }
+
+  /**
+   * @param chunkSize     largest chunk pushed through stages at once
+   * @param queueCapacity chunks a ring buffer between two pipelined stages holds
+   * @param pipelined     if true {@link #process(InputStream, OutputStream)} runs a thread per
+   *                      stage
+   */
+  public ProductCipherImpl(int chunkSize, int queueCapacity, boolean pipelined) {
+    if (chunkSize <= 0 || queueCapacity <= 0) {
+      throw new IllegalArgumentException("Chunk size and queue capacity must be bigger than 0.");
+    }
+    this.chunkSize = chunkSize;
+    this.queueCapacity = queueCapacity;
+    this.pipelined = pipelined;
+  }
 
   @SafeVarargs
   @Override
@@ -22,20 +80,22 @@ public final class ProductCipherImpl implements ProductCipher {
       throw new IllegalArgumentException("Cipher-Key entries must not be empty");
     }
     //if previous ciphers exist, clear them.
-    if (!this.ciphers.isEmpty()) {
-      this.ciphers.clear();
-    }
+    this.ciphers.clear();
+    this.keys.clear();
 
     //Initialize new ciphers
     Cipher cipher = null;
     try {
       for (Entry<Cipher, Key> entry : entries) {
         cipher = entry.getKey();
-        int opmode = encryption ? Cipher.ENCRYPT_MODE : Cipher.DECRYPT_MODE;
-        cipher.init(opmode, entry.getValue());
+        cipher.init(opmode(encryption), entry.getValue());
         ciphers.add(cipher);
+        keys.add(entry.getValue());
       }
+      this.encryption = encryption;
     } catch (Exception e) {
+      this.ciphers.clear();
+      this.keys.clear();
       throw new IllegalArgumentException(
           "Failed to init cipher - " + cipher + " with exception msg : " + e.getMessage());
     }
@@ -51,50 +111,257 @@ public final class ProductCipherImpl implements ProductCipher {
     if (ArrayUtils.isEmpty(input)) {
       throw new IllegalArgumentException("Input array is empty.");
     }
-    int newBufferLength = inputBuffer == null ? input.length : inputBuffer.length + input.length;
-    byte[] newInputBuffer = new byte[newBufferLength];
-
-    if (inputBuffer != null) {
-      System.arraycopy(inputBuffer, 0, newInputBuffer, 0, inputBuffer.length);
-      System.arraycopy(input, 0, newInputBuffer, inputBuffer.length, input.length);
-    } else {
-      System.arraycopy(input, 0, newInputBuffer, 0, input.length);
+    checkInit();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    for (int off = 0; off < input.length; off += chunkSize) {
+      byte[] processed = pushChunk(input, off, Math.min(chunkSize, input.length - off));
+      output.write(processed, 0, processed.length);
     }
-    this.inputBuffer = newInputBuffer;
-    return this.inputBuffer;
+    return output.toByteArray();
   }
 
   @Override
   public byte[] doFinal() throws CipherException, IllegalStateException {
-    //Cipher output/input chaining
-    //Start from second cipher[0] to cipher[last], 0-th ciphers ciphertext i-th ciphers plaintext
-    //Last cipher doFinal method is called outside
-    byte[] ciphertext = inputBuffer;
-    for (Cipher cipher : ciphers) {
-      ciphertext = cipher.update(ciphertext);
-    }
-    this.reset();
-    return ciphertext;
+    checkInit();
+    return finish();
   }
 
   @Override
   public byte[] doFinal(byte[] input) throws CipherException, IllegalStateException {
-    this.update(input);
+    byte[] processed = this.update(input);
+    byte[] last = finish();
+    return processed.length == 0 ? last : ArrayUtils.addAll(processed, last);
+  }
 
-    //Cipher output/input chaining
-    //Start from second cipher[0] to cipher[last], 0-th ciphers ciphertext i-th ciphers plaintext
-    //Last cipher doFinal method is called outside
-    byte[] ciphertext = inputBuffer;
-    for (Cipher cipher : ciphers) {
-      ciphertext = cipher.update(ciphertext);
-    }
-    this.reset();
-    return ciphertext;
+  @Override
+  public long process(InputStream in, OutputStream out) throws CipherException, IOException {
+    checkInit();
+    return pipelined ? processPipelined(in, out) : processSequential(in, out);
   }
 
+  /**
+   * Re-initialise every stage with its key, bytes buffered inside stages are dropped.
+   */
   @Override
   public void reset() {
-    //reset input buffer
-    this.inputBuffer = null;
+    try {
+      for (int i = 0; i < ciphers.size(); i++) {
+        ciphers.get(i).init(opmode(encryption), keys.get(i));
+      }
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Failed to reset cipher : " + e.getMessage(), e);
+    }
+  }
+
+  private long processSequential(InputStream in, OutputStream out)
+      throws CipherException, IOException {
+    byte[] chunk = new byte[chunkSize];
+    long written = 0;
+    int read;
+    while ((read = in.readNBytes(chunk, 0, chunkSize)) > 0) {
+      byte[] processed = pushChunk(chunk, 0, read);
+      out.write(processed);
+      written += processed.length;
+    }
+    byte[] last = finish();
+    out.write(last);
+    return written + last.length;
+  }
+
+  /**
+   * Reader thread fills first ring buffer, stage i takes from ring i and puts into ring i+1, caller
+   * thread drains last ring into output. A failure anywhere stops every thread.
+   */
+  private long processPipelined(InputStream in, OutputStream out)
+      throws CipherException, IOException {
+    int stages = ciphers.size();
+    List<BlockingQueue<byte[]>> rings = new ArrayList<>(stages + 1);
+    for (int i = 0; i <= stages; i++) {
+      rings.add(new ArrayBlockingQueue<>(queueCapacity));
+    }
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>(stages + 1);
+    threads.add(newThread("product-cipher-reader", failure, () -> {
+      BlockingQueue<byte[]> first = rings.get(0);
+      byte[] chunk;
+      while ((chunk = in.readNBytes(chunkSize)).length > 0) {
+        put(first, chunk, failure);
+      }
+      put(first, END, failure);
+    }));
+    for (int i = 0; i < stages; i++) {
+      int stage = i;
+      BlockingQueue<byte[]> from = rings.get(i);
+      BlockingQueue<byte[]> to = rings.get(i + 1);
+      threads.add(newThread("product-cipher-stage-" + i, failure, () -> {
+        byte[] chunk;
+        while ((chunk = take(from, failure)) != END) {
+          byte[] processed = updateStage(stage, chunk, 0, chunk.length);
+          if (processed.length > 0) {
+            put(to, processed, failure);
+          }
+        }
+        byte[] last = finishStage(stage, EMPTY);
+        if (last.length > 0) {
+          put(to, last, failure);
+        }
+        put(to, END, failure);
+      }));
+    }
+    threads.forEach(Thread::start);
+
+    long written = 0;
+    try {
+      BlockingQueue<byte[]> last = rings.get(stages);
+      byte[] chunk;
+      while ((chunk = take(last, failure)) != END) {
+        out.write(chunk);
+        written += chunk.length;
+      }
+    } catch (PipelineAbort e) {
+      //failure is rethrown below
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure.compareAndSet(null, new InterruptedIOException("Product cipher interrupted."));
+    } catch (IOException | RuntimeException e) {
+      failure.compareAndSet(null, e);
+    }
+    joinAll(threads);
+    Throwable cause = failure.get();
+    if (cause != null) {
+      //stages stopped half way, restart them from their keys
+      reset();
+      throw rethrow(cause);
+    }
+    return written;
+  }
+
+  private byte[] pushChunk(byte[] input, int off, int len) {
+    byte[] data = updateStage(0, input, off, len);
+    for (int i = 1; i < ciphers.size() && data.length > 0; i++) {
+      data = updateStage(i, data, 0, data.length);
+    }
+    return data;
+  }
+
+  /**
+   * Finish stages in order, stages reset to their init state afterwards.
+   */
+  private byte[] finish() throws CipherException {
+    byte[] data = EMPTY;
+    try {
+      for (int i = 0; i < ciphers.size(); i++) {
+        data = finishStage(i, data);
+      }
+    } catch (GeneralSecurityException e) {
+      reset();
+      throw new CipherException("Product cipher stage failed : " + e.getMessage(), e);
+    }
+    return data;
   }
+
+  /**
+   * @return output of stage for input, nothing if stage holds input until doFinal
+   */
+  private byte[] updateStage(int stage, byte[] input, int off, int len) {
+    byte[] processed = ciphers.get(stage).update(input, off, len);
+    return processed == null ? EMPTY : processed;
+  }
+
+  /**
+   * @param input last input of stage
+   */
+  private byte[] finishStage(int stage, byte[] input) throws GeneralSecurityException {
+    Cipher cipher = ciphers.get(stage);
+    byte[] processed = input.length == 0 ? cipher.doFinal() : cipher.doFinal(input);
+    return processed == null ? EMPTY : processed;
+  }
+
+  private void checkInit() {
+    if (ciphers.isEmpty()) {
+      throw new IllegalStateException("Product cipher not initialised.");
+    }
+  }
+
+  private static int opmode(boolean encryption) {
+    return encryption ? Cipher.ENCRYPT_MODE : Cipher.DECRYPT_MODE;
+  }
+
+  private static Thread newThread(String name, AtomicReference<Throwable> failure,
+      PipelineTask task) {
+    Thread thread = new Thread(() -> {
+      try {
+        task.run();
+      } catch (PipelineAbort e) {
+        //another thread failed first
+      } catch (Throwable e) {
+        failure.compareAndSet(null, e);
+      }
+    }, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private static void put(BlockingQueue<byte[]> queue, byte[] chunk,
+      AtomicReference<Throwable> failure) throws InterruptedException {
+    while (!queue.offer(chunk, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+      if (failure.get() != null) {
+        throw new PipelineAbort();
+      }
+    }
+  }
+
+  private static byte[] take(BlockingQueue<byte[]> queue, AtomicReference<Throwable> failure)
+      throws InterruptedException {
+    byte[] chunk;
+    while ((chunk = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+      if (failure.get() != null) {
+        throw new PipelineAbort();
+      }
+    }
+    return chunk;
+  }
+
+  private static void joinAll(List<Thread> threads) throws InterruptedIOException {
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for product cipher stages.");
+      }
+    }
+  }
+
+  private static CipherException rethrow(Throwable cause) throws CipherException, IOException {
+    if (cause instanceof IOException) {
+      throw (IOException) cause;
+    } else if (cause instanceof GeneralSecurityException) {
+      throw new CipherException("Product cipher stage failed : " + cause.getMessage(), cause);
+    } else if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    } else if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    throw new CipherException("Product cipher stage failed : " + cause.getMessage(), cause);
+  }
+
+  @FunctionalInterface
+  private interface PipelineTask {
+
+    void run() throws Exception;
+
+  }
+
+  /**
+   * Unwinds a pipeline thread once another thread has failed.
+   */
+  private static final class PipelineAbort extends RuntimeException {
+
+    private PipelineAbort() {
+      super(null, null, false, false);
+    }
+
+  }
+
 }
@@ -2,12 +2,19 @@ package io.wonderland.alice.crypto;
 
 import io.wonderland.alice.exception.CipherException;
 import io.wonderland.alice.exception.RuntimeCipherException;
+import java.nio.ByteBuffer;
 
 /**
  * Stream ciphers implementations are expected conform to this interface.
  */
 public interface StreamCipher extends ICipher {
 
+  /**
+   * Size of intermediate array used by {@link #processBuffer(ByteBuffer, ByteBuffer)} when a buffer
+   * isn't backed by an accessible array.
+   */
+  int BUFFER_CHUNK_SIZE = 8192;
+
   /**
    * Initialise the cipher.
    *
@@ -42,6 +49,43 @@ public interface StreamCipher extends ICipher {
   int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
       throws RuntimeCipherException, IllegalStateException;
 
+  /**
+   * process all remaining bytes of in putting the result into out. Positions of both buffers are
+   * advanced by the number of bytes processed.
+   * <br>Default implementation works in place on the backing arrays of heap buffers. Direct or
+   * read-only buffers are processed through a bounded intermediate array, implementations are
+   * expected to override this method to work on them directly.
+   *
+   * @param in  the input buffer, bytes from position to limit are processed.
+   * @param out the output buffer the processed bytes go into, starting at its position.
+   * @return the number of bytes produced - should always be in.remaining().
+   * @throws IllegalArgumentException if out has less remaining space than in.
+   * @throws IllegalStateException    if the cipher isn't initialized.
+   */
+  default int processBuffer(ByteBuffer in, ByteBuffer out)
+      throws RuntimeCipherException, IllegalStateException {
+    int len = CipherUtils.checkBounds(in, out);
+    if (in.hasArray() && out.hasArray()) {
+      int inPos = in.position();
+      int outPos = out.position();
+      int processed = processBytes(in.array(), in.arrayOffset() + inPos, len, out.array(),
+          out.arrayOffset() + outPos);
+      in.position(inPos + len);
+      out.position(outPos + processed);
+      return processed;
+    }
+    byte[] chunk = new byte[Math.min(len, BUFFER_CHUNK_SIZE)];
+    int processed = 0;
+    while (in.hasRemaining()) {
+      int n = Math.min(chunk.length, in.remaining());
+      in.get(chunk, 0, n);
+      int produced = processBytes(chunk, 0, n, chunk, 0);
+      out.put(chunk, 0, produced);
+      processed += produced;
+    }
+    return processed;
+  }
+
   /**
    * reset the cipher. This leaves it in the same state it was at after the last init (if there was
    * one).
@@ -0,0 +1,69 @@
+package io.wonderland.alice.crypto;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Lookup tables for byte substitution ciphers.
+ * <br> Ciphers in alice process one byte at a time, so a substitution has exactly 256 possible
+ * inputs whatever alphabet size m is. A key can be compiled once into a 256 entry table indexed
+ * by unsigned byte value, after that encryption/decryption is a single array load per byte.
+ */
+public final class SubstitutionTables {
+
+  public static final int SIZE = 256;
+
+  private SubstitutionTables() {
+  }
+
+  /**
+   * Compile a substitution function into a table.
+   *
+   * @param function substitution, receives signed byte value and returns substituted value
+   * @return table where table[b &amp; 0xFF] = (byte) function(b)
+   */
+  public static byte[] compile(IntUnaryOperator function) {
+    byte[] table = new byte[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      table[i] = (byte) function.applyAsInt((byte) i);
+    }
+    return table;
+  }
+
+  /**
+   * Substitute len bytes from in into out. Bounds must have been checked by caller.
+   *
+   * @return number of bytes substituted
+   */
+  public static int substitute(byte[] table, byte[] in, int inOff, int len, byte[] out,
+      int outOff) {
+    for (int i = 0; i < len; i++) {
+      out[outOff + i] = table[in[inOff + i] & 0xFF];
+    }
+    return len;
+  }
+
+  /**
+   * Substitute all remaining bytes of in into out, both buffer positions are advanced. Direct
+   * buffers are read and written in place with absolute get/put.
+   *
+   * @return number of bytes substituted
+   */
+  public static int substitute(byte[] table, ByteBuffer in, ByteBuffer out) {
+    int len = CipherUtils.checkBounds(in, out);
+    int inPos = in.position();
+    int outPos = out.position();
+    if (in.hasArray() && out.hasArray()) {
+      substitute(table, in.array(), in.arrayOffset() + inPos, len, out.array(),
+          out.arrayOffset() + outPos);
+    } else {
+      for (int i = 0; i < len; i++) {
+        out.put(outPos + i, table[in.get(inPos + i) & 0xFF]);
+      }
+    }
+    in.position(inPos + len);
+    out.position(outPos + len);
+    return len;
+  }
+
+}
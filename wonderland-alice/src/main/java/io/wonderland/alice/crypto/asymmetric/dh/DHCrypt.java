@@ -1,6 +1,72 @@
 package io.wonderland.alice.crypto.asymmetric.dh;
 
-//todo: to implement diffie-hellman
+import java.math.BigInteger;
+
+/**
+ * Diffie-Hellman key agreement over group Z*p with generator g.
+ * <br>
+ * <br> Public key : y = g^x mod p
+ * <br> Shared secret : z = y'^x mod p, y' being public key of other party
+ * <br>
+ * <br> Group parameters are fixed per instance. Both operations raise to the private value x and
+ * are left to {@link BigInteger#modPow(BigInteger, BigInteger)}, fixed base tables of
+ * {@link io.wonderland.alice.math.Montgomery} skip digits of exponent and must not see x.
+ */
 public class DHCrypt {
 
+  private final BigInteger p;
+  private final BigInteger g;
+
+  /**
+   * @param p odd prime modulus
+   * @param g generator, 1 &lt; g &lt; p-1
+   */
+  public DHCrypt(BigInteger p, BigInteger g) {
+    if (p == null || g == null) {
+      throw new IllegalArgumentException("DH group parameters can't be null.");
+    }
+    if (g.compareTo(BigInteger.ONE) <= 0 || g.compareTo(p.subtract(BigInteger.ONE)) >= 0) {
+      throw new IllegalArgumentException("DH generator must be in range (1, p-1).");
+    }
+    this.p = p;
+    this.g = g;
+  }
+
+  public BigInteger getP() {
+    return p;
+  }
+
+  public BigInteger getG() {
+    return g;
+  }
+
+  /**
+   * @param x private value, 0 &lt; x &lt; p-1
+   * @return public value g^x mod p
+   */
+  public BigInteger generatePublic(BigInteger x) {
+    assertPrivate(x);
+    return g.modPow(x, p);
+  }
+
+  /**
+   * @param x private value of this party
+   * @param y public value of other party
+   * @return shared secret y^x mod p
+   */
+  public BigInteger agree(BigInteger x, BigInteger y) {
+    assertPrivate(x);
+    if (y == null || y.compareTo(BigInteger.ONE) <= 0
+        || y.compareTo(p.subtract(BigInteger.ONE)) >= 0) {
+      throw new IllegalArgumentException("DH public value must be in range (1, p-1).");
+    }
+    return y.modPow(x, p);
+  }
+
+  private void assertPrivate(BigInteger x) {
+    if (x == null || x.signum() <= 0 || x.compareTo(p.subtract(BigInteger.ONE)) >= 0) {
+      throw new IllegalArgumentException("DH private value must be in range (0, p-1).");
+    }
+  }
+
 }
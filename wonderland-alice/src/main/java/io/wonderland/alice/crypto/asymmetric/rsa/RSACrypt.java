@@ -8,11 +8,14 @@ import io.wonderland.alice.crypto.params.KeyParameter;
 import io.wonderland.alice.crypto.params.KeyWithIVParameter;
 import io.wonderland.alice.crypto.params.ParameterList;
 import io.wonderland.alice.exception.RuntimeCipherException;
+import io.wonderland.alice.math.Montgomery;
 import java.math.BigInteger;
 import java.security.Key;
+import java.security.interfaces.RSAMultiPrimePrivateCrtKey;
+import java.security.interfaces.RSAPrivateCrtKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
-import java.util.Arrays;
+import java.security.spec.RSAOtherPrimeInfo;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -20,59 +23,171 @@ public class RSACrypt implements AsymmetricCipher {
 
   private RSAPublicKey publicKey;
   private RSAPrivateKey privateKey;
+  private BigInteger[] crtPrimes;
+  private BigInteger[] crtExponents;
+  private BigInteger[] crtCoefficients;
+  private Montgomery montgomery;
+  private Montgomery[] crtMontgomery;
   private boolean encryption;
+  private final boolean montgomeryEngine;
 
+  /**
+   * Exponentiation with {@link BigInteger#modPow(BigInteger, BigInteger)}.
+   */
   public RSACrypt() {
+    this(false);
   }
 
-  public byte[] encrypt(byte[] in, int inOff, int inLen) throws RuntimeCipherException {
-    BigInteger exp = null;
-    BigInteger mod = null;
-    if (publicKey != null) {
-      exp = publicKey.getPublicExponent();
-      mod = publicKey.getModulus();
-    } else if (privateKey != null) {
-      exp = privateKey.getPrivateExponent();
-      mod = privateKey.getModulus();
-    }
-
-    byte[] message = new byte[inLen];
-    System.arraycopy(in, inOff, message, 0, inLen);
-
-    //rsa encrypt
-    BigInteger p = assertMessage(message, mod);
-    BigInteger c = p.modPow(exp, mod);
-
-    //refill plaintext arrays
-    Arrays.fill(message, (byte) 0);
-
-    return c.toByteArray();
+  /**
+   * @param montgomeryEngine true to exponentiate on {@link Montgomery} contexts built at init.
+   *                         BigInteger.modPow is faster on HotSpot, its Montgomery multiply being
+   *                         an intrinsic, and engine's sliding window is not constant-time.
+   */
+  public RSACrypt(boolean montgomeryEngine) {
+    this.montgomeryEngine = montgomeryEngine;
   }
 
+  /**
+   * @return ciphertext block, always {@link #getOutputBlockSize()} bytes long, left padded with
+   * zeros
+   */
+  public byte[] encrypt(byte[] in, int inOff, int inLen) throws RuntimeCipherException {
+    return toFixedLength(process(in, inOff, inLen), modulusBytes());
+  }
 
+  /**
+   * @return plaintext block without leading zero bytes
+   */
   public byte[] decrypt(byte[] in, int inOff, int inLen) throws RuntimeCipherException {
-    BigInteger exp = null;
-    BigInteger mod = null;
+    return toUnsigned(process(in, inOff, inLen));
+  }
+
+  /**
+   * Raise message to exponent of key. Public key operations use e, private key operations use the
+   * CRT components of key when available and fall back to d otherwise. Message is read straight
+   * from input array, exponentiation runs on Montgomery contexts if engine was chosen.
+   */
+  private BigInteger process(byte[] in, int inOff, int inLen) {
     if (publicKey != null) {
-      exp = publicKey.getPublicExponent();
-      mod = publicKey.getModulus();
+      BigInteger mod = publicKey.getModulus();
+      return modPow(montgomery, assertMessage(in, inOff, inLen, mod),
+          publicKey.getPublicExponent(), mod);
     } else if (privateKey != null) {
-      exp = privateKey.getPrivateExponent();
-      mod = privateKey.getModulus();
+      BigInteger mod = privateKey.getModulus();
+      BigInteger x = assertMessage(in, inOff, inLen, mod);
+      if (crtPrimes != null) {
+        return crt(x);
+      }
+      return modPow(montgomery, x, privateKey.getPrivateExponent(), mod);
+    } else {
+      throw new IllegalStateException(getAlgorithmName() + " cipher not initialised.");
+    }
+  }
+
+  /**
+   * Private key operation through Chinese Remainder Theorem (PKCS #1 RSADP/RSASP1).
+   * <br> m_i = x^d_i mod r_i, exponentiations are done with half (or smaller) size moduli and
+   * exponents. Results are recombined with Garner's formula, m = m_2 + r_2 * ((m_1 - m_2) * qInv
+   * mod r_1), extended prime by prime for multi-prime keys.
+   */
+  private BigInteger crt(BigInteger x) {
+    BigInteger m1 = modPow(crtMontgomery[0], x, crtExponents[0], crtPrimes[0]);
+    BigInteger m2 = modPow(crtMontgomery[1], x, crtExponents[1], crtPrimes[1]);
+    BigInteger h = m1.subtract(m2).multiply(crtCoefficients[1]).mod(crtPrimes[0]);
+    BigInteger m = m2.add(crtPrimes[1].multiply(h));
+    BigInteger r = crtPrimes[0].multiply(crtPrimes[1]);
+    for (int i = 2; i < crtPrimes.length; i++) {
+      BigInteger mi = modPow(crtMontgomery[i], x, crtExponents[i], crtPrimes[i]);
+      h = mi.subtract(m).multiply(crtCoefficients[i]).mod(crtPrimes[i]);
+      m = m.add(r.multiply(h));
+      r = r.multiply(crtPrimes[i]);
     }
-    byte[] message = new byte[inLen];
-    System.arraycopy(in, inOff, message, 0, inLen);
+    return m;
+  }
 
-    //rsa decrypt
-    BigInteger c = assertMessage(message, mod);
-    BigInteger p = c.modPow(exp, mod);
+  private static BigInteger modPow(Montgomery montgomery, BigInteger x, BigInteger exponent,
+      BigInteger modulus) {
+    return montgomery != null ? montgomery.modPow(x, exponent) : x.modPow(exponent, modulus);
+  }
 
-    //refill plaintext arrays
-    Arrays.fill(message, (byte) 0);
+  /**
+   * Montgomery form needs an odd modulus, RSA moduli and primes always are. Anything else, or any
+   * modulus when engine wasn't chosen, is left to {@link BigInteger#modPow(BigInteger, BigInteger)}.
+   */
+  private Montgomery montgomery(BigInteger modulus) {
+    if (!montgomeryEngine || modulus == null || !modulus.testBit(0) || modulus.bitLength() < 2) {
+      return null;
+    }
+    return new Montgomery(modulus);
+  }
 
-    return p.toByteArray();
+  private void initKey(Key key) {
+    if (key instanceof RSAPrivateKey) {
+      this.privateKey = (RSAPrivateKey) key;
+      this.publicKey = null;
+      initCrt(privateKey);
+      this.montgomery = crtPrimes == null ? montgomery(privateKey.getModulus()) : null;
+    } else if (key instanceof RSAPublicKey) {
+      this.publicKey = (RSAPublicKey) key;
+      this.privateKey = null;
+      initCrt(null);
+      this.montgomery = montgomery(publicKey.getModulus());
+    } else {
+      throw new IllegalArgumentException(invalidKeyTypeParamMessage());
+    }
   }
 
+  /**
+   * Collect primes r_i, exponents d_i and coefficients of key. coefficients[1] is qInv and
+   * coefficients[i] for i &gt; 1 is the CRT coefficient of other prime r_i, coefficients[0] is
+   * unused. Keys missing any component are processed with d.
+   */
+  private void initCrt(RSAPrivateKey key) {
+    this.crtPrimes = null;
+    this.crtExponents = null;
+    this.crtCoefficients = null;
+    this.crtMontgomery = null;
+    BigInteger[] primes;
+    BigInteger[] exponents;
+    BigInteger[] coefficients;
+    if (key instanceof RSAMultiPrimePrivateCrtKey) {
+      RSAMultiPrimePrivateCrtKey crtKey = (RSAMultiPrimePrivateCrtKey) key;
+      RSAOtherPrimeInfo[] others = crtKey.getOtherPrimeInfo();
+      int count = 2 + (others == null ? 0 : others.length);
+      primes = new BigInteger[count];
+      exponents = new BigInteger[count];
+      coefficients = new BigInteger[count];
+      primes[0] = crtKey.getPrimeP();
+      primes[1] = crtKey.getPrimeQ();
+      exponents[0] = crtKey.getPrimeExponentP();
+      exponents[1] = crtKey.getPrimeExponentQ();
+      coefficients[1] = crtKey.getCrtCoefficient();
+      for (int i = 2; i < count; i++) {
+        primes[i] = others[i - 2].getPrime();
+        exponents[i] = others[i - 2].getExponent();
+        coefficients[i] = others[i - 2].getCrtCoefficient();
+      }
+    } else if (key instanceof RSAPrivateCrtKey) {
+      RSAPrivateCrtKey crtKey = (RSAPrivateCrtKey) key;
+      primes = new BigInteger[]{crtKey.getPrimeP(), crtKey.getPrimeQ()};
+      exponents = new BigInteger[]{crtKey.getPrimeExponentP(), crtKey.getPrimeExponentQ()};
+      coefficients = new BigInteger[]{null, crtKey.getCrtCoefficient()};
+    } else {
+      return;
+    }
+    for (int i = 0; i < primes.length; i++) {
+      if (primes[i] == null || exponents[i] == null || (i > 0 && coefficients[i] == null)) {
+        return;
+      }
+    }
+    this.crtPrimes = primes;
+    this.crtExponents = exponents;
+    this.crtCoefficients = coefficients;
+    this.crtMontgomery = new Montgomery[primes.length];
+    for (int i = 0; i < primes.length; i++) {
+      crtMontgomery[i] = montgomery(primes[i]);
+    }
+  }
 
   @Override
   public void init(boolean encryption, CipherParameter params) throws IllegalArgumentException {
@@ -81,24 +196,12 @@ public class RSACrypt implements AsymmetricCipher {
       for (CipherParameter param : parameterList) {
         if (param instanceof KeyParameter) {
           Key key = ((KeyParameter<?>) param).getKey();
-          if (key instanceof RSAPrivateKey) {
-            this.privateKey = (RSAPrivateKey) key;
-          } else if (key instanceof RSAPublicKey) {
-            this.publicKey = (RSAPublicKey) key;
-          } else {
-            throw new IllegalArgumentException(invalidKeyTypeParamMessage());
-          }
+          initKey(key);
           this.encryption = encryption;
           return;
         } else if (param instanceof KeyWithIVParameter) {
           Key key = ((KeyWithIVParameter<?>) param).getKey();
-          if (key instanceof RSAPrivateKey) {
-            this.privateKey = (RSAPrivateKey) key;
-          } else if (key instanceof RSAPublicKey) {
-            this.publicKey = (RSAPublicKey) key;
-          } else {
-            throw new IllegalArgumentException(invalidKeyTypeParamMessage());
-          }
+          initKey(key);
           this.encryption = encryption;
           log.warn(String.format(DISREGARDED_IV, getAlgorithmName()));
           return;
@@ -108,24 +211,12 @@ public class RSACrypt implements AsymmetricCipher {
       }
     } else if (params instanceof KeyWithIVParameter) {
       Key key = ((KeyWithIVParameter<?>) params).getKey();
-      if (key instanceof RSAPrivateKey) {
-        this.privateKey = (RSAPrivateKey) key;
-      } else if (key instanceof RSAPublicKey) {
-        this.publicKey = (RSAPublicKey) key;
-      } else {
-        throw new IllegalArgumentException(invalidKeyTypeParamMessage());
-      }
+      initKey(key);
       this.encryption = encryption;
       log.warn(String.format(DISREGARDED_IV, getAlgorithmName()));
     } else if (params instanceof KeyParameter) {
       Key key = ((KeyParameter<?>) params).getKey();
-      if (key instanceof RSAPrivateKey) {
-        this.privateKey = (RSAPrivateKey) key;
-      } else if (key instanceof RSAPublicKey) {
-        this.publicKey = (RSAPublicKey) key;
-      } else {
-        throw new IllegalArgumentException(invalidKeyTypeParamMessage());
-      }
+      initKey(key);
       this.encryption = encryption;
     } else {
       throw new IllegalArgumentException(invalidParamMessage());
@@ -134,12 +225,12 @@ public class RSACrypt implements AsymmetricCipher {
 
   @Override
   public int getInputBlockSize() {
-    return getBlockSize();
+    return getBlockSize(true);
   }
 
   @Override
   public int getOutputBlockSize() {
-    return getBlockSize();
+    return getBlockSize(false);
   }
 
 
@@ -170,24 +261,57 @@ public class RSACrypt implements AsymmetricCipher {
   public void reset() {
   }
 
-  private BigInteger assertMessage(byte[] message, BigInteger modulus) {
-    BigInteger x = new BigInteger(1, message);
+  private BigInteger assertMessage(byte[] in, int inOff, int inLen, BigInteger modulus) {
+    BigInteger x = new BigInteger(1, in, inOff, inLen);
     if (x.compareTo(modulus) >= 0) {
       throw new RuntimeCipherException("Message bigger than modulus, information will be lost.");
     }
     return x;
   }
 
-  //todo: to check docs and re impl
-  private int getBlockSize() {
+  /**
+   * Big-endian magnitude of x in exactly len bytes (PKCS #1 I2OSP).
+   */
+  private static byte[] toFixedLength(BigInteger x, int len) {
+    byte[] bytes = x.toByteArray();
+    if (bytes.length == len) {
+      return bytes;
+    }
+    byte[] out = new byte[len];
+    int copy = Math.min(bytes.length, len);
+    System.arraycopy(bytes, bytes.length - copy, out, len - copy, copy);
+    return out;
+  }
+
+  /**
+   * Big-endian magnitude of x without sign byte.
+   */
+  private static byte[] toUnsigned(BigInteger x) {
+    byte[] bytes = x.toByteArray();
+    if (bytes.length > 1 && bytes[0] == 0) {
+      byte[] out = new byte[bytes.length - 1];
+      System.arraycopy(bytes, 1, out, 0, out.length);
+      return out;
+    }
+    return bytes;
+  }
+
+  /**
+   * Input block of encryption is one byte shorter than modulus so that any block is smaller than
+   * modulus, ciphertext blocks are full modulus length. Decryption is the other way round.
+   */
+  private int getBlockSize(boolean input) {
+    int len = modulusBytes();
+    return input == encryption ? len - 1 : len;
+  }
+
+  private int modulusBytes() {
     if (privateKey != null) {
-      int len = privateKey.getModulus().bitLength();
-      return len;
+      return (privateKey.getModulus().bitLength() + 7) / 8;
     } else if (publicKey != null) {
-      int len = publicKey.getModulus().bitLength();
-      return len;
+      return (publicKey.getModulus().bitLength() + 7) / 8;
     } else {
-      return 0;
+      throw new IllegalStateException("Can't determine block size because cipher keys are null.");
     }
   }
 
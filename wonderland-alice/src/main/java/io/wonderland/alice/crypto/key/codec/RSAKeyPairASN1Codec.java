@@ -1,9 +1,14 @@
 package io.wonderland.alice.crypto.key.codec;
 
+import com.beanit.asn1bean.ber.BerLength;
+import com.beanit.asn1bean.ber.BerTag;
 import com.beanit.asn1bean.ber.ReverseByteArrayOutputStream;
+import com.beanit.asn1bean.ber.types.BerAny;
 import com.beanit.asn1bean.ber.types.BerInteger;
+import io.wonderland.alice.asn1.rsa.OtherPrimeInfos;
 import io.wonderland.alice.asn1.rsa.RSAPrivateKeyASN1;
 import io.wonderland.alice.asn1.rsa.RSAPublicKeyASN1;
+import io.wonderland.alice.asn1.rsa.Version;
 import io.wonderland.alice.codec.KeyPairCodec;
 import io.wonderland.alice.codec.PrivateKeyCodec;
 import io.wonderland.alice.codec.PublicKeyCodec;
@@ -11,6 +16,9 @@ import io.wonderland.alice.crypto.key.keypair.AliceRSAPrivateKey;
 import io.wonderland.alice.crypto.key.keypair.AliceRSAPublicKey;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.security.spec.RSAOtherPrimeInfo;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
@@ -19,6 +27,9 @@ import org.apache.commons.lang3.ArrayUtils;
 public final class RSAKeyPairASN1Codec implements
     KeyPairCodec<AliceRSAPublicKey, AliceRSAPrivateKey> {
 
+  private static final int MULTI_PRIME_VERSION = 1;
+  private static final BerTag SEQUENCE_TAG = new BerTag(BerTag.UNIVERSAL_CLASS,
+      BerTag.CONSTRUCTED, 16);
   private static RSAKeyPairASN1Codec instance;
 
   private RSAKeyPairASN1Codec() {
@@ -97,6 +108,11 @@ public final class RSAKeyPairASN1Codec implements
         keyASN1.setPrimeExponentQ(new BerInteger(key.getPrimeExponentQ()));
         keyASN1.setCoefficient(new BerInteger(key.getCrtCoefficient()));
         try {
+          RSAOtherPrimeInfo[] otherPrimeInfo = key.getOtherPrimeInfo();
+          if (otherPrimeInfo != null) {
+            keyASN1.setVersion(new Version(MULTI_PRIME_VERSION));
+            keyASN1.setOtherPrimeInfos(encodeOtherPrimeInfos(otherPrimeInfo));
+          }
           keyASN1.encode(os, true);
           return os.getArray();
         } catch (IOException e) {
@@ -117,13 +133,54 @@ public final class RSAKeyPairASN1Codec implements
               keyASN1.getPrimeQ().value,
               keyASN1.getPublicExponent().value, keyASN1.getPrivateExponent().value,
               keyASN1.getPrimeExponentP().value
-              , keyASN1.getPrimeExponentQ().value, keyASN1.getCoefficient().value);
+              , keyASN1.getPrimeExponentQ().value, keyASN1.getCoefficient().value,
+              decodeOtherPrimeInfos(keyASN1.getOtherPrimeInfos()));
         } catch (IOException e) {
           log.error("", e);
           return null;
         }
       };
     }
+
+    /**
+     * OtherPrimeInfos ::= SEQUENCE OF OtherPrimeInfo, each OtherPrimeInfo ::= SEQUENCE {prime,
+     * exponent, coefficient}. Elements are written in reverse since output stream is reversed.
+     */
+    private static OtherPrimeInfos encodeOtherPrimeInfos(RSAOtherPrimeInfo[] otherPrimeInfo)
+        throws IOException {
+      ReverseByteArrayOutputStream os = new ReverseByteArrayOutputStream(100, true);
+      for (int i = otherPrimeInfo.length - 1; i >= 0; i--) {
+        int length = new BerInteger(otherPrimeInfo[i].getCrtCoefficient()).encode(os, true);
+        length += new BerInteger(otherPrimeInfo[i].getExponent()).encode(os, true);
+        length += new BerInteger(otherPrimeInfo[i].getPrime()).encode(os, true);
+        length += BerLength.encodeLength(os, length);
+        SEQUENCE_TAG.encode(os);
+      }
+      OtherPrimeInfos otherPrimeInfos = new OtherPrimeInfos();
+      otherPrimeInfos.setParameters(new BerAny(os.getArray()));
+      return otherPrimeInfos;
+    }
+
+    private static RSAOtherPrimeInfo[] decodeOtherPrimeInfos(OtherPrimeInfos otherPrimeInfos)
+        throws IOException {
+      if (otherPrimeInfos == null || otherPrimeInfos.getParameters() == null) {
+        return null;
+      }
+      ByteArrayInputStream is = new ByteArrayInputStream(otherPrimeInfos.getParameters().value);
+      List<RSAOtherPrimeInfo> infos = new ArrayList<>();
+      while (is.available() > 0) {
+        SEQUENCE_TAG.decodeAndCheck(is);
+        new BerLength().decode(is);
+        BerInteger prime = new BerInteger();
+        prime.decode(is, true);
+        BerInteger exponent = new BerInteger();
+        exponent.decode(is, true);
+        BerInteger coefficient = new BerInteger();
+        coefficient.decode(is, true);
+        infos.add(new RSAOtherPrimeInfo(prime.value, exponent.value, coefficient.value));
+      }
+      return infos.toArray(new RSAOtherPrimeInfo[0]);
+    }
   }
 
 }
@@ -6,11 +6,13 @@ import io.wonderland.alice.crypto.asymmetric.rsa.RSAUtils;
 import io.wonderland.alice.crypto.key.codec.RSAKeyPairASN1Codec;
 import io.wonderland.alice.exception.KeyException;
 import java.math.BigInteger;
+import java.security.interfaces.RSAMultiPrimePrivateCrtKey;
 import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.spec.RSAOtherPrimeInfo;
 import java.util.function.Function;
 
 
-public class AliceRSAPrivateKey implements RSAPrivateCrtKey {
+public class AliceRSAPrivateKey implements RSAPrivateCrtKey, RSAMultiPrimePrivateCrtKey {
 
   private static final Function<AliceRSAPrivateKey, byte[]> PK_ENCODER = RSAKeyPairASN1Codec.getInstance()
       .privateKeyCodec().encoder();
@@ -23,9 +25,21 @@ public class AliceRSAPrivateKey implements RSAPrivateCrtKey {
   private final BigInteger dp;
   private final BigInteger dq;
   private final BigInteger qInv;
+  private final RSAOtherPrimeInfo[] otherPrimeInfo;
 
   public AliceRSAPrivateKey(BigInteger n, BigInteger p, BigInteger q, BigInteger e, BigInteger d,
       BigInteger dp, BigInteger dq, BigInteger qInv) {
+    this(n, p, q, e, d, dp, dq, qInv, null);
+  }
+
+  /**
+   * Multi-prime key, n = p * q * r_3 * ... * r_u.
+   *
+   * @param otherPrimeInfo primes r_3..r_u with their exponents and CRT coefficients, null or
+   *                       empty for a two-prime key.
+   */
+  public AliceRSAPrivateKey(BigInteger n, BigInteger p, BigInteger q, BigInteger e, BigInteger d,
+      BigInteger dp, BigInteger dq, BigInteger qInv, RSAOtherPrimeInfo[] otherPrimeInfo) {
     this.n = n;
     this.p = p;
     this.q = q;
@@ -34,6 +48,8 @@ public class AliceRSAPrivateKey implements RSAPrivateCrtKey {
     this.dp = dp;
     this.dq = dq;
     this.qInv = qInv;
+    this.otherPrimeInfo =
+        otherPrimeInfo == null || otherPrimeInfo.length == 0 ? null : otherPrimeInfo.clone();
   }
 
   public AliceRSAPrivateKey(long p, long q) {
@@ -49,6 +65,7 @@ public class AliceRSAPrivateKey implements RSAPrivateCrtKey {
     this.dp = this.d.mod(this.p.subtract(BigInteger.ONE));
     this.dq = this.d.mod(this.q.subtract(BigInteger.ONE));
     this.qInv = RSAUtils.qInv(this.p, this.q);
+    this.otherPrimeInfo = null;
   }
 
   public AliceRSAPrivateKey(BigInteger p, BigInteger q) {
@@ -64,6 +81,7 @@ public class AliceRSAPrivateKey implements RSAPrivateCrtKey {
     this.dp = this.d.mod(this.p.subtract(BigInteger.ONE));
     this.dq = this.d.mod(this.q.subtract(BigInteger.ONE));
     this.qInv = RSAUtils.qInv(this.p, this.q);
+    this.otherPrimeInfo = null;
   }
 
   public AliceRSAPrivateKey(long p, long q, long e) {
@@ -79,6 +97,7 @@ public class AliceRSAPrivateKey implements RSAPrivateCrtKey {
     this.dp = this.d.mod(this.p.subtract(BigInteger.ONE));
     this.dq = this.d.mod(this.q.subtract(BigInteger.ONE));
     this.qInv = RSAUtils.qInv(this.p, this.q);
+    this.otherPrimeInfo = null;
   }
 
   public AliceRSAPrivateKey(BigInteger p, BigInteger q, BigInteger e) {
@@ -94,6 +113,7 @@ public class AliceRSAPrivateKey implements RSAPrivateCrtKey {
     this.dp = this.d.mod(this.p.subtract(BigInteger.ONE));
     this.dq = this.d.mod(this.q.subtract(BigInteger.ONE));
     this.qInv = RSAUtils.qInv(this.p, this.q);
+    this.otherPrimeInfo = null;
   }
 
   @Override
@@ -141,6 +161,14 @@ public class AliceRSAPrivateKey implements RSAPrivateCrtKey {
     return qInv;
   }
 
+  /**
+   * @return other primes of a multi-prime key, null for a two-prime key
+   */
+  @Override
+  public RSAOtherPrimeInfo[] getOtherPrimeInfo() {
+    return otherPrimeInfo == null ? null : otherPrimeInfo.clone();
+  }
+
   @Override
   public BigInteger getPrivateExponent() {
     return d;
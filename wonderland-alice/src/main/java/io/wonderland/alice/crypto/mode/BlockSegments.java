@@ -0,0 +1,56 @@
+package io.wonderland.alice.crypto.mode;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Splits a run of blocks into contiguous segments processed concurrently on common fork/join
+ * pool. Runs shorter than two segments of {@link #MIN_SEGMENT_BYTES} are processed on caller
+ * thread, handing them to other cores costs more than it saves.
+ */
+final class BlockSegments {
+
+  static final int MIN_SEGMENT_BYTES = 16 * 1024;
+
+  private BlockSegments() {
+  }
+
+  /**
+   * @return number of segments blocks are split into, 1 means no parallelism
+   */
+  static int count(int blocks, int blockSize) {
+    long bytes = (long) blocks * blockSize;
+    int bySize = (int) Math.min(Integer.MAX_VALUE, bytes / MIN_SEGMENT_BYTES);
+    int cores = ForkJoinPool.getCommonPoolParallelism();
+    return Math.max(1, Math.min(Math.min(bySize, cores), blocks));
+  }
+
+  /**
+   * Run task on every segment, segment s covers blocks [first, first + count).
+   */
+  static void forEach(int blocks, int segments, SegmentTask task) {
+    if (segments <= 1) {
+      task.process(0, 0, blocks);
+      return;
+    }
+    IntStream.range(0, segments).parallel().forEach(s -> {
+      int first = first(blocks, segments, s);
+      task.process(s, first, first(blocks, segments, s + 1) - first);
+    });
+  }
+
+  /**
+   * First block index of segment s, segments differ in size by one block at most.
+   */
+  static int first(int blocks, int segments, int s) {
+    return s * (blocks / segments) + Math.min(s, blocks % segments);
+  }
+
+  @FunctionalInterface
+  interface SegmentTask {
+
+    void process(int segment, int first, int count);
+
+  }
+
+}
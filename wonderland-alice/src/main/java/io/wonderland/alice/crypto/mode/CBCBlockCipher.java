@@ -1,48 +1,121 @@
 package io.wonderland.alice.crypto.mode;
 
 import io.wonderland.alice.crypto.BlockCipher;
-import io.wonderland.alice.crypto.CipherParameter;
+import io.wonderland.alice.crypto.CipherUtils;
+import io.wonderland.alice.exception.ExceptionMessages;
 import io.wonderland.alice.exception.RuntimeCipherException;
-import lombok.RequiredArgsConstructor;
+import java.util.Arrays;
 
-//todo: to implement
-@RequiredArgsConstructor
-public class CBCBlockCipher implements BlockCipher {
+/**
+ * Cipher block chaining.
+ * <br>
+ * <br> Encryption : C_i = E(P_i ^ C_i-1), C_0 = IV
+ * <br> Decryption : P_i = D(C_i) ^ C_i-1
+ * <br>
+ * <br> Encryption is sequential by definition. Every plaintext block depends only on two
+ * ciphertext blocks, so decryption of a long run is split into segments decrypted concurrently.
+ */
+public class CBCBlockCipher extends IVBlockCipher {
 
+  private byte[] chain;
 
-  private final BlockCipher blockCipher;
-
+  public CBCBlockCipher(BlockCipher blockCipher) {
+    super(blockCipher);
+  }
 
   @Override
-  public void init(boolean encryption, CipherParameter param) throws IllegalArgumentException {
-
+  protected boolean cipherEncryption(boolean encryption) {
+    return encryption;
   }
 
   @Override
-  public String getAlgorithmName() {
-    return null;
+  protected void resetChain() {
+    this.chain = iv.clone();
   }
 
   @Override
-  public int getBlockSize() {
-    return 0;
+  protected String getModeName() {
+    return BlockMode.CBC.getValue();
   }
 
   @Override
-  public int processBlock(byte[] in, int inOff, byte[] out, int outOff)
+  public int processBlocks(byte[] in, int inOff, int blocks, byte[] out, int outOff)
       throws RuntimeCipherException, IllegalStateException {
-    return 0;
+    checkInit();
+    int blockSize = getBlockSize();
+    int len = blocks * blockSize;
+    CipherUtils.checkBounds(in, inOff, len, out, outOff,
+        encryption ? ExceptionMessages.PLAINTEXT_NOT_VALID
+            : ExceptionMessages.CIPHERTEXT_NOT_VALID);
+    if (blocks <= 0) {
+      return 0;
+    }
+    if (encryption) {
+      encrypt(in, inOff, blocks, blockSize, out, outOff);
+    } else {
+      decrypt(in, inOff, blocks, blockSize, out, outOff);
+    }
+    return len;
   }
 
+  private void encrypt(byte[] in, int inOff, int blocks, int blockSize, byte[] out, int outOff) {
+    byte[] block = new byte[blockSize];
+    for (int i = 0; i < blocks; i++) {
+      int offset = i * blockSize;
+      xor(in, inOff + offset, chain, 0, block, 0, blockSize);
+      cipher.processBlock(block, 0, out, outOff + offset);
+      System.arraycopy(out, outOff + offset, chain, 0, blockSize);
+    }
+    Arrays.fill(block, (byte) 0);
+  }
 
-  @Override
-  public int getOutputSize(int inputLen) {
-    return 0;
+  private void decrypt(byte[] in, int inOff, int blocks, int blockSize, byte[] out, int outOff) {
+    if (in == out && inOff != outOff) {
+      //shifted in place, segments would read blocks other segments already wrote
+      in = Arrays.copyOfRange(in, inOff, inOff + blocks * blockSize);
+      inOff = 0;
+    }
+    int segments = BlockSegments.count(blocks, blockSize);
+    //ciphertext block preceding every segment, taken before anything is written
+    byte[][] previous = new byte[segments][];
+    previous[0] = chain.clone();
+    for (int s = 1; s < segments; s++) {
+      int offset = inOff + (BlockSegments.first(blocks, segments, s) - 1) * blockSize;
+      previous[s] = Arrays.copyOfRange(in, offset, offset + blockSize);
+    }
+    int lastOffset = inOff + (blocks - 1) * blockSize;
+    byte[] nextChain = Arrays.copyOfRange(in, lastOffset, lastOffset + blockSize);
+
+    byte[] input = in;
+    int inputOff = inOff;
+    BlockSegments.forEach(blocks, segments, (segment, first, count) -> {
+      byte[] prev = previous[segment];
+      byte[] current = new byte[blockSize];
+      byte[] plain = new byte[blockSize];
+      for (int i = first; i < first + count; i++) {
+        int offset = i * blockSize;
+        System.arraycopy(input, inputOff + offset, current, 0, blockSize);
+        cipher.processBlock(current, 0, plain, 0);
+        xor(plain, 0, prev, 0, out, outOff + offset, blockSize);
+        byte[] swap = prev;
+        prev = current;
+        current = swap;
+      }
+      Arrays.fill(plain, (byte) 0);
+    });
+    this.chain = nextChain;
   }
 
+  /**
+   * Chain is a whole block, encryption output is rounded up to whole blocks.
+   */
   @Override
-  public void reset() {
-
+  public int getOutputSize(int inputLen) {
+    int blockSize = getBlockSize();
+    if (!encryption || blockSize == 0) {
+      return inputLen;
+    }
+    return (inputLen + blockSize - 1) / blockSize * blockSize;
   }
 
 }
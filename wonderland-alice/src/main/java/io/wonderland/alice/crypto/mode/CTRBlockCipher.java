@@ -1,47 +1,156 @@
 package io.wonderland.alice.crypto.mode;
 
 import io.wonderland.alice.crypto.BlockCipher;
-import io.wonderland.alice.crypto.CipherParameter;
+import io.wonderland.alice.crypto.CipherUtils;
+import io.wonderland.alice.crypto.StreamCipher;
+import io.wonderland.alice.exception.ExceptionMessages;
 import io.wonderland.alice.exception.RuntimeCipherException;
-import lombok.RequiredArgsConstructor;
+import java.util.Arrays;
 
-//todo: implement
-@RequiredArgsConstructor
-public class CTRBlockCipher implements BlockCipher {
+/**
+ * Counter mode.
+ * <br>
+ * <br> Keystream block i is E(IV + i), IV being read as a big-endian counter of one block that
+ * wraps around. Encryption and decryption are the same XOR with keystream, underlying cipher is
+ * always used in encryption direction.
+ * <br>
+ * <br> Counter blocks are independent, keystream of a long run is generated by segments on several
+ * cores. Mode is a stream cipher too, a partial last block consumes only part of a keystream
+ * block and the rest is kept for next call.
+ */
+public class CTRBlockCipher extends IVBlockCipher implements StreamCipher {
 
-  private final BlockCipher cipher;
+  private long counter;
+  private byte[] keystream;
+  private int keystreamPos;
+
+  public CTRBlockCipher(BlockCipher cipher) {
+    super(cipher);
+  }
 
   @Override
-  public void init(boolean encryption, CipherParameter param) throws IllegalArgumentException {
+  protected boolean cipherEncryption(boolean encryption) {
+    return true;
+  }
 
+  @Override
+  protected void resetChain() {
+    this.counter = 0;
+    this.keystream = new byte[iv.length];
+    this.keystreamPos = iv.length;
   }
 
   @Override
-  public String getAlgorithmName() {
-    return null;
+  protected String getModeName() {
+    return BlockMode.CTR.getValue();
   }
 
   @Override
-  public int getBlockSize() {
-    return 0;
+  public byte processByte(byte in) throws RuntimeCipherException, IllegalStateException {
+    checkInit();
+    if (keystreamPos == keystream.length) {
+      nextKeystream();
+    }
+    return (byte) (in ^ keystream[keystreamPos++]);
   }
 
   @Override
-  public int processBlock(byte[] in, int inOff, byte[] out, int outOff)
+  public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
       throws RuntimeCipherException, IllegalStateException {
-    return 0;
+    checkInit();
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, ExceptionMessages.PLAINTEXT_NOT_VALID);
+    int blockSize = getBlockSize();
+    int n = 0;
+    //rest of keystream block left by previous call
+    while (n < len && keystreamPos < blockSize) {
+      out[outOff + n] = (byte) (in[inOff + n] ^ keystream[keystreamPos++]);
+      n++;
+    }
+    int blocks = (len - n) / blockSize;
+    if (blocks > 0) {
+      xorKeystream(in, inOff + n, blocks, blockSize, out, outOff + n);
+      n += blocks * blockSize;
+    }
+    if (n < len) {
+      nextKeystream();
+      while (n < len) {
+        out[outOff + n] = (byte) (in[inOff + n] ^ keystream[keystreamPos++]);
+        n++;
+      }
+    }
+    return len;
   }
 
-
   @Override
-  public int getOutputSize(int inputLen) {
-    return 0;
+  public int processBlocks(byte[] in, int inOff, int blocks, byte[] out, int outOff)
+      throws RuntimeCipherException, IllegalStateException {
+    return processBytes(in, inOff, blocks * getBlockSize(), out, outOff);
   }
 
-  @Override
-  public void reset() {
+  private void xorKeystream(byte[] in, int inOff, int blocks, int blockSize, byte[] out,
+      int outOff) {
+    if (in == out && inOff != outOff) {
+      //shifted in place, segments would read bytes other segments already wrote
+      in = Arrays.copyOfRange(in, inOff, inOff + blocks * blockSize);
+      inOff = 0;
+    }
+    long base = counter;
+    byte[] input = in;
+    int inputOff = inOff;
+    BlockSegments.forEach(blocks, BlockSegments.count(blocks, blockSize),
+        (segment, first, count) -> {
+          byte[] counterBlock = counterBlock(base + first);
+          byte[] stream = new byte[blockSize];
+          for (int i = first; i < first + count; i++) {
+            int offset = i * blockSize;
+            cipher.processBlock(counterBlock, 0, stream, 0);
+            xor(input, inputOff + offset, stream, 0, out, outOff + offset, blockSize);
+            increment(counterBlock);
+          }
+          Arrays.fill(stream, (byte) 0);
+        });
+    counter += blocks;
+  }
+
+  private void nextKeystream() {
+    cipher.processBlock(counterBlock(counter++), 0, keystream, 0);
+    keystreamPos = 0;
+  }
+
+  /**
+   * @return IV + index as big-endian number of one block
+   */
+  private byte[] counterBlock(long index) {
+    byte[] block = iv.clone();
+    int carry = 0;
+    for (int i = block.length - 1; i >= 0 && (index != 0 || carry != 0); i--) {
+      int sum = (block[i] & 0xFF) + (int) (index & 0xFF) + carry;
+      block[i] = (byte) sum;
+      carry = sum >>> 8;
+      index >>>= 8;
+    }
+    return block;
+  }
 
+  private static void increment(byte[] counterBlock) {
+    for (int i = counterBlock.length - 1; i >= 0; i--) {
+      if (++counterBlock[i] != 0) {
+        return;
+      }
+    }
   }
 
+  /**
+   * Keystream mode needs no padding, output is as long as input. When encrypting a caller may
+   * still pad last block, size is rounded up to whole blocks then.
+   */
+  @Override
+  public int getOutputSize(int inputLen) {
+    int blockSize = getBlockSize();
+    if (!encryption || blockSize == 0) {
+      return inputLen;
+    }
+    return (inputLen + blockSize - 1) / blockSize * blockSize;
+  }
 
 }
@@ -2,11 +2,16 @@ package io.wonderland.alice.crypto.mode;
 
 import io.wonderland.alice.crypto.BlockCipher;
 import io.wonderland.alice.crypto.CipherParameter;
+import io.wonderland.alice.crypto.CipherUtils;
+import io.wonderland.alice.exception.ExceptionMessages;
 import io.wonderland.alice.exception.RuntimeCipherException;
+import java.util.Arrays;
 import lombok.RequiredArgsConstructor;
 
-//todo: implement
-
+/**
+ * Electronic codebook, every block is processed on its own. Blocks are independent, long runs are
+ * split into segments processed concurrently.
+ */
 @RequiredArgsConstructor
 public final class ECBBlockCipher implements BlockCipher {
 
@@ -15,7 +20,7 @@ public final class ECBBlockCipher implements BlockCipher {
 
   @Override
   public void init(boolean encryption, CipherParameter params) throws IllegalArgumentException {
-
+    blockCipher.init(encryption, params);
   }
 
   @Override
@@ -23,20 +28,66 @@ public final class ECBBlockCipher implements BlockCipher {
     return this.blockCipher.getAlgorithmName() + "/ECB";
   }
 
+  @Override
+  public String[] getKeyTypeNames() {
+    return blockCipher.getKeyTypeNames();
+  }
+
   @Override
   public int getBlockSize() {
     return blockCipher.getBlockSize();
   }
 
+  public BlockCipher getUnderlyingCipher() {
+    return blockCipher;
+  }
+
   @Override
   public int processBlock(byte[] in, int inOff, byte[] out, int outOff)
       throws RuntimeCipherException, IllegalStateException {
-    return 0;
+    return processBlocks(in, inOff, 1, out, outOff);
+  }
+
+  @Override
+  public int processBlocks(byte[] in, int inOff, int blocks, byte[] out, int outOff)
+      throws RuntimeCipherException, IllegalStateException {
+    int blockSize = getBlockSize();
+    int len = blocks * blockSize;
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, ExceptionMessages.PLAINTEXT_NOT_VALID);
+    if (blocks <= 0) {
+      return 0;
+    }
+    if (in == out) {
+      //underlying cipher may not work in place, process through a copy
+      in = Arrays.copyOfRange(in, inOff, inOff + len);
+      inOff = 0;
+    }
+    byte[] input = in;
+    int inputOff = inOff;
+    BlockSegments.forEach(blocks, BlockSegments.count(blocks, blockSize),
+        (segment, first, count) -> {
+          for (int i = first; i < first + count; i++) {
+            int offset = i * blockSize;
+            blockCipher.processBlock(input, inputOff + offset, out, outOff + offset);
+          }
+        });
+    return len;
+  }
+
+  @Override
+  public int getFinalBlockSize(int len) {
+    return blockCipher.getFinalBlockSize(len);
+  }
+
+  @Override
+  public int processFinalBlock(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException, IllegalStateException {
+    return blockCipher.processFinalBlock(in, inOff, len, out, outOff);
   }
 
   @Override
   public int getOutputSize(int inputLen) {
-    return 0;
+    return blockCipher.getOutputSize(inputLen);
   }
 
   @Override
@@ -44,5 +95,4 @@ public final class ECBBlockCipher implements BlockCipher {
     this.blockCipher.reset();
   }
 
-
 }
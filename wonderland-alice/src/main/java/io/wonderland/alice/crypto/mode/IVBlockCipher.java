@@ -0,0 +1,141 @@
+package io.wonderland.alice.crypto.mode;
+
+import io.wonderland.alice.crypto.BlockCipher;
+import io.wonderland.alice.crypto.CipherParameter;
+import io.wonderland.alice.crypto.params.IVParameter;
+import io.wonderland.alice.crypto.params.IVWithParameter;
+import io.wonderland.alice.crypto.params.KeyParameter;
+import io.wonderland.alice.crypto.params.KeyWithIVParameter;
+import io.wonderland.alice.crypto.params.ParameterList;
+import java.security.SecureRandom;
+
+/**
+ * Block mode chained through an initialisation vector of one block.
+ * <br>
+ * <br> IV is taken from {@link KeyWithIVParameter}, {@link IVWithParameter} or an
+ * {@link IVParameter} inside a {@link ParameterList}, everything else is handed to the underlying
+ * cipher. Without IV a random one is generated when encrypting, decryption requires it.
+ * <br> Modes process blocks on several cores, so processBlock of the underlying cipher must be
+ * safe to call concurrently once initialised, as it is for every cipher in alice.
+ */
+public abstract class IVBlockCipher implements BlockCipher {
+
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  protected final BlockCipher cipher;
+  protected boolean encryption;
+  protected byte[] iv;
+
+  protected IVBlockCipher(BlockCipher cipher) {
+    this.cipher = cipher;
+  }
+
+  /**
+   * @return direction underlying cipher is initialised for
+   */
+  protected abstract boolean cipherEncryption(boolean encryption);
+
+  /**
+   * Restore chaining state to IV.
+   */
+  protected abstract void resetChain();
+
+  protected abstract String getModeName();
+
+  @Override
+  public void init(boolean encryption, CipherParameter params) throws IllegalArgumentException {
+    byte[] initIv = null;
+    CipherParameter cipherParams = params;
+    if (params instanceof KeyWithIVParameter) {
+      KeyWithIVParameter<?> keyWithIV = (KeyWithIVParameter<?>) params;
+      initIv = keyWithIV.getIv();
+      cipherParams = new KeyParameter<>(keyWithIV.getKey());
+    } else if (params instanceof IVWithParameter) {
+      IVWithParameter ivWith = (IVWithParameter) params;
+      initIv = ivWith.getIv();
+      cipherParams = ivWith.getParameter();
+    } else if (params instanceof ParameterList) {
+      ParameterList rest = new ParameterList();
+      for (CipherParameter param : (ParameterList) params) {
+        if (param instanceof IVParameter) {
+          initIv = ((IVParameter) param).getIv();
+        } else {
+          rest.add(param);
+        }
+      }
+      cipherParams = rest;
+    }
+    cipher.init(cipherEncryption(encryption), cipherParams);
+
+    int blockSize = cipher.getBlockSize();
+    if (initIv == null) {
+      if (!encryption) {
+        throw new IllegalArgumentException(getAlgorithmName() + " decryption requires an IV.");
+      }
+      initIv = new byte[blockSize];
+      RANDOM.nextBytes(initIv);
+    } else if (initIv.length != blockSize) {
+      throw new IllegalArgumentException(
+          getAlgorithmName() + " IV must be " + blockSize + " bytes, one block.");
+    }
+    this.encryption = encryption;
+    this.iv = initIv.clone();
+    resetChain();
+  }
+
+  /**
+   * @return copy of IV mode was initialised with, null before init
+   */
+  public byte[] getIv() {
+    return iv == null ? null : iv.clone();
+  }
+
+  public BlockCipher getUnderlyingCipher() {
+    return cipher;
+  }
+
+  @Override
+  public String getAlgorithmName() {
+    return cipher.getAlgorithmName() + "/" + getModeName();
+  }
+
+  @Override
+  public String[] getKeyTypeNames() {
+    return cipher.getKeyTypeNames();
+  }
+
+  @Override
+  public int getBlockSize() {
+    return cipher.getBlockSize();
+  }
+
+  @Override
+  public int processBlock(byte[] in, int inOff, byte[] out, int outOff) {
+    return processBlocks(in, inOff, 1, out, outOff);
+  }
+
+  @Override
+  public void reset() {
+    cipher.reset();
+    if (iv != null) {
+      resetChain();
+    }
+  }
+
+  protected void checkInit() {
+    if (iv == null) {
+      throw new IllegalStateException(getAlgorithmName() + " cipher not initialised.");
+    }
+  }
+
+  /**
+   * dst[dstOff + i] = a[aOff + i] ^ b[bOff + i] for i in [0, len)
+   */
+  protected static void xor(byte[] a, int aOff, byte[] b, int bOff, byte[] dst, int dstOff,
+      int len) {
+    for (int i = 0; i < len; i++) {
+      dst[dstOff + i] = (byte) (a[aOff + i] ^ b[bOff + i]);
+    }
+  }
+
+}
@@ -0,0 +1,36 @@
+package io.wonderland.alice.crypto.spec;
+
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Turns on multi-block processing of an asymmetric cipher. Input of any length is split into
+ * blocks of cipher input block size and blocks are processed concurrently on executor, so the
+ * underlying cipher must tolerate concurrent processBlock calls after init.
+ * <br>
+ * <br> Each block is written out as a frame : 4 byte big-endian plaintext block length followed
+ * by one full size ciphertext block. Frames are self-contained, ciphertext can be decrypted as a
+ * stream frame by frame.
+ */
+public final class MultiBlockParameterSpec implements AlgorithmParameterSpec {
+
+  private final Executor executor;
+
+  /**
+   * Blocks are processed on common fork/join pool.
+   */
+  public MultiBlockParameterSpec() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  public MultiBlockParameterSpec(Executor executor) {
+    this.executor = Objects.requireNonNull(executor, "Executor can't be null.");
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+}
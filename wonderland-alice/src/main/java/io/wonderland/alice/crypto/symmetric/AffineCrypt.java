@@ -2,7 +2,9 @@ package io.wonderland.alice.crypto.symmetric;
 
 import io.wonderland.alice.crypto.Algorithms;
 import io.wonderland.alice.crypto.CipherParameter;
+import io.wonderland.alice.crypto.CipherUtils;
 import io.wonderland.alice.crypto.StreamCipher;
+import io.wonderland.alice.crypto.SubstitutionTables;
 import io.wonderland.alice.crypto.key.secretkey.AffineKey;
 import io.wonderland.alice.crypto.params.KeyParameter;
 import io.wonderland.alice.crypto.params.KeyWithIVParameter;
@@ -10,9 +12,9 @@ import io.wonderland.alice.crypto.params.ParameterList;
 import io.wonderland.alice.exception.ExceptionMessages;
 import io.wonderland.alice.exception.RuntimeCipherException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.Key;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ArrayUtils;
 
 /**
  * Affine cipher implementation.
@@ -42,57 +44,49 @@ import org.apache.commons.lang3.ArrayUtils;
 @Slf4j
 public class AffineCrypt implements StreamCipher {
 
-  private BigInteger m;
-  private BigInteger a;
-  private BigInteger b;
+  private byte[] encryptionTable;
+  private byte[] decryptionTable;
   private boolean encryption;
 
   public AffineCrypt() {
   }
 
 
-  public int encrypt(byte[] in, int inOff, byte[] out, int outOff) throws RuntimeCipherException {
-    if (ArrayUtils.isEmpty(in)) {
-      throw new IllegalArgumentException(ExceptionMessages.PLAINTEXT_NOT_VALID);
-    }
-    if (inOff < 0 || outOff < 0) {
-      throw new IllegalArgumentException(ExceptionMessages.ARRAY_OFFSET_NOT_VALID);
-
-    }
-    if (a.gcd(m).intValue() != 1) {
-      throw new IllegalArgumentException(
-          ExceptionMessages.KEY_NOT_VALID + ", a must be coprime to m (alphabet size)");
-    }
-    int len = in.length - inOff;
-    for (int i = 0; i < len; i++) {
-      byte p = in[inOff + i];
-      int c = a.multiply(BigInteger.valueOf(p)).add(b).mod(m).intValue();
-      out[outOff + i] = (byte) c;
-    }
-    return len;
+  public int encrypt(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException {
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, ExceptionMessages.PLAINTEXT_NOT_VALID);
+    return SubstitutionTables.substitute(encryptionTable, in, inOff, len, out, outOff);
   }
 
 
-  public int decrypt(byte[] in, int inOff, byte[] out, int outOff) throws RuntimeCipherException {
-    if (ArrayUtils.isEmpty(in)) {
-      throw new IllegalArgumentException(ExceptionMessages.CIPHERTEXT_NOT_VALID);
-    }
-    if (inOff < 0 || outOff < 0) {
-      throw new IllegalArgumentException(ExceptionMessages.ARRAY_OFFSET_NOT_VALID);
+  public int decrypt(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException {
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, ExceptionMessages.CIPHERTEXT_NOT_VALID);
+    return SubstitutionTables.substitute(decryptionTable, in, inOff, len, out, outOff);
+  }
 
+  /**
+   * Reduce key arguments, compute a^-1 once and compile both directions into lookup tables.
+   *
+   * @param affineKey key to be compiled
+   */
+  private void initKey(AffineKey affineKey) {
+    BigInteger km = affineKey.getM();
+    BigInteger ka = affineKey.getA();
+    if (km.signum() <= 0 || km.bitLength() >= Integer.SIZE) {
+      throw new IllegalArgumentException(ExceptionMessages.KEY_MODULUS_NOT_VALID);
     }
-    if (a.gcd(m).intValue() != 1) {
+    if (ka.gcd(km).intValue() != 1) {
       throw new IllegalArgumentException(
           ExceptionMessages.KEY_NOT_VALID + ", a must be coprime to m (alphabet size)");
     }
-    BigInteger aInverse = a.modInverse(m);
-    int len = in.length - inOff;
-    for (int i = 0; i < len; i++) {
-      byte c = in[inOff + i];
-      int p = BigInteger.valueOf(c).subtract(b).multiply(aInverse).mod(m).intValue();
-      out[outOff + i] = (byte) p;
-    }
-    return len;
+    long m = km.longValue();
+    long a = ka.mod(km).longValue();
+    long b = affineKey.getB().mod(km).longValue();
+    long aInverse = ka.modInverse(km).longValue();
+    this.encryptionTable = SubstitutionTables.compile(p -> (int) Math.floorMod(a * p + b, m));
+    this.decryptionTable = SubstitutionTables.compile(
+        c -> (int) Math.floorMod((c - b) * aInverse, m));
   }
 
   @Override
@@ -103,10 +97,7 @@ public class AffineCrypt implements StreamCipher {
         if (param instanceof KeyParameter) {
           Key key = ((KeyParameter<?>) param).getKey();
           if (key instanceof AffineKey) {
-            AffineKey affineKey = (AffineKey) key;
-            this.a = affineKey.getA();
-            this.b = affineKey.getB();
-            this.m = affineKey.getM();
+            initKey((AffineKey) key);
             this.encryption = encryption;
             return;
           } else {
@@ -115,10 +106,7 @@ public class AffineCrypt implements StreamCipher {
         } else if (param instanceof KeyWithIVParameter) {
           Key key = ((KeyWithIVParameter<?>) param).getKey();
           if (key instanceof AffineKey) {
-            AffineKey affineKey = (AffineKey) key;
-            this.a = affineKey.getA();
-            this.b = affineKey.getB();
-            this.m = affineKey.getM();
+            initKey((AffineKey) key);
             this.encryption = encryption;
             log.warn(String.format(DISREGARDED_IV, getAlgorithmName()));
             return;
@@ -133,10 +121,7 @@ public class AffineCrypt implements StreamCipher {
     } else if (params instanceof KeyParameter) {
       Key key = ((KeyParameter<?>) params).getKey();
       if (key instanceof AffineKey) {
-        AffineKey affineKey = (AffineKey) key;
-        this.a = affineKey.getA();
-        this.b = affineKey.getB();
-        this.m = affineKey.getM();
+        initKey((AffineKey) key);
         this.encryption = encryption;
       } else {
         throw new IllegalArgumentException(invalidKeyTypeParamMessage());
@@ -144,10 +129,7 @@ public class AffineCrypt implements StreamCipher {
     } else if (params instanceof KeyWithIVParameter) {
       Key key = ((KeyWithIVParameter<?>) params).getKey();
       if (key instanceof AffineKey) {
-        AffineKey affineKey = (AffineKey) key;
-        this.a = affineKey.getA();
-        this.b = affineKey.getB();
-        this.m = affineKey.getM();
+        initKey((AffineKey) key);
         this.encryption = encryption;
         log.warn(String.format(DISREGARDED_IV, getAlgorithmName()));
       } else {
@@ -171,10 +153,9 @@ public class AffineCrypt implements StreamCipher {
   @Override
   public byte processByte(byte in) {
     if (encryption) {
-      return (byte) BigInteger.valueOf(in).multiply(a).add(b).mod(m).intValue();
+      return encryptionTable[in & 0xFF];
     } else {
-      BigInteger aInverse = a.modInverse(m);
-      return (byte) BigInteger.valueOf(in).subtract(b).multiply(aInverse).mod(m).intValue();
+      return decryptionTable[in & 0xFF];
     }
   }
 
@@ -182,12 +163,18 @@ public class AffineCrypt implements StreamCipher {
   public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
       throws RuntimeCipherException, IllegalStateException {
     if (encryption) {
-      return encrypt(in, inOff, out, outOff);
+      return encrypt(in, inOff, len, out, outOff);
     } else {
-      return decrypt(in, inOff, out, outOff);
+      return decrypt(in, inOff, len, out, outOff);
     }
   }
 
+  @Override
+  public int processBuffer(ByteBuffer in, ByteBuffer out)
+      throws RuntimeCipherException, IllegalStateException {
+    return SubstitutionTables.substitute(encryption ? encryptionTable : decryptionTable, in, out);
+  }
+
   @Override
   public void reset() {
     //nothing to be done to reset Affine
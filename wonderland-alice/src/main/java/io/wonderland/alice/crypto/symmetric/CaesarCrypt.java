@@ -1,12 +1,14 @@
 package io.wonderland.alice.crypto.symmetric;
 
-import static io.wonderland.alice.exception.ExceptionMessages.ARRAY_OFFSET_NOT_VALID;
+import static io.wonderland.alice.exception.ExceptionMessages.CIPHERTEXT_NOT_VALID;
 import static io.wonderland.alice.exception.ExceptionMessages.PLAINTEXT_NOT_VALID;
 
 import io.wonderland.alice.charset.CharsetsUtils;
 import io.wonderland.alice.crypto.Algorithms;
 import io.wonderland.alice.crypto.CipherParameter;
+import io.wonderland.alice.crypto.CipherUtils;
 import io.wonderland.alice.crypto.StreamCipher;
+import io.wonderland.alice.crypto.SubstitutionTables;
 import io.wonderland.alice.crypto.key.secretkey.CaesarKey;
 import io.wonderland.alice.crypto.params.KeyParameter;
 import io.wonderland.alice.crypto.params.KeyWithIVParameter;
@@ -15,9 +17,9 @@ import io.wonderland.alice.crypto.params.RawKeyParameter;
 import io.wonderland.alice.crypto.params.RawKeyWithIVParameter;
 import io.wonderland.alice.exception.RuntimeCipherException;
 import io.wonderland.base.IntUtils;
+import java.nio.ByteBuffer;
 import java.security.Key;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ArrayUtils;
 
 /**
  * Caesar cipher implementation, works only for UTF-8.
@@ -43,47 +45,35 @@ import org.apache.commons.lang3.ArrayUtils;
 public final class CaesarCrypt implements StreamCipher {
 
   private final int m = CharsetsUtils.getDefaultAlphabetSize();
-  private int shift;
+  private byte[] encryptionTable;
+  private byte[] decryptionTable;
   private boolean encryption;
 
   public CaesarCrypt() {
+    initKey(0);
   }
 
 
-  public int encrypt(byte[] in, int inOff, byte[] out, int outOff) throws RuntimeCipherException {
-    if (ArrayUtils.isEmpty(in)) {
-      throw new IllegalArgumentException(PLAINTEXT_NOT_VALID);
-    }
-    if (inOff < 0 || outOff < 0) {
-      throw new IllegalArgumentException(ARRAY_OFFSET_NOT_VALID);
-    }
-
-    int len = in.length - inOff;
-    for (int i = 0; i < len; i++) {
-      byte p = in[inOff + i];
-      int c = (p + shift) % m;
-      out[outOff + i] = (byte) c;
-    }
-
-    return len;
+  public int encrypt(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException {
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, PLAINTEXT_NOT_VALID);
+    return SubstitutionTables.substitute(encryptionTable, in, inOff, len, out, outOff);
   }
 
-  public int decrypt(byte[] in, int inOff, byte[] out, int outOff) throws RuntimeCipherException {
-    if (ArrayUtils.isEmpty(in)) {
-      throw new IllegalArgumentException(PLAINTEXT_NOT_VALID);
-    }
-    if (inOff < 0 || outOff < 0) {
-      throw new IllegalArgumentException(ARRAY_OFFSET_NOT_VALID);
-
-    }
+  public int decrypt(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException {
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, CIPHERTEXT_NOT_VALID);
+    return SubstitutionTables.substitute(decryptionTable, in, inOff, len, out, outOff);
+  }
 
-    int len = in.length - inOff;
-    for (int i = 0; i < len; i++) {
-      byte c = in[inOff + i];
-      int p = (c - shift) % m;
-      out[outOff + i] = (byte) p;
-    }
-    return len;
+  /**
+   * Compile shift into encryption & decryption lookup tables.
+   *
+   * @param shift caesar shift
+   */
+  private void initKey(int shift) {
+    this.encryptionTable = SubstitutionTables.compile(p -> (p + shift) % m);
+    this.decryptionTable = SubstitutionTables.compile(c -> (c - shift) % m);
   }
 
   @Override
@@ -94,7 +84,7 @@ public final class CaesarCrypt implements StreamCipher {
         if (param instanceof KeyParameter) {
           Key key = ((KeyParameter<?>) param).getKey();
           if (key instanceof CaesarKey) {
-            this.shift = ((CaesarKey) key).getShift();
+            initKey(((CaesarKey) key).getShift());
             this.encryption = encryption;
             return;
           } else {
@@ -103,7 +93,7 @@ public final class CaesarCrypt implements StreamCipher {
         } else if (param instanceof KeyWithIVParameter) {
           Key key = ((KeyWithIVParameter<?>) param).getKey();
           if (key instanceof CaesarKey) {
-            this.shift = ((CaesarKey) key).getShift();
+            initKey(((CaesarKey) key).getShift());
             this.encryption = encryption;
             log.warn(String.format(DISREGARDED_IV, getAlgorithmName()));
             return;
@@ -117,7 +107,7 @@ public final class CaesarCrypt implements StreamCipher {
     } else if (params instanceof KeyParameter) {
       Key key = ((KeyParameter<?>) params).getKey();
       if (key instanceof CaesarKey) {
-        this.shift = ((CaesarKey) key).getShift();
+        initKey(((CaesarKey) key).getShift());
         this.encryption = encryption;
       } else {
         throw new IllegalArgumentException(invalidKeyTypeParamMessage());
@@ -125,7 +115,7 @@ public final class CaesarCrypt implements StreamCipher {
     } else if (params instanceof KeyWithIVParameter) {
       Key key = ((KeyWithIVParameter<?>) params).getKey();
       if (key instanceof CaesarKey) {
-        this.shift = ((CaesarKey) key).getShift();
+        initKey(((CaesarKey) key).getShift());
         this.encryption = encryption;
         log.warn(String.format(DISREGARDED_IV, getAlgorithmName()));
       } else {
@@ -133,12 +123,12 @@ public final class CaesarCrypt implements StreamCipher {
       }
     } else if (params instanceof RawKeyWithIVParameter) {
       RawKeyWithIVParameter keyIvParam = (RawKeyWithIVParameter) params;
-      this.shift = IntUtils.parseInt(keyIvParam.getKey());
+      initKey(IntUtils.parseInt(keyIvParam.getKey()));
       this.encryption = encryption;
       log.warn(String.format(DISREGARDED_IV, getAlgorithmName()));
     } else if (params instanceof RawKeyParameter) {
       RawKeyParameter rawKeyParameter = (RawKeyParameter) params;
-      this.shift = IntUtils.parseInt(rawKeyParameter.getKey());
+      initKey(IntUtils.parseInt(rawKeyParameter.getKey()));
       this.encryption = encryption;
     } else {
       throw new IllegalArgumentException(invalidParamMessage());
@@ -159,9 +149,9 @@ public final class CaesarCrypt implements StreamCipher {
   @Override
   public byte processByte(byte in) {
     if (encryption) {
-      return (byte) ((in + shift) % m);
+      return encryptionTable[in & 0xFF];
     } else {
-      return (byte) ((in - shift) % m);
+      return decryptionTable[in & 0xFF];
     }
   }
 
@@ -169,12 +159,18 @@ public final class CaesarCrypt implements StreamCipher {
   public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
       throws RuntimeCipherException, IllegalStateException {
     if (encryption) {
-      return encrypt(in, inOff, out, outOff);
+      return encrypt(in, inOff, len, out, outOff);
     } else {
-      return decrypt(in, inOff, out, outOff);
+      return decrypt(in, inOff, len, out, outOff);
     }
   }
 
+  @Override
+  public int processBuffer(ByteBuffer in, ByteBuffer out)
+      throws RuntimeCipherException, IllegalStateException {
+    return SubstitutionTables.substitute(encryption ? encryptionTable : decryptionTable, in, out);
+  }
+
   @Override
   public void reset() {
     //No need to reset Caesar cipher
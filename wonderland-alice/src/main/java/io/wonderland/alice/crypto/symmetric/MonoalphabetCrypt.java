@@ -2,7 +2,9 @@ package io.wonderland.alice.crypto.symmetric;
 
 import io.wonderland.alice.crypto.Algorithms;
 import io.wonderland.alice.crypto.CipherParameter;
+import io.wonderland.alice.crypto.CipherUtils;
 import io.wonderland.alice.crypto.StreamCipher;
+import io.wonderland.alice.crypto.SubstitutionTables;
 import io.wonderland.alice.crypto.key.secretkey.MonoalphabetKey;
 import io.wonderland.alice.crypto.params.KeyParameter;
 import io.wonderland.alice.crypto.params.KeyWithIVParameter;
@@ -15,9 +17,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
-import org.apache.commons.lang3.ArrayUtils;
 
 
 /**
@@ -46,67 +46,91 @@ import org.apache.commons.lang3.ArrayUtils;
 public final class MonoalphabetCrypt implements StreamCipher {
 
   private Map<Integer, Integer> keys;
+  private byte[] encryptionTable;
+  private byte[] decryptionTable;
+  private boolean[] encryptionMapped;
+  private boolean[] decryptionMapped;
   private boolean encryption;
 
 
-  public int encrypt(byte[] in, int inOff, byte[] out, int outOff) throws RuntimeCipherException {
-    if (ArrayUtils.isEmpty(in)) {
-      throw new IllegalArgumentException(ExceptionMessages.PLAINTEXT_NOT_VALID);
+  public int encrypt(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException {
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, ExceptionMessages.PLAINTEXT_NOT_VALID);
+    if (MapUtils.isEmpty(keys)) {
+      throw new IllegalArgumentException(ExceptionMessages.KEY_NOT_VALID);
     }
-    if (inOff < 0 || outOff < 0) {
-      throw new IllegalArgumentException(ExceptionMessages.ARRAY_OFFSET_NOT_VALID);
+    return substitute(encryptionTable, encryptionMapped, in, inOff, len, out, outOff);
+  }
 
-    }
+
+  public int decrypt(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException {
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, ExceptionMessages.CIPHERTEXT_NOT_VALID);
     if (MapUtils.isEmpty(keys)) {
       throw new IllegalArgumentException(ExceptionMessages.KEY_NOT_VALID);
     }
-    Set<Integer> set = new TreeSet<>();
-    for (int i = 0, len = in.length - inOff; i < len; i++) {
-      byte p = in[inOff + i];
-      Integer val = keys.get((int) p);
-      if (val == null) {
-        set.add((int) p);
+    return substitute(decryptionTable, decryptionMapped, in, inOff, len, out, outOff);
+  }
+
+  /**
+   * Substitute bytes through lookup table, bytes without mapping are left untouched in output and
+   * reported once per call.
+   */
+  private int substitute(byte[] table, boolean[] mapped, byte[] in, int inOff, int len,
+      byte[] out, int outOff) {
+    boolean notFound = false;
+    for (int i = 0; i < len; i++) {
+      int index = in[inOff + i] & 0xFF;
+      if (mapped[index]) {
+        out[outOff + i] = table[index];
       } else {
-        out[outOff + i] = (byte) (int) val;
+        notFound = true;
       }
     }
-    if (CollectionUtils.isNotEmpty(set)) {
+    if (notFound) {
+      Set<Integer> set = new TreeSet<>();
+      for (int i = 0; i < len; i++) {
+        if (!mapped[in[inOff + i] & 0xFF]) {
+          set.add((int) in[inOff + i]);
+        }
+      }
       StringBuilder sb = new StringBuilder("Not found mappings for characters : ");
       set.forEach(e -> sb.append((char) (int) e));
       log.warn(sb.toString());
     }
-    return out.length;
+    return len;
   }
 
-
-  public int decrypt(byte[] in, int inOff, byte[] out, int outOff) throws RuntimeCipherException {
-    if (ArrayUtils.isEmpty(in)) {
-      throw new IllegalArgumentException(ExceptionMessages.CIPHERTEXT_NOT_VALID);
-    }
-    if (inOff < 0 || outOff < 0) {
-      throw new IllegalArgumentException(ExceptionMessages.ARRAY_OFFSET_NOT_VALID);
-
+  /**
+   * Compile key map into forward & inverse lookup tables indexed by unsigned byte value. Only
+   * mappings whose key (encryption) or value (decryption) is a byte value can ever match input.
+   *
+   * @param keys key map
+   */
+  private void initKey(Map<Integer, Integer> keys) {
+    this.keys = keys;
+    this.encryptionTable = new byte[SubstitutionTables.SIZE];
+    this.decryptionTable = new byte[SubstitutionTables.SIZE];
+    this.encryptionMapped = new boolean[SubstitutionTables.SIZE];
+    this.decryptionMapped = new boolean[SubstitutionTables.SIZE];
+    if (MapUtils.isEmpty(keys)) {
+      return;
     }
-    Set<Integer> set = new TreeSet<>();
-    for (int i = 0, len = in.length - inOff; i < len; i++) {
-      byte c = in[inOff + i];
-      boolean notFoundValue = true;
-      for (Map.Entry<Integer, Integer> entry : keys.entrySet()) {
-        if (entry.getValue() != null && entry.getValue() == c) {
-          out[outOff + i] = (byte) (int) entry.getKey();
-          notFoundValue = false;
-        }
+    for (Map.Entry<Integer, Integer> entry : keys.entrySet()) {
+      Integer p = entry.getKey();
+      Integer c = entry.getValue();
+      if (p == null || c == null) {
+        continue;
       }
-      if (notFoundValue) {
-        set.add((int) c);
+      if (p >= Byte.MIN_VALUE && p <= Byte.MAX_VALUE) {
+        encryptionTable[p & 0xFF] = (byte) (int) c;
+        encryptionMapped[p & 0xFF] = true;
+      }
+      if (c >= Byte.MIN_VALUE && c <= Byte.MAX_VALUE) {
+        decryptionTable[c & 0xFF] = (byte) (int) p;
+        decryptionMapped[c & 0xFF] = true;
       }
     }
-    if (CollectionUtils.isNotEmpty(set)) {
-      StringBuilder sb = new StringBuilder("Not found mappings for characters : ");
-      set.forEach(e -> sb.append((char) (int) e));
-      log.warn(sb.toString());
-    }
-    return out.length;
   }
 
   @Override
@@ -118,7 +142,7 @@ public final class MonoalphabetCrypt implements StreamCipher {
           Key key = ((KeyParameter<?>) param).getKey();
           if (key instanceof MonoalphabetKey) {
             MonoalphabetKey monoalphabetKey = (MonoalphabetKey) key;
-            this.keys = monoalphabetKey.getKey();
+            initKey(monoalphabetKey.getKey());
             this.encryption = encryption;
             return;
           } else {
@@ -128,7 +152,7 @@ public final class MonoalphabetCrypt implements StreamCipher {
           Key key = ((KeyWithIVParameter<?>) param).getKey();
           if (key instanceof MonoalphabetKey) {
             MonoalphabetKey monoalphabetKey = (MonoalphabetKey) key;
-            this.keys = monoalphabetKey.getKey();
+            initKey(monoalphabetKey.getKey());
             this.encryption = encryption;
             return;
           } else {
@@ -142,7 +166,7 @@ public final class MonoalphabetCrypt implements StreamCipher {
       Key key = ((KeyParameter<?>) params).getKey();
       if (key instanceof MonoalphabetKey) {
         MonoalphabetKey monoalphabetKey = (MonoalphabetKey) key;
-        this.keys = monoalphabetKey.getKey();
+        initKey(monoalphabetKey.getKey());
         this.encryption = encryption;
       } else {
         throw new IllegalArgumentException(invalidKeyTypeParamMessage());
@@ -151,7 +175,7 @@ public final class MonoalphabetCrypt implements StreamCipher {
       Key key = ((KeyWithIVParameter<?>) params).getKey();
       if (key instanceof MonoalphabetKey) {
         MonoalphabetKey monoalphabetKey = (MonoalphabetKey) key;
-        this.keys = monoalphabetKey.getKey();
+        initKey(monoalphabetKey.getKey());
         this.encryption = encryption;
       } else {
         throw new IllegalArgumentException(invalidKeyTypeParamMessage());
@@ -176,25 +200,22 @@ public final class MonoalphabetCrypt implements StreamCipher {
     if (MapUtils.isEmpty(keys)) {
       throw new IllegalArgumentException(ExceptionMessages.KEY_NOT_VALID);
     }
-    if (encryption) {
-      return (byte) (int) keys.get((int) in);
-    } else {
-      for (Map.Entry<Integer, Integer> entry : keys.entrySet()) {
-        if (entry.getValue() != null && entry.getValue() == in) {
-          return (byte) (int) entry.getKey();
-        }
-      }
-      throw new KeyException("Key mapping not found for input : " + in);
+    int index = in & 0xFF;
+    if (encryption && encryptionMapped[index]) {
+      return encryptionTable[index];
+    } else if (!encryption && decryptionMapped[index]) {
+      return decryptionTable[index];
     }
+    throw new KeyException("Key mapping not found for input : " + in);
   }
 
   @Override
   public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
       throws RuntimeCipherException, IllegalStateException {
     if (encryption) {
-      return encrypt(in, inOff, out, outOff);
+      return encrypt(in, inOff, len, out, outOff);
     } else {
-      return decrypt(in, inOff, out, outOff);
+      return decrypt(in, inOff, len, out, outOff);
     }
   }
 
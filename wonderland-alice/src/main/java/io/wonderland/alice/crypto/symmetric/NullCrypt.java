@@ -2,8 +2,11 @@ package io.wonderland.alice.crypto.symmetric;
 
 import io.wonderland.alice.crypto.Algorithms;
 import io.wonderland.alice.crypto.CipherParameter;
+import io.wonderland.alice.crypto.CipherUtils;
 import io.wonderland.alice.crypto.StreamCipher;
 import io.wonderland.alice.crypto.key.NullSecretKey;
+import io.wonderland.alice.exception.ExceptionMessages;
+import java.nio.ByteBuffer;
 
 /**
  * Null cipher implementation.
@@ -35,11 +38,16 @@ public final class NullCrypt implements StreamCipher {
 
   @Override
   public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff) {
-    int processed = in.length - inOff;
-    for (int i = 0; i + inOff < in.length; i++) {
-      out[i + outOff] = in[i + outOff];
-    }
-    return processed;
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, ExceptionMessages.PLAINTEXT_NOT_VALID);
+    System.arraycopy(in, inOff, out, outOff, len);
+    return len;
+  }
+
+  @Override
+  public int processBuffer(ByteBuffer in, ByteBuffer out) {
+    int len = CipherUtils.checkBounds(in, out);
+    out.put(in);
+    return len;
   }
 
   @Override
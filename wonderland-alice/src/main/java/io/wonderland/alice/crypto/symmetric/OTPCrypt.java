@@ -2,6 +2,7 @@ package io.wonderland.alice.crypto.symmetric;
 
 import io.wonderland.alice.crypto.Algorithms;
 import io.wonderland.alice.crypto.CipherParameter;
+import io.wonderland.alice.crypto.CipherUtils;
 import io.wonderland.alice.crypto.StreamCipher;
 import io.wonderland.alice.crypto.key.secretkey.OTPKey;
 import io.wonderland.alice.crypto.params.KeyParameter;
@@ -10,6 +11,7 @@ import io.wonderland.alice.crypto.params.ParameterList;
 import io.wonderland.alice.exception.ExceptionMessages;
 import io.wonderland.alice.exception.RuntimeCipherException;
 import io.wonderland.base.IntUtils;
+import java.nio.ByteBuffer;
 import java.security.Key;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
@@ -44,64 +46,55 @@ import org.apache.commons.lang3.ArrayUtils;
 public final class OTPCrypt implements StreamCipher {
 
   public static final String KEY_LENGTH_SMALLER_THAN_PLAINTEXT_LENGTH = "OTP cipher requires key length bigger/equal to plaintext length.";
+  public static final String KEY_LENGTH_SMALLER_THAN_CIPHERTEXT_LENGTH = "OTP cipher requires key length bigger/equal to ciphertext length.";
   private int modulus;
   private int[] keys;
+  private int keyIndex;
   private boolean encryption;
 
   public OTPCrypt() {
   }
 
 
-  public int encrypt(byte[] in, int inOff, byte[] out, int outOff) throws RuntimeCipherException {
-    if (ArrayUtils.isEmpty(in)) {
-      throw new IllegalArgumentException(ExceptionMessages.PLAINTEXT_NOT_VALID);
-    }
-    if (inOff < 0 || outOff < 0) {
-      throw new IllegalArgumentException(ExceptionMessages.ARRAY_OFFSET_NOT_VALID);
-
-    }
+  public int encrypt(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException {
     if (ArrayUtils.isEmpty(keys)) {
       throw new IllegalArgumentException(ExceptionMessages.KEY_NOT_VALID);
     }
-    if (keys.length < in.length) {
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, ExceptionMessages.PLAINTEXT_NOT_VALID);
+    if (keys.length - keyIndex < len) {
       throw new IllegalArgumentException(KEY_LENGTH_SMALLER_THAN_PLAINTEXT_LENGTH);
     }
-    int len = in.length - inOff;
+    final int[] k = keys;
+    final int j = keyIndex;
     for (int i = 0; i < len; i++) {
-      byte p = in[inOff + i];
-      int c = (p + keys[inOff + i]) % modulus;
-      out[outOff + i] = (byte) c;
+      out[outOff + i] = (byte) ((in[inOff + i] + k[j + i]) % modulus);
     }
+    keyIndex = j + len;
     return len;
   }
 
-
-  public int decrypt(byte[] in, int inOff, byte[] out, int outOff) throws RuntimeCipherException {
-    if (ArrayUtils.isEmpty(in)) {
-      throw new IllegalArgumentException(ExceptionMessages.CIPHERTEXT_NOT_VALID);
-    }
-    if (inOff < 0 || outOff < 0) {
-      throw new IllegalArgumentException(ExceptionMessages.ARRAY_OFFSET_NOT_VALID);
-
-    }
+  public int decrypt(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException {
     if (ArrayUtils.isEmpty(keys)) {
       throw new IllegalArgumentException(ExceptionMessages.KEY_NOT_VALID);
     }
-    if (keys.length < in.length) {
-      throw new IllegalArgumentException(
-          "OTP cipher requires key length bigger/equal to ciphertext length.");
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, ExceptionMessages.CIPHERTEXT_NOT_VALID);
+    if (keys.length - keyIndex < len) {
+      throw new IllegalArgumentException(KEY_LENGTH_SMALLER_THAN_CIPHERTEXT_LENGTH);
     }
-    int len = in.length - inOff;
+    final int[] k = keys;
+    final int j = keyIndex;
     for (int i = 0; i < len; i++) {
-      byte c = in[inOff + i];
-      int p = (c - keys[inOff + i]) % modulus;
-      out[outOff + i] = (byte) p;
+      out[outOff + i] = (byte) ((in[inOff + i] - k[j + i]) % modulus);
     }
+    keyIndex = j + len;
     return len;
   }
 
   @Override
   public void init(boolean encryption, CipherParameter params) throws IllegalArgumentException {
+    this.keyIndex = 0;
     if (params instanceof ParameterList) {
       ParameterList parameterList = (ParameterList) params;
       for (CipherParameter param : parameterList) {
@@ -182,15 +175,44 @@ public final class OTPCrypt implements StreamCipher {
   public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
       throws RuntimeCipherException, IllegalStateException {
     if (encryption) {
-      return encrypt(in, inOff, out, outOff);
+      return encrypt(in, inOff, len, out, outOff);
     } else {
-      return decrypt(in, inOff, out, outOff);
+      return decrypt(in, inOff, len, out, outOff);
     }
   }
 
+  @Override
+  public int processBuffer(ByteBuffer in, ByteBuffer out)
+      throws RuntimeCipherException, IllegalStateException {
+    if (in.hasArray() && out.hasArray()) {
+      return StreamCipher.super.processBuffer(in, out);
+    }
+    if (ArrayUtils.isEmpty(keys)) {
+      throw new IllegalArgumentException(ExceptionMessages.KEY_NOT_VALID);
+    }
+    int len = CipherUtils.checkBounds(in, out);
+    if (keys.length - keyIndex < len) {
+      throw new IllegalArgumentException(encryption ? KEY_LENGTH_SMALLER_THAN_PLAINTEXT_LENGTH
+          : KEY_LENGTH_SMALLER_THAN_CIPHERTEXT_LENGTH);
+    }
+    int inPos = in.position();
+    int outPos = out.position();
+    final int[] k = keys;
+    final int j = keyIndex;
+    final int sign = encryption ? 1 : -1;
+    for (int i = 0; i < len; i++) {
+      out.put(outPos + i, (byte) ((in.get(inPos + i) + sign * k[j + i]) % modulus));
+    }
+    keyIndex = j + len;
+    in.position(inPos + len);
+    out.position(outPos + len);
+    return len;
+  }
+
   @Override
   public void reset() {
-    //nothing to be done to reset otp
+    //restart keystream from first key element
+    this.keyIndex = 0;
   }
 
 }
@@ -3,6 +3,7 @@ package io.wonderland.alice.crypto.symmetric;
 import io.wonderland.alice.crypto.Algorithms;
 import io.wonderland.alice.crypto.BlockCipher;
 import io.wonderland.alice.crypto.CipherParameter;
+import io.wonderland.alice.crypto.CipherUtils;
 import io.wonderland.alice.crypto.TranspositionCipher;
 import io.wonderland.alice.crypto.key.secretkey.PermutationKey;
 import io.wonderland.alice.crypto.padding.BlockPadding;
@@ -12,26 +13,52 @@ import io.wonderland.alice.crypto.params.ParameterList;
 import io.wonderland.alice.exception.ExceptionMessages;
 import io.wonderland.alice.exception.RuntimeCipherException;
 import java.security.Key;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import org.apache.commons.lang3.ArrayUtils;
 
 
-//todo : padding & implementations removal
+/**
+ * Permutation (columnar transposition) cipher implementation.
+ * <br> Plaintext is written row by row under the key columns, ciphertext is read column by column
+ * in key order, column i goes to position columnOrders[i] mod C of the ciphertext.
+ * <br>
+ * <br> {@link #transpose(byte[], byte[])} transposes a whole message on a grid of ceil(n/C) rows.
+ * {@link #processBlock(byte[], int, byte[], int)} transposes fixed blocks of C x rows bytes so a
+ * message of any size can be processed in bounded memory, block after block. Last block is only
+ * padded up to a whole row and transposed on a grid of as many rows as it fills.
+ * <br> No matrix is built, the inverse column permutation is computed once at init and every byte
+ * is copied straight to its destination index.
+ */
 public class PermutationCrypt implements TranspositionCipher, BlockCipher {
 
+  public static final int DEFAULT_ROWS = 64;
+
   private final BlockPadding<Byte> blockPadding;
+  private final int rows;
   private int[] columnOrders;
+  private int[] segmentColumns;
   private boolean encryption;
 
   public PermutationCrypt() {
-    this.blockPadding = new ZeroPadding();
-    this.encryption = true;
+    this(new ZeroPadding(), true);
   }
 
   public PermutationCrypt(BlockPadding<Byte> blockPadding, boolean encryption) {
+    this(blockPadding, encryption, DEFAULT_ROWS);
+  }
+
+  /**
+   * @param blockPadding pad used to fill grid cells after end of message
+   * @param encryption   initial direction, overridden by init
+   * @param rows         number of rows of a block, block size is columns x rows
+   */
+  public PermutationCrypt(BlockPadding<Byte> blockPadding, boolean encryption, int rows) {
+    if (rows <= 0) {
+      throw new IllegalArgumentException("Permutation block rows must be bigger than 0.");
+    }
     this.blockPadding = blockPadding;
     this.encryption = encryption;
+    this.rows = rows;
   }
 
   @Override
@@ -42,116 +69,89 @@ public class PermutationCrypt implements TranspositionCipher, BlockCipher {
     if (ArrayUtils.isEmpty(out)) {
       throw new IllegalArgumentException(ExceptionMessages.CIPHERTEXT_NOT_VALID);
     }
-    if (ArrayUtils.isEmpty(columnOrders)) {
-      throw new IllegalArgumentException(
-          ExceptionMessages.KEY_NOT_VALID + " Column order not valid.");
-    }
+    checkKey();
+    int columnNum = columnOrders.length;
+    int rowNum = (in.length + columnNum - 1) / columnNum;
     if (encryption) {
-      encrypt(in, out);
+      if (out.length < rowNum * columnNum) {
+        throw new IllegalArgumentException(ExceptionMessages.OUTPUT_BUFFER_TOO_SHORT);
+      }
+      encrypt(in, 0, in.length, rowNum, out, 0);
     } else {
-      decrypt(in, out);
+      decrypt(in, 0, in.length, rowNum, out, 0, Math.min(out.length, rowNum * columnNum));
     }
   }
 
-  private void encrypt(byte[] in, byte[] out) {
-    int columnNum = columnOrders.length;
-    int rowNum =
-        in.length % columnOrders.length == 0 ? in.length / columnOrders.length
-            : (in.length / columnOrders.length) + 1;
-    byte[][] matrix = new byte[rowNum][columnNum];
-
-    //distribute plaintext alphabets in matrix
-    for (int i = 0, len = in.length; i < len; i++) {
-      matrix[i / columnNum][i % columnNum] = in[i];
-    }
-
-    //calculate the number of paddings needed & columns to pad
-    int padNum = padNum(columnOrders, in);
-
-    for (int i = rowNum - 1; i < rowNum; i++) {
-      for (int j = columnNum - 1; j >= columnNum - padNum; j--) {
-        matrix[i][j] = blockPadding.getPad();
+  /**
+   * Read grid column by column in key order. Grid cell (row j, column c) holds in[j * C + c], cells
+   * past len hold pad.
+   */
+  private int encrypt(byte[] in, int inOff, int len, int rowNum, byte[] out, int outOff) {
+    int columnNum = segmentColumns.length;
+    byte pad = blockPadding.getPad();
+    int index = outOff;
+    for (int segment = 0; segment < columnNum; segment++) {
+      for (int i = segmentColumns[segment], j = 0; j < rowNum; i += columnNum, j++) {
+        out[index++] = i < len ? in[inOff + i] : pad;
       }
     }
+    return rowNum * columnNum;
+  }
 
-    //select permuted alphabets in matrix based on column key values
-    //columnOrder[i]%columnOrder.length => To make it a ring
-    //  because columnOrder values can be bigger than columnOrder.length
-    for (int i = 0; i < columnOrders.length; i++) {
-      int order = columnOrders[i] % columnOrders.length;
-      for (int j = 0; j < rowNum; j++) {
-        out[order * rowNum + j] = matrix[j][i];
+  /**
+   * Scatter ciphertext columns back to grid positions. If ciphertext is shorter than grid, pad was
+   * left out and the last C*rows - len columns of grid are one row shorter.
+   */
+  private int decrypt(byte[] in, int inOff, int len, int rowNum, byte[] out, int outOff,
+      int outLen) {
+    int columnNum = segmentColumns.length;
+    int fullColumns = len - (rowNum - 1) * columnNum;
+    int index = inOff;
+    for (int segment = 0; segment < columnNum; segment++) {
+      int column = segmentColumns[segment];
+      int cells = column < fullColumns ? rowNum : rowNum - 1;
+      for (int i = column, j = 0; j < cells; i += columnNum, j++, index++) {
+        if (i < outLen) {
+          out[outOff + i] = in[index];
+        }
       }
     }
+    return outLen;
   }
 
-  private void decrypt(byte[] in, byte[] out) {
-    int columnNum = columnOrders.length;
-    int rowNum =
-        in.length % columnOrders.length == 0 ? in.length / columnOrders.length
-            : (in.length / columnOrders.length) + 1;
-    byte[][] matrix = new byte[rowNum][columnNum];
-
-    //calculate the number of paddings needed & columns to pad
-    List<Integer> columnIndexToPad = getColumnIndexToPad(in, rowNum, columnNum);
-
-    //sort columns to pad to avoid index out of bounds
-    columnIndexToPad.sort(Integer::compareTo);
-
-    //tmp list to hold input + padding at specific columns
-    List<Byte> inputPadded = new ArrayList<>();
-    for (byte b : in) {
-      inputPadded.add(b);
-    }
-
-    //Pad input at column index specified
-    for (Integer colIndex : columnIndexToPad) {
-      int indexToPad = colIndex * rowNum + rowNum - 1;
-      inputPadded.add(indexToPad, (byte) -1);
-    }
-
-    //distribute padded ciphertext alphabets in matrix
-    for (int i = 0, len = inputPadded.size(); i < len; i++) {
-      matrix[i % rowNum][i / rowNum] = inputPadded.get(i);
+  /**
+   * Reduce column orders mod C and compute inverse permutation, segmentColumns[s] is the column
+   * written to ciphertext segment s.
+   */
+  private void initKey(int[] columnOrders) {
+    if (ArrayUtils.isEmpty(columnOrders)) {
+      throw new IllegalArgumentException(
+          ExceptionMessages.KEY_NOT_VALID + " Column order not valid.");
     }
-
-    //plaintext based on key column order
-    byte[] tmp = new byte[columnNum * rowNum];
-    for (int i = 0, len = columnOrders.length; i < len; i++) {
-      int order = columnOrders[i] % columnOrders.length;
-      for (int j = 0; j < rowNum; j++) {
-        tmp[i * rowNum + j] = matrix[j][order];
+    int columnNum = columnOrders.length;
+    int[] segments = new int[columnNum];
+    Arrays.fill(segments, -1);
+    for (int column = 0; column < columnNum; column++) {
+      int segment = Math.floorMod(columnOrders[column], columnNum);
+      if (segments[segment] != -1) {
+        throw new IllegalArgumentException(ExceptionMessages.KEY_NOT_VALID
+            + " Column orders must be distinct modulo " + columnNum + ".");
       }
+      segments[segment] = column;
     }
-
-    //distribute plaintext alphabets in matrix
-    for (int i = 0, len = tmp.length; i < len; i++) {
-      matrix[i % rowNum][i / rowNum] = tmp[i];
-    }
-
-    for (int i = 0, len = out.length; i < len; i++) {
-      out[i] = matrix[i / columnNum][i % columnNum];
-    }
+    this.columnOrders = columnOrders;
+    this.segmentColumns = segments;
   }
 
-
-  private List<Integer> getColumnIndexToPad(byte[] in, int rowNum, int columnNum) {
-    //calculate if temp padding is in need to decrypt
-    // tmp padding number is total index - input length.
-    int paddingNum = rowNum * columnNum - in.length;
-    List<Integer> colIndexToPad = new ArrayList<>();
-    if (paddingNum > 0) {
-      //columnOrder[i]%columnOrder.length => To make it a ring
-      //because columnOrder values can be bigger than columnOrder.length and basically we need order
-      for (int i = columnOrders.length - 1; i >= columnOrders.length - paddingNum; i--) {
-        colIndexToPad.add(columnOrders[i] % columnOrders.length);
-      }
+  private void checkKey() {
+    if (ArrayUtils.isEmpty(columnOrders)) {
+      throw new IllegalArgumentException(
+          ExceptionMessages.KEY_NOT_VALID + " Column order not valid.");
     }
-    return colIndexToPad;
   }
 
   void setColumnOrders(int[] columnOrders) {
-    this.columnOrders = columnOrders;
+    initKey(columnOrders);
   }
 
   boolean canPad(int[] columnOrder, byte[] in) {
@@ -190,8 +190,7 @@ public class PermutationCrypt implements TranspositionCipher, BlockCipher {
         if (param instanceof KeyParameter) {
           Key key = ((KeyParameter<?>) param).getKey();
           if (key instanceof PermutationKey) {
-            PermutationKey permutationKey = (PermutationKey) key;
-            this.columnOrders = permutationKey.getColumnOrder();
+            initKey(((PermutationKey) key).getColumnOrder());
             this.encryption = encryption;
             return;
           } else {
@@ -204,8 +203,7 @@ public class PermutationCrypt implements TranspositionCipher, BlockCipher {
     } else if (params instanceof KeyParameter) {
       Key key = ((KeyParameter<?>) params).getKey();
       if (key instanceof PermutationKey) {
-        PermutationKey permutationKey = (PermutationKey) key;
-        this.columnOrders = permutationKey.getColumnOrder();
+        initKey(((PermutationKey) key).getColumnOrder());
         this.encryption = encryption;
       } else {
         throw new IllegalArgumentException(invalidKeyTypeParamMessage());
@@ -217,7 +215,7 @@ public class PermutationCrypt implements TranspositionCipher, BlockCipher {
 
   @Override
   public String getAlgorithmName() {
-    return Algorithms.MONOALPHABET.getName();
+    return Algorithms.PERMUTATION.getName();
   }
 
   @Override
@@ -225,21 +223,65 @@ public class PermutationCrypt implements TranspositionCipher, BlockCipher {
     return new String[]{PermutationKey.class.getName()};
   }
 
+  /**
+   * @return columns x rows once a key is set, 0 before init
+   */
   @Override
   public int getBlockSize() {
-    return 0;
+    return segmentColumns == null ? 0 : segmentColumns.length * rows;
   }
 
-
+  /**
+   * Transpose exactly one block of {@link #getBlockSize()} bytes.
+   */
   @Override
   public int processBlock(byte[] in, int inOff, byte[] out, int outOff)
       throws RuntimeCipherException {
+    checkKey();
+    int blockSize = getBlockSize();
+    CipherUtils.checkBounds(in, inOff, blockSize, out, outOff,
+        encryption ? ExceptionMessages.PLAINTEXT_NOT_VALID
+            : ExceptionMessages.CIPHERTEXT_NOT_VALID);
     if (encryption) {
-      encrypt(in, out);
+      return encrypt(in, inOff, blockSize, rows, out, outOff);
     } else {
-      decrypt(in, out);
+      return decrypt(in, inOff, blockSize, rows, out, outOff, blockSize);
+    }
+  }
+
+  /**
+   * @return len rounded up to a whole row of C bytes
+   */
+  @Override
+  public int getFinalBlockSize(int len) {
+    int columnNum = segmentColumns == null ? 0 : segmentColumns.length;
+    if (columnNum == 0) {
+      return len;
+    }
+    return (len + columnNum - 1) / columnNum * columnNum;
+  }
+
+  /**
+   * Transpose last block of len bytes, a whole number of rows, on a grid of len / C rows.
+   */
+  @Override
+  public int processFinalBlock(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException {
+    checkKey();
+    int columnNum = segmentColumns.length;
+    if (len <= 0 || len > getBlockSize() || len % columnNum != 0) {
+      throw new IllegalArgumentException(
+          "Permutation last block must be whole rows of " + columnNum + " bytes.");
+    }
+    CipherUtils.checkBounds(in, inOff, len, out, outOff,
+        encryption ? ExceptionMessages.PLAINTEXT_NOT_VALID
+            : ExceptionMessages.CIPHERTEXT_NOT_VALID);
+    int rowNum = len / columnNum;
+    if (encryption) {
+      return encrypt(in, inOff, len, rowNum, out, outOff);
+    } else {
+      return decrypt(in, inOff, len, rowNum, out, outOff, len);
     }
-    return out.length - outOff;
   }
 
   @Override
@@ -247,9 +289,16 @@ public class PermutationCrypt implements TranspositionCipher, BlockCipher {
     //do nothing
   }
 
+  /**
+   * Encryption output is rounded up to whole rows, full blocks are whole rows too. Decryption output
+   * is at most input length.
+   */
   @Override
   public int getOutputSize(int inputLen) {
-    return 0;
+    if (!encryption) {
+      return inputLen;
+    }
+    return getFinalBlockSize(inputLen);
   }
 
 }
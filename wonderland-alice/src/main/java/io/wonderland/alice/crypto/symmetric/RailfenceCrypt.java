@@ -1,10 +1,12 @@
 package io.wonderland.alice.crypto.symmetric;
 
-import static io.wonderland.alice.exception.ExceptionMessages.ARRAY_OFFSET_NOT_VALID;
+import static io.wonderland.alice.exception.ExceptionMessages.CIPHERTEXT_NOT_VALID;
+import static io.wonderland.alice.exception.ExceptionMessages.KEY_NOT_VALID;
 import static io.wonderland.alice.exception.ExceptionMessages.PLAINTEXT_NOT_VALID;
 
 import io.wonderland.alice.crypto.Algorithms;
 import io.wonderland.alice.crypto.CipherParameter;
+import io.wonderland.alice.crypto.CipherUtils;
 import io.wonderland.alice.crypto.StreamCipher;
 import io.wonderland.alice.crypto.key.secretkey.RailfenceKey;
 import io.wonderland.alice.crypto.params.KeyParameter;
@@ -13,11 +15,9 @@ import io.wonderland.alice.crypto.params.ParameterList;
 import io.wonderland.alice.crypto.params.RawKeyParameter;
 import io.wonderland.alice.exception.RuntimeCipherException;
 import io.wonderland.base.IntUtils;
+import java.nio.ByteBuffer;
 import java.security.Key;
-import java.util.ArrayList;
-import java.util.List;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ArrayUtils;
 
 /**
  * Rail fence cipher implementation.
@@ -62,107 +62,153 @@ public final class RailfenceCrypt implements StreamCipher {
   public RailfenceCrypt() {
   }
 
-
-  public int encrypt(byte[] in, int inOff, byte[] out, int outOff) throws RuntimeCipherException {
-    if (ArrayUtils.isEmpty(in)) {
-      throw new IllegalArgumentException(PLAINTEXT_NOT_VALID);
-    }
-    if (inOff < 0 || outOff < 0) {
-      throw new IllegalArgumentException(ARRAY_OFFSET_NOT_VALID);
+  /**
+   * Number of bytes that land on a rail when a message of len bytes is written on the fence.
+   *
+   * @param len   message length
+   * @param rails number of rails
+   * @param rail  rail index, 0 is the top rail
+   * @return number of bytes on rail
+   */
+  public static int railLength(int len, int rails, int rail) {
+    rails = Math.min(rails, len);
+    if (rails <= 1) {
+      return rail == 0 ? len : 0;
+    } else if (rail < 0 || rail >= rails) {
+      return 0;
     }
-    Byte[][] matrix = new Byte[rails][in.length];
-    int row = 0;
-    boolean dirDown = false;
-    for (int i = 0, len = in.length - inOff; i < len; i++) {
-      if (row == 0 || row == rails - 1) {
-        dirDown = !dirDown;
-      }
-      matrix[row][i] = in[inOff + i];
-      if (dirDown) {
-        row++;
-      } else {
-        row--;
-      }
-    }
-    List<Byte> transposedBytes = new ArrayList<>();
-    for (Byte[] arr : matrix) {
-      for (Byte b : arr) {
-        if (b != null) {
-          transposedBytes.add(b);
-        }
-      }
+    int period = 2 * (rails - 1);
+    int cycles = len / period;
+    int rest = len % period;
+    if (rail == 0) {
+      return cycles + (rest > 0 ? 1 : 0);
+    } else if (rail == rails - 1) {
+      return cycles + (rest > rail ? 1 : 0);
+    } else {
+      return 2 * cycles + (rest > rail ? 1 : 0) + (rest > period - rail ? 1 : 0);
     }
+  }
 
-    for (int i = 0, len = transposedBytes.size(); i < len; i++) {
-      out[i] = transposedBytes.get(i);
+  /**
+   * Write message on the fence and read it off rail by rail, straight into out. Input and output
+   * ranges must not overlap.
+   */
+  public int encrypt(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException {
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, PLAINTEXT_NOT_VALID);
+    int written = 0;
+    int n = Math.min(rails, len);
+    for (int rail = 0; rail < n; rail++) {
+      written += encryptRail(in, inOff, len, rail, out, outOff + written);
     }
-    return out.length;
+    return written;
   }
 
-
-  public int decrypt(byte[] in, int inOff, byte[] out, int outOff) throws RuntimeCipherException {
-    if (ArrayUtils.isEmpty(in)) {
-      throw new IllegalArgumentException(PLAINTEXT_NOT_VALID);
+  /**
+   * Split ciphertext into rails of {@link #railLength(int, int, int)} bytes and scatter each rail
+   * back to its zig-zag positions in out. Input and output ranges must not overlap.
+   */
+  public int decrypt(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException {
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, CIPHERTEXT_NOT_VALID);
+    int read = 0;
+    int n = Math.min(rails, len);
+    for (int rail = 0; rail < n; rail++) {
+      read += decryptRail(in, inOff + read, rail, len, out, outOff);
     }
-    if (inOff < 0 || outOff < 0) {
-      throw new IllegalArgumentException(ARRAY_OFFSET_NOT_VALID);
+    return read;
+  }
 
+  /**
+   * Streaming encryption, emits only the bytes of one rail. Calling it for rails 0..N-1 in order
+   * and concatenating the output gives the ciphertext of in[inOff, inOff + len).
+   * <br>Position i of plaintext lies on rail r when i mod 2(N-1) equals r or 2(N-1) - r, so the
+   * rail is walked directly with alternating steps 2(N-1) - 2r and 2r.
+   *
+   * @param in     plaintext array
+   * @param inOff  offset of message in plaintext array
+   * @param len    message length
+   * @param rail   rail to emit
+   * @param out    output array, must have room for {@link #railLength(int, int, int)} bytes
+   * @param outOff offset into output array
+   * @return number of bytes emitted
+   */
+  public int encryptRail(byte[] in, int inOff, int len, int rail, byte[] out, int outOff) {
+    int n = Math.min(rails, len);
+    if (n <= 1) {
+      return copyWhole(in, inOff, len, rail, out, outOff);
     }
-
-    Byte[][] matrix = new Byte[rails][in.length];
-
-    //fill candidate slots with marker
-    int row = 0;
-    int col = 0;
-    boolean dirDown = true;
-    for (int i = 0, len = in.length - inOff; i < len; i++) {
-      if (row == 0) {
-        dirDown = true;
-      }
-      if (row == rails - 1) {
-        dirDown = false;
-      }
-      matrix[row][col++] = '*';
-      if (dirDown) {
-        row++;
-      } else {
-        row--;
+    int period = 2 * (n - 1);
+    int written = 0;
+    boolean down = true;
+    for (int i = rail; i < len; down = !down) {
+      out[outOff + written++] = in[inOff + i];
+      int step = step(period, rail, down);
+      if (len - i <= step) {
+        break;
       }
+      i += step;
     }
-    //Replace marker with character value on matrix
-    int index = 0;
-    for (int i = 0; i < matrix.length; i++) {
-      for (int j = 0; j < matrix[i].length; j++) {
-        if (matrix[i][j] != null && matrix[i][j] == '*') {
-          matrix[i][j] = in[index];
-          index++;
-        }
+    return written;
+  }
+
+  /**
+   * Streaming decryption, scatters the bytes of one rail back to their plaintext positions.
+   * Rails can be fed in order as they arrive, after rails 0..N-1 out[outOff, outOff + len) holds
+   * the plaintext.
+   *
+   * @param in     array holding rail bytes
+   * @param inOff  offset of rail bytes
+   * @param rail   rail being fed
+   * @param len    length of whole message
+   * @param out    plaintext array
+   * @param outOff offset of message in plaintext array
+   * @return number of bytes consumed from rail
+   */
+  public int decryptRail(byte[] in, int inOff, int rail, int len, byte[] out, int outOff) {
+    int n = Math.min(rails, len);
+    if (n <= 1) {
+      return copyWhole(in, inOff, len, rail, out, outOff);
+    }
+    int period = 2 * (n - 1);
+    int read = 0;
+    boolean down = true;
+    for (int i = rail; i < len; down = !down) {
+      out[outOff + i] = in[inOff + read++];
+      int step = step(period, rail, down);
+      if (len - i <= step) {
+        break;
       }
+      i += step;
     }
+    return read;
+  }
 
-    //Add zig-zag value into list
-    List<Byte> nonTransposedBytes = new ArrayList<>();
-    row = 0;
-    col = 0;
-    for (int i = 0, len = in.length - inOff; i < len; i++) {
-      if (row == 0) {
-        dirDown = true;
-      }
-      if (row == rails - 1) {
-        dirDown = false;
-      }
-      nonTransposedBytes.add(matrix[row][col++]);
-      if (dirDown) {
-        row++;
-      } else {
-        row--;
-      }
+  /**
+   * Distance to next position on same rail. Going down from rail r the zig-zag comes back after
+   * 2(N-1) - 2r positions, going up after 2r. Top and bottom rail are visited once per period.
+   */
+  private static int step(int period, int rail, boolean down) {
+    int step = down ? period - 2 * rail : 2 * rail;
+    return step == 0 ? period : step;
+  }
+
+  /**
+   * With one rail, or a message not longer than the rails, the fence keeps bytes in order.
+   */
+  private static int copyWhole(byte[] in, int inOff, int len, int rail, byte[] out, int outOff) {
+    if (rail != 0) {
+      return 0;
     }
+    System.arraycopy(in, inOff, out, outOff, len);
+    return len;
+  }
 
-    for (int i = 0, len = nonTransposedBytes.size(); i < len; i++) {
-      out[i] = nonTransposedBytes.get(i);
+  private void initKey(int rails) {
+    if (rails <= 0) {
+      throw new IllegalArgumentException(KEY_NOT_VALID + " Rails must be bigger than 0.");
     }
-    return out.length;
+    this.rails = rails;
   }
 
   @Override
@@ -173,7 +219,7 @@ public final class RailfenceCrypt implements StreamCipher {
         if (param instanceof KeyParameter) {
           Key key = ((KeyParameter<?>) param).getKey();
           if (key instanceof RailfenceKey) {
-            this.rails = ((RailfenceKey) key).getRails();
+            initKey(((RailfenceKey) key).getRails());
             this.encryption = encryption;
             return;
           } else {
@@ -182,7 +228,7 @@ public final class RailfenceCrypt implements StreamCipher {
         } else if (param instanceof KeyWithIVParameter) {
           Key key = ((KeyWithIVParameter<?>) param).getKey();
           if (key instanceof RailfenceKey) {
-            this.rails = ((RailfenceKey) key).getRails();
+            initKey(((RailfenceKey) key).getRails());
             this.encryption = encryption;
             return;
           } else {
@@ -195,7 +241,7 @@ public final class RailfenceCrypt implements StreamCipher {
     } else if (params instanceof KeyParameter) {
       Key key = ((KeyParameter<?>) params).getKey();
       if (key instanceof RailfenceKey) {
-        this.rails = ((RailfenceKey) key).getRails();
+        initKey(((RailfenceKey) key).getRails());
         this.encryption = encryption;
       } else {
         throw new IllegalArgumentException(invalidKeyTypeParamMessage());
@@ -203,14 +249,14 @@ public final class RailfenceCrypt implements StreamCipher {
     } else if (params instanceof KeyWithIVParameter) {
       Key key = ((KeyWithIVParameter<?>) params).getKey();
       if (key instanceof RailfenceKey) {
-        this.rails = ((RailfenceKey) key).getRails();
+        initKey(((RailfenceKey) key).getRails());
         this.encryption = encryption;
       } else {
         throw new IllegalArgumentException(invalidKeyTypeParamMessage());
       }
     } else if (params instanceof RawKeyParameter) {
       RawKeyParameter rawKeyParameter = (RawKeyParameter) params;
-      this.rails = IntUtils.parseInt(rawKeyParameter.getKey());
+      initKey(IntUtils.parseInt(rawKeyParameter.getKey()));
       this.encryption = encryption;
     } else {
       throw new IllegalArgumentException(invalidParamMessage());
@@ -236,10 +282,29 @@ public final class RailfenceCrypt implements StreamCipher {
   public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
       throws RuntimeCipherException, IllegalStateException {
     if (encryption) {
-      return encrypt(in, inOff, out, outOff);
+      return encrypt(in, inOff, len, out, outOff);
     } else {
-      return decrypt(in, inOff, out, outOff);
+      return decrypt(in, inOff, len, out, outOff);
+    }
+  }
+
+  /**
+   * Transposition needs random access to whole message, heap buffers are transposed on their
+   * backing arrays, other buffers through one intermediate array of message length.
+   */
+  @Override
+  public int processBuffer(ByteBuffer in, ByteBuffer out)
+      throws RuntimeCipherException, IllegalStateException {
+    if (in.hasArray() && out.hasArray()) {
+      return StreamCipher.super.processBuffer(in, out);
     }
+    int len = CipherUtils.checkBounds(in, out);
+    byte[] input = new byte[len];
+    byte[] output = new byte[len];
+    in.get(input);
+    int processed = processBytes(input, 0, len, output, 0);
+    out.put(output, 0, processed);
+    return processed;
   }
 
   @Override
@@ -1,7 +1,9 @@
 package io.wonderland.alice.crypto.symmetric;
 
+import io.wonderland.alice.charset.CharsetsUtils;
 import io.wonderland.alice.crypto.Algorithms;
 import io.wonderland.alice.crypto.CipherParameter;
+import io.wonderland.alice.crypto.CipherUtils;
 import io.wonderland.alice.crypto.StreamCipher;
 import io.wonderland.alice.crypto.key.secretkey.VernamKey;
 import io.wonderland.alice.crypto.params.KeyParameter;
@@ -10,6 +12,7 @@ import io.wonderland.alice.crypto.params.ParameterList;
 import io.wonderland.alice.crypto.params.RawKeyParameter;
 import io.wonderland.alice.exception.ExceptionMessages;
 import io.wonderland.alice.exception.RuntimeCipherException;
+import java.nio.ByteBuffer;
 import java.security.Key;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
@@ -46,62 +49,53 @@ public final class VernamCrypt implements StreamCipher {
 
   private int m;
   private byte[] key;
+  private int keyIndex;
   private boolean encryption;
 
   public VernamCrypt() {
   }
 
-  public int encrypt(byte[] in, int inOff, byte[] out, int outOff) throws RuntimeCipherException {
-    if (ArrayUtils.isEmpty(in)) {
-      throw new IllegalArgumentException(ExceptionMessages.PLAINTEXT_NOT_VALID);
-    }
-    if (inOff < 0 || outOff < 0) {
-      throw new IllegalArgumentException(ExceptionMessages.ARRAY_OFFSET_NOT_VALID);
-
-    }
+  public int encrypt(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException {
     if (ArrayUtils.isEmpty(key)) {
       throw new IllegalArgumentException(ExceptionMessages.KEY_NOT_VALID);
     }
-    if (key.length < in.length) {
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, ExceptionMessages.PLAINTEXT_NOT_VALID);
+    if (key.length - keyIndex < len) {
       throw new IllegalArgumentException(
           "Vernam cipher requires key length bigger/equal to plaintext length.");
     }
-    int len = in.length - inOff;
+    final byte[] k = key;
+    final int j = keyIndex;
     for (int i = 0; i < len; i++) {
-      byte p = in[inOff + i];
-      int c = (p ^ key[inOff + i]) % m;
-      out[outOff + i] = (byte) c;
+      out[outOff + i] = (byte) ((in[inOff + i] ^ k[j + i]) % m);
     }
+    keyIndex = j + len;
     return len;
   }
 
-
-  public int decrypt(byte[] in, int inOff, byte[] out, int outOff) throws RuntimeCipherException {
-    if (ArrayUtils.isEmpty(in)) {
-      throw new IllegalArgumentException(ExceptionMessages.CIPHERTEXT_NOT_VALID);
-    }
-    if (inOff < 0 || outOff < 0) {
-      throw new IllegalArgumentException(ExceptionMessages.ARRAY_OFFSET_NOT_VALID);
-
-    }
+  public int decrypt(byte[] in, int inOff, int len, byte[] out, int outOff)
+      throws RuntimeCipherException {
     if (ArrayUtils.isEmpty(key)) {
       throw new IllegalArgumentException(ExceptionMessages.KEY_NOT_VALID);
     }
-    if (key.length < in.length) {
+    CipherUtils.checkBounds(in, inOff, len, out, outOff, ExceptionMessages.CIPHERTEXT_NOT_VALID);
+    if (key.length - keyIndex < len) {
       throw new IllegalArgumentException(
           "Vernam cipher requires key length bigger/equal to ciphertext length.");
     }
-    int len = in.length - inOff;
+    final byte[] k = key;
+    final int j = keyIndex;
     for (int i = 0; i < len; i++) {
-      byte c = in[inOff + i];
-      int p = (c ^ key[inOff + i]) % m;
-      out[outOff + i] = (byte) p;
+      out[outOff + i] = (byte) ((in[inOff + i] ^ k[j + i]) % m);
     }
+    keyIndex = j + len;
     return len;
   }
 
   @Override
   public void init(boolean encryption, CipherParameter params) throws IllegalArgumentException {
+    this.keyIndex = 0;
     if (params instanceof ParameterList) {
       ParameterList parameterList = (ParameterList) params;
       for (CipherParameter param : parameterList) {
@@ -154,6 +148,7 @@ public final class VernamCrypt implements StreamCipher {
     } else if (params instanceof RawKeyParameter) {
       RawKeyParameter rawKeyParameter = (RawKeyParameter) params;
       this.key = rawKeyParameter.getKey();
+      this.m = CharsetsUtils.getDefaultAlphabetSize();
       this.encryption = encryption;
     } else {
       throw new IllegalArgumentException(invalidParamMessage());
@@ -186,15 +181,44 @@ public final class VernamCrypt implements StreamCipher {
   public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
       throws RuntimeCipherException, IllegalStateException {
     if (encryption) {
-      return encrypt(in, inOff, out, outOff);
+      return encrypt(in, inOff, len, out, outOff);
     } else {
-      return decrypt(in, inOff, out, outOff);
+      return decrypt(in, inOff, len, out, outOff);
+    }
+  }
+
+  @Override
+  public int processBuffer(ByteBuffer in, ByteBuffer out)
+      throws RuntimeCipherException, IllegalStateException {
+    if (in.hasArray() && out.hasArray()) {
+      return StreamCipher.super.processBuffer(in, out);
+    }
+    if (ArrayUtils.isEmpty(key)) {
+      throw new IllegalArgumentException(ExceptionMessages.KEY_NOT_VALID);
     }
+    int len = CipherUtils.checkBounds(in, out);
+    if (key.length - keyIndex < len) {
+      throw new IllegalArgumentException(
+          "Vernam cipher requires key length bigger/equal to " + (encryption ? "plaintext"
+              : "ciphertext") + " length.");
+    }
+    int inPos = in.position();
+    int outPos = out.position();
+    final byte[] k = key;
+    final int j = keyIndex;
+    for (int i = 0; i < len; i++) {
+      out.put(outPos + i, (byte) ((in.get(inPos + i) ^ k[j + i]) % m));
+    }
+    keyIndex = j + len;
+    in.position(inPos + len);
+    out.position(outPos + len);
+    return len;
   }
 
   @Override
   public void reset() {
-    //nothing to be done to reset vernam
+    //restart keystream from first key element
+    this.keyIndex = 0;
   }
 
 }
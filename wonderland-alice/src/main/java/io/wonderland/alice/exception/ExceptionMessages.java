@@ -4,6 +4,8 @@ public final class ExceptionMessages {
 
 
   public static final String ARRAY_OFFSET_NOT_VALID = "Array offset can't be less than 0.";
+  public static final String INPUT_LENGTH_NOT_VALID = "Input length out of input array bounds.";
+  public static final String OUTPUT_BUFFER_TOO_SHORT = "Output array too short for processed input.";
   public static final String PLAINTEXT_NOT_VALID = "Plaintext can't be empty.";
   public static final String CIPHERTEXT_NOT_VALID = "Ciphertext can't be empty.";
   public static final String KEY_NOT_VALID = "Key can't be null or empty.";
@@ -6,6 +6,7 @@ import io.wonderland.alice.crypto.padding.Padding;
 import io.wonderland.alice.crypto.padding.Paddings;
 import io.wonderland.alice.crypto.params.KeyParameter;
 import io.wonderland.alice.crypto.params.ParameterList;
+import io.wonderland.alice.crypto.spec.MultiBlockParameterSpec;
 import io.wonderland.alice.crypto.spec.SpecUtils;
 import io.wonderland.alice.crypto.stream.ResettableOutputStream;
 import io.wonderland.alice.exception.GenericPaddingException;
@@ -20,7 +21,13 @@ import java.security.SecureRandom;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.AlgorithmParameterSpec;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.NoSuchPaddingException;
@@ -28,8 +35,20 @@ import javax.crypto.ShortBufferException;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 
+/**
+ * RSA cipher provider.
+ * <br>
+ * <br> Default mode (NONE/ECB) processes one block, input longer than
+ * {@link AsymmetricCipher#getInputBlockSize()} is rejected.
+ * <br> Mode MULTIBLOCK, or init with a {@link MultiBlockParameterSpec}, splits input of any length
+ * into blocks, processes them concurrently and frames every output block as described in
+ * {@link MultiBlockParameterSpec}. Whole blocks are emitted on update, last partial block on
+ * doFinal.
+ */
 public class RSACipherSpi extends AsymmetricCipherSpi {
 
+  private static final int FRAME_HEADER = Integer.BYTES;
+
   private final AsymmetricCipher cipher;
   private final ResettableOutputStream buffer = new ResettableOutputStream();
   protected Class<AlgorithmParameterSpec>[] availableSpecs = SpecUtils.rsaAlgParamSpecs();
@@ -39,6 +58,10 @@ public class RSACipherSpi extends AsymmetricCipherSpi {
   private Padding padding;
   private boolean publicKeyOnly = false;
   private boolean privateKeyOnly = false;
+  private boolean multiBlockMode = false;
+  private boolean multiBlock = false;
+  private boolean encryption;
+  private Executor executor = ForkJoinPool.commonPool();
 
   public RSACipherSpi(AsymmetricCipher cipher) {
     this.cipher = cipher;
@@ -70,7 +93,16 @@ public class RSACipherSpi extends AsymmetricCipherSpi {
 
   @Override
   protected int engineGetOutputSize(int inputLen) {
-    return cipher.getOutputBlockSize();
+    if (!multiBlock) {
+      return cipher.getOutputBlockSize();
+    }
+    int total = buffer.size() + inputLen;
+    if (encryption) {
+      int blocks = (total + cipher.getInputBlockSize() - 1) / cipher.getInputBlockSize();
+      return blocks * (FRAME_HEADER + cipher.getOutputBlockSize());
+    } else {
+      return total / (FRAME_HEADER + cipher.getInputBlockSize()) * cipher.getOutputBlockSize();
+    }
   }
 
   @Override
@@ -92,14 +124,22 @@ public class RSACipherSpi extends AsymmetricCipherSpi {
     switch (modeUpperCase) {
       case "NONE":
       case "ECB":
+        multiBlockMode = false;
+        multiBlock = false;
+        return;
+      case "MULTIBLOCK":
+        multiBlockMode = true;
+        multiBlock = true;
         return;
       case "1":
         privateKeyOnly = true;
         publicKeyOnly = false;
-        break;
+        return;
       case "2":
         privateKeyOnly = false;
         publicKeyOnly = true;
+        return;
+      default:
         break;
     }
     throw new NoSuchAlgorithmException("Can't support mode " + mode);
@@ -139,14 +179,24 @@ public class RSACipherSpi extends AsymmetricCipherSpi {
     } else {
       throw new InvalidKeyException("Unknown key " + key + " passed to RSA init.");
     }
+    //spec applies to this init only, without it mode decides
+    if (algorithmParameterSpec instanceof MultiBlockParameterSpec) {
+      this.multiBlock = true;
+      this.executor = ((MultiBlockParameterSpec) algorithmParameterSpec).getExecutor();
+    } else {
+      this.multiBlock = multiBlockMode;
+      this.executor = ForkJoinPool.commonPool();
+    }
     //reset cipher buffer before init
     buffer.reset();
     switch (opmode) {
       case Cipher.ENCRYPT_MODE:
         cipher.init(true, cipherParams);
+        this.encryption = true;
         break;
       case Cipher.DECRYPT_MODE:
         cipher.init(false, cipherParams);
+        this.encryption = false;
         break;
       default:
         throw new IllegalArgumentException("Unknown opmode " + opmode + " passed to RSA init.");
@@ -187,6 +237,10 @@ public class RSACipherSpi extends AsymmetricCipherSpi {
 
   @Override
   protected byte[] engineUpdate(byte[] input, int inputOffset, int inputLen) {
+    if (multiBlock) {
+      this.buffer.write(input, inputOffset, inputLen);
+      return processFrames(false);
+    }
     final int bufferSize = this.buffer.size();
     if (inputLen > cipher.getInputBlockSize() - bufferSize) {
       throw new ArrayIndexOutOfBoundsException("To much input for RSA.");
@@ -199,6 +253,13 @@ public class RSACipherSpi extends AsymmetricCipherSpi {
   protected int engineUpdate(byte[] input, int inputOffset, int inputLen, byte[] output,
       int outputOffset)
       throws ShortBufferException {
+    if (multiBlock) {
+      checkOutput(engineGetOutputSize(inputLen), output, outputOffset);
+      this.buffer.write(input, inputOffset, inputLen);
+      byte[] processed = processFrames(false);
+      System.arraycopy(processed, 0, output, outputOffset, processed.length);
+      return processed.length;
+    }
     final int bufferSize = this.buffer.size();
     if (inputLen > cipher.getInputBlockSize() - bufferSize) {
       throw new ShortBufferException("To much input for RSA.");
@@ -211,6 +272,10 @@ public class RSACipherSpi extends AsymmetricCipherSpi {
   protected byte[] engineDoFinal(byte[] input, int inputOffset, int inputLen)
       throws BadPaddingException {
     try {
+      if (multiBlock) {
+        this.buffer.write(input, inputOffset, inputLen);
+        return processFrames(true);
+      }
       engineUpdate(input, inputOffset, inputLen);
       byte[] processedBlock = cipher.processBlock(this.buffer.getBuffer(), 0, this.buffer.size());
       return processedBlock;
@@ -228,6 +293,13 @@ public class RSACipherSpi extends AsymmetricCipherSpi {
       int outputOffset)
       throws ShortBufferException, BadPaddingException {
     try {
+      if (multiBlock) {
+        checkOutput(engineGetOutputSize(inputLen), output, outputOffset);
+        this.buffer.write(input, inputOffset, inputLen);
+        byte[] processed = processFrames(true);
+        System.arraycopy(processed, 0, output, outputOffset, processed.length);
+        return processed.length;
+      }
       engineUpdate(input, inputOffset, inputLen, output, outputOffset);
       byte[] processedBlock = cipher.processBlock(this.buffer.getBuffer(), 0, this.buffer.size());
 
@@ -237,9 +309,10 @@ public class RSACipherSpi extends AsymmetricCipherSpi {
       }
       //reset arrays
       Arrays.fill(input, (byte) 0);
+      int processedLen = processedBlock.length;
       Arrays.fill(processedBlock, (byte) 0);
 
-      return ZERO;
+      return processedLen;
     } catch (RuntimeCipherException e) {
       throw new GenericPaddingException("Failed cipher.", e);
     } finally {
@@ -249,5 +322,115 @@ public class RSACipherSpi extends AsymmetricCipherSpi {
     }
   }
 
+  /**
+   * Process every whole unit held in buffer, a unit is an input block when encrypting and a frame
+   * when decrypting. Units left over stay buffered, on last call a partial input block is
+   * processed too while a partial frame means ciphertext was truncated.
+   */
+  private byte[] processFrames(boolean last) {
+    byte[] data = buffer.getBuffer();
+    int len = buffer.size();
+    int inBlock = cipher.getInputBlockSize();
+    int outBlock = cipher.getOutputBlockSize();
+    int unit = encryption ? inBlock : FRAME_HEADER + inBlock;
+    int units = len / unit;
+    int rest = len - units * unit;
+    if (last && rest > 0) {
+      if (!encryption) {
+        throw new RuntimeCipherException("Truncated RSA frame, " + rest + " bytes left over.");
+      }
+      units++;
+      rest = 0;
+    }
+
+    List<CompletableFuture<byte[]>> blocks = new ArrayList<>(units);
+    int[] lengths = new int[units];
+    for (int i = 0; i < units; i++) {
+      int offset = i * unit;
+      if (encryption) {
+        lengths[i] = Math.min(inBlock, len - offset);
+        blocks.add(processAsync(data, offset, lengths[i], units));
+      } else {
+        lengths[i] = readInt(data, offset);
+        if (lengths[i] < 0 || lengths[i] > outBlock) {
+          throw new RuntimeCipherException("RSA frame length " + lengths[i] + " not valid.");
+        }
+        blocks.add(processAsync(data, offset + FRAME_HEADER, inBlock, units));
+      }
+    }
+
+    byte[] out = new byte[units * (encryption ? FRAME_HEADER + outBlock : outBlock)];
+    int outLen = 0;
+    for (int i = 0; i < units; i++) {
+      byte[] block = join(blocks.get(i));
+      if (encryption) {
+        writeInt(lengths[i], out, outLen);
+        outLen += FRAME_HEADER;
+        outLen += copyRight(block, out, outLen, outBlock);
+      } else {
+        outLen += copyRight(block, out, outLen, lengths[i]);
+      }
+      Arrays.fill(block, (byte) 0);
+    }
+
+    //keep partial unit for next call
+    byte[] remainder = Arrays.copyOfRange(data, len - rest, len);
+    buffer.reset();
+    buffer.write(remainder, 0, remainder.length);
+    Arrays.fill(remainder, (byte) 0);
+    return outLen == out.length ? out : Arrays.copyOf(out, outLen);
+  }
+
+  private CompletableFuture<byte[]> processAsync(byte[] data, int offset, int len, int units) {
+    if (units == 1) {
+      //no point handing a single block to executor
+      return CompletableFuture.completedFuture(cipher.processBlock(data, offset, len));
+    }
+    return CompletableFuture.supplyAsync(() -> cipher.processBlock(data, offset, len), executor);
+  }
+
+  private static byte[] join(CompletableFuture<byte[]> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeCipherException("RSA block failed.", e.getCause());
+    }
+  }
+
+  /**
+   * Copy block into exactly len bytes of out, left padded with zeros.
+   *
+   * @return len
+   */
+  private static int copyRight(byte[] block, byte[] out, int outOff, int len) {
+    if (block.length > len) {
+      throw new RuntimeCipherException(
+          "RSA block of " + block.length + " bytes doesn't fit in " + len + " bytes.");
+    }
+    System.arraycopy(block, 0, out, outOff + len - block.length, block.length);
+    return len;
+  }
+
+  private static void checkOutput(int outputSize, byte[] output, int outputOffset)
+      throws ShortBufferException {
+    if (output == null || outputOffset < 0 || output.length - outputOffset < outputSize) {
+      throw new ShortBufferException("Output buffer too short, needs " + outputSize + " bytes.");
+    }
+  }
+
+  private static int readInt(byte[] in, int off) {
+    return (in[off] & 0xFF) << 24 | (in[off + 1] & 0xFF) << 16 | (in[off + 2] & 0xFF) << 8
+        | (in[off + 3] & 0xFF);
+  }
+
+  private static void writeInt(int value, byte[] out, int off) {
+    out[off] = (byte) (value >>> 24);
+    out[off + 1] = (byte) (value >>> 16);
+    out[off + 2] = (byte) (value >>> 8);
+    out[off + 3] = (byte) value;
+  }
 
 }
@@ -2,11 +2,16 @@ package io.wonderland.alice.jca.symmetric;
 
 
 import io.wonderland.alice.crypto.BlockCipher;
+import io.wonderland.alice.crypto.StreamCipher;
 import io.wonderland.alice.crypto.mode.BlockMode;
 import io.wonderland.alice.crypto.mode.CBCBlockCipher;
 import io.wonderland.alice.crypto.mode.CTRBlockCipher;
+import io.wonderland.alice.crypto.mode.ECBBlockCipher;
+import io.wonderland.alice.crypto.mode.IVBlockCipher;
+import io.wonderland.alice.crypto.padding.BlockPadding;
 import io.wonderland.alice.crypto.padding.Padding;
 import io.wonderland.alice.crypto.padding.Paddings;
+import io.wonderland.alice.crypto.params.IVParameter;
 import io.wonderland.alice.crypto.params.IVWithParameter;
 import io.wonderland.alice.crypto.params.KeyParameter;
 import io.wonderland.alice.crypto.params.ParameterList;
@@ -14,6 +19,7 @@ import io.wonderland.alice.crypto.spec.SpecUtils;
 import io.wonderland.alice.crypto.stream.ResettableOutputStream;
 import io.wonderland.alice.exception.GenericPaddingException;
 import io.wonderland.alice.exception.RuntimeCipherException;
+import java.nio.ByteBuffer;
 import java.security.AlgorithmParameters;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
@@ -25,9 +31,11 @@ import java.util.Arrays;
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.CipherSpi;
+import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
 import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 
@@ -37,6 +45,7 @@ public abstract class BlockCipherSpi extends CipherSpi {
   protected static final int ZERO = 0;
   private final ResettableOutputStream buffer = new ResettableOutputStream();
   protected Class<AlgorithmParameterSpec>[] availableSpecs = SpecUtils.blockCipherAlgParamSpecs();
+  private final BlockCipher baseCipher;
   private BlockCipher cipher;
   private AlgorithmParameterSpec paramSpec;
   private AlgorithmParameters algParams;
@@ -44,13 +53,20 @@ public abstract class BlockCipherSpi extends CipherSpi {
   private Padding padding;
   private int bitKeySize;
   private int ivLen = 0;
+  private boolean encryption = true;
 
   public BlockCipherSpi(BlockCipher cipher) {
+    this(cipher, Paddings.NO_PADDING.create());
+  }
+
+  public BlockCipherSpi(BlockCipher cipher, Padding padding) {
+    this.baseCipher = cipher;
     this.cipher = cipher;
-    this.padding = Paddings.NO_PADDING.create();
+    this.padding = padding;
   }
 
   public BlockCipherSpi(BlockCipher cipher, IVWithParameter ivParam, int bitKeySize, int ivLen) {
+    this.baseCipher = cipher;
     this.cipher = cipher;
     this.ivParam = ivParam;
     this.bitKeySize = bitKeySize;
@@ -81,7 +97,7 @@ public abstract class BlockCipherSpi extends CipherSpi {
 
   @Override
   protected int engineGetOutputSize(int inputLen) {
-    return cipher.getOutputSize(inputLen);
+    return cipher.getOutputSize(buffer.size() + inputLen);
   }
 
   @Override
@@ -95,23 +111,26 @@ public abstract class BlockCipherSpi extends CipherSpi {
       throw new NoSuchAlgorithmException("Can't support mode " + mode);
     }
     String modeName = mode.trim().toUpperCase();
-    BlockMode blockMode = BlockMode.parse(modeName);
+    BlockMode blockMode;
+    try {
+      blockMode = BlockMode.parse(modeName);
+    } catch (IllegalArgumentException e) {
+      throw new NoSuchAlgorithmException("Can't support mode " + mode, e);
+    }
+    //iv length is known once key has set block size, see engineInit
     switch (blockMode) {
       case ECB:
-        ivLen = 0;
+        this.cipher = new ECBBlockCipher(baseCipher);
         break;
       case CBC:
-        this.ivLen = cipher.getBlockSize();
-        this.cipher = new CBCBlockCipher(cipher);
+        this.cipher = new CBCBlockCipher(baseCipher);
         break;
       case CTR:
-        this.ivLen = cipher.getBlockSize();
-        this.cipher = new CTRBlockCipher(cipher);
+        this.cipher = new CTRBlockCipher(baseCipher);
         break;
       default:
         throw new NoSuchAlgorithmException("Block cipher mode " + blockMode + " not supported");
     }
-    throw new NoSuchAlgorithmException("Can't support mode " + mode);
   }
 
   @Override
@@ -142,20 +161,32 @@ public abstract class BlockCipherSpi extends CipherSpi {
           String.format("Key for algorithm %s not suitable for symmetric encryption",
               key.getAlgorithm()));
     }
-    parameterList.add(new KeyParameter<>(key));
+    KeyParameter<Key> keyParam = new KeyParameter<>(key);
+    parameterList.add(keyParam);
+    if (cipher instanceof IVBlockCipher && algorithmParameterSpec instanceof IvParameterSpec) {
+      parameterList.add(new IVParameter(((IvParameterSpec) algorithmParameterSpec).getIV()));
+    }
 
     //reset cipher buffer before init
     buffer.reset();
     switch (opmode) {
       case Cipher.ENCRYPT_MODE:
         cipher.init(true, parameterList);
+        this.encryption = true;
         break;
       case Cipher.DECRYPT_MODE:
         cipher.init(false, parameterList);
+        this.encryption = false;
         break;
       default:
         throw new IllegalArgumentException("Unknown opmode " + opmode + " passed to RSA init.");
     }
+    if (cipher instanceof IVBlockCipher) {
+      //iv given or generated by mode
+      byte[] iv = ((IVBlockCipher) cipher).getIv();
+      this.ivParam = new IVWithParameter(keyParam, iv);
+      this.ivLen = iv.length;
+    }
   }
 
   @Override
@@ -192,30 +223,39 @@ public abstract class BlockCipherSpi extends CipherSpi {
 
   @Override
   protected byte[] engineUpdate(byte[] input, int inputOffset, int inputLen) {
-    this.buffer.write(input, inputOffset, inputLen);
-    return EMPTY_ARRAY;
+    int outputSize = updateOutputSize(inputLen);
+    if (outputSize == 0) {
+      processBlocks(input, inputOffset, inputLen, EMPTY_ARRAY, 0);
+      return EMPTY_ARRAY;
+    }
+    byte[] output = new byte[outputSize];
+    processBlocks(input, inputOffset, inputLen, output, 0);
+    return output;
   }
 
   @Override
   protected int engineUpdate(byte[] input, int inputOffset, int inputLen, byte[] output,
-      int outputOffset) {
-    this.buffer.write(input, inputOffset, inputLen);
-    return ZERO;
+      int outputOffset) throws ShortBufferException {
+    if (outputOffset + updateOutputSize(inputLen) > output.length) {
+      throw new ShortBufferException("Output array too short for processed input.");
+    }
+    return processBlocks(input, inputOffset, inputLen, output, outputOffset);
   }
 
   @Override
   protected byte[] engineDoFinal(byte[] input, int inputOffset, int inputLen)
-      throws BadPaddingException {
+      throws IllegalBlockSizeException, BadPaddingException {
     try {
-      engineUpdate(input, inputOffset, inputLen);
-      int outputSize = engineGetOutputSize(inputLen);
-      byte[] output = new byte[outputSize];
-      cipher.processBlock(this.buffer.getBuffer(), 0, output, 0);
+      byte[] output = new byte[engineGetOutputSize(inputLen)];
+      int produced = processBlocks(input, inputOffset, inputLen, output, 0);
+      produced += finishBlock(output, produced);
 
       //reset input array
-      Arrays.fill(input, (byte) 0);
+      if (input != null) {
+        Arrays.fill(input, (byte) 0);
+      }
 
-      return output;
+      return produced == output.length ? output : Arrays.copyOf(output, produced);
     } catch (RuntimeCipherException e) {
       throw new GenericPaddingException(e.getMessage(), e);
     } finally {
@@ -228,19 +268,20 @@ public abstract class BlockCipherSpi extends CipherSpi {
   @Override
   protected int engineDoFinal(byte[] input, int inputOffset, int inputLen, byte[] output,
       int outputOffset)
-      throws ShortBufferException, BadPaddingException {
+      throws ShortBufferException, IllegalBlockSizeException, BadPaddingException {
     if (outputOffset + engineGetOutputSize(inputLen) > output.length) {
       throw new ShortBufferException("Output array too short for processed input.");
     }
     try {
-      engineUpdate(input, inputOffset, inputLen, output, outputOffset);
-
-      cipher.processBlock(this.buffer.getBuffer(), 0, output, outputOffset);
+      int produced = processBlocks(input, inputOffset, inputLen, output, outputOffset);
+      produced += finishBlock(output, outputOffset + produced);
 
       //reset arrays
-      Arrays.fill(input, (byte) 0);
+      if (input != null) {
+        Arrays.fill(input, (byte) 0);
+      }
 
-      return ZERO;
+      return produced;
     } catch (RuntimeCipherException e) {
       throw new GenericPaddingException("Failed cipher.", e);
     } finally {
@@ -250,5 +291,188 @@ public abstract class BlockCipherSpi extends CipherSpi {
     }
   }
 
+  @Override
+  protected int engineUpdate(ByteBuffer input, ByteBuffer output) throws ShortBufferException {
+    if (output.remaining() < updateOutputSize(input.remaining())) {
+      throw new ShortBufferException("Output buffer too short for processed input.");
+    }
+    return processBlocks(input, output);
+  }
+
+  @Override
+  protected int engineDoFinal(ByteBuffer input, ByteBuffer output)
+      throws ShortBufferException, IllegalBlockSizeException, BadPaddingException {
+    if (output.remaining() < engineGetOutputSize(input.remaining())) {
+      throw new ShortBufferException("Output buffer too short for processed input.");
+    }
+    try {
+      int produced = processBlocks(input, output);
+      byte[] tail = new byte[Math.max(cipher.getBlockSize(), cipher.getOutputSize(buffer.size()))];
+      int tailSize = finishBlock(tail, 0);
+      output.put(tail, 0, tailSize);
+      Arrays.fill(tail, (byte) 0);
+      return produced + tailSize;
+    } catch (RuntimeCipherException e) {
+      throw new GenericPaddingException("Failed cipher.", e);
+    } finally {
+      //reset cipher & buffers
+      buffer.reset();
+      cipher.reset();
+    }
+  }
+
+  /**
+   * Number of bytes an update of inputLen bytes produces, only whole blocks are processed.
+   */
+  private int updateOutputSize(int inputLen) {
+    int blockSize = cipher.getBlockSize();
+    if (blockSize <= 0) {
+      return 0;
+    }
+    int total = buffer.size() + inputLen;
+    int blocks = total / blockSize;
+    if (holdLastBlock() && blocks > 0 && total % blockSize == 0) {
+      blocks--;
+    }
+    return blocks * blockSize;
+  }
+
+  /**
+   * When decrypting with padding, last full block is kept in buffer until doFinal so that its
+   * padding can be removed.
+   */
+  private boolean holdLastBlock() {
+    return !encryption && padding instanceof BlockPadding;
+  }
+
+  /**
+   * Process as many whole blocks as available straight from input in one
+   * {@link BlockCipher#processBlocks(byte[], int, int, byte[], int)} call, so block modes can
+   * spread them over cores. Only a partial block (or the held back last block) stays in buffer.
+   * Ciphers without a block size are buffered whole and processed at doFinal.
+   *
+   * @return number of bytes written to output
+   */
+  private int processBlocks(byte[] input, int inputOffset, int inputLen, byte[] output,
+      int outputOffset) {
+    if (input == null || inputLen <= 0) {
+      return ZERO;
+    }
+    int blockSize = cipher.getBlockSize();
+    if (blockSize <= 0) {
+      this.buffer.write(input, inputOffset, inputLen);
+      return ZERO;
+    }
+    boolean holdLast = holdLastBlock();
+    int produced = 0;
+    if (buffer.size() > 0) {
+      int fill = Math.min(blockSize - buffer.size(), inputLen);
+      this.buffer.write(input, inputOffset, fill);
+      inputOffset += fill;
+      inputLen -= fill;
+      if (buffer.size() < blockSize || (holdLast && inputLen == 0)) {
+        return ZERO;
+      }
+      produced += cipher.processBlock(buffer.getBuffer(), 0, output, outputOffset);
+      buffer.reset();
+    }
+    int blocks = inputLen / blockSize;
+    if (holdLast && blocks > 0 && inputLen % blockSize == 0) {
+      blocks--;
+    }
+    if (blocks > 0) {
+      produced += cipher.processBlocks(input, inputOffset, blocks, output,
+          outputOffset + produced);
+      inputOffset += blocks * blockSize;
+      inputLen -= blocks * blockSize;
+    }
+    this.buffer.write(input, inputOffset, inputLen);
+    return produced;
+  }
+
+  /**
+   * Buffer variant of {@link #processBlocks(byte[], int, int, byte[], int)}. Heap buffers are
+   * processed on their backing arrays, other buffers through bounded intermediate arrays.
+   */
+  private int processBlocks(ByteBuffer input, ByteBuffer output) {
+    if (input.hasArray() && output.hasArray()) {
+      int outputPosition = output.position();
+      int produced = processBlocks(input.array(), input.arrayOffset() + input.position(),
+          input.remaining(), output.array(), output.arrayOffset() + outputPosition);
+      input.position(input.limit());
+      output.position(outputPosition + produced);
+      return produced;
+    }
+    byte[] chunk = new byte[Math.min(input.remaining(), StreamCipher.BUFFER_CHUNK_SIZE)];
+    int produced = 0;
+    while (input.hasRemaining()) {
+      int n = Math.min(chunk.length, input.remaining());
+      input.get(chunk, 0, n);
+      byte[] processed = new byte[updateOutputSize(n)];
+      int processedSize = processBlocks(chunk, 0, n, processed, 0);
+      output.put(processed, 0, processedSize);
+      Arrays.fill(processed, (byte) 0);
+      produced += processedSize;
+    }
+    Arrays.fill(chunk, (byte) 0);
+    return produced;
+  }
+
+  /**
+   * Process what is left in buffer at doFinal. A partial last block is padded up to
+   * {@link BlockCipher#getFinalBlockSize(int)} when encrypting, padding of last block is removed
+   * when decrypting.
+   *
+   * @return number of bytes written to output
+   */
+  private int finishBlock(byte[] output, int outputOffset)
+      throws IllegalBlockSizeException, BadPaddingException {
+    int blockSize = cipher.getBlockSize();
+    int buffered = buffer.size();
+    if (blockSize <= 0) {
+      if (buffered == 0) {
+        return ZERO;
+      }
+      cipher.processBlock(buffer.getBuffer(), 0, output, outputOffset);
+      return cipher.getOutputSize(buffered);
+    }
+    if (buffered == 0) {
+      return ZERO;
+    }
+    if (buffered < blockSize && cipher instanceof StreamCipher
+        && !(padding instanceof BlockPadding)) {
+      //keystream modes need no padding
+      return ((StreamCipher) cipher).processBytes(buffer.getBuffer(), 0, buffered, output,
+          outputOffset);
+    }
+    int finalSize = cipher.getFinalBlockSize(buffered);
+    if (buffered < finalSize && (!encryption || !(padding instanceof BlockPadding))) {
+      throw new IllegalBlockSizeException(
+          "Input length not multiple of " + blockSize + " bytes block size.");
+    }
+    byte[] block = Arrays.copyOf(buffer.getBuffer(), finalSize);
+    try {
+      if (encryption) {
+        if (buffered < finalSize) {
+          ((BlockPadding<?>) padding).addPadding(block, buffered);
+        }
+        return cipher.processFinalBlock(block, 0, finalSize, output, outputOffset);
+      }
+      byte[] processed = new byte[finalSize];
+      try {
+        cipher.processFinalBlock(block, 0, finalSize, processed, 0);
+        int size = finalSize;
+        if (padding instanceof BlockPadding) {
+          size -= ((BlockPadding<?>) padding).padCount(processed);
+        }
+        System.arraycopy(processed, 0, output, outputOffset, size);
+        return size;
+      } finally {
+        Arrays.fill(processed, (byte) 0);
+      }
+    } finally {
+      Arrays.fill(block, (byte) 0);
+    }
+  }
 
 }
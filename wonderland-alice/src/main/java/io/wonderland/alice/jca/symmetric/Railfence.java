@@ -1,11 +1,114 @@
 package io.wonderland.alice.jca.symmetric;
 
+import io.wonderland.alice.crypto.stream.ResettableOutputStream;
 import io.wonderland.alice.crypto.symmetric.RailfenceCrypt;
+import java.nio.ByteBuffer;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Arrays;
+import javax.crypto.ShortBufferException;
 
+/**
+ * Rail fence transposes whole message, position of every byte depends on message length. Input of
+ * updates is held and processed at doFinal, so output never depends on how input was split.
+ */
 public final class Railfence extends StreamCipherSpi {
 
+  private final ResettableOutputStream buffer = new ResettableOutputStream();
+
   public Railfence() {
     super(new RailfenceCrypt());
   }
 
+  @Override
+  protected void engineInit(int opmode, Key key, AlgorithmParameterSpec paramSpec,
+      SecureRandom secureRandom) throws InvalidKeyException, InvalidAlgorithmParameterException {
+    //drop input held from previous message
+    buffer.reset();
+    super.engineInit(opmode, key, paramSpec, secureRandom);
+  }
+
+  @Override
+  protected int engineGetOutputSize(int inputLen) {
+    return buffer.size() + inputLen;
+  }
+
+  @Override
+  protected byte[] engineUpdate(byte[] input, int inputOffset, int inputLen) {
+    if (inputLen > 0) {
+      buffer.write(input, inputOffset, inputLen);
+    }
+    return EMPTY_ARRAY;
+  }
+
+  @Override
+  protected int engineUpdate(byte[] input, int inputOffset, int inputLen, byte[] output,
+      int outputOffset) {
+    if (inputLen > 0) {
+      buffer.write(input, inputOffset, inputLen);
+    }
+    return 0;
+  }
+
+  @Override
+  protected int engineUpdate(ByteBuffer input, ByteBuffer output) {
+    byte[] bytes = new byte[input.remaining()];
+    input.get(bytes);
+    buffer.write(bytes, 0, bytes.length);
+    Arrays.fill(bytes, (byte) 0);
+    return 0;
+  }
+
+  @Override
+  protected byte[] engineDoFinal(byte[] input, int inputOffset, int inputLen) {
+    engineUpdate(input, inputOffset, inputLen);
+    byte[] message = held();
+    try {
+      return super.engineDoFinal(message, 0, message.length);
+    } finally {
+      Arrays.fill(message, (byte) 0);
+    }
+  }
+
+  @Override
+  protected int engineDoFinal(byte[] input, int inputOffset, int inputLen, byte[] output,
+      int outputOffset) throws ShortBufferException {
+    if (buffer.size() + inputLen + outputOffset > output.length) {
+      throw new ShortBufferException("output buffer to short for input.");
+    }
+    engineUpdate(input, inputOffset, inputLen);
+    byte[] message = held();
+    try {
+      return super.engineDoFinal(message, 0, message.length, output, outputOffset);
+    } finally {
+      Arrays.fill(message, (byte) 0);
+    }
+  }
+
+  @Override
+  protected int engineDoFinal(ByteBuffer input, ByteBuffer output) throws ShortBufferException {
+    if (buffer.size() + input.remaining() > output.remaining()) {
+      throw new ShortBufferException("output buffer to short for input.");
+    }
+    engineUpdate(input, output);
+    byte[] message = held();
+    try {
+      return super.engineDoFinal(ByteBuffer.wrap(message), output);
+    } finally {
+      Arrays.fill(message, (byte) 0);
+    }
+  }
+
+  /**
+   * @return whole message held so far, buffer is emptied
+   */
+  private byte[] held() {
+    byte[] message = buffer.toByteArray();
+    buffer.reset();
+    return message;
+  }
+
 }
@@ -6,6 +6,7 @@ import io.wonderland.alice.crypto.params.KeyParameter;
 import io.wonderland.alice.crypto.params.ParameterList;
 import io.wonderland.alice.crypto.spec.SpecUtils;
 import io.wonderland.alice.exception.RuntimeCipherException;
+import java.nio.ByteBuffer;
 import java.security.AlgorithmParameters;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
@@ -221,4 +222,25 @@ public abstract class StreamCipherSpi extends CipherSpi {
     }
   }
 
+  @Override
+  protected int engineUpdate(ByteBuffer input, ByteBuffer output) throws ShortBufferException {
+    if (input.remaining() > output.remaining()) {
+      throw new ShortBufferException("output buffer to short for input.");
+    }
+    try {
+      return this.cipher.processBuffer(input, output);
+    } catch (RuntimeCipherException e) {
+      throw new ShortBufferException(e.getMessage());
+    }
+  }
+
+  @Override
+  protected int engineDoFinal(ByteBuffer input, ByteBuffer output) throws ShortBufferException {
+    try {
+      return this.engineUpdate(input, output);
+    } finally {
+      this.cipher.reset();
+    }
+  }
+
 }
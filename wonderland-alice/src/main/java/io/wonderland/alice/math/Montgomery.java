@@ -0,0 +1,416 @@
+package io.wonderland.alice.math;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Modular arithmetic in Montgomery form for an odd modulus n.
+ * <br>
+ * <br> Numbers are kept as little endian arrays of s 64 bit limbs, R = 2^(64s). A number x is
+ * represented by xR mod n, product of two represented numbers is reduced with CIOS Montgomery
+ * multiplication (multiply and reduce interleaved limb by limb) so no division is ever done.
+ * <br> An instance precomputes everything that depends only on modulus (-n^-1 mod 2^64, R mod n,
+ * R^2 mod n), it is immutable and can be shared per key between threads.
+ * <br>
+ * <br> Exponentiation :
+ * <br> {@link #modPow(BigInteger, BigInteger)} sliding window, odd powers of base are precomputed
+ * and exponent is consumed in windows of up to 6 bits.
+ * <br> {@link #fixedBase(BigInteger, int)} table of base^(2^(wi)) reusable for many exponents of
+ * the same base, no squaring is done per exponentiation.
+ * <br>
+ * <br> Neither exponentiation is constant time, work depends on exponent bits. Private exponents
+ * only go through it when asked for, as RSACrypt(true) does.
+ */
+public final class Montgomery {
+
+  private static final int[] WINDOW_THRESHOLDS = {7, 25, 81, 241, 673};
+
+  private final BigInteger modulus;
+  private final int size;
+  private final long[] n;
+  private final long n0Inv;
+  private final long[] one;
+  private final long[] rSquare;
+  private final long[] unit;
+
+  /**
+   * @param modulus odd modulus bigger than 1
+   * @throws IllegalArgumentException if modulus is even or smaller than 3
+   */
+  public Montgomery(BigInteger modulus) {
+    if (modulus == null || modulus.signum() <= 0 || !modulus.testBit(0)
+        || modulus.equals(BigInteger.ONE)) {
+      throw new IllegalArgumentException("Montgomery modulus must be odd and bigger than 1.");
+    }
+    this.modulus = modulus;
+    this.size = (modulus.bitLength() + 63) >>> 6;
+    this.n = toLimbs(modulus, size);
+    this.n0Inv = -inverse(n[0]);
+    BigInteger r = BigInteger.ONE.shiftLeft(64 * size);
+    this.one = toLimbs(r.mod(modulus), size);
+    this.rSquare = toLimbs(r.multiply(r).mod(modulus), size);
+    this.unit = new long[size];
+    this.unit[0] = 1;
+  }
+
+  public BigInteger getModulus() {
+    return modulus;
+  }
+
+  /**
+   * @return number of 64 bit limbs of a number in Montgomery form
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * @return x * R mod n
+   */
+  public long[] toMontgomery(BigInteger x) {
+    if (x.signum() < 0 || x.compareTo(modulus) >= 0) {
+      x = x.mod(modulus);
+    }
+    long[] a = toLimbs(x, size);
+    multiply(a, rSquare, a, new long[size + 2]);
+    return a;
+  }
+
+  /**
+   * @return a * R^-1 mod n
+   */
+  public BigInteger fromMontgomery(long[] a) {
+    long[] x = new long[size];
+    multiply(a, unit, x, new long[size + 2]);
+    return toBigInteger(x);
+  }
+
+  /**
+   * Montgomery product out = a * b * R^-1 mod n. Arguments must be reduced (smaller than n), out
+   * can be the same array as a or b.
+   */
+  public void multiply(long[] a, long[] b, long[] out) {
+    multiply(a, b, out, new long[size + 2]);
+  }
+
+  /**
+   * @return a * b mod n
+   */
+  public BigInteger modMultiply(BigInteger a, BigInteger b) {
+    long[] x = toMontgomery(a);
+    long[] y = toMontgomery(b);
+    long[] scratch = new long[size + 2];
+    multiply(x, y, x, scratch);
+    multiply(x, unit, x, scratch);
+    return toBigInteger(x);
+  }
+
+  /**
+   * @return base^exponent mod n
+   * @throws IllegalArgumentException if exponent is negative
+   */
+  public BigInteger modPow(BigInteger base, BigInteger exponent) {
+    checkExponent(exponent);
+    long[] result = modPow(toMontgomery(base), exponent);
+    multiply(result, unit, result, new long[size + 2]);
+    return toBigInteger(result);
+  }
+
+  /**
+   * Sliding window exponentiation in Montgomery form.
+   *
+   * @param base     base in Montgomery form
+   * @param exponent non-negative exponent
+   * @return base^exponent in Montgomery form
+   */
+  public long[] modPow(long[] base, BigInteger exponent) {
+    checkExponent(exponent);
+    int bits = exponent.bitLength();
+    if (bits == 0) {
+      return one.clone();
+    }
+    long[] e = toLimbs(exponent, (bits + 63) >>> 6);
+    long[] scratch = new long[size + 2];
+
+    //odd powers base^1, base^3 ... base^(2^k - 1)
+    int k = windowSize(bits);
+    long[][] table = new long[1 << (k - 1)][];
+    table[0] = base.clone();
+    if (table.length > 1) {
+      long[] square = new long[size];
+      multiply(base, base, square, scratch);
+      for (int i = 1; i < table.length; i++) {
+        table[i] = new long[size];
+        multiply(table[i - 1], square, table[i], scratch);
+      }
+    }
+
+    long[] acc = null;
+    int i = bits - 1;
+    while (i >= 0) {
+      if (!testBit(e, i)) {
+        multiply(acc, acc, acc, scratch);
+        i--;
+        continue;
+      }
+      int low = Math.max(i - k + 1, 0);
+      while (!testBit(e, low)) {
+        low++;
+      }
+      int window = 0;
+      for (int j = i; j >= low; j--) {
+        window = (window << 1) | (testBit(e, j) ? 1 : 0);
+      }
+      if (acc == null) {
+        acc = table[window >>> 1].clone();
+      } else {
+        for (int j = i; j >= low; j--) {
+          multiply(acc, acc, acc, scratch);
+        }
+        multiply(acc, table[window >>> 1], acc, scratch);
+      }
+      i = low - 1;
+    }
+    return acc;
+  }
+
+  /**
+   * Precompute powers of a base that will be raised to many exponents.
+   *
+   * @param base            fixed base
+   * @param maxExponentBits largest exponent bit length table should cover, bigger exponents fall
+   *                        back to sliding window
+   * @return table bound to this modulus
+   */
+  public FixedBase fixedBase(BigInteger base, int maxExponentBits) {
+    if (maxExponentBits <= 0) {
+      throw new IllegalArgumentException("Fixed base exponent bits must be bigger than 0.");
+    }
+    return new FixedBase(toMontgomery(base), maxExponentBits);
+  }
+
+  /**
+   * Powers base^(2^(w*i)) of a fixed base, exponentiation follows Brickell-Gordon-McCurley-Wilson:
+   * exponent digits of w bits are grouped by value, which costs one multiplication per digit plus
+   * 2^w - 1, without any squaring. Digits are multiplied or skipped by value, exponent must be
+   * public.
+   */
+  public final class FixedBase {
+
+    private final long[] base;
+    private final int width;
+    private final int maxBits;
+    private final long[][] powers;
+
+    private FixedBase(long[] base, int maxBits) {
+      this.base = base;
+      this.maxBits = maxBits;
+      this.width = fixedBaseWidth(maxBits);
+      int digits = (maxBits + width - 1) / width;
+      this.powers = new long[digits][];
+      long[] scratch = new long[size + 2];
+      powers[0] = base.clone();
+      for (int i = 1; i < digits; i++) {
+        long[] power = powers[i - 1].clone();
+        for (int j = 0; j < width; j++) {
+          multiply(power, power, power, scratch);
+        }
+        powers[i] = power;
+      }
+    }
+
+    public Montgomery getMontgomery() {
+      return Montgomery.this;
+    }
+
+    /**
+     * @return base^exponent mod n
+     */
+    public BigInteger modPow(BigInteger exponent) {
+      long[] result = modPowMontgomery(exponent);
+      multiply(result, unit, result, new long[size + 2]);
+      return toBigInteger(result);
+    }
+
+    /**
+     * @return base^exponent in Montgomery form
+     */
+    public long[] modPowMontgomery(BigInteger exponent) {
+      checkExponent(exponent);
+      int bits = exponent.bitLength();
+      if (bits > maxBits) {
+        return Montgomery.this.modPow(base, exponent);
+      }
+      long[] e = toLimbs(exponent, Math.max(1, (bits + 63) >>> 6));
+      int digitCount = (bits + width - 1) / width;
+      int[] digits = new int[digitCount];
+      for (int i = 0; i < digitCount; i++) {
+        int digit = 0;
+        for (int j = width - 1; j >= 0; j--) {
+          int bit = i * width + j;
+          digit = (digit << 1) | (bit < bits && testBit(e, bit) ? 1 : 0);
+        }
+        digits[i] = digit;
+      }
+      long[] scratch = new long[size + 2];
+      long[] a = one.clone();
+      long[] b = one.clone();
+      for (int d = (1 << width) - 1; d > 0; d--) {
+        for (int i = 0; i < digitCount; i++) {
+          if (digits[i] == d) {
+            multiply(b, powers[i], b, scratch);
+          }
+        }
+        multiply(a, b, a, scratch);
+      }
+      return a;
+    }
+  }
+
+  /**
+   * CIOS Montgomery multiplication, scratch must hold size + 2 limbs.
+   */
+  private void multiply(long[] a, long[] b, long[] out, long[] t) {
+    int s = size;
+    Arrays.fill(t, 0L);
+    for (int i = 0; i < s; i++) {
+      //t += a * b[i]
+      long bi = b[i];
+      long carry = 0;
+      for (int j = 0; j < s; j++) {
+        long aj = a[j];
+        long lo = aj * bi;
+        long hi = unsignedMultiplyHigh(aj, bi);
+        long sum = lo + t[j];
+        hi += carry(sum, lo);
+        lo = sum + carry;
+        hi += carry(lo, sum);
+        t[j] = lo;
+        carry = hi;
+      }
+      long sum = t[s] + carry;
+      t[s + 1] = carry(sum, carry);
+      t[s] = sum;
+
+      //t = (t + m * n) / 2^64, m chosen so that lowest limb becomes 0
+      long m = t[0] * n0Inv;
+      long lo = m * n[0];
+      long hi = unsignedMultiplyHigh(m, n[0]);
+      hi += carry(lo + t[0], lo);
+      carry = hi;
+      for (int j = 1; j < s; j++) {
+        lo = m * n[j];
+        hi = unsignedMultiplyHigh(m, n[j]);
+        sum = lo + t[j];
+        hi += carry(sum, lo);
+        lo = sum + carry;
+        hi += carry(lo, sum);
+        t[j - 1] = lo;
+        carry = hi;
+      }
+      sum = t[s] + carry;
+      t[s - 1] = sum;
+      t[s] = t[s + 1] + carry(sum, carry);
+    }
+
+    //t < 2n, one conditional subtraction
+    if (t[s] != 0 || compare(t, n, s) >= 0) {
+      long borrow = 0;
+      for (int j = 0; j < s; j++) {
+        long tj = t[j];
+        long d = tj - n[j];
+        long borrowOut = carry(tj, n[j]);
+        out[j] = d - borrow;
+        borrow = borrowOut | carry(d, borrow);
+      }
+    } else {
+      System.arraycopy(t, 0, out, 0, s);
+    }
+  }
+
+  private static void checkExponent(BigInteger exponent) {
+    if (exponent.signum() < 0) {
+      throw new IllegalArgumentException("Exponent must be non-negative.");
+    }
+  }
+
+  /**
+   * Window size for sliding window exponentiation, table holds 2^(k-1) odd powers.
+   */
+  static int windowSize(int exponentBits) {
+    int k = 1;
+    while (k <= WINDOW_THRESHOLDS.length && exponentBits > WINDOW_THRESHOLDS[k - 1]) {
+      k++;
+    }
+    return k;
+  }
+
+  /**
+   * Digit width w minimising digits + 2^w multiplications of fixed base exponentiation.
+   */
+  static int fixedBaseWidth(int exponentBits) {
+    int best = 1;
+    int bestCost = Integer.MAX_VALUE;
+    for (int w = 1; w <= 8; w++) {
+      int cost = (exponentBits + w - 1) / w + (1 << w);
+      if (cost < bestCost) {
+        bestCost = cost;
+        best = w;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * @return 1 if unsigned sum overflowed, i.e. sum &lt; addend as unsigned values.
+   */
+  private static long carry(long sum, long addend) {
+    return (sum ^ Long.MIN_VALUE) < (addend ^ Long.MIN_VALUE) ? 1L : 0L;
+  }
+
+  private static long unsignedMultiplyHigh(long a, long b) {
+    return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+  }
+
+  private static int compare(long[] a, long[] b, int len) {
+    for (int i = len - 1; i >= 0; i--) {
+      if (a[i] != b[i]) {
+        return Long.compareUnsigned(a[i], b[i]);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Inverse of an odd number modulo 2^64 by Newton iteration, every step doubles correct bits.
+   */
+  private static long inverse(long x) {
+    long inv = x;
+    for (int i = 0; i < 5; i++) {
+      inv *= 2 - x * inv;
+    }
+    return inv;
+  }
+
+  private static boolean testBit(long[] limbs, int bit) {
+    return (limbs[bit >>> 6] >>> (bit & 63) & 1) != 0;
+  }
+
+  static long[] toLimbs(BigInteger x, int size) {
+    long[] limbs = new long[size];
+    byte[] bytes = x.toByteArray();
+    for (int i = 0, end = bytes.length - 1; i < bytes.length && i < size * 8; i++) {
+      limbs[i >>> 3] |= (bytes[end - i] & 0xFFL) << ((i & 7) << 3);
+    }
+    return limbs;
+  }
+
+  static BigInteger toBigInteger(long[] limbs) {
+    byte[] bytes = new byte[limbs.length * 8];
+    for (int i = 0, end = bytes.length - 1; i < bytes.length; i++) {
+      bytes[end - i] = (byte) (limbs[i >>> 3] >>> ((i & 7) << 3));
+    }
+    return new BigInteger(1, bytes);
+  }
+
+}
@@ -16,9 +16,11 @@ module alice {
   exports io.wonderland.alice.crypto.key.keypair.gen;
   exports io.wonderland.alice.crypto.key.secretkey;
   exports io.wonderland.alice.crypto.params;
+  exports io.wonderland.alice.crypto.spec;
   exports io.wonderland.alice.crypto.mode;
   exports io.wonderland.alice.codec;
   exports io.wonderland.alice.exception;
+  exports io.wonderland.alice.math;
   exports io.wonderland.alice.jca.asymmetric;
   exports io.wonderland.alice.jca.asymmetric.rsa;
   exports io.wonderland.alice.jca.symmetric.permutation;
@@ -1,42 +1,124 @@
 package io.wonderland.alice.benchmark;
 
+import io.wonderland.alice.math.Montgomery;
 import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Disabled;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
 
 /**
+ * Modular multiplication and exponentiation, {@link Montgomery} engine against
+ * {@link BigInteger}.
+ * <br>
+ * <br> multiplyReduce : one Montgomery product of numbers already in Montgomery form.
+ * <br> bigIntegerMultiplyMod : a * b mod n with BigInteger, full product then division.
+ * <br> squareMultiply : sliding window exponentiation in Montgomery form.
+ * <br> bigIntegerModPow : BigInteger.modPow.
+ * <br> fixedBase : exponentiation of a base with precomputed table.
+ * <br>
  * More on how <a
  * href="https://hg.openjdk.org/code-tools/jmh/file/6cc1450c6a0f/jmh-core/src/main/java/org/openjdk/jmh/results">result
  * calculation</a> is done.
  */
 @SuppressWarnings("ALL")
 @Disabled
+@State(Scope.Thread)
 public class ModExponentiationBenchmark {
 
+  @Param({"1024", "2048", "4096"})
+  private int bits;
+
+  private BigInteger modulus;
+  private BigInteger base;
+  private BigInteger factor;
+  private BigInteger exponent;
+  private Montgomery montgomery;
+  private Montgomery.FixedBase fixedBase;
+  private long[] montgomeryBase;
+  private long[] montgomeryFactor;
+  private long[] product;
+
   public static void main(String[] args) throws IOException {
     org.openjdk.jmh.Main.main(args);
   }
 
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(42);
+    modulus = new BigInteger(bits, random).setBit(bits - 1).setBit(0);
+    base = new BigInteger(bits, random).mod(modulus);
+    factor = new BigInteger(bits, random).mod(modulus);
+    exponent = new BigInteger(bits, random).setBit(bits - 1);
+    montgomery = new Montgomery(modulus);
+    fixedBase = montgomery.fixedBase(base, bits);
+    montgomeryBase = montgomery.toMontgomery(base);
+    montgomeryFactor = montgomery.toMontgomery(factor);
+    product = new long[montgomery.getSize()];
+  }
+
   @Warmup(iterations = 1)
   @Fork(value = 2)
   @Measurement(iterations = 3)
   @Benchmark
-  @BenchmarkMode(Mode.All)
-  public void multiplyReduce() {
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void multiplyReduce(Blackhole blackhole) {
+    montgomery.multiply(montgomeryBase, montgomeryFactor, product);
+    blackhole.consume(product);
+  }
 
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void bigIntegerMultiplyMod(Blackhole blackhole) {
+    blackhole.consume(base.multiply(factor).mod(modulus));
   }
 
   @Warmup(iterations = 1)
   @Fork(value = 2)
   @Measurement(iterations = 3)
   @Benchmark
-  @BenchmarkMode(Mode.All)
-  public void squareMultiply() {
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void squareMultiply(Blackhole blackhole) {
+    blackhole.consume(montgomery.modPow(base, exponent));
+  }
 
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void bigIntegerModPow(Blackhole blackhole) {
+    blackhole.consume(base.modPow(exponent, modulus));
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void fixedBase(Blackhole blackhole) {
+    blackhole.consume(fixedBase.modPow(exponent));
   }
-}
\ No newline at end of file
+
+}
@@ -0,0 +1,181 @@
+package io.wonderland.alice.benchmark;
+
+import io.wonderland.alice.crypto.key.secretkey.RailfenceKey;
+import io.wonderland.alice.crypto.params.KeyParameter;
+import io.wonderland.alice.crypto.symmetric.RailfenceCrypt;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Disabled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Rail fence encryption/decryption across rail counts.
+ * <br>
+ * <br> closedForm : current engine, positions computed from rail-cycle period 2(N-1), one output
+ * buffer.
+ * <br> matrix : engine before, message written into a Byte[rails][length] matrix and collected
+ * through a List&lt;Byte&gt;, memory grows with rails x length.
+ * <br>
+ * <br> Run with -prof gc to compare allocation rate (gc.alloc.rate.norm) next to time.
+ */
+@SuppressWarnings("ALL")
+@Disabled
+@State(Scope.Thread)
+public class RailfenceBenchmark {
+
+  @Param({"3", "16", "128"})
+  private int rails;
+
+  @Param({"4096", "65536"})
+  private int size;
+
+  private RailfenceCrypt encryptor;
+  private RailfenceCrypt decryptor;
+  private byte[] plaintext;
+  private byte[] ciphertext;
+  private byte[] output;
+
+  public static void main(String[] args) throws IOException {
+    org.openjdk.jmh.Main.main(args);
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    plaintext = new byte[size];
+    new Random(42).nextBytes(plaintext);
+    ciphertext = new byte[size];
+    output = new byte[size];
+
+    encryptor = new RailfenceCrypt();
+    encryptor.init(true, new KeyParameter<>(new RailfenceKey(rails)));
+    decryptor = new RailfenceCrypt();
+    decryptor.init(false, new KeyParameter<>(new RailfenceKey(rails)));
+    encryptor.processBytes(plaintext, 0, size, ciphertext, 0);
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void closedFormEncrypt(Blackhole blackhole) {
+    blackhole.consume(encryptor.processBytes(plaintext, 0, size, output, 0));
+    blackhole.consume(output);
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void closedFormDecrypt(Blackhole blackhole) {
+    blackhole.consume(decryptor.processBytes(ciphertext, 0, size, output, 0));
+    blackhole.consume(output);
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void matrixEncrypt(Blackhole blackhole) {
+    blackhole.consume(matrixEncrypt(plaintext, rails, output));
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void matrixDecrypt(Blackhole blackhole) {
+    blackhole.consume(matrixDecrypt(ciphertext, rails, output));
+  }
+
+  /**
+   * Encryption as it was done before closed form engine.
+   */
+  private static byte[] matrixEncrypt(byte[] in, int rails, byte[] out) {
+    Byte[][] matrix = new Byte[rails][in.length];
+    int row = 0;
+    boolean dirDown = false;
+    for (int i = 0; i < in.length; i++) {
+      if (row == 0 || row == rails - 1) {
+        dirDown = !dirDown;
+      }
+      matrix[row][i] = in[i];
+      row += dirDown ? 1 : -1;
+    }
+    List<Byte> transposedBytes = new ArrayList<>();
+    for (Byte[] arr : matrix) {
+      for (Byte b : arr) {
+        if (b != null) {
+          transposedBytes.add(b);
+        }
+      }
+    }
+    for (int i = 0, len = transposedBytes.size(); i < len; i++) {
+      out[i] = transposedBytes.get(i);
+    }
+    return out;
+  }
+
+  /**
+   * Decryption as it was done before closed form engine.
+   */
+  private static byte[] matrixDecrypt(byte[] in, int rails, byte[] out) {
+    Byte[][] matrix = new Byte[rails][in.length];
+    int row = 0;
+    boolean dirDown = true;
+    for (int i = 0; i < in.length; i++) {
+      if (row == 0) {
+        dirDown = true;
+      }
+      if (row == rails - 1) {
+        dirDown = false;
+      }
+      matrix[row][i] = '*';
+      row += dirDown ? 1 : -1;
+    }
+    int index = 0;
+    for (Byte[] arr : matrix) {
+      for (int j = 0; j < arr.length; j++) {
+        if (arr[j] != null && arr[j] == '*') {
+          arr[j] = in[index++];
+        }
+      }
+    }
+    row = 0;
+    dirDown = true;
+    for (int i = 0; i < in.length; i++) {
+      if (row == 0) {
+        dirDown = true;
+      }
+      if (row == rails - 1) {
+        dirDown = false;
+      }
+      out[i] = matrix[row][i];
+      row += dirDown ? 1 : -1;
+    }
+    return out;
+  }
+
+}
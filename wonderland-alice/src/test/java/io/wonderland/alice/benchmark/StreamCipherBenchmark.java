@@ -0,0 +1,141 @@
+package io.wonderland.alice.benchmark;
+
+import io.wonderland.alice.crypto.CipherParameter;
+import io.wonderland.alice.crypto.StreamCipher;
+import io.wonderland.alice.crypto.key.secretkey.AffineKey;
+import io.wonderland.alice.crypto.key.secretkey.CaesarKey;
+import io.wonderland.alice.crypto.key.secretkey.MonoalphabetKey;
+import io.wonderland.alice.crypto.key.secretkey.OTPKey;
+import io.wonderland.alice.crypto.key.secretkey.VernamKey;
+import io.wonderland.alice.crypto.key.secretkey.VigenereKey;
+import io.wonderland.alice.crypto.params.KeyParameter;
+import io.wonderland.alice.crypto.symmetric.AffineCrypt;
+import io.wonderland.alice.crypto.symmetric.CaesarCrypt;
+import io.wonderland.alice.crypto.symmetric.MonoalphabetCrypt;
+import io.wonderland.alice.crypto.symmetric.OTPCrypt;
+import io.wonderland.alice.crypto.symmetric.VernamCrypt;
+import io.wonderland.alice.crypto.symmetric.VigenereCrypt;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Disabled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of stream ciphers pushing a multi-megabyte payload in fixed size chunks.
+ * <br>
+ * <br> chunked : every chunk is a slice of the same reusable buffer, processed in place.
+ * <br> copyPerChunk : behaviour before processBytes honoured len, every chunk had to be copied
+ * into a fresh array so that the cipher processed exactly that chunk.
+ */
+@SuppressWarnings("ALL")
+@Disabled
+@State(Scope.Thread)
+public class StreamCipherBenchmark {
+
+  private static final int PAYLOAD_SIZE = 8 * 1024 * 1024;
+
+  @Param({"CAESAR", "AFFINE", "MONOALPHABET", "VIGENERE", "VERNAM", "OTP"})
+  private String algorithm;
+
+  @Param({"1024", "65536"})
+  private int chunkSize;
+
+  private StreamCipher cipher;
+  private CipherParameter keyParameter;
+  private byte[] input;
+  private byte[] output;
+
+  public static void main(String[] args) throws IOException {
+    org.openjdk.jmh.Main.main(args);
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(42);
+    input = new byte[PAYLOAD_SIZE];
+    output = new byte[PAYLOAD_SIZE];
+    random.nextBytes(input);
+
+    switch (algorithm) {
+      case "CAESAR":
+        cipher = new CaesarCrypt();
+        keyParameter = new KeyParameter<>(new CaesarKey(7));
+        break;
+      case "AFFINE":
+        cipher = new AffineCrypt();
+        keyParameter = new KeyParameter<>(new AffineKey(5, 8, 256));
+        break;
+      case "MONOALPHABET":
+        Map<Integer, Integer> substitution = new HashMap<>();
+        for (int b = Byte.MIN_VALUE; b <= Byte.MAX_VALUE; b++) {
+          substitution.put(b, (int) (byte) (b + 13));
+        }
+        cipher = new MonoalphabetCrypt();
+        keyParameter = new KeyParameter<>(new MonoalphabetKey(substitution));
+        break;
+      case "VIGENERE":
+        cipher = new VigenereCrypt();
+        keyParameter = new KeyParameter<>(new VigenereKey(256, "wonderland".getBytes()));
+        break;
+      case "VERNAM":
+        byte[] vernamKey = new byte[PAYLOAD_SIZE];
+        random.nextBytes(vernamKey);
+        cipher = new VernamCrypt();
+        keyParameter = new KeyParameter<>(new VernamKey(256, vernamKey));
+        break;
+      case "OTP":
+        int[] otpKey = random.ints(PAYLOAD_SIZE, 0, 256).toArray();
+        cipher = new OTPCrypt();
+        keyParameter = new KeyParameter<>(new OTPKey(256, otpKey));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown algorithm " + algorithm);
+    }
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  public void chunked(Blackhole blackhole) {
+    cipher.init(true, keyParameter);
+    for (int off = 0; off < input.length; off += chunkSize) {
+      int len = Math.min(chunkSize, input.length - off);
+      blackhole.consume(cipher.processBytes(input, off, len, output, off));
+    }
+    blackhole.consume(output);
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  public void copyPerChunk(Blackhole blackhole) {
+    cipher.init(true, keyParameter);
+    for (int off = 0; off < input.length; off += chunkSize) {
+      int len = Math.min(chunkSize, input.length - off);
+      byte[] chunk = Arrays.copyOfRange(input, off, off + len);
+      byte[] processed = new byte[len];
+      blackhole.consume(cipher.processBytes(chunk, 0, len, processed, 0));
+      System.arraycopy(processed, 0, output, off, len);
+    }
+    blackhole.consume(output);
+  }
+
+}
@@ -10,12 +10,19 @@ import io.wonderland.alice.crypto.key.GenericSecretKey;
 import io.wonderland.alice.crypto.key.secretkey.AffineKey;
 import io.wonderland.alice.crypto.key.secretkey.CaesarKey;
 import io.wonderland.alice.crypto.key.secretkey.OTPKey;
+import io.wonderland.alice.crypto.key.secretkey.RailfenceKey;
+import io.wonderland.alice.crypto.key.secretkey.VigenereKey;
 import io.wonderland.alice.exception.CipherException;
 import io.wonderland.alice.jca.AliceProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
 import java.security.Security;
 import java.util.Map;
+import java.util.Random;
 import javax.crypto.Cipher;
 import javax.crypto.NoSuchPaddingException;
 import lombok.extern.slf4j.Slf4j;
@@ -53,25 +60,31 @@ class ProductCipherImplTest {
   }
 
   @Test
-  void update() {
+  void update() throws NoSuchPaddingException, NoSuchAlgorithmException, CipherException {
     byte[] input = "Hello world ->".getBytes();
 
     ProductCipher productCipher = new ProductCipherImpl();
+    assertThatThrownBy(() -> productCipher.update(input))
+        .isInstanceOf(IllegalStateException.class);
 
-    assertThatCode(() -> {
-      productCipher.update(input);
-      productCipher.update(input);
-    })
-        .doesNotThrowAnyException();
-
-    assertThat(productCipher.update(input)).hasSize(input.length * 3);
+    Cipher caesarCipher = Cipher.getInstance("Caesar");
+    Key caesarKey = new CaesarKey(5);
+    Cipher vigenereCipher = Cipher.getInstance("Vigenere");
+    Key vigenereKey = new VigenereKey("1qazxsw2/';".getBytes());
+    productCipher.init(true, Map.entry(vigenereCipher, vigenereKey),
+        Map.entry(caesarCipher, caesarKey));
 
-    //Build an array
-    byte[] buffer;
-    buffer = ArrayUtils.addAll(input, input);
+    //stages emit as soon as they can, updates return output instead of buffering it
+    byte[] buffer = ArrayUtils.addAll(input, input);
     buffer = ArrayUtils.addAll(buffer, input);
-    buffer = ArrayUtils.addAll(buffer, input);
-    assertThat(productCipher.update(input)).contains(buffer);
+    byte[] oneShot = productCipher.doFinal(buffer);
+
+    byte[] chunked = productCipher.update(input);
+    assertThat(chunked).hasSize(input.length);
+    chunked = ArrayUtils.addAll(chunked, productCipher.update(input));
+    chunked = ArrayUtils.addAll(chunked, productCipher.update(input));
+    chunked = ArrayUtils.addAll(chunked, productCipher.doFinal());
+    assertThat(chunked).containsExactly(oneShot);
   }
 
   @Test
@@ -92,9 +105,7 @@ class ProductCipherImplTest {
         Map.entry(affineCipher, affineKey));
 
     byte[] input = "Hello world@!$!#$#".getBytes();
-    productCipher.update(input);
-
-    byte[] ciphertext = productCipher.doFinal();
+    byte[] ciphertext = ArrayUtils.addAll(productCipher.update(input), productCipher.doFinal());
     assertThat(ciphertext).isNotIn(input);
     log.info("Ciphertext '{}'", new String(ciphertext));
 
@@ -106,4 +117,118 @@ class ProductCipherImplTest {
     log.info("Plaintext '{}'", new String(input));
   }
 
-}
\ No newline at end of file
+  @Test
+  void process()
+      throws NoSuchPaddingException, NoSuchAlgorithmException, CipherException, IOException {
+    roundTrip(false);
+  }
+
+  @Test
+  void processPipelined()
+      throws NoSuchPaddingException, NoSuchAlgorithmException, CipherException, IOException {
+    roundTrip(true);
+  }
+
+  private static void roundTrip(boolean pipelined)
+      throws NoSuchPaddingException, NoSuchAlgorithmException, CipherException, IOException {
+    Cipher vigenereCipher = Cipher.getInstance("Vigenere");
+    Key vigenereKey = new VigenereKey("1qazxsw2/';".getBytes());
+    Cipher railfenceCipher = Cipher.getInstance("Railfence");
+    Key railfenceKey = new RailfenceKey(6);
+    Cipher caesarCipher = Cipher.getInstance("Caesar");
+    Key caesarKey = new CaesarKey(5);
+
+    byte[] input = new byte[300_000];
+    for (int i = 0; i < input.length; i++) {
+      input[i] = (byte) ('a' + i % 26);
+    }
+
+    ProductCipher productCipher = new ProductCipherImpl(4096, 2, pipelined);
+    productCipher.init(true, Map.entry(vigenereCipher, vigenereKey),
+        Map.entry(railfenceCipher, railfenceKey), Map.entry(caesarCipher, caesarKey));
+    ByteArrayOutputStream ciphertext = new ByteArrayOutputStream();
+    long written = productCipher.process(new ByteArrayInputStream(input), ciphertext);
+    assertThat(written).isEqualTo(ciphertext.size());
+    assertThat(ciphertext.toByteArray()).isNotEqualTo(input);
+
+    productCipher.init(false, Map.entry(caesarCipher, caesarKey),
+        Map.entry(railfenceCipher, railfenceKey), Map.entry(vigenereCipher, vigenereKey));
+    ByteArrayOutputStream plaintext = new ByteArrayOutputStream();
+    productCipher.process(new ByteArrayInputStream(ciphertext.toByteArray()), plaintext);
+    assertThat(plaintext.toByteArray()).containsExactly(input);
+  }
+
+  @Test
+  void processShortReads()
+      throws NoSuchPaddingException, NoSuchAlgorithmException, CipherException, IOException {
+    Cipher vigenereCipher = Cipher.getInstance("Vigenere");
+    Key vigenereKey = new VigenereKey("1qazxsw2/';".getBytes());
+    Cipher railfenceCipher = Cipher.getInstance("Railfence");
+    Key railfenceKey = new RailfenceKey(6);
+    Cipher caesarCipher = Cipher.getInstance("Caesar");
+    Key caesarKey = new CaesarKey(5);
+
+    byte[] input = new byte[3 * ProductCipherImpl.DEFAULT_CHUNK_SIZE + 123];
+    new Random(7).nextBytes(input);
+
+    //ciphertext of a message bigger than chunk size equals one shot ciphertext
+    railfenceCipher.init(Cipher.ENCRYPT_MODE, railfenceKey);
+    byte[] railfenceOnly = railfenceCipher.doFinal(input);
+    ProductCipher productCipher = new ProductCipherImpl();
+    productCipher.init(true, Map.entry(railfenceCipher, railfenceKey));
+    assertThat(productCipher.doFinal(input)).containsExactly(railfenceOnly);
+
+    for (boolean pipelined : new boolean[]{false, true}) {
+      productCipher = new ProductCipherImpl(ProductCipherImpl.DEFAULT_CHUNK_SIZE, 2, pipelined);
+      productCipher.init(true, Map.entry(vigenereCipher, vigenereKey),
+          Map.entry(railfenceCipher, railfenceKey), Map.entry(caesarCipher, caesarKey));
+      byte[] oneShot = productCipher.doFinal(input);
+      ByteArrayOutputStream ciphertext = new ByteArrayOutputStream();
+      productCipher.process(new ShortReadInputStream(input, 11), ciphertext);
+      assertThat(ciphertext.toByteArray()).containsExactly(oneShot);
+
+      productCipher.init(false, Map.entry(caesarCipher, caesarKey),
+          Map.entry(railfenceCipher, railfenceKey), Map.entry(vigenereCipher, vigenereKey));
+      ByteArrayOutputStream plaintext = new ByteArrayOutputStream();
+      productCipher.process(new ShortReadInputStream(ciphertext.toByteArray(), 13), plaintext);
+      assertThat(plaintext.toByteArray()).containsExactly(input);
+    }
+  }
+
+  @Test
+  void processFailure() throws NoSuchPaddingException, NoSuchAlgorithmException {
+    Cipher caesarCipher = Cipher.getInstance("Caesar");
+    Key caesarKey = new CaesarKey(5);
+
+    ProductCipher productCipher = new ProductCipherImpl(16, 1, true);
+    productCipher.init(true, Map.entry(caesarCipher, caesarKey));
+    InputStream failing = new InputStream() {
+      @Override
+      public int read() throws IOException {
+        throw new IOException("read failed");
+      }
+    };
+    assertThatThrownBy(() -> productCipher.process(failing, new ByteArrayOutputStream()))
+        .isInstanceOf(IOException.class).hasMessage("read failed");
+  }
+
+  /**
+   * Returns reads of random size up to 1000 bytes, as sockets or pipes may.
+   */
+  private static final class ShortReadInputStream extends ByteArrayInputStream {
+
+    private final Random random;
+
+    private ShortReadInputStream(byte[] buf, long seed) {
+      super(buf);
+      this.random = new Random(seed);
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) {
+      return super.read(b, off, Math.min(len, 1 + random.nextInt(1000)));
+    }
+
+  }
+
+}
@@ -1,5 +1,59 @@
 package io.wonderland.alice.crypto.cipher.asymmetric.dh;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import io.wonderland.alice.crypto.asymmetric.dh.DHCrypt;
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
 class DHCryptTest {
 
-}
\ No newline at end of file
+  @Test
+  void agreement() {
+    Random random = new Random(5);
+    BigInteger p = BigInteger.probablePrime(512, random);
+    BigInteger g = BigInteger.TWO;
+    DHCrypt dhCrypt = new DHCrypt(p, g);
+
+    BigInteger alice = new BigInteger(256, random).setBit(255);
+    BigInteger bob = new BigInteger(256, random).setBit(255);
+    BigInteger alicePublic = dhCrypt.generatePublic(alice);
+    BigInteger bobPublic = dhCrypt.generatePublic(bob);
+    assertThat(alicePublic).isEqualTo(g.modPow(alice, p));
+    assertThat(bobPublic).isEqualTo(g.modPow(bob, p));
+    assertThat(dhCrypt.agree(alice, bobPublic)).isEqualTo(dhCrypt.agree(bob, alicePublic))
+        .isEqualTo(g.modPow(alice.multiply(bob), p));
+  }
+
+  @Test
+  void privateValueOnModPow() {
+    Random random = new Random(7);
+    BigInteger p = BigInteger.probablePrime(256, random);
+    BigInteger g = spy(BigInteger.TWO);
+    DHCrypt dhCrypt = new DHCrypt(p, g);
+
+    //private value must not reach fixed base tables, their work depends on exponent digits
+    BigInteger x = new BigInteger(128, random).setBit(127);
+    assertThat(dhCrypt.generatePublic(x)).isEqualTo(BigInteger.TWO.modPow(x, p));
+    verify(g).modPow(x, p);
+  }
+
+  @Test
+  void invalidValues() {
+    BigInteger p = BigInteger.valueOf(23);
+    assertThatThrownBy(() -> new DHCrypt(p, BigInteger.ONE))
+        .isInstanceOf(IllegalArgumentException.class);
+    DHCrypt dhCrypt = new DHCrypt(p, BigInteger.valueOf(5));
+    assertThatThrownBy(() -> dhCrypt.generatePublic(BigInteger.ZERO))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> dhCrypt.agree(BigInteger.valueOf(6), BigInteger.valueOf(22)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(dhCrypt.agree(BigInteger.valueOf(6), BigInteger.valueOf(19)))
+        .isEqualTo(BigInteger.valueOf(19).modPow(BigInteger.valueOf(6), p));
+  }
+
+}
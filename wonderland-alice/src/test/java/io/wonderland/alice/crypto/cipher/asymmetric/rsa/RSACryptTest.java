@@ -18,6 +18,9 @@ import io.wonderland.alice.crypto.params.RawKeyParameter;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.spec.RSAOtherPrimeInfo;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 class RSACryptTest {
@@ -103,12 +106,165 @@ class RSACryptTest {
     cipher.init(false, privateKeyParam);
   }
 
+  @Test
+  void crtPrivateKey() {
+    Random random = new Random(11);
+    BigInteger e = BigInteger.valueOf(65537);
+    BigInteger p;
+    BigInteger q;
+    do {
+      p = BigInteger.probablePrime(512, random);
+      q = BigInteger.probablePrime(512, random);
+    } while (p.equals(q) || !p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE))
+        .gcd(e).equals(BigInteger.ONE));
+    AliceRSAPrivateKey crtKey = new AliceRSAPrivateKey(p, q, e);
+    AliceRSAPublicKey publicKey = new AliceRSAPublicKey(e, crtKey.getModulus());
+
+    byte[] plaintext = "Hello World !!@#$%^&&*(*(+_)(*&=-0".getBytes();
+    AsymmetricCipher cipher = new RSACrypt();
+    cipher.init(true, new KeyParameter<>(publicKey));
+    byte[] ciphertext = cipher.processBlock(plaintext, 0, plaintext.length);
+
+    //crt decryption equals decryption with full private exponent
+    cipher.init(false, new KeyParameter<>(crtKey));
+    byte[] decrypted = cipher.processBlock(ciphertext, 0, ciphertext.length);
+    assertThat(new BigInteger(1, decrypted)).isEqualTo(new BigInteger(1, plaintext));
+
+    cipher.init(false, new KeyParameter<>(privateExponentOnly(crtKey)));
+    assertThat(new BigInteger(1, cipher.processBlock(ciphertext, 0, ciphertext.length)))
+        .isEqualTo(new BigInteger(1, plaintext));
+
+    //signing with crt key verifies with public key
+    cipher.init(true, new KeyParameter<>(crtKey));
+    byte[] signature = cipher.processBlock(plaintext, 0, plaintext.length);
+    cipher.init(false, new KeyParameter<>(publicKey));
+    assertThat(new BigInteger(1, cipher.processBlock(signature, 0, signature.length)))
+        .isEqualTo(new BigInteger(1, plaintext));
+  }
+
+  @Test
+  void multiPrimePrivateKey() {
+    Random random = new Random(13);
+    BigInteger e = BigInteger.valueOf(65537);
+    BigInteger[] r = new BigInteger[4];
+    BigInteger n;
+    BigInteger phi;
+    do {
+      n = BigInteger.ONE;
+      phi = BigInteger.ONE;
+      for (int i = 0; i < r.length; i++) {
+        r[i] = BigInteger.probablePrime(256, random);
+        n = n.multiply(r[i]);
+        phi = phi.multiply(r[i].subtract(BigInteger.ONE));
+      }
+    } while (!phi.gcd(e).equals(BigInteger.ONE));
+    BigInteger d = e.modInverse(phi);
+
+    RSAOtherPrimeInfo[] others = new RSAOtherPrimeInfo[r.length - 2];
+    BigInteger product = r[0].multiply(r[1]);
+    for (int i = 2; i < r.length; i++) {
+      others[i - 2] = new RSAOtherPrimeInfo(r[i], d.mod(r[i].subtract(BigInteger.ONE)),
+          product.modInverse(r[i]));
+      product = product.multiply(r[i]);
+    }
+    AliceRSAPrivateKey privateKey = new AliceRSAPrivateKey(n, r[0], r[1], e, d,
+        d.mod(r[0].subtract(BigInteger.ONE)), d.mod(r[1].subtract(BigInteger.ONE)),
+        r[1].modInverse(r[0]), others);
+
+    byte[] plaintext = "Hello World !!@#$%^&&*(*(+_)(*&=-0".getBytes();
+    AsymmetricCipher cipher = new RSACrypt();
+    cipher.init(true, new KeyParameter<>(new AliceRSAPublicKey(e, n)));
+    byte[] ciphertext = cipher.processBlock(plaintext, 0, plaintext.length);
+
+    cipher.init(false, new KeyParameter<>(privateKey));
+    assertThat(new BigInteger(1, cipher.processBlock(ciphertext, 0, ciphertext.length)))
+        .isEqualTo(new BigInteger(1, plaintext));
+  }
+
+  @Test
+  void montgomeryEngine() {
+    Random random = new Random(17);
+    BigInteger e = BigInteger.valueOf(65537);
+    BigInteger p;
+    BigInteger q;
+    do {
+      p = BigInteger.probablePrime(512, random);
+      q = BigInteger.probablePrime(512, random);
+    } while (p.equals(q) || !p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE))
+        .gcd(e).equals(BigInteger.ONE));
+    AliceRSAPrivateKey crtKey = new AliceRSAPrivateKey(p, q, e);
+    AliceRSAPublicKey publicKey = new AliceRSAPublicKey(e, crtKey.getModulus());
+
+    byte[] plaintext = "Hello World !!@#$%^&&*(*(+_)(*&=-0".getBytes();
+    AsymmetricCipher cipher = new RSACrypt();
+    AsymmetricCipher engineCipher = new RSACrypt(true);
+
+    //engine gives same blocks as BigInteger.modPow, public, crt and d private key paths
+    cipher.init(true, new KeyParameter<>(publicKey));
+    engineCipher.init(true, new KeyParameter<>(publicKey));
+    byte[] ciphertext = cipher.processBlock(plaintext, 0, plaintext.length);
+    assertThat(engineCipher.processBlock(plaintext, 0, plaintext.length)).isEqualTo(ciphertext);
+
+    cipher.init(false, new KeyParameter<>(crtKey));
+    engineCipher.init(false, new KeyParameter<>(crtKey));
+    assertThat(engineCipher.processBlock(ciphertext, 0, ciphertext.length))
+        .isEqualTo(cipher.processBlock(ciphertext, 0, ciphertext.length));
+
+    engineCipher.init(false, new KeyParameter<>(privateExponentOnly(crtKey)));
+    assertThat(new BigInteger(1, engineCipher.processBlock(ciphertext, 0, ciphertext.length)))
+        .isEqualTo(new BigInteger(1, plaintext));
+  }
+
+  private static RSAPrivateKey privateExponentOnly(RSAPrivateKey key) {
+    return new RSAPrivateKey() {
+      @Override
+      public BigInteger getPrivateExponent() {
+        return key.getPrivateExponent();
+      }
+
+      @Override
+      public String getAlgorithm() {
+        return key.getAlgorithm();
+      }
+
+      @Override
+      public String getFormat() {
+        return key.getFormat();
+      }
+
+      @Override
+      public byte[] getEncoded() {
+        return key.getEncoded();
+      }
+
+      @Override
+      public BigInteger getModulus() {
+        return key.getModulus();
+      }
+    };
+  }
+
   @Test
   void getInputBlockSize() {
+    AsymmetricCipher cipher = new RSACrypt();
+    assertThatThrownBy(cipher::getInputBlockSize).isInstanceOf(IllegalStateException.class);
+
+    //8633 has 14 bits, 2 bytes
+    cipher.init(true, new KeyParameter<>(new AliceRSAPublicKey(1919, 8633)));
+    assertThat(cipher.getInputBlockSize()).isOne();
+    cipher.init(false, new KeyParameter<>(new AliceRSAPublicKey(1919, 8633)));
+    assertThat(cipher.getInputBlockSize()).isEqualTo(2);
   }
 
   @Test
   void getOutputBlockSize() {
+    AsymmetricCipher cipher = new RSACrypt();
+    cipher.init(true, new KeyParameter<>(new AliceRSAPublicKey(1919, 8633)));
+    assertThat(cipher.getOutputBlockSize()).isEqualTo(2);
+    //ciphertext is always full block
+    assertThat(cipher.processBlock(new byte[]{1}, 0, 1)).hasSize(2);
+    cipher.init(false, new KeyParameter<>(new AliceRSAPublicKey(1919, 8633)));
+    assertThat(cipher.getOutputBlockSize()).isOne();
   }
 
   @Test
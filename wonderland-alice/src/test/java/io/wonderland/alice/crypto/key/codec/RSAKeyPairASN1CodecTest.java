@@ -7,6 +7,7 @@ import io.wonderland.alice.codec.PublicKeyCodec;
 import io.wonderland.alice.crypto.key.keypair.AliceRSAPrivateKey;
 import io.wonderland.alice.crypto.key.keypair.AliceRSAPublicKey;
 import java.math.BigInteger;
+import java.security.spec.RSAOtherPrimeInfo;
 import java.util.function.Function;
 import org.junit.jupiter.api.Test;
 
@@ -68,4 +69,40 @@ class RSAKeyPairASN1CodecTest {
     assertThat(decodedKey.getCrtCoefficient()).isEqualTo(initialKey.getCrtCoefficient());
     assertThat(decodedKey.getModulus()).isEqualTo(initialKey.getModulus());
   }
-}
\ No newline at end of file
+
+  @Test
+  void multiPrimePrivateKeyCodec() {
+    PrivateKeyCodec<AliceRSAPrivateKey> privateKeyCodec = RSAKeyPairASN1Codec.getInstance()
+        .privateKeyCodec();
+
+    //n = 89 * 97 * 101 * 103, e = 7
+    BigInteger[] r = {BigInteger.valueOf(89), BigInteger.valueOf(97), BigInteger.valueOf(101),
+        BigInteger.valueOf(103)};
+    BigInteger n = r[0].multiply(r[1]).multiply(r[2]).multiply(r[3]);
+    BigInteger phi = BigInteger.valueOf(88L * 96 * 100 * 102);
+    BigInteger e = BigInteger.valueOf(7);
+    BigInteger d = e.modInverse(phi);
+    RSAOtherPrimeInfo[] others = {
+        new RSAOtherPrimeInfo(r[2], d.mod(BigInteger.valueOf(100)),
+            r[0].multiply(r[1]).modInverse(r[2])),
+        new RSAOtherPrimeInfo(r[3], d.mod(BigInteger.valueOf(102)),
+            r[0].multiply(r[1]).multiply(r[2]).modInverse(r[3]))};
+
+    AliceRSAPrivateKey initialKey = new AliceRSAPrivateKey(n, r[0], r[1], e, d,
+        d.mod(BigInteger.valueOf(88)), d.mod(BigInteger.valueOf(96)), r[1].modInverse(r[0]),
+        others);
+    AliceRSAPrivateKey decodedKey = privateKeyCodec.decoder()
+        .apply(privateKeyCodec.encoder().apply(initialKey));
+
+    assertThat(decodedKey).isNotNull();
+    assertThat(decodedKey.getModulus()).isEqualTo(n);
+    assertThat(decodedKey.getOtherPrimeInfo()).hasSize(2);
+    for (int i = 0; i < others.length; i++) {
+      assertThat(decodedKey.getOtherPrimeInfo()[i].getPrime()).isEqualTo(others[i].getPrime());
+      assertThat(decodedKey.getOtherPrimeInfo()[i].getExponent())
+          .isEqualTo(others[i].getExponent());
+      assertThat(decodedKey.getOtherPrimeInfo()[i].getCrtCoefficient())
+          .isEqualTo(others[i].getCrtCoefficient());
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package io.wonderland.alice.crypto.mode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.wonderland.alice.crypto.key.secretkey.PermutationKey;
+import io.wonderland.alice.crypto.padding.ZeroPadding;
+import io.wonderland.alice.crypto.params.KeyParameter;
+import io.wonderland.alice.crypto.params.KeyWithIVParameter;
+import io.wonderland.alice.crypto.symmetric.PermutationCrypt;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class CBCBlockCipherTest {
+
+  private static final PermutationKey KEY = new PermutationKey(0, 5, 3, 4, 2, 1);
+
+  @Test
+  void chaining() {
+    //block of 6 columns x 2 rows
+    byte[] iv = new byte[12];
+    new Random(1).nextBytes(iv);
+    CBCBlockCipher cbc = new CBCBlockCipher(new PermutationCrypt(new ZeroPadding(), true, 2));
+    cbc.init(true, new KeyWithIVParameter<>(KEY, iv));
+    assertThat(cbc.getAlgorithmName()).endsWith("/CBC");
+    assertThat(cbc.getIv()).containsExactly(iv);
+
+    //C_1 = E(P_1 ^ IV), C_2 = E(P_2 ^ C_1)
+    byte[] plaintext = "Hello World !!@#$%^&".concat("*(*(").getBytes();
+    byte[] ciphertext = new byte[plaintext.length];
+    cbc.processBlocks(plaintext, 0, 2, ciphertext, 0);
+
+    PermutationCrypt ecb = new PermutationCrypt(new ZeroPadding(), true, 2);
+    ecb.init(true, new KeyParameter<>(KEY));
+    byte[] block = new byte[12];
+    byte[] expected = new byte[12];
+    for (int i = 0; i < 12; i++) {
+      block[i] = (byte) (plaintext[i] ^ iv[i]);
+    }
+    ecb.processBlock(block, 0, expected, 0);
+    assertThat(ciphertext).startsWith(expected);
+    for (int i = 0; i < 12; i++) {
+      block[i] = (byte) (plaintext[12 + i] ^ expected[i]);
+    }
+    ecb.processBlock(block, 0, expected, 0);
+    assertThat(ciphertext).endsWith(expected);
+  }
+
+  @Test
+  void decryptLargeInPlace() {
+    Random random = new Random(3);
+    byte[] iv = new byte[6 * PermutationCrypt.DEFAULT_ROWS];
+    random.nextBytes(iv);
+    //large enough to be split into segments
+    byte[] plaintext = new byte[iv.length * 2000];
+    random.nextBytes(plaintext);
+
+    CBCBlockCipher cbc = new CBCBlockCipher(new PermutationCrypt());
+    cbc.init(true, new KeyWithIVParameter<>(KEY, iv));
+    byte[] ciphertext = new byte[plaintext.length];
+    //encrypt in two calls, chain carries over
+    cbc.processBlocks(plaintext, 0, 700, ciphertext, 0);
+    cbc.processBlocks(plaintext, 700 * iv.length, 1300, ciphertext, 700 * iv.length);
+
+    cbc.init(false, new KeyWithIVParameter<>(KEY, iv));
+    cbc.processBlocks(ciphertext, 0, 2000, ciphertext, 0);
+    assertThat(ciphertext).containsExactly(plaintext);
+  }
+
+  @Test
+  void decryptRequiresIv() {
+    CBCBlockCipher cbc = new CBCBlockCipher(new PermutationCrypt());
+    assertThatThrownBy(() -> cbc.init(false, new KeyParameter<>(KEY)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> cbc.init(true, new KeyWithIVParameter<>(KEY, new byte[3])))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    //random iv when encrypting
+    cbc.init(true, new KeyParameter<>(KEY));
+    assertThat(cbc.getIv()).hasSize(cbc.getBlockSize());
+  }
+
+}
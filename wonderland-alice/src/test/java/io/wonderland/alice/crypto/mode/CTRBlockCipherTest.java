@@ -0,0 +1,63 @@
+package io.wonderland.alice.crypto.mode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.wonderland.alice.crypto.key.secretkey.PermutationKey;
+import io.wonderland.alice.crypto.padding.ZeroPadding;
+import io.wonderland.alice.crypto.params.KeyParameter;
+import io.wonderland.alice.crypto.params.KeyWithIVParameter;
+import io.wonderland.alice.crypto.symmetric.PermutationCrypt;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class CTRBlockCipherTest {
+
+  private static final PermutationKey KEY = new PermutationKey(0, 5, 3, 4, 2, 1);
+
+  @Test
+  void keystream() {
+    byte[] iv = new byte[12];
+    Arrays.fill(iv, (byte) 0xFF);
+    CTRBlockCipher ctr = new CTRBlockCipher(new PermutationCrypt(new ZeroPadding(), true, 2));
+    ctr.init(true, new KeyWithIVParameter<>(KEY, iv));
+
+    //zero plaintext gives keystream, second counter block wraps around to zero
+    byte[] keystream = new byte[24];
+    ctr.processBytes(new byte[24], 0, 24, keystream, 0);
+    PermutationCrypt ecb = new PermutationCrypt(new ZeroPadding(), true, 2);
+    ecb.init(true, new KeyParameter<>(KEY));
+    byte[] expected = new byte[12];
+    ecb.processBlock(iv, 0, expected, 0);
+    assertThat(Arrays.copyOfRange(keystream, 0, 12)).containsExactly(expected);
+    assertThat(Arrays.copyOfRange(keystream, 12, 24)).containsOnly(0);
+  }
+
+  @Test
+  void streamLargeUneven() {
+    Random random = new Random(5);
+    byte[] iv = new byte[6 * PermutationCrypt.DEFAULT_ROWS];
+    random.nextBytes(iv);
+    byte[] plaintext = new byte[iv.length * 1500 + 77];
+    random.nextBytes(plaintext);
+
+    CTRBlockCipher ctr = new CTRBlockCipher(new PermutationCrypt());
+    ctr.init(true, new KeyWithIVParameter<>(KEY, iv));
+    byte[] whole = new byte[plaintext.length];
+    ctr.processBytes(plaintext, 0, plaintext.length, whole, 0);
+
+    //same keystream when fed in pieces not aligned to blocks
+    ctr.reset();
+    byte[] pieces = new byte[plaintext.length];
+    for (int off = 0, step = 1; off < plaintext.length; off += step, step = step * 7 % 100_003) {
+      int len = Math.min(step, plaintext.length - off);
+      ctr.processBytes(plaintext, off, len, pieces, off);
+    }
+    assertThat(pieces).containsExactly(whole);
+
+    ctr.init(false, new KeyWithIVParameter<>(KEY, iv));
+    ctr.processBytes(whole, 0, whole.length, whole, 0);
+    assertThat(whole).containsExactly(plaintext);
+  }
+
+}
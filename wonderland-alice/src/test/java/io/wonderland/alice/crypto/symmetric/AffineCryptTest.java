@@ -11,6 +11,7 @@ import io.wonderland.alice.crypto.params.KeyParameter;
 import io.wonderland.alice.crypto.params.KeyWithIVParameter;
 import io.wonderland.alice.crypto.params.ParameterList;
 import io.wonderland.alice.crypto.params.RawKeyParameter;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import lombok.extern.slf4j.Slf4j;
@@ -111,4 +112,31 @@ class AffineCryptTest {
     log.info("Decrypted ciphertext '{}'", new String(decryptedtext));
   }
 
+  @Test
+  void encryptDecryptAllBytes() {
+    AffineKey affineKey = new AffineKey(5, 8, 256);
+    KeyParameter<Key> keyParam = new KeyParameter<>(affineKey);
+    byte[] plaintext = new byte[256];
+    for (int i = 0; i < plaintext.length; i++) {
+      plaintext[i] = (byte) i;
+    }
+    byte[] ciphertext = new byte[plaintext.length];
+    byte[] decryptedtext = new byte[plaintext.length];
+
+    StreamCipher cipher = new AffineCrypt();
+    cipher.init(true, keyParam);
+    cipher.processBytes(plaintext, 0, plaintext.length, ciphertext, 0);
+
+    //lookup table must agree with Ci = Pi * a + b mod(m)
+    for (int i = 0; i < plaintext.length; i++) {
+      int expected = BigInteger.valueOf(plaintext[i]).multiply(affineKey.getA())
+          .add(affineKey.getB()).mod(affineKey.getM()).intValue();
+      assertThat(ciphertext[i]).isEqualTo((byte) expected);
+    }
+
+    cipher.init(false, keyParam);
+    cipher.processBytes(ciphertext, 0, ciphertext.length, decryptedtext, 0);
+    assertThat(decryptedtext).containsExactly(plaintext);
+  }
+
 }
@@ -113,4 +113,23 @@ class CaesarCryptTest {
     log.info("Decrypted ciphertext '{}'", new String(decryptedText));
   }
 
+  @Test
+  void processSlice() {
+    byte[] buffer = "0123456789abcdefghij".getBytes();
+    byte[] out = new byte[buffer.length];
+
+    StreamCipher cipher = new CaesarCrypt();
+    cipher.init(true, new KeyParameter<>(new CaesarKey(3)));
+
+    //only slice [5,10) is processed, rest of output stays untouched
+    assertThat(cipher.processBytes(buffer, 5, 5, out, 5)).isEqualTo(5);
+    for (int i = 0; i < out.length; i++) {
+      if (i >= 5 && i < 10) {
+        assertThat(out[i]).isEqualTo((byte) (buffer[i] + 3));
+      } else {
+        assertThat(out[i]).isZero();
+      }
+    }
+  }
+
 }
@@ -1,10 +1,14 @@
 package io.wonderland.alice.crypto.symmetric;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import io.wonderland.alice.crypto.key.secretkey.PermutationKey;
 import io.wonderland.alice.crypto.padding.BytePadding;
 import io.wonderland.alice.crypto.padding.OnePadding;
 import io.wonderland.alice.crypto.padding.ZeroPadding;
+import io.wonderland.alice.crypto.params.KeyParameter;
+import java.util.Arrays;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
@@ -125,6 +129,66 @@ class PermutationCryptTest {
   }
 
 
+  @Test
+  void processBlocks() {
+    byte[] plaintext = "Hello world 1234".getBytes();
+    PermutationKey key = new PermutationKey(4, 2, 1, 3);
+
+    //2 rows x 4 columns blocks
+    PermutationCrypt encryptCipher = new PermutationCrypt(new ZeroPadding(), true, 2);
+    encryptCipher.init(true, new KeyParameter<>(key));
+    assertThat(encryptCipher.getBlockSize()).isEqualTo(8);
+    assertThat(encryptCipher.getOutputSize(plaintext.length + 1)).isEqualTo(20);
+    assertThat(encryptCipher.getFinalBlockSize(5)).isEqualTo(8);
+    assertThat(encryptCipher.getFinalBlockSize(3)).isEqualTo(4);
+
+    byte[] ciphertext = new byte[plaintext.length];
+    for (int off = 0; off < plaintext.length; off += 8) {
+      assertThat(encryptCipher.processBlock(plaintext, off, ciphertext, off)).isEqualTo(8);
+    }
+    assertThat(new String(ciphertext, 0, 8)).isEqualTo("Holwe lo");
+
+    PermutationCrypt decryptCipher = new PermutationCrypt(new ZeroPadding(), false, 2);
+    decryptCipher.init(false, new KeyParameter<>(key));
+    byte[] decryptedtext = new byte[ciphertext.length];
+    for (int off = 0; off < ciphertext.length; off += 8) {
+      decryptCipher.processBlock(ciphertext, off, decryptedtext, off);
+    }
+    assertThat(decryptedtext).containsExactly(plaintext);
+
+    assertThatThrownBy(() -> encryptCipher.processBlock(plaintext, 12, ciphertext, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> encryptCipher.processFinalBlock(plaintext, 0, 6, ciphertext, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void processFinalBlock() {
+    byte[] plaintext = "Hello world 1234".getBytes();
+    PermutationKey key = new PermutationKey(4, 2, 1, 3);
+
+    //last block of one row is transposed on a grid of one row, same as whole message transpose
+    PermutationCrypt encryptCipher = new PermutationCrypt(new ZeroPadding(), true, 2);
+    encryptCipher.init(true, new KeyParameter<>(key));
+    byte[] ciphertext = new byte[plaintext.length];
+    encryptCipher.processBlock(plaintext, 0, ciphertext, 0);
+    encryptCipher.processBlock(plaintext, 8, ciphertext, 8);
+    assertThat(encryptCipher.processFinalBlock(plaintext, 12, 4, ciphertext, 12)).isEqualTo(4);
+    byte[] row = new byte[4];
+    encryptCipher.transpose(Arrays.copyOfRange(plaintext, 12, 16), row);
+    assertThat(Arrays.copyOfRange(ciphertext, 12, 16)).containsExactly(row);
+
+    PermutationCrypt decryptCipher = new PermutationCrypt(new ZeroPadding(), false, 2);
+    decryptCipher.init(false, new KeyParameter<>(key));
+    byte[] decryptedtext = new byte[ciphertext.length];
+    decryptCipher.processBlock(ciphertext, 0, decryptedtext, 0);
+    decryptCipher.processBlock(ciphertext, 8, decryptedtext, 8);
+    decryptCipher.processFinalBlock(ciphertext, 12, 4, decryptedtext, 12);
+    assertThat(decryptedtext).containsExactly(plaintext);
+    assertThatThrownBy(() -> encryptCipher.init(true, new KeyParameter<>(new PermutationKey(1, 5))))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
   @Test
   void canPad() {
     byte[] plaintext = "Hello world !@#@$%^$#^%#&^".getBytes();
@@ -83,4 +83,63 @@ class RailfenceCryptTest {
     log.info("Decrypted ciphertext '{}'", new String(decryptedtext));
   }
 
+  @Test
+  void knownVector() {
+    byte[] plaintext = "WEAREDISCOVEREDFLEEATONCE".getBytes();
+    byte[] ciphertext = new byte[plaintext.length + 2];
+    byte[] decryptedtext = new byte[plaintext.length];
+    RailfenceCrypt cipher = new RailfenceCrypt();
+
+    cipher.init(true, new KeyParameter<>(new RailfenceKey(3)));
+    assertThat(cipher.processBytes(plaintext, 0, plaintext.length, ciphertext, 2))
+        .isEqualTo(plaintext.length);
+    assertThat(new String(ciphertext, 2, plaintext.length)).isEqualTo("WECRLTEERDSOEEFEAOCAIVDEN");
+
+    cipher.init(false, new KeyParameter<>(new RailfenceKey(3)));
+    cipher.processBytes(ciphertext, 2, plaintext.length, decryptedtext, 0);
+    assertThat(decryptedtext).containsExactly(plaintext);
+
+    //one rail and rails not fewer than message length keep message as it is
+    for (int rails : new int[]{1, plaintext.length, plaintext.length + 10}) {
+      cipher.init(true, new KeyParameter<>(new RailfenceKey(rails)));
+      byte[] out = new byte[plaintext.length];
+      cipher.processBytes(plaintext, 0, plaintext.length, out, 0);
+      assertThat(out).containsExactly(plaintext);
+    }
+
+    assertThatThrownBy(() -> cipher.init(true, new KeyParameter<>(new RailfenceKey(0))))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void streamRails() {
+    byte[] plaintext = "Hello World !!@#$%^&&*(*(+_)(*&=-0".getBytes();
+    int rails = 5;
+    RailfenceCrypt cipher = new RailfenceCrypt();
+    cipher.init(true, new KeyParameter<>(new RailfenceKey(rails)));
+    byte[] ciphertext = new byte[plaintext.length];
+    cipher.processBytes(plaintext, 0, plaintext.length, ciphertext, 0);
+
+    //rails emitted one at a time concatenate to bulk ciphertext
+    byte[] streamed = new byte[plaintext.length];
+    int written = 0;
+    for (int rail = 0; rail < rails; rail++) {
+      byte[] railBytes = new byte[RailfenceCrypt.railLength(plaintext.length, rails, rail)];
+      assertThat(cipher.encryptRail(plaintext, 0, plaintext.length, rail, railBytes, 0))
+          .isEqualTo(railBytes.length);
+      System.arraycopy(railBytes, 0, streamed, written, railBytes.length);
+      written += railBytes.length;
+    }
+    assertThat(streamed).containsExactly(ciphertext);
+
+    //rails fed one at a time rebuild plaintext
+    byte[] decryptedtext = new byte[plaintext.length];
+    int read = 0;
+    for (int rail = 0; rail < rails; rail++) {
+      read += cipher.decryptRail(ciphertext, read, rail, plaintext.length, decryptedtext, 0);
+    }
+    assertThat(read).isEqualTo(plaintext.length);
+    assertThat(decryptedtext).containsExactly(plaintext);
+  }
+
 }
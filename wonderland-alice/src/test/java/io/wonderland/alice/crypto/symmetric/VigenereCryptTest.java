@@ -145,4 +145,44 @@ class VigenereCryptTest {
     log.info("Decrypted ciphertext '{}'", new String(decryptedtext));
   }
 
+  @Test
+  void chunkedEncryptDecrypt() {
+    byte[] plaintext = "Hello World !!@#$%^&&*(*(+_)(*&=-0".getBytes();
+    byte[] ciphertext = new byte[plaintext.length];
+    byte[] chunkedCiphertext = new byte[plaintext.length];
+    byte[] decryptedtext = new byte[plaintext.length];
+
+    VigenereKey key = new VigenereKey(200, new byte[]{1, 2, 3, 4, 5});
+    KeyParameter<VigenereKey> keyParameter = new KeyParameter<>(key);
+    StreamCipher cipher = new VigenereCrypt();
+
+    //whole input in one call
+    cipher.init(true, keyParameter);
+    cipher.processBytes(plaintext, 0, plaintext.length, ciphertext, 0);
+
+    //same input in chunks of 3 bytes, keystream must continue between chunks
+    cipher.init(true, keyParameter);
+    int chunk = 3;
+    for (int off = 0; off < plaintext.length; off += chunk) {
+      int len = Math.min(chunk, plaintext.length - off);
+      assertThat(cipher.processBytes(plaintext, off, len, chunkedCiphertext, off)).isEqualTo(len);
+    }
+    assertThat(chunkedCiphertext).containsExactly(ciphertext);
+
+    cipher.init(false, keyParameter);
+    for (int off = 0; off < ciphertext.length; off += chunk) {
+      int len = Math.min(chunk, ciphertext.length - off);
+      cipher.processBytes(ciphertext, off, len, decryptedtext, off);
+    }
+    assertThat(decryptedtext).containsExactly(plaintext);
+
+    //slice out of bounds must be rejected before touching memory
+    assertThatThrownBy(() -> cipher.processBytes(plaintext, 10, plaintext.length, ciphertext, 0))
+        .hasMessage("Input length out of input array bounds.")
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> cipher.processBytes(plaintext, 0, 10, new byte[5], 0))
+        .hasMessage("Output array too short for processed input.")
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
 }
@@ -4,14 +4,21 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import io.wonderland.alice.crypto.spec.MultiBlockParameterSpec;
 import io.wonderland.alice.jca.ProviderTest;
 import io.wonderland.base.ByteArrayBuilder;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
@@ -73,6 +80,74 @@ class RSATest extends ProviderTest {
     assertThat(cipher.doFinal(ciphertext)).containsExactly(plaintext);
   }
 
+  @Test
+  void multiBlock() throws GeneralSecurityException {
+    KeyPair keyPair = getRSAKeys();
+    int modulusBytes = (((RSAPublicKey) keyPair.getPublic()).getModulus().bitLength() + 7) / 8;
+
+    byte[] plaintext = new byte[10 * modulusBytes + 17];
+    new Random(3).nextBytes(plaintext);
+    //leading zeros of a block must survive
+    plaintext[0] = 0;
+    plaintext[modulusBytes - 1] = 0;
+
+    Cipher cipher = Cipher.getInstance("RSA/MULTIBLOCK/NoPadding", CSP_NAME);
+    cipher.init(Cipher.ENCRYPT_MODE, keyPair.getPublic());
+    assertThat(cipher.getBlockSize()).isEqualTo(modulusBytes - 1);
+    byte[] ciphertext = cipher.doFinal(plaintext);
+    int blocks = (plaintext.length + modulusBytes - 2) / (modulusBytes - 1);
+    assertThat(ciphertext).hasSize(blocks * (Integer.BYTES + modulusBytes));
+
+    //decrypt as a stream of small updates on a dedicated executor
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      cipher.init(Cipher.DECRYPT_MODE, keyPair.getPrivate(),
+          new MultiBlockParameterSpec(executor));
+      ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+      for (int off = 0; off < ciphertext.length; off += 50) {
+        byte[] processed = cipher.update(ciphertext, off, Math.min(50, ciphertext.length - off));
+        if (processed != null) {
+          decrypted.writeBytes(processed);
+        }
+      }
+      decrypted.writeBytes(cipher.doFinal());
+      assertThat(decrypted.toByteArray()).containsExactly(plaintext);
+
+      //truncated frame
+      cipher.init(Cipher.DECRYPT_MODE, keyPair.getPrivate(),
+          new MultiBlockParameterSpec(executor));
+      assertThatThrownBy(() -> cipher.doFinal(ciphertext, 0, ciphertext.length - 1))
+          .isInstanceOf(BadPaddingException.class);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void singleBlockTooLong() throws GeneralSecurityException {
+    KeyPair keyPair = getRSAKeys();
+    Cipher cipher = Cipher.getInstance(TRANSFORMATION, CSP_NAME);
+    cipher.init(Cipher.ENCRYPT_MODE, keyPair.getPublic());
+    byte[] tooLong = new byte[cipher.getBlockSize() + 1];
+    assertThatThrownBy(() -> cipher.update(tooLong))
+        .isInstanceOf(ArrayIndexOutOfBoundsException.class);
+  }
+
+  @Test
+  void multiBlockSpecNotKeptOnReinit() throws GeneralSecurityException {
+    KeyPair keyPair = getRSAKeys();
+    Cipher cipher = Cipher.getInstance(TRANSFORMATION, CSP_NAME);
+    cipher.init(Cipher.ENCRYPT_MODE, keyPair.getPublic(), new MultiBlockParameterSpec());
+    byte[] tooLong = new byte[cipher.getBlockSize() + 1];
+    assertThatCode(() -> cipher.doFinal(tooLong)).doesNotThrowAnyException();
+
+    //init without spec is back to single block mode
+    cipher.init(Cipher.ENCRYPT_MODE, keyPair.getPublic());
+    assertThat(cipher.getOutputSize(1)).isEqualTo(cipher.getBlockSize() + 1);
+    assertThatThrownBy(() -> cipher.update(tooLong))
+        .isInstanceOf(ArrayIndexOutOfBoundsException.class);
+  }
+
   private KeyPair getRSAKeys() throws NoSuchAlgorithmException {
     KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
     keyGen.initialize(512);
@@ -2,21 +2,26 @@ package io.wonderland.alice.jca.symmetric;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import io.wonderland.alice.crypto.key.secretkey.PermutationKey;
+import io.wonderland.alice.crypto.symmetric.PermutationCrypt;
 import io.wonderland.alice.jca.ProviderTest;
+import java.io.ByteArrayOutputStream;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
+import java.util.Arrays;
+import java.util.Random;
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.IvParameterSpec;
 import lombok.extern.slf4j.Slf4j;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
-@Disabled //todo: to implement permutation & disable test
 @Slf4j
 class PermutationTest extends ProviderTest {
 
@@ -37,8 +42,7 @@ class PermutationTest extends ProviderTest {
       throws NoSuchPaddingException, NoSuchAlgorithmException, NoSuchProviderException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
     Cipher cipher = Cipher.getInstance(TRANSFORMATION, CSP_NAME);
     assertThat(cipher.getAlgorithm()).isEqualTo(TRANSFORMATION);
-    assertThat(cipher.getIV()).isEmpty();
-    assertThat(cipher.getBlockSize()).isEqualTo(-1);
+    assertThat(cipher.getIV()).isNull();
     assertThat(cipher.getParameters()).isNull();
 
     byte[] plaintext = "Hello World !!@#$%^&&*(*(+_)(*&=-0".getBytes();
@@ -47,9 +51,11 @@ class PermutationTest extends ProviderTest {
     //Encryption test
     //cipher encrypt init
     cipher.init(1, key);
+    assertThat(cipher.getBlockSize()).isEqualTo(6 * PermutationCrypt.DEFAULT_ROWS);
 
+    //34 bytes padded to 6 whole rows only
     byte[] ciphertext = cipher.doFinal(plaintext);
-    assertThat(ciphertext).hasSameSizeAs(plaintext)
+    assertThat(ciphertext).hasSize(36)
         .isNotEmpty()
         .isNotIn(plaintext);
 
@@ -61,9 +67,100 @@ class PermutationTest extends ProviderTest {
     assertThat(cipher.doFinal(ciphertext)).containsExactly(plaintext);
   }
 
+  @Test
+  void cipherUpdateBlocks()
+      throws NoSuchPaddingException, NoSuchAlgorithmException, NoSuchProviderException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+    Cipher cipher = Cipher.getInstance(TRANSFORMATION, CSP_NAME);
+    PermutationKey key = new PermutationKey(0, 5, 3, 4, 2, 1);
+    byte[] plaintext = new byte[10_000];
+    new Random(7).nextBytes(plaintext);
+
+    //encrypt in uneven updates, only whole blocks come out of update
+    cipher.init(1, key);
+    ByteArrayOutputStream ciphertext = new ByteArrayOutputStream();
+    for (int off = 0; off < plaintext.length; off += 777) {
+      byte[] processed = cipher.update(plaintext, off, Math.min(777, plaintext.length - off));
+      assertThat(processed.length % cipher.getBlockSize()).isZero();
+      ciphertext.writeBytes(processed);
+    }
+    ciphertext.writeBytes(cipher.doFinal());
+    assertThat(ciphertext.size()).isEqualTo(cipher.getOutputSize(plaintext.length))
+        .isEqualTo(10_002);
 
-  void t() {
+    cipher.init(2, key);
+    ByteArrayOutputStream decryptedtext = new ByteArrayOutputStream();
+    byte[] encrypted = ciphertext.toByteArray();
+    for (int off = 0; off < encrypted.length; off += 1000) {
+      decryptedtext.writeBytes(
+          cipher.update(encrypted, off, Math.min(1000, encrypted.length - off)));
+    }
+    decryptedtext.writeBytes(cipher.doFinal());
+    assertThat(decryptedtext.toByteArray()).containsExactly(withoutTrailingZeros(plaintext));
+  }
+
+  @Test
+  void cipherBlockModes() throws GeneralSecurityException {
+    PermutationKey key = new PermutationKey(0, 5, 3, 4, 2, 1);
+    byte[] plaintext = new byte[200_000];
+    new Random(9).nextBytes(plaintext);
+
+    for (String transformation : new String[]{"Permutation/CBC/ZERO_PADDING",
+        "Permutation/CTR/NO_PADDING", "Permutation/ECB/ZERO_PADDING"}) {
+      Cipher cipher = Cipher.getInstance(transformation, CSP_NAME);
+      cipher.init(Cipher.ENCRYPT_MODE, key);
+      byte[] iv = cipher.getIV();
+      byte[] ciphertext = cipher.doFinal(plaintext);
+      assertThat(ciphertext).isNotEqualTo(plaintext);
+
+      if (iv == null) {
+        cipher.init(Cipher.DECRYPT_MODE, key);
+      } else {
+        assertThat(iv).hasSize(cipher.getBlockSize());
+        cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+      }
+      ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+      for (int off = 0; off < ciphertext.length; off += 50_000) {
+        decrypted.writeBytes(
+            cipher.update(ciphertext, off, Math.min(50_000, ciphertext.length - off)));
+      }
+      decrypted.writeBytes(cipher.doFinal());
+      assertThat(decrypted.toByteArray()).as(transformation).containsExactly(
+          transformation.endsWith("ZERO_PADDING") ? withoutTrailingZeros(plaintext) : plaintext);
+    }
+  }
+
+  @Test
+  void zeroPaddingTrailingZeros() throws GeneralSecurityException {
+    PermutationKey key = new PermutationKey(0, 5, 3, 4, 2, 1);
+    byte[] plaintext = {'a', 'b', 'c', 0, 'd', 0, 0};
+
+    //pad and trailing 0x00 of message look the same, both are removed
+    Cipher cipher = Cipher.getInstance(TRANSFORMATION, CSP_NAME);
+    cipher.init(Cipher.ENCRYPT_MODE, key);
+    byte[] ciphertext = cipher.doFinal(plaintext);
+    assertThat(ciphertext).hasSize(12);
+    cipher.init(Cipher.DECRYPT_MODE, key);
+    assertThat(cipher.doFinal(ciphertext)).containsExactly('a', 'b', 'c', 0, 'd');
+
+    //without padding, messages of whole rows keep their trailing 0x00
+    byte[] rows = Arrays.copyOf(plaintext, 12);
+    Cipher noPadding = Cipher.getInstance("Permutation/ECB/NO_PADDING", CSP_NAME);
+    noPadding.init(Cipher.ENCRYPT_MODE, key);
+    ciphertext = noPadding.doFinal(rows);
+    assertThat(ciphertext).hasSize(12);
+    noPadding.init(Cipher.DECRYPT_MODE, key);
+    assertThat(noPadding.doFinal(ciphertext)).containsExactly(rows);
+    noPadding.init(Cipher.ENCRYPT_MODE, key);
+    assertThatThrownBy(() -> noPadding.doFinal(plaintext))
+        .isInstanceOf(IllegalBlockSizeException.class);
+  }
 
+  private static byte[] withoutTrailingZeros(byte[] bytes) {
+    int length = bytes.length;
+    while (length > 0 && bytes[length - 1] == 0) {
+      length--;
+    }
+    return Arrays.copyOf(bytes, length);
   }
 
-}
\ No newline at end of file
+}
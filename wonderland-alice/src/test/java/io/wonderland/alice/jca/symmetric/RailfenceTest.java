@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThatCode;
 
 import io.wonderland.alice.crypto.key.secretkey.RailfenceKey;
 import io.wonderland.alice.jca.ProviderTest;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
@@ -59,4 +60,22 @@ class RailfenceTest extends ProviderTest {
     assertThat(cipher.doFinal(ciphertext)).containsExactly(plaintext);
   }
 
+  @Test
+  void cipherUpdateHeld() throws GeneralSecurityException {
+    Cipher cipher = Cipher.getInstance(TRANSFORMATION, CSP_NAME);
+    byte[] plaintext = "Hello World !!@#$%^&&*(*(+_)(*&=-0".getBytes();
+    RailfenceKey railfenceKey = new RailfenceKey(3);
+    cipher.init(Cipher.ENCRYPT_MODE, railfenceKey);
+    byte[] expected = cipher.doFinal(plaintext);
+
+    //rails span whole message, updates emit nothing and output doesn't depend on split
+    assertThat(cipher.update(plaintext, 0, 10)).isEmpty();
+    assertThat(cipher.update(plaintext, 10, plaintext.length - 10)).isEmpty();
+    assertThat(cipher.doFinal()).containsExactly(expected);
+
+    cipher.init(Cipher.DECRYPT_MODE, railfenceKey);
+    assertThat(cipher.update(expected, 0, 7)).isEmpty();
+    assertThat(cipher.doFinal(expected, 7, expected.length - 7)).containsExactly(plaintext);
+  }
+
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThatCode;
 
 import io.wonderland.alice.crypto.key.secretkey.VigenereKey;
 import io.wonderland.alice.jca.ProviderTest;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
@@ -60,4 +61,36 @@ class VigenereTest extends ProviderTest {
     assertThat(cipher.doFinal(ciphertext)).containsExactly(plaintext);
   }
 
-}
\ No newline at end of file
+  @Test
+  void testCipherEncryptDecryptBuffers() throws Exception {
+    Cipher cipher = Cipher.getInstance(TRANSFORMATION, CSP_NAME);
+
+    byte[] plaintext = "Hello World !!@#$%^&&*(*(+_)(*&=-0".getBytes();
+    VigenereKey byteKey = new VigenereKey("1qazxsw2/';".getBytes());
+
+    cipher.init(1, byteKey);
+    byte[] expected = cipher.doFinal(plaintext);
+
+    //direct buffers, split in two updates
+    ByteBuffer directIn = ByteBuffer.allocateDirect(plaintext.length);
+    directIn.put(plaintext).flip();
+    ByteBuffer directOut = ByteBuffer.allocateDirect(plaintext.length);
+    cipher.init(1, byteKey);
+    directIn.limit(10);
+    assertThat(cipher.update(directIn, directOut)).isEqualTo(10);
+    directIn.limit(plaintext.length);
+    assertThat(cipher.doFinal(directIn, directOut)).isEqualTo(plaintext.length - 10);
+    directOut.flip();
+    byte[] ciphertext = new byte[directOut.remaining()];
+    directOut.get(ciphertext);
+    assertThat(ciphertext).containsExactly(expected);
+
+    //heap buffers
+    ByteBuffer heapIn = ByteBuffer.wrap(ciphertext);
+    ByteBuffer heapOut = ByteBuffer.allocate(ciphertext.length);
+    cipher.init(2, byteKey);
+    assertThat(cipher.doFinal(heapIn, heapOut)).isEqualTo(ciphertext.length);
+    assertThat(heapOut.array()).containsExactly(plaintext);
+  }
+
+}
@@ -0,0 +1,83 @@
+package io.wonderland.alice.math;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class MontgomeryTest {
+
+  @Test
+  void invalidModulus() {
+    assertThatThrownBy(() -> new Montgomery(BigInteger.valueOf(10)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new Montgomery(BigInteger.ONE))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new Montgomery(BigInteger.valueOf(-7)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void modMultiply() {
+    Random random = new Random(7);
+    for (int i = 0; i < 200; i++) {
+      BigInteger n = randomOddModulus(random, 2 + random.nextInt(1100));
+      BigInteger a = new BigInteger(n.bitLength() + 8, random);
+      BigInteger b = new BigInteger(n.bitLength(), random);
+      Montgomery montgomery = new Montgomery(n);
+      assertThat(montgomery.modMultiply(a, b)).isEqualTo(a.multiply(b).mod(n));
+      assertThat(montgomery.fromMontgomery(montgomery.toMontgomery(a))).isEqualTo(a.mod(n));
+    }
+  }
+
+  @Test
+  void modPow() {
+    Random random = new Random(11);
+    for (int i = 0; i < 200; i++) {
+      BigInteger n = randomOddModulus(random, 2 + random.nextInt(1100));
+      BigInteger base = new BigInteger(n.bitLength(), random);
+      BigInteger exponent = new BigInteger(random.nextInt(1100), random);
+      Montgomery montgomery = new Montgomery(n);
+      assertThat(montgomery.modPow(base, exponent)).isEqualTo(base.modPow(exponent, n));
+    }
+    Montgomery montgomery = new Montgomery(BigInteger.valueOf(97));
+    assertThat(montgomery.modPow(BigInteger.valueOf(5), BigInteger.ZERO)).isOne();
+    assertThatThrownBy(() -> montgomery.modPow(BigInteger.TWO, BigInteger.valueOf(-1)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void modPowLargeModuli() {
+    Random random = new Random(13);
+    for (int bits : new int[]{1024, 2048, 4096}) {
+      BigInteger n = randomOddModulus(random, bits);
+      BigInteger base = new BigInteger(bits, random);
+      BigInteger exponent = new BigInteger(bits, random);
+      assertThat(new Montgomery(n).modPow(base, exponent)).isEqualTo(base.modPow(exponent, n));
+    }
+    //all limbs set, exercises carries of every limb
+    BigInteger n = BigInteger.ONE.shiftLeft(1024).subtract(BigInteger.ONE);
+    BigInteger base = n.subtract(BigInteger.TWO);
+    assertThat(new Montgomery(n).modPow(base, n)).isEqualTo(base.modPow(n, n));
+  }
+
+  @Test
+  void fixedBase() {
+    Random random = new Random(17);
+    BigInteger n = randomOddModulus(random, 1024);
+    BigInteger base = new BigInteger(1024, random);
+    Montgomery.FixedBase fixedBase = new Montgomery(n).fixedBase(base, 512);
+    for (int i = 0; i < 50; i++) {
+      //exponents above 512 bits fall back to sliding window
+      BigInteger exponent = new BigInteger(random.nextInt(1024), random);
+      assertThat(fixedBase.modPow(exponent)).isEqualTo(base.modPow(exponent, n));
+    }
+  }
+
+  private static BigInteger randomOddModulus(Random random, int bits) {
+    return new BigInteger(bits, random).setBit(bits - 1).setBit(0).max(BigInteger.valueOf(3));
+  }
+
+}
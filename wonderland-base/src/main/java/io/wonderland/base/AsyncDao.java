@@ -0,0 +1,27 @@
+package io.wonderland.base;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking counterpart of {@link Dao}, every operation completes a stage instead of blocking
+ * calling thread.
+ *
+ * @param <T> model type
+ * @param <I> model id type
+ */
+public interface AsyncDao<T, I> {
+
+  CompletionStage<Optional<T>> get(I id);
+
+  CompletionStage<List<T>> getAll();
+
+  CompletionStage<Void> save(T t);
+
+  CompletionStage<Void> saveAll(T... args);
+
+  CompletionStage<Void> update(T t);
+
+  CompletionStage<Void> delete(T t);
+}
@@ -0,0 +1,296 @@
+package io.wonderland.base;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary n-gram count table, read straight from a memory mapped file with no parsing. Opening a
+ * table maps the file and reads its header, lookups binary search the mapped keys.
+ * <br>
+ * <br> Layout, big-endian :
+ * <br> header : magic int, version int, gram length int, entries int, total count long
+ * <br> keys : long[entries], gram chars packed 16 bits each right aligned, ascending unsigned
+ * <br> counts : long[entries]
+ * <br> log-probabilities : double[entries], log10(count / total)
+ * <br>
+ * <br> A gram has at most {@link #MAX_GRAM_LENGTH} chars and doesn't start with char 0, grams of
+ * one table may differ in length.
+ * Gram length of header is length of shortest gram.
+ */
+public final class GramTable {
+
+  public static final int MAGIC = 0x57475442;
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 24;
+  public static final int MAX_GRAM_LENGTH = 4;
+  public static final String FILE_EXTENSION = ".bin";
+
+  private final int gramLength;
+  private final int size;
+  private final long total;
+  private final LongBuffer keys;
+  private final LongBuffer counts;
+  private final DoubleBuffer logProbabilities;
+
+  private GramTable(ByteBuffer buffer) {
+    if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IllegalArgumentException("Not a gram table.");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IllegalArgumentException("Gram table version " + buffer.getInt(4)
+          + " not supported.");
+    }
+    this.gramLength = buffer.getInt(8);
+    this.size = buffer.getInt(12);
+    this.total = buffer.getLong(16);
+    if (buffer.capacity() < HEADER_SIZE + 24L * size) {
+      throw new IllegalArgumentException("Gram table truncated.");
+    }
+    this.keys = slice(buffer, HEADER_SIZE, size * Long.BYTES).asLongBuffer();
+    this.counts = slice(buffer, HEADER_SIZE + size * Long.BYTES, size * Long.BYTES)
+        .asLongBuffer();
+    this.logProbabilities = slice(buffer, HEADER_SIZE + 2 * size * Long.BYTES,
+        size * Double.BYTES).asDoubleBuffer();
+  }
+
+  /**
+   * Map table file read only, mapping stays valid after return.
+   */
+  public static GramTable open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return new GramTable(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * @param buffer table bytes from index 0
+   */
+  public static GramTable wrap(ByteBuffer buffer) {
+    return new GramTable(buffer.duplicate());
+  }
+
+  /**
+   * Table read on heap from a stream, e.g. a classpath resource packed in a jar, stream is not
+   * closed.
+   */
+  public static GramTable read(InputStream in) throws IOException {
+    return wrap(ByteBuffer.wrap(in.readAllBytes()));
+  }
+
+  public static void write(Map<String, ? extends Number> gramCounts, Path file)
+      throws IOException {
+    ByteBuffer buffer = encode(gramCounts);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * @param gramCounts gram - count entries, as in GRAM:count text files
+   * @return table bytes
+   */
+  public static ByteBuffer encode(Map<String, ? extends Number> gramCounts) {
+    int size = gramCounts.size();
+    long[] entries = new long[size];
+    Map<Long, Long> countsByKey = new HashMap<>(size * 2);
+    int gramLength = size == 0 ? 0 : Integer.MAX_VALUE;
+    long total = 0;
+    int i = 0;
+    for (Map.Entry<String, ? extends Number> entry : gramCounts.entrySet()) {
+      long key = pack(entry.getKey());
+      long count = entry.getValue().longValue();
+      if (count < 0) {
+        throw new IllegalArgumentException("Count of " + entry.getKey() + " is negative.");
+      }
+      entries[i++] = key;
+      countsByKey.put(key, count);
+      gramLength = Math.min(gramLength, entry.getKey().length());
+      total += count;
+    }
+    //unsigned order by flipping sign bit
+    for (int j = 0; j < size; j++) {
+      entries[j] ^= Long.MIN_VALUE;
+    }
+    Arrays.sort(entries);
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 24 * size);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(gramLength).putInt(size).putLong(total);
+    for (int j = 0; j < size; j++) {
+      entries[j] ^= Long.MIN_VALUE;
+      buffer.putLong(entries[j]);
+    }
+    for (int j = 0; j < size; j++) {
+      buffer.putLong(countsByKey.get(entries[j]));
+    }
+    for (int j = 0; j < size; j++) {
+      buffer.putDouble(Math.log10((double) countsByKey.get(entries[j]) / total));
+    }
+    return buffer.flip();
+  }
+
+  /**
+   * @return gram chars packed 16 bits each, last char in lowest bits
+   */
+  public static long pack(CharSequence gram) {
+    if (gram.length() == 0 || gram.length() > MAX_GRAM_LENGTH) {
+      throw new IllegalArgumentException("Gram length must be in [1, " + MAX_GRAM_LENGTH + "].");
+    }
+    long key = 0;
+    for (int i = 0; i < gram.length(); i++) {
+      key = (key << Character.SIZE) | gram.charAt(i);
+    }
+    return key;
+  }
+
+  public static String unpack(long key) {
+    char[] chars = new char[MAX_GRAM_LENGTH];
+    int start = MAX_GRAM_LENGTH;
+    while (key != 0) {
+      chars[--start] = (char) key;
+      key >>>= Character.SIZE;
+    }
+    return new String(chars, start, MAX_GRAM_LENGTH - start);
+  }
+
+  /**
+   * @return index of gram, -1 if absent
+   */
+  public int indexOf(CharSequence gram) {
+    if (gram.length() == 0 || gram.length() > MAX_GRAM_LENGTH) {
+      return -1;
+    }
+    long key = pack(gram);
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int cmp = Long.compareUnsigned(keys.get(mid), key);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return count of gram, 0 if absent
+   */
+  public long count(CharSequence gram) {
+    int index = indexOf(gram);
+    return index < 0 ? 0 : counts.get(index);
+  }
+
+  public String gram(int index) {
+    return unpack(keys.get(index));
+  }
+
+  public long count(int index) {
+    return counts.get(index);
+  }
+
+  /**
+   * @return log10(count / total) of gram at index
+   */
+  public double logProbability(int index) {
+    return logProbabilities.get(index);
+  }
+
+  public int getGramLength() {
+    return gramLength;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  /**
+   * @return gram - count entries, same as parsed from text file
+   */
+  public Map<String, Long> toMap() {
+    Map<String, Long> map = new HashMap<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      map.put(gram(i), count(i));
+    }
+    return map;
+  }
+
+  /**
+   * Text file is read as UTF-8 whatever default charset is, grams of one file keep same length.
+   *
+   * @return UTF-8 text file of GRAM:count lines converted to binary table file with same name and
+   * {@link #FILE_EXTENSION}
+   */
+  public static Path convert(Path textFile, Path targetDir) throws IOException {
+    Path target = targetDir.resolve(tableFileName(textFile));
+    Files.createDirectories(targetDir);
+    write(parse(textFile), target);
+    return target;
+  }
+
+  /**
+   * Table of a file. A GRAM:count text file is read through table file with same name and
+   * {@link #FILE_EXTENSION} next to it when there is one, else parsed as UTF-8 text and encoded on
+   * heap.
+   *
+   * @param file table or text file
+   */
+  public static GramTable load(Path file) throws IOException {
+    if (file.getFileName().toString().endsWith(FILE_EXTENSION)) {
+      return open(file);
+    }
+    Path table = file.resolveSibling(tableFileName(file));
+    if (Files.isRegularFile(table)) {
+      return open(table);
+    }
+    return wrap(encode(parse(file)));
+  }
+
+  private static Map<String, Long> parse(Path textFile) throws IOException {
+    Map<String, Long> gramCounts = new HashMap<>();
+    try (BufferedReader reader = Files.newBufferedReader(textFile, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] keyValuePair = line.split(":", 2);
+        if (keyValuePair.length > 1) {
+          gramCounts.put(keyValuePair[0].trim(), Long.parseLong(keyValuePair[1].trim()));
+        }
+      }
+    }
+    return gramCounts;
+  }
+
+  private static String tableFileName(Path textFile) {
+    String name = textFile.getFileName().toString();
+    int dot = name.lastIndexOf('.');
+    return (dot < 0 ? name : name.substring(0, dot)) + FILE_EXTENSION;
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+    ByteBuffer duplicate = buffer.duplicate();
+    duplicate.position(offset).limit(offset + length);
+    return duplicate.slice();
+  }
+
+}
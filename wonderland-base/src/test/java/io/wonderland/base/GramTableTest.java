@@ -0,0 +1,100 @@
+package io.wonderland.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GramTableTest {
+
+  @Test
+  void packUnpack() {
+    for (String gram : List.of("E", "TH", "THE", "ÃŸ", "Ã¤e", "\uFFFF\uFFFFAB")) {
+      assertThat(GramTable.unpack(GramTable.pack(gram))).isEqualTo(gram);
+    }
+    assertThatThrownBy(() -> GramTable.pack("")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> GramTable.pack("ABCDE"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void encodeWrap() {
+    Map<String, Long> counts = new HashMap<>();
+    counts.put("TH", 300L);
+    counts.put("HE", 100L);
+    counts.put("Ã¤", 50L);
+    counts.put("\uFFFFA", 50L);
+    GramTable table = GramTable.wrap(GramTable.encode(counts));
+
+    assertThat(table.size()).isEqualTo(4);
+    assertThat(table.getTotal()).isEqualTo(500);
+    assertThat(table.getGramLength()).isEqualTo(2);
+    assertThat(table.count("TH")).isEqualTo(300);
+    assertThat(table.count("\uFFFFA")).isEqualTo(50);
+    assertThat(table.count("XX")).isZero();
+    assertThat(table.count("ABCDE")).isZero();
+    assertThat(table.indexOf("XX")).isNegative();
+    assertThat(table.logProbability(table.indexOf("HE"))).isCloseTo(Math.log10(0.2),
+        Offset.offset(1e-12));
+    assertThat(table.toMap()).isEqualTo(counts);
+  }
+
+  @Test
+  void emptyTable() {
+    GramTable table = GramTable.wrap(GramTable.encode(Map.of()));
+    assertThat(table.size()).isZero();
+    assertThat(table.getGramLength()).isZero();
+    assertThat(table.count("E")).isZero();
+  }
+
+  @Test
+  void wrapInvalid() {
+    assertThatThrownBy(() -> GramTable.wrap(ByteBuffer.allocate(8)))
+        .isInstanceOf(IllegalArgumentException.class);
+    ByteBuffer truncated = GramTable.encode(Map.of("E", 1L, "T", 2L));
+    assertThatThrownBy(() -> GramTable.wrap(truncated.limit(truncated.limit() - 8).slice()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void convertOpen(@TempDir Path dir) throws IOException {
+    Path textFile = dir.resolve("digram_freq.txt");
+    Files.writeString(textFile, "TH:300\nHE:100\nIN:100\n");
+    Path tableFile = GramTable.convert(textFile, dir.resolve("bin"));
+
+    assertThat(tableFile.getFileName()).hasToString("digram_freq" + GramTable.FILE_EXTENSION);
+    GramTable table = GramTable.open(tableFile);
+    assertThat(table.toMap()).isEqualTo(Map.of("TH", 300L, "HE", 100L, "IN", 100L));
+    assertThat(table.getTotal()).isEqualTo(500);
+  }
+
+  @Test
+  void loadRead(@TempDir Path dir) throws IOException {
+    Path textFile = dir.resolve("digram_freq.txt");
+    Files.writeString(textFile, "TH:300\nHE:100\n");
+    Map<String, Long> expected = Map.of("TH", 300L, "HE", 100L);
+    //text parsed while there is no table file next to it
+    assertThat(GramTable.load(textFile).toMap()).isEqualTo(expected);
+
+    Path tableFile = GramTable.convert(textFile, dir);
+    Files.writeString(textFile, "TH:1\n");
+    assertThat(GramTable.load(textFile).toMap()).isEqualTo(expected);
+    assertThat(GramTable.load(tableFile).toMap()).isEqualTo(expected);
+
+    try (InputStream in = new ByteArrayInputStream(Files.readAllBytes(tableFile))) {
+      assertThat(GramTable.read(in).toMap()).isEqualTo(expected);
+    }
+  }
+
+}
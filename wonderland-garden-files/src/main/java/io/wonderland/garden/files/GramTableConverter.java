@@ -0,0 +1,50 @@
+package io.wonderland.garden.files;
+
+import io.wonderland.base.GramTable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build step converting every GRAM:count text file of a directory tree into a {@link GramTable}
+ * file, same relative path with {@link GramTable#FILE_EXTENSION}.
+ * <br>
+ * <br> Arguments : source directory, target directory.
+ */
+public final class GramTableConverter {
+
+  public static final String TEXT_FILE_SUFFIX = "_freq.txt";
+
+  private GramTableConverter() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      throw new IllegalArgumentException("Usage : GramTableConverter <source dir> <target dir>");
+    }
+    convert(Path.of(args[0]), Path.of(args[1]));
+  }
+
+  /**
+   * @return binary table files written
+   */
+  public static List<Path> convert(Path sourceDir, Path targetDir) throws IOException {
+    List<Path> textFiles;
+    try (Stream<Path> paths = Files.walk(sourceDir)) {
+      textFiles = paths.filter(path -> path.getFileName().toString().endsWith(TEXT_FILE_SUFFIX))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+    List<Path> tables = new ArrayList<>(textFiles.size());
+    for (Path textFile : textFiles) {
+      Path target = targetDir.resolve(sourceDir.relativize(textFile.getParent()));
+      tables.add(GramTable.convert(textFile, target));
+    }
+    return tables;
+  }
+
+}
@@ -1,3 +1,6 @@
 open module wonderland.garden.files {
   //make package content visible outside module.
-}
\ No newline at end of file
+  requires wonderland.base;
+
+  exports io.wonderland.garden.files;
+}
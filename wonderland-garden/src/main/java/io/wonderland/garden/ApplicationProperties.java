@@ -3,6 +3,8 @@ package io.wonderland.garden;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.wonderland.base.ConfigurationException;
 import io.wonderland.base.YamlConfigurations;
+import io.wonderland.garden.cache.NearCacheProperties;
+import io.wonderland.garden.redis.BulkLoadProperties;
 import io.wonderland.garden.redis.RedisClientProperties;
 import io.wonderland.grpc.GrpcServerProperties;
 import lombok.Getter;
@@ -24,6 +26,12 @@ public class ApplicationProperties {
   @JsonProperty(value = "redisClient")
   private RedisClientProperties redisClient;
 
+  @JsonProperty(value = "bulkLoad")
+  private BulkLoadProperties bulkLoad = new BulkLoadProperties();
+
+  @JsonProperty(value = "nearCache")
+  private NearCacheProperties nearCache = new NearCacheProperties();
+
 
   public static ApplicationProperties loadProps() throws ConfigurationException {
     return YamlConfigurations.load(ApplicationProperties.class, "/application.yml");
@@ -4,12 +4,22 @@ package io.wonderland.garden;
 import io.lettuce.core.RedisClient;
 import io.wonderland.base.Application;
 import io.wonderland.base.ApplicationException;
+import io.wonderland.garden.cache.CachingAsyncDao;
+import io.wonderland.garden.cache.KeyspaceInvalidation;
+import io.wonderland.garden.cache.NearCache;
+import io.wonderland.garden.cache.NearCacheProperties;
+import io.wonderland.garden.dao.GraphemeBulkLoader;
 import io.wonderland.garden.dao.GraphemeDao;
 import io.wonderland.garden.dao.LetterFreqDao;
+import io.wonderland.garden.domain.LetterFreq;
 import io.wonderland.garden.grpc.LetterFreqService;
 import io.wonderland.garden.redis.RedisHelper;
+import io.wonderland.garden.redis.Redisable;
 import io.wonderland.garden.resource.GardenFilesResource;
 import io.wonderland.grpc.GrpcServer;
+import io.wonderland.protos.GraphemeResponse;
+import java.time.Duration;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -17,6 +27,9 @@ public class GardenApplication implements Application<ApplicationProperties> {
 
   private RedisClient redisClient;
   private GrpcServer grpcServer;
+  private NearCache<String, LetterFreq> letterFreqCache;
+  private NearCache<String, List<GraphemeResponse>> graphemeCache;
+  private KeyspaceInvalidation keyspaceInvalidation;
 
 
   public static void main(String[] args) {
@@ -37,8 +50,16 @@ public class GardenApplication implements Application<ApplicationProperties> {
       this.redisClient = RedisHelper.setupClient(props.getRedisClient());
       LetterFreqDao letterFreqDao = new LetterFreqDao(redisClient);
       GraphemeDao graphemeDao = new GraphemeDao(redisClient);
-      GardenFilesResource.loadInRedis(new LetterFreqDao(redisClient), new GraphemeDao(redisClient));
-      LetterFreqService letterFreqService = new LetterFreqService(letterFreqDao, graphemeDao);
+      try (GraphemeBulkLoader graphemeLoader = new GraphemeBulkLoader(redisClient,
+          props.getBulkLoad())) {
+        GardenFilesResource.loadInRedis(letterFreqDao, graphemeLoader);
+      }
+      setupNearCaches(props);
+      LetterFreqService letterFreqService = new LetterFreqService(
+          new CachingAsyncDao<>(letterFreqDao.async(), letterFreqCache, LetterFreq::getKey),
+          graphemeDao,
+          graphemeCache,
+          props.getNearCache().getMaxStreamBytes());
       this.grpcServer = GrpcServer.setupServer(props.getGrpcServer(), letterFreqService);
 
       //set shutdown hooks
@@ -52,8 +73,34 @@ public class GardenApplication implements Application<ApplicationProperties> {
     }
   }
 
+  private void setupNearCaches(ApplicationProperties props) {
+    NearCacheProperties cacheProps = props.getNearCache();
+    Duration ttl = Duration.ofSeconds(cacheProps.getTtlSeconds());
+    this.letterFreqCache = new NearCache<>(cacheProps.getMaxSize(), cacheProps.getEviction(), ttl);
+    this.graphemeCache = new NearCache<>(cacheProps.getMaxSize(), cacheProps.getEviction(), ttl);
+    if (cacheProps.getMaxSize() > 0 && cacheProps.isKeyspaceEvents()) {
+      this.keyspaceInvalidation = new KeyspaceInvalidation(redisClient,
+          props.getRedisClient().getDb());
+      keyspaceInvalidation.subscribe(LetterFreq.DEFAULT_KEY, letterFreqCache::invalidate);
+      keyspaceInvalidation.subscribe(GraphemeDao.KEY_PREFIX + Redisable.SEPARATOR + "*",
+          key -> graphemeCache.invalidate(GraphemeDao.langCode(key)));
+    }
+  }
+
+  private void closeNearCaches() {
+    if (this.keyspaceInvalidation != null) {
+      this.keyspaceInvalidation.close();
+      this.keyspaceInvalidation = null;
+    }
+    if (this.letterFreqCache != null) {
+      log.info("Near-cache : letter freq {}, grapheme {}.", letterFreqCache.getStats(),
+          graphemeCache.getStats());
+    }
+  }
+
   @Override
   public void stop() throws ApplicationException {
+    closeNearCaches();
     if (this.redisClient != null) {
       this.redisClient.shutdown();
     }
@@ -70,6 +117,7 @@ public class GardenApplication implements Application<ApplicationProperties> {
   @Override
   public void shutdownHooks() {
     Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      closeNearCaches();
       if (this.redisClient != null) {
         redisClient.shutdown();
       }
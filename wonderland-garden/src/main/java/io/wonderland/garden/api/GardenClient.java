@@ -1,5 +1,6 @@
 package io.wonderland.garden.api;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Empty;
 import io.grpc.ManagedChannel;
 import io.wonderland.base.Client;
@@ -35,12 +36,17 @@ public class GardenClient extends Client {
     return response.getLangCodesList();
   }
 
+  /**
+   * Gram type is streamed in chunks of whole lines, chunks of same gram type are joined.
+   */
   public Grapheme map(String langCode, Iterator<GraphemeResponse> responseIterator) {
-    Map<String, byte[]> freq = new HashMap<>();
+    Map<String, ByteString> chunks = new HashMap<>();
     while (responseIterator.hasNext()) {
       GraphemeResponse reply = responseIterator.next();
-      freq.put(reply.getGramType(), reply.getFreq().toByteArray());
+      chunks.merge(reply.getGramType(), reply.getFreq(), ByteString::concat);
     }
+    Map<String, byte[]> freq = new HashMap<>();
+    chunks.forEach((gramType, chunk) -> freq.put(gramType, chunk.toByteArray()));
     return new Grapheme(langCode, freq);
   }
 
@@ -0,0 +1,70 @@
+package io.wonderland.garden.cache;
+
+import io.wonderland.base.AsyncDao;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Async dao reading through a {@link NearCache}, a hit completes without Redis. Writes go to dao and
+ * invalidate written id once done.
+ *
+ * @param <T> model type
+ * @param <I> model id type
+ */
+public final class CachingAsyncDao<T, I> implements AsyncDao<T, I> {
+
+  private final AsyncDao<T, I> dao;
+  private final NearCache<I, T> cache;
+  private final Function<T, I> idMapper;
+
+  public CachingAsyncDao(AsyncDao<T, I> dao, NearCache<I, T> cache, Function<T, I> idMapper) {
+    this.dao = dao;
+    this.cache = cache;
+    this.idMapper = idMapper;
+  }
+
+  @Override
+  public CompletionStage<Optional<T>> get(I id) {
+    Optional<T> cached = cache.getIfPresent(id);
+    if (cached.isPresent()) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    long loadGeneration = cache.generation();
+    return dao.get(id).thenApply(loaded -> {
+      loaded.ifPresent(value -> cache.put(id, value, loadGeneration));
+      return loaded;
+    });
+  }
+
+  @Override
+  public CompletionStage<List<T>> getAll() {
+    return dao.getAll();
+  }
+
+  @Override
+  public CompletionStage<Void> save(T t) {
+    return dao.save(t).whenComplete((done, error) -> cache.invalidate(idMapper.apply(t)));
+  }
+
+  @Override
+  public CompletionStage<Void> saveAll(T... args) {
+    return dao.saveAll(args).whenComplete((done, error) -> {
+      for (T t : args) {
+        cache.invalidate(idMapper.apply(t));
+      }
+    });
+  }
+
+  @Override
+  public CompletionStage<Void> update(T t) {
+    return dao.update(t).whenComplete((done, error) -> cache.invalidate(idMapper.apply(t)));
+  }
+
+  @Override
+  public CompletionStage<Void> delete(T t) {
+    return dao.delete(t).whenComplete((done, error) -> cache.invalidate(idMapper.apply(t)));
+  }
+}
@@ -0,0 +1,94 @@
+package io.wonderland.garden.cache;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Invalidates near-caches on Redis keyspace notifications, a write to a key matching a subscribed
+ * pattern passes written key to its invalidator.
+ * <br>
+ * <br> Server config is only read, never changed, Redis may be shared. Keyspace notifications of
+ * generic, set and hash commands have to be enabled on server (notify-keyspace-events Kghs),
+ * otherwise a warning is logged, no event arrives and caches rely on their ttl.
+ */
+@Slf4j
+public final class KeyspaceInvalidation implements AutoCloseable {
+
+  static final String NOTIFY_KEYSPACE_EVENTS = "notify-keyspace-events";
+  //K keyspace channel, g generic commands as del and rename, h hash, s set
+  static final String REQUIRED_EVENTS = "Kghs";
+
+  private final String channelPrefix;
+  private final StatefulRedisPubSubConnection<String, String> pubSubConnection;
+  private final Map<String, Consumer<String>> invalidators = new ConcurrentHashMap<>();
+
+  public KeyspaceInvalidation(RedisClient redisClient, int db) {
+    this.channelPrefix = "__keyspace@" + db + "__:";
+    checkNotifications(redisClient);
+    this.pubSubConnection = redisClient.connectPubSub();
+    this.pubSubConnection.addListener(new RedisPubSubAdapter<>() {
+      @Override
+      public void message(String pattern, String channel, String message) {
+        Consumer<String> invalidator = invalidators.get(pattern);
+        if (invalidator != null) {
+          invalidator.accept(channel.substring(channelPrefix.length()));
+        }
+      }
+    });
+  }
+
+  /**
+   * @param keyPattern  glob pattern of keys
+   * @param invalidator called with written key
+   */
+  public void subscribe(String keyPattern, Consumer<String> invalidator) {
+    String pattern = channelPrefix + keyPattern;
+    invalidators.put(pattern, invalidator);
+    pubSubConnection.sync().psubscribe(pattern);
+  }
+
+  @Override
+  public void close() {
+    pubSubConnection.close();
+  }
+
+  /**
+   * @return required event classes missing from current notify-keyspace-events, empty if none
+   */
+  static String missingEvents(String current) {
+    String events = current == null ? "" : current;
+    StringBuilder missing = new StringBuilder();
+    for (char event : REQUIRED_EVENTS.toCharArray()) {
+      //A is alias of every event class
+      boolean covered = events.indexOf(event) >= 0 || (event != 'K' && events.indexOf('A') >= 0);
+      if (!covered) {
+        missing.append(event);
+      }
+    }
+    return missing.toString();
+  }
+
+  private static void checkNotifications(RedisClient redisClient) {
+    try (StatefulRedisConnection<String, String> connection = redisClient.connect()) {
+      RedisCommands<String, String> commands = connection.sync();
+      String current = commands.configGet(NOTIFY_KEYSPACE_EVENTS).get(NOTIFY_KEYSPACE_EVENTS);
+      String missing = missingEvents(current);
+      if (!missing.isEmpty()) {
+        log.warn("Keyspace notifications '{}' miss '{}', near-caches rely on ttl for them.",
+            current, missing);
+      }
+    } catch (RedisException e) {
+      log.warn("Keyspace notifications config not readable, near-caches may rely on ttl : {}",
+          e.getMessage());
+    }
+  }
+
+}
@@ -0,0 +1,170 @@
+package io.wonderland.garden.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import lombok.Value;
+
+/**
+ * In-process cache of Redis values, bounded to maxSize entries.
+ * <br>
+ * <br> LRU evicts least recently read entry, LFU evicts least read entry and least recently read of
+ * those. Entries older than ttl expire on read, zero ttl keeps entries until evicted or invalidated.
+ * <br> Invalidation starts a new generation, a value loaded before it is dropped by
+ * {@link #put(Object, Object, long)} so a concurrent load can't store a stale value.
+ * <br> Entries are kept in access order under one lock, values are loaded outside of it.
+ *
+ * @param <K> key type
+ * @param <V> value type, shared between readers
+ */
+public final class NearCache<K, V> {
+
+  private final int maxSize;
+  private final Eviction eviction;
+  private final long ttlNanos;
+  private final LinkedHashMap<K, Entry<V>> entries;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+  private long generation;
+
+  /**
+   * @param maxSize  max entries, 0 disables cache
+   * @param eviction entry evicted when full
+   * @param ttl      time to live of an entry, zero for none
+   */
+  public NearCache(int maxSize, Eviction eviction, Duration ttl) {
+    if (maxSize < 0 || eviction == null || ttl == null || ttl.isNegative()) {
+      throw new IllegalArgumentException(
+          "Max size and ttl can't be negative, eviction and ttl can't be null.");
+    }
+    this.maxSize = maxSize;
+    this.eviction = eviction;
+    this.ttlNanos = ttl.toNanos();
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * @return false if max size is 0, puts are then discarded
+   */
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  public synchronized Optional<V> getIfPresent(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.created > ttlNanos) {
+      entries.remove(key);
+      expirations.increment();
+      entry = null;
+    }
+    if (entry == null) {
+      misses.increment();
+      return Optional.empty();
+    }
+    hits.increment();
+    entry.reads++;
+    return Optional.of(entry.value);
+  }
+
+  /**
+   * @return generation to pass with a value loaded after this call
+   */
+  public synchronized long generation() {
+    return generation;
+  }
+
+  public synchronized void put(K key, V value) {
+    put(key, value, generation);
+  }
+
+  /**
+   * Store value unless cache was invalidated since loadGeneration.
+   */
+  public synchronized void put(K key, V value, long loadGeneration) {
+    if (maxSize == 0 || loadGeneration != generation) {
+      return;
+    }
+    //victim chosen before insert, a new LFU entry isn't evicted for having no reads yet
+    if (entries.size() == maxSize && !entries.containsKey(key)) {
+      entries.remove(victim());
+      evictions.increment();
+    }
+    entries.put(key, new Entry<>(value, System.nanoTime()));
+  }
+
+  public synchronized void invalidate(K key) {
+    generation++;
+    entries.remove(key);
+  }
+
+  public synchronized void invalidateIf(Predicate<K> predicate) {
+    generation++;
+    entries.keySet().removeIf(predicate);
+  }
+
+  public synchronized void invalidateAll() {
+    generation++;
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public Stats getStats() {
+    return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size());
+  }
+
+  private K victim() {
+    Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+    Map.Entry<K, Entry<V>> victim = iterator.next();
+    if (eviction == Eviction.LFU) {
+      //least recently read first, strict < keeps it on ties
+      while (iterator.hasNext()) {
+        Map.Entry<K, Entry<V>> next = iterator.next();
+        if (next.getValue().reads < victim.getValue().reads) {
+          victim = next;
+        }
+      }
+    }
+    return victim.getKey();
+  }
+
+  public enum Eviction {
+    LRU, LFU
+  }
+
+  private static final class Entry<V> {
+
+    private final V value;
+    private final long created;
+    private long reads;
+
+    private Entry(V value, long created) {
+      this.value = value;
+      this.created = created;
+    }
+  }
+
+  @Value
+  public static class Stats {
+
+    long hits;
+    long misses;
+    long evictions;
+    long expirations;
+    int size;
+
+    public double hitRate() {
+      long requests = hits + misses;
+      return requests == 0 ? 0 : (double) hits / requests;
+    }
+  }
+
+}
@@ -0,0 +1,30 @@
+package io.wonderland.garden.cache;
+
+import io.wonderland.garden.cache.NearCache.Eviction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class NearCacheProperties {
+
+  public static final int DEFAULT_MAX_SIZE = 32;
+  public static final long DEFAULT_TTL_SECONDS = 600;
+  public static final long DEFAULT_MAX_STREAM_BYTES = 4L * 1024 * 1024;
+
+  //entries of every cache, 0 disables near-cache
+  private int maxSize = DEFAULT_MAX_SIZE;
+  private Eviction eviction = Eviction.LRU;
+  //0 keeps entries until evicted or invalidated
+  private long ttlSeconds = DEFAULT_TTL_SECONDS;
+  //invalidate on redis keyspace notifications, server has to have them enabled
+  private boolean keyspaceEvents = false;
+  //bytes of chunks a grapheme stream collects, bigger languages aren't cached
+  private long maxStreamBytes = DEFAULT_MAX_STREAM_BYTES;
+}
@@ -0,0 +1,162 @@
+package io.wonderland.garden.dao;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.wonderland.garden.exception.ResourceException;
+import io.wonderland.garden.redis.BAValueCodec;
+import io.wonderland.garden.redis.BulkLoadProperties;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.Value;
+
+/**
+ * Streams gram type files into grapheme hashes of {@link GraphemeDao} with pipelined HSET commands,
+ * file is never held in memory.
+ * <br>
+ * <br> Owns its connection with auto flush off : grams are written batchSize fields per HSET,
+ * pipelineDepth commands are flushed together and replies awaited before next window.
+ * <br> Grams are written to a loading key renamed over gram key at end, readers never see a partial
+ * gram type. Content digest of file is stored last, file with same digest is skipped.
+ */
+public final class GraphemeBulkLoader implements AutoCloseable {
+
+  private static final String LOADING_SUFFIX = ":loading";
+  private static final int BUFFER_SIZE = 8192;
+
+  private final StatefulRedisConnection<String, byte[]> redisConnection;
+  private final RedisAsyncCommands<String, byte[]> commands;
+  private final int batchSize;
+  private final int pipelineDepth;
+  private final long timeoutSeconds;
+
+  public GraphemeBulkLoader(RedisClient redisClient, BulkLoadProperties properties) {
+    if (properties.getBatchSize() < 1 || properties.getPipelineDepth() < 1
+        || properties.getTimeoutSeconds() < 1) {
+      throw new IllegalArgumentException(
+          "Batch size, pipeline depth and timeout must be bigger than 0.");
+    }
+    this.batchSize = properties.getBatchSize();
+    this.pipelineDepth = properties.getPipelineDepth();
+    this.timeoutSeconds = properties.getTimeoutSeconds();
+    this.redisConnection = redisClient.connect(BAValueCodec.getInstance());
+    this.redisConnection.setAutoFlushCommands(false);
+    this.commands = redisConnection.async();
+  }
+
+  /**
+   * @param file UTF-8 file of GRAM:count lines, file or jar uri
+   */
+  public Result load(String langCode, String gramType, URI file) throws IOException {
+    long startTime = System.nanoTime();
+    MessageDigest messageDigest = GraphemeDao.newDigest();
+    long bytes = 0;
+    try (InputStream in = new DigestInputStream(file.toURL().openStream(), messageDigest)) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        bytes += read;
+      }
+    }
+    byte[] digest = messageDigest.digest();
+    String digestKey = GraphemeDao.digestKey(langCode);
+    if (MessageDigest.isEqual(digest, await(commands.hget(digestKey, gramType)))) {
+      return new Result(langCode, gramType, 0, 0, System.nanoTime() - startTime, true);
+    }
+
+    String gramKey = GraphemeDao.gramKey(langCode, gramType);
+    String loadingKey = gramKey + LOADING_SUFFIX;
+    await(commands.del(loadingKey));
+    long grams = 0;
+    List<RedisFuture<Long>> window = new ArrayList<>(pipelineDepth);
+    Map<String, byte[]> batch = new HashMap<>(batchSize * 2);
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(file.toURL().openStream(), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (GraphemeDao.putGram(line, batch)) {
+          grams++;
+        }
+        if (batch.size() == batchSize) {
+          window.add(commands.hset(loadingKey, batch));
+          batch = new HashMap<>(batchSize * 2);
+          if (window.size() == pipelineDepth) {
+            awaitAll(window);
+          }
+        }
+      }
+    }
+    if (!batch.isEmpty()) {
+      window.add(commands.hset(loadingKey, batch));
+    }
+    awaitAll(window);
+
+    if (grams == 0) {
+      await(commands.del(gramKey));
+    } else {
+      await(commands.rename(loadingKey, gramKey));
+    }
+    await(commands.hset(digestKey, gramType, digest));
+    return new Result(langCode, gramType, grams, bytes, System.nanoTime() - startTime, false);
+  }
+
+  @Override
+  public void close() {
+    redisConnection.close();
+  }
+
+  private void awaitAll(List<RedisFuture<Long>> window) {
+    redisConnection.flushCommands();
+    if (!LettuceFutures.awaitAll(timeoutSeconds, TimeUnit.SECONDS,
+        window.toArray(new RedisFuture[0]))) {
+      throw new ResourceException("Grapheme bulk load timed out.");
+    }
+    window.clear();
+  }
+
+  private <T> T await(RedisFuture<T> future) {
+    redisConnection.flushCommands();
+    try {
+      return future.get(timeoutSeconds, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResourceException(e);
+    } catch (ExecutionException | TimeoutException e) {
+      throw new ResourceException(e);
+    }
+  }
+
+  /**
+   * Grams written and bytes read of a gram type file, no grams if skipped as unchanged.
+   */
+  @Value
+  public static class Result {
+
+    String langCode;
+    String gramType;
+    long grams;
+    long bytes;
+    long nanos;
+    boolean skipped;
+
+    public double gramsPerSecond() {
+      return nanos == 0 ? 0 : grams * 1e9 / nanos;
+    }
+  }
+
+}
@@ -1,33 +1,113 @@
 package io.wonderland.garden.dao;
 
-import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.MapScanCursor;
 import io.lettuce.core.RedisClient;
-import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
 import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.api.async.RedisAsyncCommands;
 import io.lettuce.core.api.sync.RedisCommands;
+import io.wonderland.base.AsyncDao;
 import io.wonderland.base.Dao;
 import io.wonderland.garden.domain.Grapheme;
 import io.wonderland.garden.redis.BAValueCodec;
+import io.wonderland.garden.redis.Redisable;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import org.apache.commons.lang3.ArrayUtils;
 
+/**
+ * Grams of a language are stored one hash per gram type, key grapheme:{lang}:{gramType}, field
+ * gram and value count. Hash grapheme:{lang} holds content digest of every gram type file loaded.
+ * <br>
+ * <br> A grapheme value is read back as GRAM:count lines, same as gram type file, or page by page
+ * with {@link #scan}.
+ */
 public final class GraphemeDao implements Dao<Grapheme, String> {
 
+  public static final String KEY_PREFIX = "grapheme";
+  static final String DIGEST_ALGORITHM = "SHA-256";
+
   private final StatefulRedisConnection<String, byte[]> redisConnection;
+  private final AsyncDao<Grapheme, String> asyncDao = new Async();
 
   public GraphemeDao(RedisClient redisClient) {
     this.redisConnection = redisClient.connect(BAValueCodec.getInstance());
   }
 
+  /**
+   * @return non-blocking view on same connection
+   */
+  public AsyncDao<Grapheme, String> async() {
+    return asyncDao;
+  }
+
+  /**
+   * @return key of hash gram type - content digest of language
+   */
+  public static String digestKey(String langCode) {
+    return KEY_PREFIX + Redisable.SEPARATOR + langCode;
+  }
+
+  /**
+   * @return key of hash gram - count of language gram type
+   */
+  public static String gramKey(String langCode, String gramType) {
+    return digestKey(langCode) + Redisable.SEPARATOR + gramType;
+  }
+
+  /**
+   * @param key digest or gram key
+   * @return language of key
+   */
+  public static String langCode(String key) {
+    int start = KEY_PREFIX.length() + 1;
+    int end = key.indexOf(Redisable.SEPARATOR, start);
+    return end < 0 ? key.substring(start) : key.substring(start, end);
+  }
 
   @Override
   public Optional<Grapheme> get(String id) {
     RedisCommands<String, byte[]> commands = redisConnection.sync();
-    return Optional.of(new Grapheme(id, commands.hgetall(id)));
+    Map<String, byte[]> freq = new LinkedHashMap<>();
+    for (String gramType : commands.hkeys(digestKey(id))) {
+      freq.put(gramType, toLines(commands.hgetall(gramKey(id, gramType))));
+    }
+    return Optional.of(new Grapheme(id, freq));
+  }
+
+  /**
+   * @return gram types of language
+   */
+  public CompletionStage<List<String>> getGramTypes(String langCode) {
+    return redisConnection.async().hkeys(digestKey(langCode));
+  }
+
+  /**
+   * Next page of grams of language gram type, HSCAN bounds page size to about count grams.
+   *
+   * @param cursor {@link ScanCursor#INITIAL} for first page
+   */
+  public CompletionStage<MapScanCursor<String, byte[]>> scan(String langCode, String gramType,
+      ScanCursor cursor, int count) {
+    return redisConnection.async()
+        .hscan(gramKey(langCode, gramType), cursor, ScanArgs.Builder.limit(count));
   }
 
   @Override
@@ -35,34 +115,180 @@ public final class GraphemeDao implements Dao<Grapheme, String> {
     throw new UnsupportedOperationException("Can't get all graphemes without keys");
   }
 
+  /**
+   * Replace grams of every gram type of grapheme, value is GRAM:count lines. Files are bulk
+   * loaded by {@link GraphemeBulkLoader}.
+   */
   @Override
   public void save(Grapheme grapheme) {
     RedisCommands<String, byte[]> commands = redisConnection.sync();
-    commands.hset(grapheme.getKey(), grapheme.getFreq());
+    grapheme.getFreq().forEach((gramType, lines) -> {
+      String gramKey = gramKey(grapheme.getKey(), gramType);
+      Map<String, byte[]> grams = parseLines(lines);
+      commands.del(gramKey);
+      if (!grams.isEmpty()) {
+        commands.hset(gramKey, grams);
+      }
+      commands.hset(digestKey(grapheme.getKey()), gramType, newDigest().digest(lines));
+    });
   }
 
   public void saveAll(Grapheme... graphemes) {
     if (ArrayUtils.isNotEmpty(graphemes)) {
-      RedisAsyncCommands<String, byte[]> commands = redisConnection.async();
-      List<RedisFuture<Long>> futures = new ArrayList<>();
       for (Grapheme grapheme : graphemes) {
-        futures.add(commands.hset(grapheme.getKey(), grapheme.getFreq()));
+        save(grapheme);
       }
-      redisConnection.flushCommands();
-      LettuceFutures.awaitAll(5, TimeUnit.SECONDS,
-          futures.toArray(new RedisFuture[futures.size()]));
     }
   }
 
   @Override
   public void update(Grapheme grapheme) {
-    RedisCommands<String, byte[]> commands = redisConnection.sync();
-    commands.hset(grapheme.getKey(), grapheme.getFreq());
+    save(grapheme);
   }
 
   @Override
   public void delete(Grapheme grapheme) {
     RedisCommands<String, byte[]> commands = redisConnection.sync();
-    commands.hdel(grapheme.getKey());
+    List<String> keys = new ArrayList<>();
+    for (String gramType : commands.hkeys(digestKey(grapheme.getKey()))) {
+      keys.add(gramKey(grapheme.getKey(), gramType));
+    }
+    keys.add(digestKey(grapheme.getKey()));
+    commands.del(keys.toArray(new String[0]));
+  }
+
+  /**
+   * Parse a GRAM:count line into grams, lines without pair are skipped.
+   *
+   * @return true if line had a gram
+   */
+  static boolean putGram(String line, Map<String, byte[]> grams) {
+    String[] keyValuePair = line.split(":", 2);
+    if (keyValuePair.length < 2) {
+      return false;
+    }
+    String gram = keyValuePair[0].trim();
+    long count = Long.parseLong(keyValuePair[1].trim());
+    grams.put(gram, Long.toString(count).getBytes(StandardCharsets.US_ASCII));
+    return true;
+  }
+
+  /**
+   * @return grams of GRAM:count lines
+   */
+  static Map<String, byte[]> parseLines(byte[] lines) {
+    Map<String, byte[]> grams = new HashMap<>();
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(new ByteArrayInputStream(lines), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        putGram(line, grams);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return grams;
+  }
+
+  static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return GRAM:count lines, highest count first as in gram type files
+   */
+  static byte[] toLines(Map<String, byte[]> grams) {
+    List<Entry<String, Long>> entries = new ArrayList<>(grams.size());
+    grams.forEach((gram, count) -> entries.add(
+        Map.entry(gram, Long.parseLong(new String(count, StandardCharsets.US_ASCII)))));
+    entries.sort(Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+        .thenComparing(Entry.comparingByKey()));
+    StringBuilder sb = new StringBuilder(entries.size() * 16);
+    for (Entry<String, Long> entry : entries) {
+      sb.append(entry.getKey()).append(':').append(entry.getValue()).append('\n');
+    }
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private final class Async implements AsyncDao<Grapheme, String> {
+
+    @Override
+    public CompletionStage<Optional<Grapheme>> get(String id) {
+      RedisAsyncCommands<String, byte[]> commands = redisConnection.async();
+      return commands.hkeys(digestKey(id)).thenCompose(gramTypes -> {
+        List<CompletableFuture<Map<String, byte[]>>> grams = new ArrayList<>(gramTypes.size());
+        for (String gramType : gramTypes) {
+          grams.add(commands.hgetall(gramKey(id, gramType)).toCompletableFuture());
+        }
+        return CompletableFuture.allOf(grams.toArray(new CompletableFuture[0])).thenApply(done -> {
+          Map<String, byte[]> freq = new LinkedHashMap<>();
+          for (int i = 0; i < gramTypes.size(); i++) {
+            freq.put(gramTypes.get(i), toLines(grams.get(i).join()));
+          }
+          return Optional.of(new Grapheme(id, freq));
+        });
+      });
+    }
+
+    @Override
+    public CompletionStage<List<Grapheme>> getAll() {
+      return CompletableFuture.failedFuture(
+          new UnsupportedOperationException("Can't get all graphemes without keys"));
+    }
+
+    /**
+     * Commands of a gram type are chained, gram types are saved concurrently.
+     */
+    @Override
+    public CompletionStage<Void> save(Grapheme grapheme) {
+      RedisAsyncCommands<String, byte[]> commands = redisConnection.async();
+      List<CompletableFuture<Long>> saves = new ArrayList<>();
+      grapheme.getFreq().forEach((gramType, lines) -> {
+        String gramKey = gramKey(grapheme.getKey(), gramType);
+        Map<String, byte[]> grams = parseLines(lines);
+        byte[] digest = newDigest().digest(lines);
+        saves.add(commands.del(gramKey)
+            .thenCompose(deleted -> grams.isEmpty() ? CompletableFuture.completedFuture(0L)
+                : commands.hset(gramKey, grams))
+            .thenCompose(added -> commands.hset(digestKey(grapheme.getKey()), gramType, digest)
+                .thenApply(set -> added))
+            .toCompletableFuture());
+      });
+      return CompletableFuture.allOf(saves.toArray(new CompletableFuture[0]));
+    }
+
+    @Override
+    public CompletionStage<Void> saveAll(Grapheme... graphemes) {
+      List<CompletableFuture<Void>> saves = new ArrayList<>();
+      if (ArrayUtils.isNotEmpty(graphemes)) {
+        for (Grapheme grapheme : graphemes) {
+          saves.add(save(grapheme).toCompletableFuture());
+        }
+      }
+      return CompletableFuture.allOf(saves.toArray(new CompletableFuture[0]));
+    }
+
+    @Override
+    public CompletionStage<Void> update(Grapheme grapheme) {
+      return save(grapheme);
+    }
+
+    @Override
+    public CompletionStage<Void> delete(Grapheme grapheme) {
+      RedisAsyncCommands<String, byte[]> commands = redisConnection.async();
+      return commands.hkeys(digestKey(grapheme.getKey())).thenCompose(gramTypes -> {
+        List<String> keys = new ArrayList<>();
+        for (String gramType : gramTypes) {
+          keys.add(gramKey(grapheme.getKey(), gramType));
+        }
+        keys.add(digestKey(grapheme.getKey()));
+        return commands.del(keys.toArray(new String[0]));
+      }).thenAccept(deleted -> {
+      });
+    }
   }
 }
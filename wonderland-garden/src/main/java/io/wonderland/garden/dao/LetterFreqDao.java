@@ -4,19 +4,30 @@ import io.lettuce.core.RedisClient;
 import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.api.sync.RedisCommands;
 import io.lettuce.core.codec.StringCodec;
+import io.wonderland.base.AsyncDao;
 import io.wonderland.base.Dao;
 import io.wonderland.garden.domain.LetterFreq;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 public final class LetterFreqDao implements Dao<LetterFreq, String> {
 
   private final StatefulRedisConnection<String, String> redisConnection;
+  private final AsyncDao<LetterFreq, String> asyncDao = new Async();
 
   public LetterFreqDao(RedisClient redisClient) {
     this.redisConnection = redisClient.connect(new StringCodec());
   }
 
+  /**
+   * @return non-blocking view on same connection
+   */
+  public AsyncDao<LetterFreq, String> async() {
+    return asyncDao;
+  }
+
 
   @Override
   public Optional<LetterFreq> get(String id) {
@@ -53,4 +64,46 @@ public final class LetterFreqDao implements Dao<LetterFreq, String> {
     RedisCommands<String, String> commands = redisConnection.sync();
     commands.srem(letterFreq.getKey(), letterFreq.getLangCodes().toArray(new String[0]));
   }
+
+  private final class Async implements AsyncDao<LetterFreq, String> {
+
+    @Override
+    public CompletionStage<Optional<LetterFreq>> get(String id) {
+      return redisConnection.async().smembers(id)
+          .thenApply(langCodes -> Optional.of(new LetterFreq(id, langCodes)));
+    }
+
+    @Override
+    public CompletionStage<List<LetterFreq>> getAll() {
+      return redisConnection.async().smembers(LetterFreq.DEFAULT_KEY)
+          .thenApply(langCodes -> List.of(new LetterFreq(langCodes)));
+    }
+
+    @Override
+    public CompletionStage<Void> save(LetterFreq letterFreq) {
+      return redisConnection.async()
+          .sadd(letterFreq.getKey(), letterFreq.getLangCodes().toArray(new String[0]))
+          .thenAccept(added -> {
+          });
+    }
+
+    @Override
+    public CompletionStage<Void> saveAll(LetterFreq... args) {
+      return CompletableFuture.failedFuture(
+          new UnsupportedOperationException("Method not implemented"));
+    }
+
+    @Override
+    public CompletionStage<Void> update(LetterFreq letterFreq) {
+      return save(letterFreq);
+    }
+
+    @Override
+    public CompletionStage<Void> delete(LetterFreq letterFreq) {
+      return redisConnection.async()
+          .srem(letterFreq.getKey(), letterFreq.getLangCodes().toArray(new String[0]))
+          .thenAccept(removed -> {
+          });
+    }
+  }
 }
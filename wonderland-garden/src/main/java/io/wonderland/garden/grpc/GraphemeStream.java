@@ -0,0 +1,219 @@
+package io.wonderland.garden.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.ScanCursor;
+import io.wonderland.garden.cache.NearCache;
+import io.wonderland.garden.dao.GraphemeDao;
+import io.wonderland.protos.GraphemeResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams grams of a language, gram type after gram type, in chunks of GRAM:count lines. A chunk is
+ * one HSCAN page, every gram type is sent as one or more responses with same gram type.
+ * <br>
+ * <br> At most one page is fetched or waiting to be sent : next page is requested after previous
+ * chunk was handed to gRPC, a chunk is sent only while call is ready and on ready handler resumes
+ * sending.
+ * <br> Chunks are collected for near-cache only while it is enabled and they add up to at most
+ * maxCachedBytes, a bigger language isn't cached and collected chunks are dropped. Server memory of
+ * a call is bounded by one page plus maxCachedBytes whatever table size.
+ * <br> Chunks of a completed stream are kept in near-cache, next call of language replays them
+ * under same flow control without Redis.
+ * <br> Redis replies and on ready callbacks come from different threads, state is guarded by this.
+ */
+@Slf4j
+final class GraphemeStream implements Runnable {
+
+  private final GraphemeDao graphemeDao;
+  private final String langCode;
+  private final int pageSize;
+  private final ServerCallStreamObserver<GraphemeResponse> observer;
+  private final NearCache<String, List<GraphemeResponse>> cache;
+  private final long maxCachedBytes;
+
+  private Iterator<GraphemeResponse> replay;
+  private List<GraphemeResponse> chunks;
+  private long chunkBytes;
+  private long cacheGeneration;
+  private Iterator<String> gramTypes;
+  private String gramType;
+  private ScanCursor cursor;
+  private GraphemeResponse pending;
+  private boolean fetching;
+  private boolean closed;
+
+  GraphemeStream(GraphemeDao graphemeDao, String langCode, int pageSize,
+      ServerCallStreamObserver<GraphemeResponse> observer,
+      NearCache<String, List<GraphemeResponse>> cache, long maxCachedBytes) {
+    this.graphemeDao = graphemeDao;
+    this.langCode = langCode;
+    this.pageSize = pageSize;
+    this.observer = observer;
+    this.cache = cache;
+    this.maxCachedBytes = maxCachedBytes;
+  }
+
+  synchronized void start() {
+    observer.setOnReadyHandler(this);
+    observer.setOnCancelHandler(this::cancel);
+    Optional<List<GraphemeResponse>> cached = cache.getIfPresent(langCode);
+    if (cached.isPresent()) {
+      replay = cached.get().iterator();
+      run();
+      return;
+    }
+    if (cache.isEnabled() && maxCachedBytes > 0) {
+      cacheGeneration = cache.generation();
+      chunks = new ArrayList<>();
+    }
+    fetching = true;
+    graphemeDao.getGramTypes(langCode).whenComplete(this::onGramTypes);
+  }
+
+  /**
+   * On ready handler, send pending chunk and fetch next page.
+   */
+  @Override
+  public synchronized void run() {
+    while (!closed) {
+      if (pending != null) {
+        if (!observer.isReady()) {
+          return;
+        }
+        observer.onNext(pending);
+        pending = null;
+      }
+      if (fetching) {
+        return;
+      }
+      if (replay == null) {
+        fetchNext();
+      } else if (replay.hasNext()) {
+        pending = replay.next();
+      } else {
+        complete();
+      }
+    }
+  }
+
+  private void complete() {
+    closed = true;
+    if (chunks != null) {
+      cache.put(langCode, List.copyOf(chunks), cacheGeneration);
+      chunks = null;
+    }
+    observer.onCompleted();
+  }
+
+  private void fetchNext() {
+    if (cursor == null || cursor.isFinished()) {
+      if (!gramTypes.hasNext()) {
+        complete();
+        return;
+      }
+      gramType = gramTypes.next();
+      cursor = ScanCursor.INITIAL;
+    }
+    fetching = true;
+    graphemeDao.scan(langCode, gramType, cursor, pageSize).whenComplete(this::onPage);
+  }
+
+  private synchronized void onGramTypes(List<String> types, Throwable error) {
+    fetching = false;
+    if (error != null) {
+      fail(error);
+      return;
+    }
+    gramTypes = types.iterator();
+    run();
+  }
+
+  private synchronized void onPage(MapScanCursor<String, byte[]> page, Throwable error) {
+    fetching = false;
+    if (closed) {
+      return;
+    }
+    if (error != null) {
+      fail(error);
+      return;
+    }
+    cursor = page;
+    if (!page.getMap().isEmpty()) {
+      pending = LetterFreqService.getGraphemeReply(gramType, toLines(page.getMap()));
+      collect(pending);
+    }
+    run();
+  }
+
+  private void collect(GraphemeResponse chunk) {
+    if (chunks == null) {
+      return;
+    }
+    chunkBytes += chunk.getSerializedSize();
+    if (chunkBytes > maxCachedBytes) {
+      log.debug("Grapheme {} bigger than [{}] bytes, not cached.", langCode, maxCachedBytes);
+      chunks = null;
+      return;
+    }
+    chunks.add(chunk);
+  }
+
+  /**
+   * @return true while chunks are collected for near-cache
+   */
+  synchronized boolean isCollecting() {
+    return chunks != null;
+  }
+
+  private synchronized void cancel() {
+    closed = true;
+    pending = null;
+    chunks = null;
+  }
+
+  private void fail(Throwable error) {
+    if (closed) {
+      return;
+    }
+    log.error("", error);
+    closed = true;
+    pending = null;
+    chunks = null;
+    observer.onError(Status.ABORTED.asRuntimeException());
+  }
+
+  /**
+   * @return GRAM:count lines written straight into an array of exact size
+   */
+  static byte[] toLines(Map<String, byte[]> grams) {
+    byte[][] keys = new byte[grams.size()][];
+    int size = 0;
+    int i = 0;
+    for (Map.Entry<String, byte[]> entry : grams.entrySet()) {
+      keys[i] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+      size += keys[i++].length + entry.getValue().length + 2;
+    }
+    byte[] lines = new byte[size];
+    int offset = 0;
+    i = 0;
+    for (Map.Entry<String, byte[]> entry : grams.entrySet()) {
+      byte[] count = entry.getValue();
+      System.arraycopy(keys[i], 0, lines, offset, keys[i].length);
+      offset += keys[i++].length;
+      lines[offset++] = ':';
+      System.arraycopy(count, 0, lines, offset, count.length);
+      offset += count.length;
+      lines[offset++] = '\n';
+    }
+    return lines;
+  }
+
+}
@@ -1,19 +1,20 @@
 package io.wonderland.garden.grpc;
 
 
-import com.google.protobuf.ByteString;
 import com.google.protobuf.Empty;
+import com.google.protobuf.UnsafeByteOperations;
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import io.wonderland.base.AsyncDao;
+import io.wonderland.garden.cache.NearCache;
 import io.wonderland.garden.dao.GraphemeDao;
-import io.wonderland.garden.dao.LetterFreqDao;
-import io.wonderland.garden.domain.Grapheme;
 import io.wonderland.garden.domain.LetterFreq;
 import io.wonderland.protos.GraphemeRequest;
 import io.wonderland.protos.GraphemeResponse;
 import io.wonderland.protos.LetterFreqGrpc;
 import io.wonderland.protos.LetterFreqResponse;
-import java.util.Optional;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -21,8 +22,15 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class LetterFreqService extends LetterFreqGrpc.LetterFreqImplBase {
 
-  private final LetterFreqDao letterFreqDao;
+  //about 16 KB of GRAM:count lines per response
+  static final int GRAMS_PER_CHUNK = 1024;
+
+  private final AsyncDao<LetterFreq, String> letterFreqDao;
   private final GraphemeDao graphemeDao;
+  //chunks of languages streamed, see GraphemeStream
+  private final NearCache<String, List<GraphemeResponse>> graphemeCache;
+  //bytes of chunks a stream collects for graphemeCache
+  private final long maxCachedBytes;
 
   static LetterFreqResponse getLetterFreqReply(LetterFreq letterFreq) {
     return LetterFreqResponse.newBuilder()
@@ -31,37 +39,50 @@ public class LetterFreqService extends LetterFreqGrpc.LetterFreqImplBase {
 
   }
 
+  /**
+   * @param value wrapped without copy, not modified afterwards
+   */
   static GraphemeResponse getGraphemeReply(String key, byte[] value) {
     return GraphemeResponse.newBuilder()
         .setGramType(key)
-        .setFreq(ByteString.copyFrom(value))
+        .setFreq(UnsafeByteOperations.unsafeWrap(value))
         .build();
 
   }
 
+  /**
+   * Composed on async dao, no thread waits for Redis.
+   */
   @Override
   public void getLang(Empty request, StreamObserver<LetterFreqResponse> responseObserver) {
     try {
       log.info("Received LF lang code request.");
-      Optional<LetterFreq> optional = letterFreqDao.get(LetterFreq.DEFAULT_KEY);
-      optional.ifPresent(letterFreq -> responseObserver.onNext(getLetterFreqReply(letterFreq)));
-      responseObserver.onCompleted();
+      letterFreqDao.get(LetterFreq.DEFAULT_KEY).whenComplete((optional, error) -> {
+        if (error != null) {
+          log.error("", error);
+          responseObserver.onError(Status.ABORTED.asRuntimeException());
+          return;
+        }
+        optional.ifPresent(letterFreq -> responseObserver.onNext(getLetterFreqReply(letterFreq)));
+        responseObserver.onCompleted();
+      });
     } catch (Exception e) {
       responseObserver.onError(Status.ABORTED.asRuntimeException());
     }
   }
 
+  /**
+   * Grams are streamed in chunks of {@link #GRAMS_PER_CHUNK} lines under gRPC flow control, a gram
+   * type spans consecutive responses.
+   */
   @Override
   public void getGrapheme(GraphemeRequest request,
       StreamObserver<GraphemeResponse> responseObserver) {
     try {
       log.info("Received LF grapheme {} request.", request.getKey());
-      Optional<Grapheme> optionalGrapheme = graphemeDao.get(request.getKey());
-      if (optionalGrapheme.isPresent()) {
-        Grapheme grapheme = optionalGrapheme.get();
-        grapheme.getFreq().forEach((k, v) -> responseObserver.onNext(getGraphemeReply(k, v)));
-        responseObserver.onCompleted();
-      }
+      new GraphemeStream(graphemeDao, request.getKey(), GRAMS_PER_CHUNK,
+          (ServerCallStreamObserver<GraphemeResponse>) responseObserver, graphemeCache,
+          maxCachedBytes).start();
     } catch (Exception e) {
       responseObserver.onError(Status.ABORTED.asRuntimeException());
     }
@@ -0,0 +1,28 @@
+package io.wonderland.garden.redis;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Pipelining of grapheme bulk load, see GraphemeBulkLoader.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class BulkLoadProperties {
+
+  public static final int DEFAULT_BATCH_SIZE = 512;
+  public static final int DEFAULT_PIPELINE_DEPTH = 16;
+  public static final int DEFAULT_TIMEOUT_SECONDS = 30;
+
+  //grams written by one HSET command
+  private int batchSize = DEFAULT_BATCH_SIZE;
+  //HSET commands written before a flush and wait for replies
+  private int pipelineDepth = DEFAULT_PIPELINE_DEPTH;
+  private int timeoutSeconds = DEFAULT_TIMEOUT_SECONDS;
+}
@@ -1,10 +1,10 @@
 package io.wonderland.garden.resource;
 
 
-import io.atlassian.fugue.Pair;
 import io.wonderland.base.ApplicationException;
 import io.wonderland.base.Dao;
-import io.wonderland.garden.domain.Grapheme;
+import io.wonderland.garden.dao.GraphemeBulkLoader;
+import io.wonderland.garden.dao.GraphemeBulkLoader.Result;
 import io.wonderland.garden.domain.LetterFreq;
 import java.io.File;
 import java.io.IOException;
@@ -19,68 +19,64 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
 @Slf4j
 public final class GardenFilesResource {
 
   private static final String LETTER_FREQ_RESOURCE_DIR = "letter_freq";
+  //gram type files, binary gram tables next to them are skipped
+  private static final String TEXT_FILE_EXTENSION = ".txt";
 
   private GardenFilesResource() {
   }
 
-  public static void loadInRedis(Dao<LetterFreq, String> langDao,
-      Dao<Grapheme, String> graphemeDao) {
+  /**
+   * Stream every gram type file into redis, files unchanged since last load are skipped.
+   *
+   * @return result of every gram type file
+   */
+  public static List<Result> loadInRedis(Dao<LetterFreq, String> langDao,
+      GraphemeBulkLoader graphemeLoader) {
     try {
       long startTime = System.nanoTime();
-      Map<String, Map<String, Pair<Path, Function<Path, Optional<byte[]>>>>> langFreqMap = byteLetterFreqResource();
-
       LetterFreq letterFreq = new LetterFreq(null);
-      List<Grapheme> graphemes = new ArrayList<>();
+      List<Result> results = new ArrayList<>();
 
-      for (Entry<String, Map<String, Pair<Path, Function<Path, Optional<byte[]>>>>> entry : langFreqMap.entrySet()) {
+      for (Entry<String, List<Path>> entry : getLetterFreqResourcePaths().entrySet()) {
         letterFreq.setLangCode(entry.getKey());
-
-        Map<String, byte[]> graphemeFreq = new LinkedHashMap<>();
-        entry.getValue().forEach(
-            (k, v) -> v.right().apply(v.left()).ifPresent(array -> graphemeFreq.put(k, array)));
-        graphemes.add(new Grapheme(entry.getKey(), graphemeFreq));
+        for (Path graphemePath : entry.getValue()) {
+          Result result = graphemeLoader.load(entry.getKey(), getGraphemeType(graphemePath),
+              graphemePath.toUri());
+          log.info("Cache : grapheme {}/{} {}.", result.getLangCode(), result.getGramType(),
+              result.isSkipped() ? "unchanged, skipped"
+                  : String.format("[%d] grams, [%d] bytes in [%d] millis, [%.0f] grams/s",
+                      result.getGrams(), result.getBytes(),
+                      Duration.ofNanos(result.getNanos()).toMillis(), result.gramsPerSecond()));
+          results.add(result);
+        }
       }
       langDao.save(letterFreq);
-      graphemeDao.saveAll(graphemes.toArray(new Grapheme[0]));
 
-      log.info("Cache : local grapheme freq build time [{}] millis.",
-          Duration.ofNanos(System.nanoTime() - startTime).toMillis());
+      long nanos = System.nanoTime() - startTime;
+      long grams = results.stream().mapToLong(Result::getGrams).sum();
+      log.info("Cache : grapheme freq load time [{}] millis, [{}] grams, [{}] of [{}] files skipped,"
+              + " [{}] grams/s.", Duration.ofNanos(nanos).toMillis(), grams,
+          results.stream().filter(Result::isSkipped).count(), results.size(),
+          nanos == 0 ? 0 : (long) (grams * 1e9 / nanos));
+      return results;
     } catch (Exception e) {
       throw new ApplicationException(e);
     }
   }
 
-  static Map<String, Map<String, Pair<Path, Function<Path, Optional<byte[]>>>>> byteLetterFreqResource() {
-    Map<String, List<Path>> resourcePaths = getLetterFreqResourcePaths();
-    log.info("Resource paths size {}", resourcePaths);
-    return resourcePaths.entrySet().stream().map(entry -> {
-      Map<String, Pair<Path, Function<Path, Optional<byte[]>>>> gramMap = new HashMap<>();
-      entry.getValue().forEach(graphemePath ->
-          gramMap.put(getGraphemeType(graphemePath),
-              new Pair<>(graphemePath, GardenFilesResource::getByteArray))
-      );
-      return new Pair<>(entry.getKey(), gramMap);
-    }).collect(Collectors.toMap(Pair::left, Pair::right));
-  }
-
   static String getGraphemeType(Path resourcePath) {
     if (Objects.isNull(resourcePath) || StringUtils.isEmpty(resourcePath.toString())) {
       return "" + System.currentTimeMillis();
@@ -124,6 +120,7 @@ public final class GardenFilesResource {
       }
       try (Stream<Path> stream = Files.walk(resourcePath)) {
         stream.filter(Files::isRegularFile)
+            .filter(path -> path.toString().endsWith(TEXT_FILE_EXTENSION))
             .forEach(path -> paths.compute(getLangCode(path), (k, v) -> {
               if (CollectionUtils.isEmpty(v)) {
                 List<Path> list = new ArrayList<>();
@@ -162,15 +159,4 @@ public final class GardenFilesResource {
   }
 
 
-  static Optional<byte[]> getByteArray(Path resourcePath) {
-    try {
-      byte[] arr = IOUtils.toByteArray(resourcePath.toUri());
-      return Optional.of(arr);
-    } catch (Exception e) {
-      log.error("", e);
-    }
-    return Optional.empty();
-  }
-
-
 }
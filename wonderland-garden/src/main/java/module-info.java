@@ -15,6 +15,7 @@ module wonderland.garden {
   //make package content visible outside module.
   exports io.wonderland.garden;
   exports io.wonderland.garden.api;
+  exports io.wonderland.garden.cache;
   exports io.wonderland.garden.domain;
   exports io.wonderland.garden.resource;
   exports io.wonderland.garden.exception;
@@ -8,6 +8,7 @@ import io.wonderland.garden.ITest;
 import io.wonderland.garden.domain.Grapheme;
 import io.wonderland.grpc.GrpcClientProperties;
 import io.wonderland.grpc.ManagedChannels;
+import java.nio.charset.StandardCharsets;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -36,6 +37,9 @@ class GardenClientTest extends ITest {
     assertThat(grapheme).isNotNull();
     assertThat(grapheme.getKey()).isEqualTo("en");
     assertThat(grapheme.getFreq()).hasSizeGreaterThan(3);
+    //trigrams span many chunks
+    assertThat(new String(grapheme.getFreq().get("trigram"), StandardCharsets.UTF_8).split("\n"))
+        .hasSize(17556);
   }
 
 
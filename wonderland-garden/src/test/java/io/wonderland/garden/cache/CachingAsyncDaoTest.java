@@ -0,0 +1,87 @@
+package io.wonderland.garden.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.wonderland.base.AsyncDao;
+import io.wonderland.garden.cache.NearCache.Eviction;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.junit.jupiter.api.Test;
+
+class CachingAsyncDaoTest {
+
+  @Test
+  void getReadsThroughCache() {
+    MapDao dao = new MapDao();
+    dao.values.put("en", "english");
+    CachingAsyncDao<String, String> cachingDao = new CachingAsyncDao<>(dao,
+        new NearCache<>(4, Eviction.LRU, Duration.ZERO), value -> value.substring(0, 2));
+
+    assertThat(cachingDao.get("en").toCompletableFuture().join()).contains("english");
+    assertThat(cachingDao.get("en").toCompletableFuture().join()).contains("english");
+    assertThat(dao.reads).isEqualTo(1);
+
+    cachingDao.update("english").toCompletableFuture().join();
+    assertThat(cachingDao.get("en").toCompletableFuture().join()).contains("english");
+    assertThat(dao.reads).isEqualTo(2);
+  }
+
+  @Test
+  void absentValueIsNotCached() {
+    MapDao dao = new MapDao();
+    CachingAsyncDao<String, String> cachingDao = new CachingAsyncDao<>(dao,
+        new NearCache<>(4, Eviction.LRU, Duration.ZERO), value -> value.substring(0, 2));
+
+    assertThat(cachingDao.get("de").toCompletableFuture().join()).isEmpty();
+    assertThat(cachingDao.get("de").toCompletableFuture().join()).isEmpty();
+    assertThat(dao.reads).isEqualTo(2);
+  }
+
+  private static final class MapDao implements AsyncDao<String, String> {
+
+    private final Map<String, String> values = new HashMap<>();
+    private int reads;
+
+    @Override
+    public CompletionStage<Optional<String>> get(String id) {
+      reads++;
+      return CompletableFuture.completedFuture(Optional.ofNullable(values.get(id)));
+    }
+
+    @Override
+    public CompletionStage<List<String>> getAll() {
+      return CompletableFuture.completedFuture(List.copyOf(values.values()));
+    }
+
+    @Override
+    public CompletionStage<Void> save(String value) {
+      values.put(value.substring(0, 2), value);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletionStage<Void> saveAll(String... args) {
+      for (String value : args) {
+        save(value);
+      }
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletionStage<Void> update(String value) {
+      return save(value);
+    }
+
+    @Override
+    public CompletionStage<Void> delete(String value) {
+      values.remove(value.substring(0, 2));
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+
+}
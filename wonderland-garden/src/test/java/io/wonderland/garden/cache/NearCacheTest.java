@@ -0,0 +1,102 @@
+package io.wonderland.garden.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.wonderland.garden.cache.NearCache.Eviction;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class NearCacheTest {
+
+  @Test
+  void lruEviction() {
+    NearCache<String, Integer> cache = new NearCache<>(2, Eviction.LRU, Duration.ZERO);
+    cache.put("en", 1);
+    cache.put("de", 2);
+    assertThat(cache.getIfPresent("en")).contains(1);
+    cache.put("al", 3);
+
+    assertThat(cache.getIfPresent("de")).isEmpty();
+    assertThat(cache.getIfPresent("en")).contains(1);
+    assertThat(cache.getIfPresent("al")).contains(3);
+    assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+  }
+
+  @Test
+  void lfuEviction() {
+    NearCache<String, Integer> cache = new NearCache<>(2, Eviction.LFU, Duration.ZERO);
+    cache.put("en", 1);
+    cache.put("de", 2);
+    cache.getIfPresent("en");
+    cache.getIfPresent("en");
+    cache.getIfPresent("de");
+    cache.put("al", 3);
+    //al is kept on its own put, then least read when fr is put
+    cache.put("fr", 4);
+
+    assertThat(cache.getIfPresent("en")).contains(1);
+    assertThat(cache.getIfPresent("de")).isEmpty();
+    assertThat(cache.getIfPresent("al")).isEmpty();
+    assertThat(cache.getIfPresent("fr")).contains(4);
+  }
+
+  @Test
+  void ttl() throws InterruptedException {
+    NearCache<String, Integer> cache = new NearCache<>(2, Eviction.LRU, Duration.ofMillis(20));
+    cache.put("en", 1);
+    assertThat(cache.getIfPresent("en")).contains(1);
+    Thread.sleep(40);
+
+    assertThat(cache.getIfPresent("en")).isEmpty();
+    assertThat(cache.getStats().getExpirations()).isEqualTo(1);
+  }
+
+  @Test
+  void stats() {
+    NearCache<String, Integer> cache = new NearCache<>(2, Eviction.LRU, Duration.ZERO);
+    assertThat(cache.getIfPresent("en")).isEmpty();
+    cache.put("en", 1);
+    assertThat(cache.getIfPresent("en")).contains(1);
+    assertThat(cache.getIfPresent("en")).contains(1);
+
+    NearCache.Stats stats = cache.getStats();
+    assertThat(stats.getHits()).isEqualTo(2);
+    assertThat(stats.getMisses()).isEqualTo(1);
+    assertThat(stats.hitRate()).isEqualTo(2.0 / 3);
+  }
+
+  @Test
+  void invalidationDropsConcurrentLoad() {
+    NearCache<String, Integer> cache = new NearCache<>(2, Eviction.LRU, Duration.ZERO);
+    long loadGeneration = cache.generation();
+    cache.invalidate("en");
+    cache.put("en", 1, loadGeneration);
+    assertThat(cache.size()).isZero();
+
+    cache.put("en", 2);
+    cache.put("de", 3);
+    cache.invalidateIf("en"::equals);
+    assertThat(cache.getIfPresent("de")).contains(3);
+    cache.invalidateAll();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void disabled() {
+    NearCache<String, Integer> cache = new NearCache<>(0, Eviction.LRU, Duration.ZERO);
+    cache.put("en", 1);
+    assertThat(cache.getIfPresent("en")).isEmpty();
+    assertThatThrownBy(() -> new NearCache<>(-1, Eviction.LRU, Duration.ZERO))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void missingEvents() {
+    assertThat(KeyspaceInvalidation.missingEvents("")).isEqualTo("Kghs");
+    assertThat(KeyspaceInvalidation.missingEvents(null)).isEqualTo("Kghs");
+    assertThat(KeyspaceInvalidation.missingEvents("Exh")).isEqualTo("Kgs");
+    assertThat(KeyspaceInvalidation.missingEvents("KA")).isEmpty();
+  }
+
+}
@@ -0,0 +1,32 @@
+package io.wonderland.garden.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class GraphemeDaoTest {
+
+  @Test
+  void keys() {
+    assertThat(GraphemeDao.digestKey("en")).isEqualTo("grapheme:en");
+    assertThat(GraphemeDao.gramKey("en", "digram")).isEqualTo("grapheme:en:digram");
+    assertThat(GraphemeDao.langCode("grapheme:en")).isEqualTo("en");
+    assertThat(GraphemeDao.langCode("grapheme:en:digram:loading")).isEqualTo("en");
+  }
+
+  @Test
+  void putGramToLines() {
+    Map<String, byte[]> grams = new HashMap<>();
+    assertThat(GraphemeDao.putGram("TH:116997844", grams)).isTrue();
+    assertThat(GraphemeDao.putGram(" HE : 100689263 ", grams)).isTrue();
+    assertThat(GraphemeDao.putGram("Ã¤:5", grams)).isTrue();
+    assertThat(GraphemeDao.putGram("", grams)).isFalse();
+
+    assertThat(new String(GraphemeDao.toLines(grams), StandardCharsets.UTF_8))
+        .isEqualTo("TH:116997844\nHE:100689263\nÃ¤:5\n");
+  }
+
+}
@@ -0,0 +1,107 @@
+package io.wonderland.garden.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.lettuce.core.MapScanCursor;
+import io.wonderland.garden.cache.NearCache;
+import io.wonderland.garden.cache.NearCache.Eviction;
+import io.wonderland.garden.dao.GraphemeDao;
+import io.wonderland.protos.GraphemeResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class GraphemeStreamTest {
+
+  private static final int PAGES = 3;
+
+  @Test
+  void toLines() {
+    Map<String, byte[]> grams = new LinkedHashMap<>();
+    grams.put("THE", "1000".getBytes(StandardCharsets.US_ASCII));
+    grams.put("Ã¤e", "5".getBytes(StandardCharsets.US_ASCII));
+
+    assertThat(new String(GraphemeStream.toLines(grams), StandardCharsets.UTF_8))
+        .isEqualTo("THE:1000\nÃ¤e:5\n");
+    assertThat(GraphemeStream.toLines(Map.of())).isEmpty();
+  }
+
+  @Test
+  void cacheDisabled() {
+    NearCache<String, List<GraphemeResponse>> cache = new NearCache<>(0, Eviction.LRU,
+        Duration.ZERO);
+    List<Boolean> collecting = stream(cache, Long.MAX_VALUE);
+
+    //stream keeps no chunk while sending, nothing cached
+    assertThat(collecting).hasSize(PAGES).containsOnly(false);
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void cacheBounded() {
+    NearCache<String, List<GraphemeResponse>> cache = new NearCache<>(4, Eviction.LRU,
+        Duration.ZERO);
+    //first chunk fits, second goes over
+    List<Boolean> collecting = stream(cache, chunk().getSerializedSize() + 1L);
+    assertThat(collecting).containsExactly(true, false, false);
+    assertThat(cache.getIfPresent("en")).isEmpty();
+
+    collecting = stream(cache, Long.MAX_VALUE);
+    assertThat(collecting).containsOnly(true);
+    assertThat(cache.getIfPresent("en")).hasValueSatisfying(
+        chunks -> assertThat(chunks).hasSize(PAGES));
+  }
+
+  /**
+   * Stream PAGES pages of one gram type to a ready observer.
+   *
+   * @return whether stream was collecting chunks at every chunk sent
+   */
+  @SuppressWarnings("unchecked")
+  private static List<Boolean> stream(NearCache<String, List<GraphemeResponse>> cache,
+      long maxCachedBytes) {
+    GraphemeDao graphemeDao = mock(GraphemeDao.class);
+    when(graphemeDao.getGramTypes("en"))
+        .thenReturn(CompletableFuture.completedFuture(List.of("trigram")));
+    int[] scans = new int[1];
+    when(graphemeDao.scan(eq("en"), eq("trigram"), any(), anyInt())).thenAnswer(invocation -> {
+      MapScanCursor<String, byte[]> page = new MapScanCursor<>();
+      page.getMap().put("TH" + (char) ('A' + scans[0]), "100".getBytes(StandardCharsets.US_ASCII));
+      page.setCursor(Integer.toString(++scans[0]));
+      page.setFinished(scans[0] == PAGES);
+      return CompletableFuture.completedFuture(page);
+    });
+    ServerCallStreamObserver<GraphemeResponse> observer = mock(ServerCallStreamObserver.class);
+    when(observer.isReady()).thenReturn(true);
+
+    GraphemeStream stream = new GraphemeStream(graphemeDao, "en", 1, observer, cache,
+        maxCachedBytes);
+    List<Boolean> collecting = new ArrayList<>();
+    doAnswer(invocation -> collecting.add(stream.isCollecting())).when(observer).onNext(any());
+    stream.start();
+
+    verify(observer, times(PAGES)).onNext(any());
+    verify(observer).onCompleted();
+    return collecting;
+  }
+
+  private static GraphemeResponse chunk() {
+    return LetterFreqService.getGraphemeReply("trigram",
+        "THA:100\n".getBytes(StandardCharsets.US_ASCII));
+  }
+
+}
@@ -2,25 +2,20 @@ package io.wonderland.garden.resource;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-import io.atlassian.fugue.Pair;
-import java.io.IOException;
-import java.net.URISyntaxException;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.function.Function;
 import org.junit.jupiter.api.Test;
 
 class GardenFilesResourceTest {
 
 
   @Test
-  void byteLetterFreqResource() throws IOException, URISyntaxException {
-    Map<String, Map<String, Pair<Path, Function<Path, Optional<byte[]>>>>> map = GardenFilesResource.byteLetterFreqResource();
+  void getLetterFreqResourcePaths() {
+    Map<String, List<Path>> paths = GardenFilesResource.getLetterFreqResourcePaths();
 
-    Map<String, Pair<Path, Function<Path, Optional<byte[]>>>> en = map.get("en");
-    assertThat(en).containsKeys("monogram", "digram", "trigram");
-    assertThat(map).isNotEmpty();
+    assertThat(paths.get("en")).hasSize(3)
+        .allMatch(path -> path.toString().endsWith(".txt"));
   }
 
-}
\ No newline at end of file
+}
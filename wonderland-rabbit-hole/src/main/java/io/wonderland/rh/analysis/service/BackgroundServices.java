@@ -2,7 +2,7 @@ package io.wonderland.rh.analysis.service;
 
 import io.wonderland.base.ApplicationException;
 import io.wonderland.base.FilesUtils;
-import io.wonderland.base.Map.KeyOption;
+import io.wonderland.base.GramTable;
 import io.wonderland.garden.api.GardenClient;
 import io.wonderland.garden.domain.Grapheme;
 import io.wonderland.rh.base.fx.ExceptionDialog;
@@ -13,6 +13,9 @@ import io.wonderland.struct.Language;
 import java.awt.Color;
 import java.awt.Font;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -65,6 +68,25 @@ public final class BackgroundServices {
     return FILE_DIR + File.separatorChar + language.getCode() + "_" + gramType;
   }
 
+  /**
+   * Downloaded GRAM:count file is read through {@link GramTable}, table file next to it is mapped
+   * when there is one.
+   *
+   * @return gram table of file, null if file isn't downloaded
+   */
+  static GramTable loadGramTable(String filePath) throws IOException {
+    Path file = Path.of(filePath);
+    return Files.isRegularFile(file) ? GramTable.load(file) : null;
+  }
+
+  /**
+   * @return pct % of gram at index of table
+   */
+  static double gramPct(GramTable gramTable, int index) {
+    long total = gramTable.getTotal();
+    return total == 0 ? 0 : gramTable.count(index) * 100.0 / total;
+  }
+
 
   @Slf4j
   @RequiredArgsConstructor
@@ -145,34 +167,29 @@ public final class BackgroundServices {
       List<XYTextAnnotation> letterAnn = new ArrayList<>();
       List<XYTextAnnotation> ciphertextAnn = new ArrayList<>();
       String letterFilePath;
-      Map<String, Double> gramFreqMap = null;
+      GramTable gramTable = null;
       try {
         //loading form file system
         // if some error happens while loading resources , try to download form beginning.
         letterFilePath = getFilePath(language, gramType.getValue());
-        gramFreqMap = FilesUtils.fileToMap(letterFilePath, KeyOption.OVERWRITE, ":", s -> s,
-            Double::parseDouble);
+        gramTable = loadGramTable(letterFilePath);
 
         //if no resources try to download again
-        if (MapUtils.isEmpty(gramFreqMap)) {
+        if (gramTable == null || gramTable.size() == 0) {
           GraphemeService.downloadSync(gardenClient, language);
           letterFilePath = getFilePath(language, gramType.getValue());
-          gramFreqMap = FilesUtils.fileToMap(letterFilePath, KeyOption.OVERWRITE, ":", s -> s,
-              Double::parseDouble);
+          gramTable = loadGramTable(letterFilePath);
         }
       } catch (Exception e) {
         log.error("{}", e.getMessage(), e);
       }
 
-      Map<String, Double> gramFreqPct = FrequencyAnalysis.calcPct(
-          MapUtils.emptyIfNull(gramFreqMap));
       //compute letter details
-      int ctr = 0;
-      for (Entry<String, Double> entry : gramFreqPct.entrySet()) {
-        ctr = ctr + 1;
-        letterSeries.add(ctr, entry.getValue() * 100);
-        XYTextAnnotation ann = new XYTextAnnotation(entry.getKey(), ctr + 0.2,
-            entry.getValue() * 100);
+      int size = gramTable == null ? 0 : gramTable.size();
+      for (int ctr = 1; ctr <= size; ctr++) {
+        double pct = gramPct(gramTable, ctr - 1);
+        letterSeries.add(ctr, pct);
+        XYTextAnnotation ann = new XYTextAnnotation(gramTable.gram(ctr - 1), ctr + 0.2, pct);
         ann.setPaint(Color.BLACK);
         ann.setFont(new Font(FONT_NAME, Font.BOLD, 10));
         letterAnn.add(ann);
@@ -309,10 +326,10 @@ public final class BackgroundServices {
 
     private BorderPane createChart(int keyMinLength, int keyMaxLength, String ciphertext) {
       DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-      Map<Integer, Double> ics = IndexCoincidence.calcKeyPeriodIC(ciphertext.getBytes(), 1,
+      double[] ics = IndexCoincidence.calcKeyPeriodIC(ciphertext.getBytes(), 1,
           keyMinLength, keyMaxLength);
-      if (MapUtils.isNotEmpty(ics)) {
-        ics.forEach((key, value) -> dataset.addValue(value, X_AXIS_LABEL, key));
+      for (int keyLength = keyMinLength; keyLength <= keyMaxLength; keyLength++) {
+        dataset.addValue(ics[keyLength], X_AXIS_LABEL, keyLength);
       }
 
       //add first dataset and render as bar values
@@ -411,16 +428,17 @@ public final class BackgroundServices {
       XYSeries xySeries = new XYSeries(gramType.getValue());
       List<XYTextAnnotation> textAnnotations = new ArrayList<>();
       String filePath = getFilePath(language, gramType.getValue());
-      Map<String, Double> gramFreqMap = FilesUtils.fileToMap(filePath, KeyOption.OVERWRITE, ":",
-          s -> s,
-          Double::parseDouble);
-      Map<String, Double> gramFreqPct = FrequencyAnalysis.calcPct(gramFreqMap);
-      int ctr = 0;
-      for (Entry<String, Double> entry : gramFreqPct.entrySet()) {
-        ctr = ctr + 1;
-        xySeries.add(ctr, entry.getValue() * 100);
-        XYTextAnnotation ann = new XYTextAnnotation(entry.getKey(), ctr + 0.2,
-            entry.getValue() * 100);
+      GramTable gramTable = null;
+      try {
+        gramTable = loadGramTable(filePath);
+      } catch (IOException e) {
+        log.error(e.getMessage());
+      }
+      int size = gramTable == null ? 0 : gramTable.size();
+      for (int ctr = 1; ctr <= size; ctr++) {
+        double pct = gramPct(gramTable, ctr - 1);
+        xySeries.add(ctr, pct);
+        XYTextAnnotation ann = new XYTextAnnotation(gramTable.gram(ctr - 1), ctr + 0.2, pct);
         ann.setPaint(Color.BLACK);
         ann.setFont(new Font(FONT_NAME, Font.BOLD, 10));
         textAnnotations.add(ann);
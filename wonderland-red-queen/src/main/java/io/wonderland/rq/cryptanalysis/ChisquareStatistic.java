@@ -1,5 +1,164 @@
 package io.wonderland.rq.cryptanalysis;
 
-public class ChisquareStatistic {
+import io.wonderland.base.GramTable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Chi-square statistic of text letter counts against language letter frequencies, lower is closer
+ * to language.
+ * <br>
+ * <br> X^2 = sum((C_i - E_i)^2 / E_i), C_i count of letter i in text, E_i = N * P(i)
+ * <br>
+ * <br> Expected probabilities are kept in a double[] by alphabet index. Scoring with a caller
+ * scratch array allocates nothing, an instance is immutable and safe to share between threads.
+ */
+public final class ChisquareStatistic {
+
+  private final ScoringAlphabet alphabet;
+  private final double[] probabilities;
+
+  private ChisquareStatistic(ScoringAlphabet alphabet, double[] probabilities) {
+    this.alphabet = alphabet;
+    this.probabilities = probabilities;
+  }
+
+  /**
+   * @param monogramCounts letter - count entries, as in garden monogram_freq files
+   * @return chi-square statistic on alphabet of letters
+   */
+  public static ChisquareStatistic of(Map<String, ? extends Number> monogramCounts) {
+    if (monogramCounts == null || monogramCounts.isEmpty()) {
+      throw new IllegalArgumentException("Monogram counts must not be empty.");
+    }
+    String[] letters = new String[monogramCounts.size()];
+    double[] counts = new double[letters.length];
+    int i = 0;
+    for (Map.Entry<String, ? extends Number> entry : monogramCounts.entrySet()) {
+      letters[i] = entry.getKey();
+      counts[i++] = entry.getValue().doubleValue();
+    }
+    return of(letters, counts);
+  }
+
+  /**
+   * @param table monograms, counts read from table as they are
+   * @return chi-square statistic on alphabet of letters
+   */
+  public static ChisquareStatistic of(GramTable table) {
+    if (table.size() == 0) {
+      throw new IllegalArgumentException("Monogram counts must not be empty.");
+    }
+    String[] letters = new String[table.size()];
+    double[] counts = new double[letters.length];
+    for (int i = 0; i < letters.length; i++) {
+      letters[i] = table.gram(i);
+      counts[i] = table.count(i);
+    }
+    return of(letters, counts);
+  }
+
+  private static ChisquareStatistic of(String[] letters, double[] counts) {
+    ScoringAlphabet alphabet = ScoringAlphabet.of(Arrays.asList(letters));
+    if (alphabet.size() == 0) {
+      throw new IllegalArgumentException("Monogram counts have no ASCII letter.");
+    }
+    double[] probabilities = new double[alphabet.size()];
+    double total = 0;
+    for (int i = 0; i < letters.length; i++) {
+      String letter = letters[i];
+      //non ASCII letters are out of alphabet, their length may differ
+      if (!ScoringAlphabet.isAscii(letter)) {
+        continue;
+      }
+      if (letter.length() != 1) {
+        throw new IllegalArgumentException("Monogram must be one character, was " + letter);
+      }
+      probabilities[alphabet.indexOf((byte) letter.charAt(0))] += counts[i];
+      total += counts[i];
+    }
+    for (int i = 0; i < probabilities.length; i++) {
+      probabilities[i] /= total;
+    }
+    return new ChisquareStatistic(alphabet, probabilities);
+  }
+
+  /**
+   * @param file {@link GramTable} file, or monogram file of LETTER:count lines read through table
+   *             file next to it if any
+   * @return chi-square statistic of file letters
+   */
+  public static ChisquareStatistic load(Path file) {
+    try {
+      return of(GramTable.load(file));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public double score(byte[] text) {
+    return score(text, 0, text.length, new int[alphabet.size()]);
+  }
+
+  /**
+   * @param counts scratch of at least alphabet size, overwritten
+   * @return chi-square of letters of text[off, off+len), bytes outside alphabet skipped
+   */
+  public double score(byte[] text, int off, int len, int[] counts) {
+    final ScoringAlphabet a = alphabet;
+    Arrays.fill(counts, 0, a.size(), 0);
+    int total = 0;
+    for (int i = off, end = off + len; i < end; i++) {
+      int index = a.indexOf(text[i]);
+      if (index != ScoringAlphabet.ABSENT) {
+        counts[index]++;
+        total++;
+      }
+    }
+    return score(counts, total, 0);
+  }
+
+  /**
+   * Chi-square of counts read shifted, letter i taken from counts[(i + shift) mod size]. Scores
+   * every Caesar shift of a column from one histogram.
+   *
+   * @param counts letter counts by alphabet index
+   * @param total  sum of counts
+   * @param shift  shift in [0, alphabet size)
+   */
+  public double score(int[] counts, int total, int shift) {
+    if (total == 0) {
+      return 0;
+    }
+    final double[] p = probabilities;
+    final int size = p.length;
+    double chisquare = 0;
+    int j = shift;
+    for (int i = 0; i < size; i++) {
+      double expected = total * p[i];
+      if (expected > 0) {
+        double diff = counts[j] - expected;
+        chisquare += diff * diff / expected;
+      }
+      if (++j == size) {
+        j = 0;
+      }
+    }
+    return chisquare;
+  }
+
+  public ScoringAlphabet getAlphabet() {
+    return alphabet;
+  }
+
+  /**
+   * @return expected probability of letter at index
+   */
+  public double probability(int index) {
+    return probabilities[index];
+  }
 
 }
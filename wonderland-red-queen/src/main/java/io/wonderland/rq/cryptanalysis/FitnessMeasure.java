@@ -1,8 +1,249 @@
 package io.wonderland.rq.cryptanalysis;
 
-public class FitnessMeasure {
+import io.wonderland.base.GramTable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
 
-  private FitnessMeasure() {
+/**
+ * N-gram log-likelihood fitness of a text, higher is closer to language.
+ * <br>
+ * <br> fitness = sum(log10(P(gram))) over every overlapping gram of text letters
+ * <br>
+ * <br> Log-probabilities are precomputed into a dense double[], a letter index takes b bits
+ * (2^b >= alphabet size) and a gram is looked up by its n x b bits number, kept rolling with a shift
+ * and a mask while text is scanned. Grams missing from table get floor probability
+ * {@link #FLOOR_COUNT}/total. Scoring allocates nothing, an instance is immutable and safe to share
+ * between threads.
+ */
+public final class FitnessMeasure {
+
+  public static final double FLOOR_COUNT = 0.01;
+  //n x bits of letter index, 26 letter quadgrams take 20 bits
+  private static final int MAX_TABLE_BITS = 24;
+
+  private final ScoringAlphabet alphabet;
+  private final int gramLength;
+  private final double[] logProbabilities;
+  private final int bits;
+  private final int mask;
+  private final double floor;
+
+  private FitnessMeasure(ScoringAlphabet alphabet, int gramLength, double[] logProbabilities,
+      int bits, double floor) {
+    this.alphabet = alphabet;
+    this.gramLength = gramLength;
+    this.logProbabilities = logProbabilities;
+    this.bits = bits;
+    this.mask = logProbabilities.length - 1;
+    this.floor = floor;
+  }
+
+  /**
+   * @param gramCounts gram - count entries of one gram length, as in garden letter_freq files
+   * @return fitness measure on alphabet of grams
+   */
+  public static FitnessMeasure of(Map<String, ? extends Number> gramCounts) {
+    if (gramCounts == null || gramCounts.isEmpty()) {
+      throw new IllegalArgumentException("Gram counts must not be empty.");
+    }
+    String[] grams = new String[gramCounts.size()];
+    double[] counts = new double[grams.length];
+    double total = 0;
+    int i = 0;
+    for (Map.Entry<String, ? extends Number> entry : gramCounts.entrySet()) {
+      grams[i] = entry.getKey();
+      counts[i] = entry.getValue().doubleValue();
+      total += counts[i++];
+    }
+    double[] logProbabilities = new double[grams.length];
+    for (i = 0; i < grams.length; i++) {
+      logProbabilities[i] = Math.log10(counts[i] / total);
+    }
+    return of(grams, logProbabilities, Math.log10(FLOOR_COUNT / total));
+  }
+
+  /**
+   * Log-probabilities are read from table as they are, nothing is parsed or recomputed.
+   *
+   * @param table grams of one gram length
+   * @return fitness measure on alphabet of grams
+   */
+  public static FitnessMeasure of(GramTable table) {
+    if (table.size() == 0) {
+      throw new IllegalArgumentException("Gram counts must not be empty.");
+    }
+    String[] grams = new String[table.size()];
+    double[] logProbabilities = new double[grams.length];
+    for (int i = 0; i < grams.length; i++) {
+      grams[i] = table.gram(i);
+      logProbabilities[i] = table.logProbability(i);
+    }
+    return of(grams, logProbabilities, Math.log10(FLOOR_COUNT / table.getTotal()));
+  }
+
+  /**
+   * @param logProbabilities log10 probability of every gram, grams of 0 count (negative infinity)
+   *                         get floor
+   */
+  private static FitnessMeasure of(String[] grams, double[] logProbabilities, double floor) {
+    //non ASCII grams are out of alphabet, their length may differ
+    int gramLength = 0;
+    for (String gram : grams) {
+      if (ScoringAlphabet.isAscii(gram)) {
+        gramLength = gram.length();
+        break;
+      }
+    }
+    ScoringAlphabet alphabet = ScoringAlphabet.of(Arrays.asList(grams));
+    int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(alphabet.size() - 1));
+    if (gramLength == 0 || alphabet.size() == 0 || bits * gramLength > MAX_TABLE_BITS) {
+      throw new IllegalArgumentException("Gram table of " + alphabet.size() + "^" + gramLength
+          + " entries not supported.");
+    }
+
+    double[] table = new double[1 << (bits * gramLength)];
+    Arrays.fill(table, floor);
+    for (int i = 0; i < grams.length; i++) {
+      String gram = grams[i];
+      if (!ScoringAlphabet.isAscii(gram)) {
+        continue;
+      }
+      if (gram.length() != gramLength) {
+        throw new IllegalArgumentException("Grams must have same length.");
+      }
+      if (logProbabilities[i] > Double.NEGATIVE_INFINITY) {
+        int number = 0;
+        for (int j = 0; j < gramLength; j++) {
+          number = (number << bits) | alphabet.indexOf((byte) gram.charAt(j));
+        }
+        table[number] = logProbabilities[i];
+      }
+    }
+    return new FitnessMeasure(alphabet, gramLength, table, bits, floor);
+  }
+
+  /**
+   * @param file {@link GramTable} file, or gram file of GRAM:count lines read through table file
+   *             next to it if any
+   * @return fitness measure of file grams
+   */
+  public static FitnessMeasure load(Path file) {
+    try {
+      return of(GramTable.load(file));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public double score(byte[] text) {
+    return score(text, 0, text.length);
+  }
+
+  /**
+   * @return log10 likelihood of grams of text[off, off+len), letters outside alphabet skipped
+   */
+  public double score(byte[] text, int off, int len) {
+    final ScoringAlphabet a = alphabet;
+    final double[] table = logProbabilities;
+    final int b = bits;
+    final int m = mask;
+    int number = 0;
+    int letters = 0;
+    double fitness = 0;
+    for (int i = off, end = off + len; i < end; i++) {
+      int index = a.indexOf(text[i]);
+      if (index == ScoringAlphabet.ABSENT) {
+        continue;
+      }
+      number = ((number << b) | index) & m;
+      if (++letters >= gramLength) {
+        fitness += table[number];
+      }
+    }
+    return fitness;
+  }
+
+  /**
+   * Fitness of a candidate decryption. Bytes outside alphabet are charged {@link #getFloor()}, a
+   * candidate turning letters into other bytes doesn't gain by dropping their grams.
+   * Log-probabilities are never positive, sum only decreases while text is scanned and scoring
+   * stops as soon as it falls below threshold.
+   *
+   * @param threshold score a candidate must reach, negative infinity to score whole text
+   * @return fitness of text[off, off+len), negative infinity once below threshold
+   */
+  public double score(byte[] text, int off, int len, double threshold) {
+    final ScoringAlphabet a = alphabet;
+    final double[] table = logProbabilities;
+    final int b = bits;
+    final int m = mask;
+    final double other = floor;
+    int number = 0;
+    int letters = 0;
+    double fitness = 0;
+    for (int i = off, end = off + len; i < end; i++) {
+      int index = a.indexOf(text[i]);
+      if (index == ScoringAlphabet.ABSENT) {
+        fitness += other;
+      } else {
+        number = ((number << b) | index) & m;
+        if (++letters >= gramLength) {
+          fitness += table[number];
+        }
+      }
+      if (fitness < threshold) {
+        return Double.NEGATIVE_INFINITY;
+      }
+    }
+    return fitness;
+  }
+
+  /**
+   * Fitness of a text given as alphabet indexes, every element must be in [0, alphabet size). Used
+   * by key searches deciphering into index arrays.
+   */
+  public double score(int[] indexes, int off, int len) {
+    final double[] table = logProbabilities;
+    final int b = bits;
+    final int m = mask;
+    double fitness = 0;
+    int number = 0;
+    for (int i = off, end = off + len, first = off + gramLength - 1; i < end; i++) {
+      number = ((number << b) | indexes[i]) & m;
+      if (i >= first) {
+        fitness += table[number];
+      }
+    }
+    return fitness;
+  }
+
+  /**
+   * @return log10 probability of gram number, letter indexes packed by {@link #getBits()} bits
+   */
+  double logProbability(int number) {
+    return logProbabilities[number];
+  }
+
+  /**
+   * @return log10 probability given to grams missing from table
+   */
+  public double getFloor() {
+    return floor;
+  }
+
+  int getBits() {
+    return bits;
+  }
+
+  public ScoringAlphabet getAlphabet() {
+    return alphabet;
+  }
+
+  public int getGramLength() {
+    return gramLength;
   }
 
 }
@@ -1,15 +1,26 @@
 package io.wonderland.rq.cryptanalysis;
 
+import io.wonderland.rq.ds.GramCounter;
 import io.wonderland.struct.GramType;
 import io.wonderland.struct.Monochar;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import org.apache.commons.lang3.ArrayUtils;
 
 public final class FrequencyAnalysis {
 
   public static final String CONTENT_CAN_T_BE_EMPTY = "Content can't be empty.";
   public static final String NOT_IMPLEMENTED_FOR = "Character byte encoding not implemented for ";
+  //multiple of every gram length, mapped regions split on unit boundaries
+  static final int MAPPED_REGION_SIZE = 3 << 28;
 
   private FrequencyAnalysis() {
   }
@@ -23,63 +34,186 @@ public final class FrequencyAnalysis {
     if (ArrayUtils.isEmpty(text)) {
       throw new IllegalArgumentException(CONTENT_CAN_T_BE_EMPTY);
     }
+    return monocharFreq(ArrayUtils.toPrimitive(text), encodingBytes);
+  }
 
-    if (encodingBytes != 1 && encodingBytes != 2 && encodingBytes != 3 && encodingBytes != 4) {
-      throw new IllegalArgumentException(NOT_IMPLEMENTED_FOR + encodingBytes);
+  /**
+   * @param text          plaintext | ciphertext
+   * @param encodingBytes number of bytes encoding a character  {1,2,3,4}
+   * @return map of monochar frequencies
+   */
+  public static Map<Monochar, Integer> monocharFreq(byte[] text, int encodingBytes) {
+    return toMonocharFreq(monocharCounts(text, encodingBytes));
+  }
+
+  /**
+   * Character histogram without a Monochar per character, a character is keyed by its bytes
+   * packed into an int (see {@link GramCounter#pack(byte[], int, int)}).
+   *
+   * @param text          plaintext | ciphertext
+   * @param encodingBytes number of bytes encoding a character  {1,2,3,4}
+   * @return character counts
+   */
+  public static GramCounter monocharCounts(byte[] text, int encodingBytes) {
+    if (ArrayUtils.isEmpty(text)) {
+      throw new IllegalArgumentException(CONTENT_CAN_T_BE_EMPTY);
     }
+    checkEncodingBytes(encodingBytes);
+    GramCounter counter = new GramCounter(encodingBytes);
+    counter.addUnits(text, 0, text.length);
+    return counter;
+  }
+
+  /**
+   * @return monochar view of character counts
+   * @throws ArithmeticException if a count doesn't fit an int, read counter itself instead
+   */
+  public static Map<Monochar, Integer> toMonocharFreq(GramCounter counter) {
     Map<Monochar, Integer> freq = new HashMap<>();
-    if (encodingBytes == 1) {
-      for (byte b : text) {
-        Monochar monoCharKey = new Monochar(b);
-        freq.compute(monoCharKey, (key, value) -> value == null ? 1 : value + 1);
-      }
-    } else if (encodingBytes == 2) {
-      for (int i = 0, len = text.length; i + 2 <= len; i = i + 2) {
-        Monochar monoCharKey = new Monochar(text[i], text[i + 1]);
-        freq.compute(monoCharKey, (key, value) -> value == null ? 1 : value + 1);
-      }
-    } else if (encodingBytes == 3) {
-      for (int i = 0, len = text.length; i + 3 <= len; i = i + 3) {
-        Monochar monoCharKey = new Monochar(text[i], text[i + 1], text[i + 2]);
-        freq.compute(monoCharKey, (key, value) -> value == null ? 1 : value + 1);
-      }
-    } else {
-      for (int i = 0, len = text.length; i + 4 <= len; i = i + 4) {
-        Monochar monoCharKey = new Monochar(text[i], text[i + 1], text[i + 2], text[i + 3]);
-        freq.compute(monoCharKey, (key, value) -> value == null ? 1 : value + 1);
-      }
-    }
+    counter.forEach((key, count) -> freq.put(
+        new Monochar(GramCounter.unpack(key, counter.getGramLength())), Math.toIntExact(count)));
     return freq;
   }
 
 
+  /**
+   * Count overlapping n-grams of text in one pass.
+   *
+   * @param bytes    plaintext | ciphertext
+   * @param gramType n-gram length
+   * @return map of gram counts
+   */
   public static Map<String, Double> calcFreq(byte[] bytes, GramType gramType) {
+    return toFreq(countGrams(bytes, gramType));
+  }
+
+  /**
+   * @param bytes    plaintext | ciphertext
+   * @param gramType n-gram length
+   * @return gram counts keyed by packed gram
+   */
+  public static GramCounter countGrams(byte[] bytes, GramType gramType) {
+    if (ArrayUtils.isEmpty(bytes)) {
+      throw new IllegalArgumentException("Bytes array is empty");
+    }
+    return GramCounter.count(bytes, gramLength(gramType));
+  }
+
+  /**
+   * {@link #calcFreq(byte[], GramType)} on all cores of common pool.
+   */
+  public static Map<String, Double> calcFreqParallel(byte[] bytes, GramType gramType) {
+    return toFreq(countGramsParallel(bytes, gramType));
+  }
+
+  public static GramCounter countGramsParallel(byte[] bytes, GramType gramType) {
     if (ArrayUtils.isEmpty(bytes)) {
       throw new IllegalArgumentException("Bytes array is empty");
     }
+    return countGramsParallel(ByteBuffer.wrap(bytes), gramType);
+  }
+
+  /**
+   * Count n-grams of buffer[position,limit) in parallel, buffer position is not changed.
+   *
+   * @param buffer   heap, direct or mapped text
+   * @param gramType n-gram length
+   * @return gram counts keyed by packed gram
+   */
+  public static GramCounter countGramsParallel(ByteBuffer buffer, GramType gramType) {
+    return countParallel(buffer, gramLength(gramType), false);
+  }
+
+  /**
+   * Count n-grams of a file in parallel, file is memory mapped region by region and never loaded
+   * on heap.
+   *
+   * @param file     text file
+   * @param gramType n-gram length
+   * @return gram counts keyed by packed gram
+   */
+  public static GramCounter countGramsParallel(Path file, GramType gramType) throws IOException {
+    return countParallel(file, gramLength(gramType), false);
+  }
+
+  /**
+   * {@link #monocharFreq(Byte[], int)} on all cores of common pool.
+   */
+  public static Map<Monochar, Integer> monocharFreqParallel(byte[] text, int encodingBytes) {
+    if (ArrayUtils.isEmpty(text)) {
+      throw new IllegalArgumentException(CONTENT_CAN_T_BE_EMPTY);
+    }
+    return monocharFreqParallel(ByteBuffer.wrap(text), encodingBytes);
+  }
+
+  public static Map<Monochar, Integer> monocharFreqParallel(ByteBuffer text, int encodingBytes) {
+    checkEncodingBytes(encodingBytes);
+    return toMonocharFreq(countParallel(text, encodingBytes, true));
+  }
+
+  public static Map<Monochar, Integer> monocharFreqParallel(Path file, int encodingBytes)
+      throws IOException {
+    checkEncodingBytes(encodingBytes);
+    return toMonocharFreq(countParallel(file, encodingBytes, true));
+  }
+
+  /**
+   * @return counts keyed by gram string as doubles, grams decoding to same string are summed
+   */
+  private static Map<String, Double> toFreq(GramCounter counter) {
     Map<String, Double> freq = new HashMap<>();
-    if (GramType.MONOGRAM.equals(gramType)) {
-      for (byte b : bytes) {
-        freq.compute(new String(new byte[]{b}), (k, v) -> v == null ? 0 : v + 1);
-      }
-    } else if (GramType.DIGRAM.equals(gramType)) {
-      for (byte a : bytes) {
-        for (byte b : bytes) {
-          freq.compute(new String(new byte[]{a, b}), (k, v) -> v == null ? 0 : v + 1);
-        }
-      }
-      //O(n^3)
-    } else if (GramType.TRIGRAM.equals(gramType)) {
-      for (byte a : bytes) {
-        for (byte b : bytes) {
-          for (byte c : bytes) {
-            freq.compute(new String(new byte[]{a, b, c}),
-                (key, value) -> value == null ? 0 : value + 1);
-          }
-        }
+    counter.forEach((key, count) -> freq.merge(
+        new String(GramCounter.unpack(key, counter.getGramLength())), (double) count, Double::sum));
+    return freq;
+  }
+
+  private static GramCounter countParallel(ByteBuffer buffer, int gramLength, boolean units) {
+    int from = buffer.position();
+    int limit = buffer.limit();
+    int to = units ? limit : Math.max(from, limit - gramLength + 1);
+    return ForkJoinPool.commonPool()
+        .invoke(new GramCountTask(buffer, from, to, limit, gramLength, units));
+  }
+
+  private static GramCounter countParallel(Path file, int gramLength, boolean units)
+      throws IOException {
+    GramCounter counter = new GramCounter(gramLength);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      for (long position = 0; position < size; position += MAPPED_REGION_SIZE) {
+        //grams starting in region may end in next one, units never do
+        long overlap = units ? 0 : gramLength - 1L;
+        long length = Math.min(size - position, MAPPED_REGION_SIZE + overlap);
+        MappedByteBuffer region = channel.map(MapMode.READ_ONLY, position, length);
+        int limit = (int) length;
+        int to = units ? limit
+            : Math.max(0, Math.min(MAPPED_REGION_SIZE, limit - gramLength + 1));
+        counter.merge(ForkJoinPool.commonPool()
+            .invoke(new GramCountTask(region, 0, to, limit, gramLength, units)));
       }
     }
-    return freq;
+    return counter;
+  }
+
+  private static void checkEncodingBytes(int encodingBytes) {
+    if (encodingBytes != 1 && encodingBytes != 2 && encodingBytes != 3 && encodingBytes != 4) {
+      throw new IllegalArgumentException(NOT_IMPLEMENTED_FOR + encodingBytes);
+    }
+  }
+
+  public static int gramLength(GramType gramType) {
+    switch (gramType) {
+      case MONOGRAM:
+        return 1;
+      case DIGRAM:
+        return 2;
+      case TRIGRAM:
+        return 3;
+      case QUADGRAM:
+        return 4;
+      default:
+        throw new IllegalArgumentException(NOT_IMPLEMENTED_FOR + gramType);
+    }
   }
 
   public static Map<String, Double> calcFreqPct(byte[] bytes, GramType gramType) {
@@ -0,0 +1,62 @@
+package io.wonderland.rq.cryptanalysis;
+
+import io.wonderland.rq.ds.GramCounter;
+import java.nio.ByteBuffer;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts grams starting in [from,to) of a buffer. Range is split in halves till it is small
+ * enough, every leaf counts into its own counter and counters are merged on join.
+ * <br>
+ * <br> A leaf reads n-1 bytes past its range (up to buffer limit), so grams crossing a split are
+ * counted once, by the leaf they start in. In units mode splits are aligned to unit length and
+ * units never cross them.
+ */
+final class GramCountTask extends RecursiveTask<GramCounter> {
+
+  static final int THRESHOLD = 1 << 20;
+
+  private final transient ByteBuffer buffer;
+  private final int from;
+  private final int to;
+  private final int limit;
+  private final int gramLength;
+  private final boolean units;
+
+  /**
+   * @param buffer     text, indexes are absolute
+   * @param from       first gram start
+   * @param to         gram starts bound, exclusive
+   * @param limit      text bound, exclusive
+   * @param gramLength n of n-gram
+   * @param units      count non-overlapping units of n bytes instead of n-grams
+   */
+  GramCountTask(ByteBuffer buffer, int from, int to, int limit, int gramLength, boolean units) {
+    this.buffer = buffer;
+    this.from = from;
+    this.to = to;
+    this.limit = limit;
+    this.gramLength = gramLength;
+    this.units = units;
+  }
+
+  @Override
+  protected GramCounter compute() {
+    if (to - from <= THRESHOLD) {
+      GramCounter counter = new GramCounter(gramLength);
+      if (units) {
+        counter.addUnits(buffer, from, to);
+      } else {
+        counter.add(buffer, from, Math.min(to + gramLength - 1, limit));
+      }
+      return counter;
+    }
+    int mid = from + (to - from) / 2 / gramLength * gramLength;
+    GramCountTask left = new GramCountTask(buffer, from, mid, limit, gramLength, units);
+    GramCountTask right = new GramCountTask(buffer, mid, to, limit, gramLength, units);
+    left.fork();
+    GramCounter counter = right.compute();
+    return counter.merge(left.join());
+  }
+
+}
@@ -1,11 +1,13 @@
 package io.wonderland.rq.cryptanalysis;
 
+import io.wonderland.rq.ds.GramCounter;
 import io.wonderland.struct.Char;
-import io.wonderland.struct.Monochar;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
+import org.apache.commons.lang3.ArrayUtils;
 
 public final class IndexCoincidence {
 
@@ -13,10 +15,26 @@ public final class IndexCoincidence {
   }
 
   public static double calcIC(Byte[] ciphertext, int encodingBytes) {
-    Map<Monochar, Integer> freq = FrequencyAnalysis.monocharFreq(ciphertext, encodingBytes);
-    double characterNumber = freq.values().stream().mapToDouble(e -> e).sum();
-    return freq.values().stream().mapToDouble(e -> e)
-        .map(e -> (e / characterNumber) * ((e - 1) / (characterNumber - 1))).sum();
+    return calcIC(ArrayUtils.toPrimitive(ciphertext), encodingBytes);
+  }
+
+  public static double calcIC(byte[] ciphertext, int encodingBytes) {
+    return calcIC(FrequencyAnalysis.monocharCounts(ciphertext, encodingBytes));
+  }
+
+  /**
+   * IC = sum(f * (f - 1)) / (N * (N - 1)), f being count of a character and N number of
+   * characters.
+   *
+   * @param counts character counts
+   * @return index of coincidence, 0 for less than 2 characters
+   */
+  public static double calcIC(GramCounter counts) {
+    long characterNumber = counts.getTotal();
+    if (characterNumber < 2) {
+      return 0;
+    }
+    return (double) counts.coincidences() / ((double) characterNumber * (characterNumber - 1));
   }
 
 
@@ -34,19 +52,74 @@ public final class IndexCoincidence {
         .map(e -> (e / characterNumber) * ((e - 1) / (characterNumber - 1))).sum();
   }
 
-  public static Map<Integer, Double> calcKeyPeriodIC(byte[] ciphertext, int encodingBytes,
-      int minKeyLength,
+  /**
+   * Average IC of ciphertext columns for every key length in [minKeyLength, maxKeyLength]. Column
+   * j of key length p holds characters j, j + p, j + 2p...
+   * <br>
+   * <br> Characters are mapped once to dense ids, every key length is then a single pass filling a
+   * strided histogram of p x alphabet counts. Key lengths are evaluated in parallel.
+   *
+   * @param ciphertext    ciphertext
+   * @param encodingBytes number of bytes encoding a character  {1,2,3,4}
+   * @param minKeyLength  smallest key length, at least 1
+   * @param maxKeyLength  biggest key length
+   * @return IC indexed by key length, entries below minKeyLength are 0
+   */
+  public static double[] calcKeyPeriodIC(byte[] ciphertext, int encodingBytes, int minKeyLength,
       int maxKeyLength) {
     if (maxKeyLength > (ciphertext.length / encodingBytes)) {
       throw new IllegalArgumentException(
           "Max key length search can't be bigger than ciphertext/encodingBytes");
     }
-    Map<Integer, Double> icMap = new HashMap<>();
-    for (int i = minKeyLength; i <= maxKeyLength; i++) {
-      List<Byte>[] ciphertextMat = createCiphertextMat(ciphertext, encodingBytes, i);
-      icMap.put(i, calcAverageIC(ciphertextMat, encodingBytes));
+    if (minKeyLength < 1 || minKeyLength > maxKeyLength) {
+      throw new IllegalArgumentException("Min key length must be in [1, max key length]");
+    }
+    //single byte characters are their own id
+    int[] ids = encodingBytes == 1 ? null : characterIds(ciphertext, encodingBytes);
+    int alphabet = ids == null ? 256 : Arrays.stream(ids).max().orElse(0) + 1;
+    int characters = ciphertext.length / encodingBytes;
+    double[] ics = new double[maxKeyLength + 1];
+    IntStream.rangeClosed(minKeyLength, maxKeyLength).parallel().forEach(keyLength -> {
+      int[] histogram = new int[keyLength * alphabet];
+      int column = 0;
+      for (int i = 0; i < characters; i++) {
+        int id = ids == null ? ciphertext[i] & 0xFF : ids[i];
+        histogram[column * alphabet + id]++;
+        if (++column == keyLength) {
+          column = 0;
+        }
+      }
+      double ic = 0;
+      for (int c = 0; c < keyLength; c++) {
+        long columnLength = characters / keyLength + (c < characters % keyLength ? 1 : 0);
+        if (columnLength < 2) {
+          continue;
+        }
+        long coincidences = 0;
+        for (int k = c * alphabet, end = k + alphabet; k < end; k++) {
+          coincidences += (long) histogram[k] * (histogram[k] - 1);
+        }
+        ic += (double) coincidences / ((double) columnLength * (columnLength - 1));
+      }
+      ics[keyLength] = ic / keyLength;
+    });
+    return ics;
+  }
+
+  /**
+   * @return dense id of every whole character of text, ids follow sorted packed characters
+   */
+  static int[] characterIds(byte[] text, int encodingBytes) {
+    int[] keys = new int[text.length / encodingBytes];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = GramCounter.pack(text, i * encodingBytes, encodingBytes);
+    }
+    int[] alphabet = Arrays.stream(keys).sorted().distinct().toArray();
+    int[] ids = new int[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      ids[i] = Arrays.binarySearch(alphabet, keys[i]);
     }
-    return icMap;
+    return ids;
   }
 
   public static List<Byte>[] createCiphertextMat(byte[] ciphertext, int encodingBytes,
@@ -1,5 +1,131 @@
 package io.wonderland.rq.cryptanalysis;
 
-public class KasiskiExamination {
+import io.wonderland.rq.ds.SuffixArray;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Kasiski examination of a periodic polyalphabetic ciphertext.
+ * <br>
+ * <br> Equal plaintext fragments enciphered at same key position give equal ciphertext fragments,
+ * distance between them is a multiple of key length. Repeated substrings of ciphertext are found
+ * on a {@link SuffixArray}, distances between consecutive occurrences are collected and key
+ * lengths dividing more of them than chance are ranked first.
+ * <br>
+ * <br> Index is built once in O(n log n), every query on it is O(n log n) at most.
+ */
+public final class KasiskiExamination {
+
+  public static final int DEFAULT_MIN_LENGTH = 3;
+
+  private final SuffixArray index;
+
+  public KasiskiExamination(byte[] ciphertext) {
+    if (ciphertext == null || ciphertext.length == 0) {
+      throw new IllegalArgumentException(FrequencyAnalysis.CONTENT_CAN_T_BE_EMPTY);
+    }
+    this.index = new SuffixArray(ciphertext);
+  }
+
+  public SuffixArray getIndex() {
+    return index;
+  }
+
+  /**
+   * @param minLength length of repeated substrings, at least 1
+   * @return distances between consecutive occurrences of every repeated substring of minLength
+   */
+  public int[] distances(int minLength) {
+    IntStream.Builder distances = IntStream.builder();
+    index.forEachRepeat(minLength, (starts, count) -> {
+      for (int i = 1; i < count; i++) {
+        distances.add(starts[i] - starts[i - 1]);
+      }
+    });
+    return distances.build().toArray();
+  }
+
+  /**
+   * @param minLength    length of repeated substrings, at least 1
+   * @param maxKeyLength biggest key length counted
+   * @return number of distances divisible by key length, indexed by key length, entries 0 and 1
+   * are 0
+   */
+  public int[] factorHistogram(int minLength, int maxKeyLength) {
+    return factorHistogram(distances(minLength), maxKeyLength);
+  }
+
+  private static int[] factorHistogram(int[] distances, int maxKeyLength) {
+    int[] histogram = new int[maxKeyLength + 1];
+    for (int distance : distances) {
+      for (int keyLength = 2, max = Math.min(maxKeyLength, distance); keyLength <= max;
+          keyLength++) {
+        if (distance % keyLength == 0) {
+          histogram[keyLength]++;
+        }
+      }
+    }
+    return histogram;
+  }
+
+  /**
+   * GCD of all distances of a repeated substring is its most likely key length, or a multiple of
+   * it.
+   *
+   * @param minLength    length of repeated substrings, at least 1
+   * @param maxKeyLength biggest gcd counted
+   * @return number of repeated substrings by gcd of their distances, indexed by gcd
+   */
+  public int[] gcdHistogram(int minLength, int maxKeyLength) {
+    int[] histogram = new int[maxKeyLength + 1];
+    index.forEachRepeat(minLength, (starts, count) -> {
+      int gcd = 0;
+      for (int i = 1; i < count && gcd != 1; i++) {
+        gcd = gcd(gcd, starts[i] - starts[i - 1]);
+      }
+      if (gcd <= maxKeyLength) {
+        histogram[gcd]++;
+      }
+    });
+    return histogram;
+  }
+
+  /**
+   * Every divisor of key length divides at least as many distances as key length itself, a raw
+   * count ranks 2 and 3 above a period of 6. A key length L divides distances/L of them by chance,
+   * lengths are ranked by count - distances/L : for period P and N distances multiple of it, a
+   * divisor d scores N(1 - 1/d), P scores N(1 - 1/P) and a multiple kP about N/k.
+   *
+   * @param minLength    length of repeated substrings, at least 1
+   * @param maxKeyLength biggest key length
+   * @return key length - number of distances it divides, highest count above chance first, ties
+   * by shorter key
+   */
+  public List<Map.Entry<Integer, Integer>> rankKeyLengths(int minLength, int maxKeyLength) {
+    int[] distances = distances(minLength);
+    int[] histogram = factorHistogram(distances, maxKeyLength);
+    List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>();
+    for (int keyLength = 2; keyLength < histogram.length; keyLength++) {
+      if (histogram[keyLength] > 0) {
+        ranked.add(Map.entry(keyLength, histogram[keyLength]));
+      }
+    }
+    ranked.sort(Comparator.<Map.Entry<Integer, Integer>>comparingDouble(
+            entry -> entry.getValue() - (double) distances.length / entry.getKey()).reversed()
+        .thenComparing(Map.Entry.comparingByKey()));
+    return ranked;
+  }
+
+  static int gcd(int a, int b) {
+    while (b != 0) {
+      int t = a % b;
+      a = b;
+      b = t;
+    }
+    return a;
+  }
 
 }
@@ -0,0 +1,90 @@
+package io.wonderland.rq.cryptanalysis;
+
+import io.wonderland.alice.crypto.key.secretkey.AffineKey;
+import io.wonderland.alice.crypto.key.secretkey.CaesarKey;
+import io.wonderland.alice.crypto.key.secretkey.RailfenceKey;
+import java.math.BigInteger;
+import java.security.Key;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Keys of a cipher numbered [0, size), searched by {@link KeyspaceSearch}. Key of an index is built
+ * on demand, nothing is materialized per key.
+ *
+ * @param <K> key type taken by cipher
+ */
+public interface Keyspace<K extends Key> {
+
+  /**
+   * Alice ciphers substitute bytes through 256 entry tables, Caesar shifts congruent mod 256 give
+   * same table.
+   */
+  int BYTE_VALUES = 256;
+
+  long size();
+
+  /**
+   * @param index key index in [0, size)
+   */
+  K key(long index);
+
+  static <K extends Key> Keyspace<K> of(long size, LongFunction<K> keys) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Keyspace size can't be negative.");
+    }
+    return new Keyspace<>() {
+      @Override
+      public long size() {
+        return size;
+      }
+
+      @Override
+      public K key(long index) {
+        return keys.apply(index);
+      }
+    };
+  }
+
+  /**
+   * @param modulus alphabet size m of CaesarCrypt
+   * @return shifts [0, min(m, 256))
+   */
+  static Keyspace<CaesarKey> caesar(int modulus) {
+    if (modulus <= 0) {
+      throw new IllegalArgumentException("Modulus must be bigger than 0.");
+    }
+    return of(Math.min(modulus, BYTE_VALUES), index -> new CaesarKey((int) index));
+  }
+
+  /**
+   * Keyspace # = tot(m) * m, key of index i is a = (i / m)-th coprime of m, b = i mod m.
+   *
+   * @param modulus alphabet size m of AffineKey
+   */
+  static Keyspace<AffineKey> affine(int modulus) {
+    if (modulus <= 0) {
+      throw new IllegalArgumentException("Modulus must be bigger than 0.");
+    }
+    BigInteger m = BigInteger.valueOf(modulus);
+    int[] coprimes = IntStream.range(1, Math.max(modulus, 2))
+        .filter(a -> BigInteger.valueOf(a).gcd(m).intValue() == 1)
+        .toArray();
+    return of((long) coprimes.length * modulus,
+        index -> new AffineKey(coprimes[(int) (index / modulus)], index % modulus, modulus));
+  }
+
+  /**
+   * Rails above text length leave text unchanged as 1 rail does, keyspace is bounded by it.
+   *
+   * @param length length of ciphertext
+   * @return rails [1, length]
+   */
+  static Keyspace<RailfenceKey> railfence(int length) {
+    if (length <= 0) {
+      throw new IllegalArgumentException("Text length must be bigger than 0.");
+    }
+    return of(length, index -> new RailfenceKey((int) index + 1));
+  }
+
+}
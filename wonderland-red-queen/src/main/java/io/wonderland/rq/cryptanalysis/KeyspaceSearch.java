@@ -0,0 +1,153 @@
+package io.wonderland.rq.cryptanalysis;
+
+import io.wonderland.alice.crypto.StreamCipher;
+import io.wonderland.alice.crypto.params.KeyParameter;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Brute-force search of a cipher keyspace, every key deciphers ciphertext through
+ * {@link StreamCipher#init} and {@link StreamCipher#processBytes} and candidate plaintext is scored
+ * by {@link FitnessMeasure}. Best candidates are kept.
+ * <br>
+ * <br> Keyspace is split into ranges searched in parallel on common fork/join pool. A range owns
+ * its cipher instance, one plaintext buffer reused by every key and a heap of its best candidates.
+ * <br> Early abort : fitness only decreases while a candidate is scored, scoring stops once it is
+ * below k-th best score known. Every full range heap is a lower bound of global k-th best, best of
+ * those bounds is shared between ranges.
+ *
+ * @param <K> key type of cipher
+ */
+public final class KeyspaceSearch<K extends Key> {
+
+  public static final int DEFAULT_TOP = 10;
+  //ranges per pool thread, balances ranges of cheap and expensive keys
+  private static final int RANGES_PER_THREAD = 8;
+
+  private final Supplier<? extends StreamCipher> ciphers;
+  private final Keyspace<K> keyspace;
+  private final FitnessMeasure fitness;
+
+  /**
+   * @param ciphers  new cipher instance on each call, instances aren't shared between threads
+   * @param keyspace keys searched
+   * @param fitness  language fitness of candidate plaintext
+   */
+  public KeyspaceSearch(Supplier<? extends StreamCipher> ciphers, Keyspace<K> keyspace,
+      FitnessMeasure fitness) {
+    if (ciphers == null || keyspace == null || fitness == null) {
+      throw new IllegalArgumentException("Cipher supplier, keyspace and fitness can't be null.");
+    }
+    this.ciphers = ciphers;
+    this.keyspace = keyspace;
+    this.fitness = fitness;
+  }
+
+  public List<Candidate<K>> search(byte[] ciphertext) {
+    return search(ciphertext, DEFAULT_TOP);
+  }
+
+  /**
+   * @param ciphertext ciphertext deciphered by every key
+   * @param top        number of best candidates kept, at least 1
+   * @return best candidates, highest fitness first
+   */
+  public List<Candidate<K>> search(byte[] ciphertext, int top) {
+    if (ciphertext == null || ciphertext.length == 0) {
+      throw new IllegalArgumentException(FrequencyAnalysis.CONTENT_CAN_T_BE_EMPTY);
+    }
+    if (top < 1) {
+      throw new IllegalArgumentException("Top candidates must be bigger than 0.");
+    }
+    final long size = keyspace.size();
+    final long ranges = Math.max(1,
+        Math.min(size, (long) ForkJoinPool.getCommonPoolParallelism() * RANGES_PER_THREAD));
+    final DoubleAccumulator kthBest = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+    List<Candidate<K>> best = LongStream.range(0, ranges).parallel()
+        .mapToObj(r -> search(ciphertext, size * r / ranges, size * (r + 1) / ranges, top, kthBest))
+        .flatMap(List::stream)
+        .sorted(Comparator.comparingDouble(Candidate<K>::getScore).reversed())
+        .limit(top)
+        .collect(Collectors.toList());
+
+    //plaintexts of best keys only
+    StreamCipher cipher = ciphers.get();
+    for (Candidate<K> candidate : best) {
+      candidate.plaintext = new byte[ciphertext.length];
+      decrypt(cipher, candidate.key, ciphertext, candidate.plaintext);
+    }
+    return best;
+  }
+
+  /**
+   * @return best candidates of keys [from, to)
+   */
+  private List<Candidate<K>> search(byte[] ciphertext, long from, long to, int top,
+      DoubleAccumulator kthBest) {
+    StreamCipher cipher = ciphers.get();
+    byte[] plaintext = new byte[ciphertext.length];
+    PriorityQueue<Candidate<K>> heap = new PriorityQueue<>(top + 1,
+        Comparator.comparingDouble(Candidate<K>::getScore));
+    for (long index = from; index < to; index++) {
+      K key = keyspace.key(index);
+      decrypt(cipher, key, ciphertext, plaintext);
+      double threshold = heap.size() < top ? kthBest.get()
+          : Math.max(heap.peek().score, kthBest.get());
+      double score = fitness.score(plaintext, 0, plaintext.length, threshold);
+      if (score == Double.NEGATIVE_INFINITY) {
+        continue;
+      }
+      heap.add(new Candidate<>(key, score));
+      if (heap.size() > top) {
+        heap.poll();
+      }
+      if (heap.size() == top) {
+        kthBest.accumulate(heap.peek().score);
+      }
+    }
+    return new ArrayList<>(heap);
+  }
+
+  private static <K extends Key> void decrypt(StreamCipher cipher, K key, byte[] ciphertext,
+      byte[] plaintext) {
+    cipher.init(false, new KeyParameter<>(key));
+    cipher.processBytes(ciphertext, 0, ciphertext.length, plaintext, 0);
+  }
+
+  /**
+   * Key with fitness of its plaintext.
+   */
+  public static final class Candidate<K extends Key> {
+
+    private final K key;
+    private final double score;
+    private byte[] plaintext;
+
+    private Candidate(K key, double score) {
+      this.key = key;
+      this.score = score;
+    }
+
+    public K getKey() {
+      return key;
+    }
+
+    public double getScore() {
+      return score;
+    }
+
+    public byte[] getPlaintext() {
+      return plaintext.clone();
+    }
+
+  }
+
+}
@@ -1,19 +1,24 @@
 package io.wonderland.rq.cryptanalysis;
 
 import io.wonderland.rq.ds.MPP.MPPValue;
+import io.wonderland.rq.ds.MPPTable;
 import io.wonderland.struct.Char;
 import io.wonderland.struct.Dichar;
 import io.wonderland.struct.Monochar;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.apache.commons.collections4.MapUtils;
 
 /**
- * Most Probable Pair algorithm : sorts characters list based on most close frequency
+ * Most Probable Pair algorithm : for every language character, ciphertext characters of closest
+ * frequency.
+ * <br>
+ * <br> Frequencies are read into parallel double[] arrays, every language character keeps its top
+ * candidates by |freq diff| in a bounded heap of primitive indexes, O(L x C log k) with no
+ * allocation per pair. Language characters are processed in parallel.
  */
 public class MPPAlgorithm {
 
@@ -23,54 +28,141 @@ public class MPPAlgorithm {
   public static Map<Monochar, List<MPPValue<? extends Char>>> monocharCalc(
       Map<Monochar, Double> langFreq,
       Map<Monochar, Double> ciphertextFreq) {
-    if (MapUtils.isEmpty(langFreq) || MapUtils.isEmpty(ciphertextFreq)) {
-      return (Map<Monochar, List<MPPValue<? extends Char>>>) MapUtils.EMPTY_SORTED_MAP;
-    }
-    Map<Monochar, List<MPPValue<? extends Char>>> mppMap = new HashMap<>();
+    return monocharCalc(langFreq, ciphertextFreq, MapUtils.size(ciphertextFreq));
+  }
 
-    for (Map.Entry<Monochar, Double> langEntry : langFreq.entrySet()) {
-      List<MPPValue<Monochar>> list = new ArrayList<>();
-      for (Map.Entry<Monochar, Double> ciphertextEntry : ciphertextFreq.entrySet()) {
-        list.add(MPPValue.of(ciphertextEntry.getKey(), ciphertextEntry.getValue(),
-            calcFreqDiff(ciphertextEntry.getValue(), langEntry.getValue())));
-      }
-      List<MPPValue<? extends Char>> sortedList = list.stream()
-          .sorted(Comparator.comparing(MPPValue::getFreqDiff))
-          .collect(
-              Collectors.toList());
-      mppMap.put(langEntry.getKey(), sortedList);
-    }
-    return mppMap;
+  /**
+   * @param top number of candidates kept for every language character
+   */
+  public static Map<Monochar, List<MPPValue<? extends Char>>> monocharCalc(
+      Map<Monochar, Double> langFreq, Map<Monochar, Double> ciphertextFreq, int top) {
+    return calc(langFreq, ciphertextFreq, top);
   }
 
   public static Map<Dichar, List<MPPValue<? extends Char>>> dicharCalc(Map<Dichar, Double> langFreq,
       Map<Dichar, Double> ciphertextFreq) {
+    return dicharCalc(langFreq, ciphertextFreq, MapUtils.size(ciphertextFreq));
+  }
+
+  /**
+   * @param top number of candidates kept for every language character
+   */
+  public static Map<Dichar, List<MPPValue<? extends Char>>> dicharCalc(Map<Dichar, Double> langFreq,
+      Map<Dichar, Double> ciphertextFreq, int top) {
+    return calc(langFreq, ciphertextFreq, top);
+  }
+
+  /**
+   * @param langFreq       language frequencies by character index
+   * @param ciphertextFreq ciphertext frequencies by character index
+   * @param top            number of candidates kept for every language character
+   * @return for every language character, indexes of min(top, C) ciphertext characters by
+   * ascending |freq diff|
+   */
+  public static MPPTable calc(double[] langFreq, double[] ciphertextFreq, int top) {
+    if (top < 0) {
+      throw new IllegalArgumentException("Top can't be negative.");
+    }
+    final int width = Math.min(top, ciphertextFreq.length);
+    final MPPTable table = new MPPTable(langFreq.length, width);
+    if (width == 0) {
+      return table;
+    }
+    IntStream.range(0, langFreq.length).parallel().forEach(row -> {
+      int[] heap = new int[width];
+      double[] keys = new double[width];
+      int size = 0;
+      double lang = langFreq[row];
+      for (int c = 0; c < ciphertextFreq.length; c++) {
+        //real difference, calcFreqDiff gives 0 for absent ciphertext characters
+        double distance = Math.abs(ciphertextFreq[c] - lang);
+        if (size < width) {
+          siftUp(heap, keys, size++, c, distance);
+        } else if (distance < keys[0]) {
+          siftDown(heap, keys, width, c, distance);
+        }
+      }
+      //pop farthest into last rank
+      for (int rank = width - 1; rank >= 0; rank--) {
+        int c = heap[0];
+        if (rank > 0) {
+          siftDown(heap, keys, rank, heap[rank], keys[rank]);
+        }
+        table.set(row, rank, c, calcFreqDiff(ciphertextFreq[c], lang));
+      }
+    });
+    return table;
+  }
+
+  public static double calcFreqDiff(double a, double b) {
+    if (a == 0) {
+      return 0.0;
+    }
+    return a - b;
+  }
+
+  private static <L extends Char, C extends Char> Map<L, List<MPPValue<? extends Char>>> calc(
+      Map<L, Double> langFreq, Map<C, Double> ciphertextFreq, int top) {
     if (MapUtils.isEmpty(langFreq) || MapUtils.isEmpty(ciphertextFreq)) {
-      return (Map<Dichar, List<MPPValue<? extends Char>>>) MapUtils.EMPTY_SORTED_MAP;
+      return (Map<L, List<MPPValue<? extends Char>>>) MapUtils.EMPTY_SORTED_MAP;
     }
-    Map<Dichar, List<MPPValue<? extends Char>>> mppMap = new HashMap<>();
+    List<L> langChars = new ArrayList<>(langFreq.keySet());
+    double[] lang = langChars.stream().mapToDouble(langFreq::get).toArray();
+    List<C> ciphertextChars = new ArrayList<>(ciphertextFreq.keySet());
+    double[] ciphertext = ciphertextChars.stream().mapToDouble(ciphertextFreq::get).toArray();
 
-    for (Map.Entry<Dichar, Double> langEntry : langFreq.entrySet()) {
-      List<MPPValue<Dichar>> list = new ArrayList<>();
-      for (Map.Entry<Dichar, Double> ciphertextEntry : ciphertextFreq.entrySet()) {
-        list.add(MPPValue.of(ciphertextEntry.getKey(), ciphertextEntry.getValue(),
-            calcFreqDiff(ciphertextEntry.getValue(), langEntry.getValue())));
+    MPPTable table = calc(lang, ciphertext, top);
+    Map<L, List<MPPValue<? extends Char>>> mppMap = new HashMap<>();
+    for (int row = 0; row < table.rows(); row++) {
+      List<MPPValue<? extends Char>> list = new ArrayList<>(table.width());
+      for (int rank = 0; rank < table.width(); rank++) {
+        int c = table.candidate(row, rank);
+        list.add(MPPValue.of(ciphertextChars.get(c), ciphertext[c], table.freqDiff(row, rank)));
       }
-      List<MPPValue<? extends Char>> sortedList = list.stream()
-          .sorted(Comparator.comparing(MPPValue::getFreqDiff))
-          .collect(
-              Collectors.toList());
-      mppMap.put(langEntry.getKey(), sortedList);
+      mppMap.put(langChars.get(row), list);
     }
     return mppMap;
   }
 
-  public static Double calcFreqDiff(Double a, Double b) {
-    if (a.equals(0)) {
-      return 0.0;
+  /**
+   * Max-heap of candidates by distance, insert at slot size.
+   */
+  private static void siftUp(int[] heap, double[] keys, int slot, int candidate,
+      double distance) {
+    while (slot > 0) {
+      int parent = (slot - 1) >>> 1;
+      if (keys[parent] >= distance) {
+        break;
+      }
+      heap[slot] = heap[parent];
+      keys[slot] = keys[parent];
+      slot = parent;
     }
-    return a - b;
+    heap[slot] = candidate;
+    keys[slot] = distance;
   }
 
+  /**
+   * Replace root of heap of size entries and restore max-heap order.
+   */
+  private static void siftDown(int[] heap, double[] keys, int size, int candidate,
+      double distance) {
+    int slot = 0;
+    int half = size >>> 1;
+    while (slot < half) {
+      int child = 2 * slot + 1;
+      if (child + 1 < size && keys[child + 1] > keys[child]) {
+        child++;
+      }
+      if (keys[child] <= distance) {
+        break;
+      }
+      heap[slot] = heap[child];
+      keys[slot] = keys[child];
+      slot = child;
+    }
+    heap[slot] = candidate;
+    keys[slot] = distance;
+  }
 
 }
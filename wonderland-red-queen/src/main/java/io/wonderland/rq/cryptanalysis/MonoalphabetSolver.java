@@ -0,0 +1,388 @@
+package io.wonderland.rq.cryptanalysis;
+
+import io.wonderland.alice.crypto.key.secretkey.MonoalphabetKey;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Key search of a monoalphabetic substitution ciphertext by parallel hill-climbing or simulated
+ * annealing restarts, scored by n-gram {@link FitnessMeasure}.
+ * <br>
+ * <br> Ciphertext letters are counted once into distinct n-grams of cipher letter indexes, fitness
+ * of a key is sum(count(g) * log10(P(key(g)))). A key is a primitive permutation
+ * key[cipher index] = plain index, a step swaps plain letters of two cipher letters and rescores
+ * only the grams holding one of them, no plaintext is deciphered during search.
+ * <br>
+ * <br> Restarts are independent, each with its own random key and generator, and run on common
+ * fork/join pool. Search stops after all restarts or when time budget runs out, best key found so
+ * far is returned.
+ */
+public final class MonoalphabetSolver {
+
+  public static final int DEFAULT_RESTARTS = 64;
+  public static final int DEFAULT_ITERATIONS = 20_000;
+  //start temperature of annealing, 0 makes every restart a plain hill-climbing
+  public static final double DEFAULT_TEMPERATURE = 20;
+  //steps between deadline checks
+  private static final int CHECK_INTERVAL = 1024;
+
+  private final FitnessMeasure fitness;
+  private final int restarts;
+  private final int iterations;
+  private final double temperature;
+
+  public MonoalphabetSolver(FitnessMeasure fitness) {
+    this(fitness, DEFAULT_RESTARTS, DEFAULT_ITERATIONS, DEFAULT_TEMPERATURE);
+  }
+
+  /**
+   * @param fitness     n-gram fitness of plaintext language
+   * @param restarts    number of independent restarts, at least 1
+   * @param iterations  swaps tried by a restart, at least 1
+   * @param temperature start temperature, cooled linearly to 0, 0 for hill-climbing
+   */
+  public MonoalphabetSolver(FitnessMeasure fitness, int restarts, int iterations,
+      double temperature) {
+    if (fitness == null) {
+      throw new IllegalArgumentException("Fitness measure can't be null.");
+    }
+    if (restarts < 1 || iterations < 1 || temperature < 0) {
+      throw new IllegalArgumentException("Restarts and iterations must be bigger than 0, "
+          + "temperature can't be negative.");
+    }
+    this.fitness = fitness;
+    this.restarts = restarts;
+    this.iterations = iterations;
+    this.temperature = temperature;
+  }
+
+  public Solution solve(byte[] ciphertext) {
+    return solve(ciphertext, null, null);
+  }
+
+  /**
+   * @param ciphertext monoalphabetic ciphertext, bytes outside fitness alphabet are ignored
+   * @param budget     time budget of search, null for none
+   * @param listener   progress receiver, called once per finished restart, null for none
+   * @return best key found
+   */
+  public Solution solve(byte[] ciphertext, Duration budget, ProgressListener listener) {
+    if (ciphertext == null || ciphertext.length == 0) {
+      throw new IllegalArgumentException(FrequencyAnalysis.CONTENT_CAN_T_BE_EMPTY);
+    }
+    Grams grams = new Grams(fitness, ciphertext);
+    long deadline = budget == null ? Long.MAX_VALUE : System.nanoTime() + budget.toNanos();
+    Progress progress = new Progress(listener);
+    IntStream.range(0, restarts).parallel().forEach(restart -> {
+      if (System.nanoTime() < deadline) {
+        int[] key = climb(grams, new SplittableRandom(restart * 0x9E3779B97F4A7C15L), deadline);
+        progress.finished(restart, key, grams.score(key));
+      }
+    });
+    if (progress.bestKey == null) {
+      //budget was spent before any restart, identity key
+      int[] key = IntStream.range(0, grams.size).toArray();
+      return new Solution(fitness.getAlphabet(), key, grams.score(key), 0);
+    }
+    return new Solution(fitness.getAlphabet(), progress.bestKey, progress.bestScore,
+        progress.completed);
+  }
+
+  /**
+   * One restart from a random permutation, worse swaps are accepted with probability
+   * exp(delta/T).
+   *
+   * @return best key of restart
+   */
+  private int[] climb(Grams grams, SplittableRandom random, long deadline) {
+    final int size = grams.size;
+    int[] key = IntStream.range(0, size).toArray();
+    for (int i = size - 1; i > 0; i--) {
+      swap(key, i, random.nextInt(i + 1));
+    }
+    double score = grams.score(key);
+    int[] best = key.clone();
+    double bestScore = score;
+    for (int step = 0; step < iterations; step++) {
+      if ((step & (CHECK_INTERVAL - 1)) == 0 && System.nanoTime() >= deadline) {
+        break;
+      }
+      int x = random.nextInt(size);
+      int y = random.nextInt(size - 1);
+      if (y >= x) {
+        y++;
+      }
+      double delta = grams.swapDelta(key, x, y);
+      double t = temperature * (iterations - step) / iterations;
+      if (delta >= 0 || (t > 0 && random.nextDouble() < Math.exp(delta / t))) {
+        swap(key, x, y);
+        score += delta;
+        if (score > bestScore) {
+          bestScore = score;
+          System.arraycopy(key, 0, best, 0, size);
+        }
+      }
+    }
+    return best;
+  }
+
+  private static void swap(int[] key, int i, int j) {
+    int t = key[i];
+    key[i] = key[j];
+    key[j] = t;
+  }
+
+  @FunctionalInterface
+  public interface ProgressListener {
+
+    /**
+     * Calls are serialized, never concurrent.
+     *
+     * @param restart   index of finished restart
+     * @param completed restarts finished so far
+     * @param score     fitness of restart key
+     * @param best      best key so far
+     */
+    void progress(int restart, int completed, double score, Solution best);
+
+  }
+
+  /**
+   * Distinct n-grams of ciphertext as cipher letter indexes, with counts and gram lists by letter.
+   */
+  private static final class Grams {
+
+    private final FitnessMeasure fitness;
+    private final int size;
+    private final int n;
+    private final int bits;
+    //letters of gram g at [g * n, g * n + n)
+    private final int[] letters;
+    private final int[] counts;
+    //grams holding letter, every gram once
+    private final int[][] gramsOf;
+
+    private Grams(FitnessMeasure fitness, byte[] ciphertext) {
+      ScoringAlphabet alphabet = fitness.getAlphabet();
+      this.fitness = fitness;
+      this.size = alphabet.size();
+      this.n = fitness.getGramLength();
+      this.bits = fitness.getBits();
+
+      int[] indexes = new int[ciphertext.length];
+      int length = 0;
+      for (byte b : ciphertext) {
+        int index = alphabet.indexOf(b);
+        if (index != ScoringAlphabet.ABSENT) {
+          indexes[length++] = index;
+        }
+      }
+      //gram number of cipher indexes to distinct gram id
+      Map<Integer, Integer> ids = new HashMap<>();
+      int[] gramLetters = new int[Math.max(length - n + 1, 0) * n];
+      int[] gramCounts = new int[Math.max(length - n + 1, 0)];
+      int distinct = 0;
+      for (int i = 0; i + n <= length; i++) {
+        int number = 0;
+        for (int k = 0; k < n; k++) {
+          number = (number << bits) | indexes[i + k];
+        }
+        Integer id = ids.get(number);
+        if (id == null) {
+          id = distinct++;
+          ids.put(number, id);
+          System.arraycopy(indexes, i, gramLetters, id * n, n);
+        }
+        gramCounts[id]++;
+      }
+      this.letters = Arrays.copyOf(gramLetters, distinct * n);
+      this.counts = Arrays.copyOf(gramCounts, distinct);
+
+      int[] lengths = new int[size];
+      for (int g = 0; g < distinct; g++) {
+        for (int k = 0; k < n; k++) {
+          if (firstOccurrence(g, k)) {
+            lengths[letters[g * n + k]]++;
+          }
+        }
+      }
+      this.gramsOf = new int[size][];
+      for (int c = 0; c < size; c++) {
+        gramsOf[c] = new int[lengths[c]];
+        lengths[c] = 0;
+      }
+      for (int g = 0; g < distinct; g++) {
+        for (int k = 0; k < n; k++) {
+          if (firstOccurrence(g, k)) {
+            int c = letters[g * n + k];
+            gramsOf[c][lengths[c]++] = g;
+          }
+        }
+      }
+    }
+
+    private boolean firstOccurrence(int g, int k) {
+      int c = letters[g * n + k];
+      for (int j = 0; j < k; j++) {
+        if (letters[g * n + j] == c) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private double gramScore(int[] key, int g) {
+      int number = 0;
+      for (int k = 0, off = g * n; k < n; k++) {
+        number = (number << bits) | key[letters[off + k]];
+      }
+      return counts[g] * fitness.logProbability(number);
+    }
+
+    private double score(int[] key) {
+      double score = 0;
+      for (int g = 0; g < counts.length; g++) {
+        score += gramScore(key, g);
+      }
+      return score;
+    }
+
+    private boolean holds(int g, int c) {
+      for (int k = 0, off = g * n; k < n; k++) {
+        if (letters[off + k] == c) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * @return fitness change of swapping plain letters of cipher letters x and y, key is left
+     * unchanged
+     */
+    private double swapDelta(int[] key, int x, int y) {
+      double before = 0;
+      for (int g : gramsOf[x]) {
+        before += gramScore(key, g);
+      }
+      for (int g : gramsOf[y]) {
+        if (!holds(g, x)) {
+          before += gramScore(key, g);
+        }
+      }
+      swap(key, x, y);
+      double after = 0;
+      for (int g : gramsOf[x]) {
+        after += gramScore(key, g);
+      }
+      for (int g : gramsOf[y]) {
+        if (!holds(g, x)) {
+          after += gramScore(key, g);
+        }
+      }
+      swap(key, x, y);
+      return after - before;
+    }
+
+  }
+
+  /**
+   * Best key over finished restarts, updated under lock.
+   */
+  private final class Progress {
+
+    private final ProgressListener listener;
+    private int[] bestKey;
+    private double bestScore = Double.NEGATIVE_INFINITY;
+    private int completed;
+
+    private Progress(ProgressListener listener) {
+      this.listener = listener;
+    }
+
+    private synchronized void finished(int restart, int[] key, double score) {
+      completed++;
+      if (score > bestScore) {
+        bestScore = score;
+        bestKey = key;
+      }
+      if (listener != null) {
+        listener.progress(restart, completed,
+            score, new Solution(fitness.getAlphabet(), bestKey, bestScore, completed));
+      }
+    }
+
+  }
+
+  /**
+   * Key found by search.
+   */
+  public static final class Solution {
+
+    private final ScoringAlphabet alphabet;
+    private final int[] key;
+    private final double score;
+    private final int restarts;
+
+    private Solution(ScoringAlphabet alphabet, int[] key, double score, int restarts) {
+      this.alphabet = alphabet;
+      this.key = key.clone();
+      this.score = score;
+      this.restarts = restarts;
+    }
+
+    /**
+     * @return key mapping plaintext character to ciphertext character of both letter cases
+     */
+    public MonoalphabetKey getKey() {
+      Map<Integer, Integer> map = new HashMap<>();
+      for (int c = 0; c < key.length; c++) {
+        int plain = alphabet.letter(key[c]);
+        int cipher = alphabet.letter(c);
+        map.put(plain, cipher);
+        if (Character.toLowerCase(plain) != plain && Character.toLowerCase(cipher) != cipher) {
+          map.put(Character.toLowerCase(plain), Character.toLowerCase(cipher));
+        }
+      }
+      return new MonoalphabetKey(map);
+    }
+
+    /**
+     * @return fitness of key over ciphertext
+     */
+    public double getScore() {
+      return score;
+    }
+
+    /**
+     * @return restarts finished before search stopped
+     */
+    public int getRestarts() {
+      return restarts;
+    }
+
+    /**
+     * @return ciphertext deciphered by key, letter case and bytes outside alphabet are kept
+     */
+    public byte[] decrypt(byte[] ciphertext) {
+      byte[] plaintext = new byte[ciphertext.length];
+      for (int i = 0; i < ciphertext.length; i++) {
+        byte b = ciphertext[i];
+        int index = alphabet.indexOf(b);
+        if (index == ScoringAlphabet.ABSENT) {
+          plaintext[i] = b;
+        } else {
+          byte letter = alphabet.letter(key[index]);
+          plaintext[i] = Character.isLowerCase(b) ? (byte) Character.toLowerCase(letter) : letter;
+        }
+      }
+      return plaintext;
+    }
+
+  }
+
+}
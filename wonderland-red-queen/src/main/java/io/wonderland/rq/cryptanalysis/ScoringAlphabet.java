@@ -0,0 +1,77 @@
+package io.wonderland.rq.cryptanalysis;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Letters of a language table mapped to dense indexes [0, size). Lookup is one array read per byte,
+ * lower and upper case ASCII letters share an index. Bytes outside alphabet (spaces, punctuation,
+ * bytes of multibyte characters) map to -1 and are skipped by scorers.
+ */
+public final class ScoringAlphabet {
+
+  public static final int ABSENT = -1;
+
+  private final int[] indexes;
+  private final byte[] letters;
+
+  private ScoringAlphabet(int[] indexes, byte[] letters) {
+    this.indexes = indexes;
+    this.letters = letters;
+  }
+
+  /**
+   * @param grams table keys, grams with non ASCII characters are left out
+   * @return alphabet of every character of grams, in ascending order
+   */
+  public static ScoringAlphabet of(Collection<String> grams) {
+    boolean[] present = new boolean[128];
+    for (String gram : grams) {
+      if (isAscii(gram)) {
+        for (int i = 0; i < gram.length(); i++) {
+          present[Character.toUpperCase(gram.charAt(i))] = true;
+        }
+      }
+    }
+    int[] indexes = new int[256];
+    Arrays.fill(indexes, ABSENT);
+    byte[] letters = new byte[128];
+    int size = 0;
+    for (int c = 0; c < present.length; c++) {
+      if (present[c]) {
+        indexes[c] = size;
+        indexes[Character.toLowerCase(c)] = size;
+        letters[size++] = (byte) c;
+      }
+    }
+    return new ScoringAlphabet(indexes, Arrays.copyOf(letters, size));
+  }
+
+  static boolean isAscii(String gram) {
+    for (int i = 0; i < gram.length(); i++) {
+      if (gram.charAt(i) >= 128) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return index of byte, {@link #ABSENT} if not a letter of alphabet
+   */
+  public int indexOf(byte b) {
+    return indexes[b & 0xFF];
+  }
+
+  /**
+   * @return upper case letter of index
+   */
+  public byte letter(int index) {
+    return letters[index];
+  }
+
+  public int size() {
+    return letters.length;
+  }
+
+}
@@ -0,0 +1,392 @@
+package io.wonderland.rq.cryptanalysis;
+
+import io.wonderland.alice.crypto.key.secretkey.VigenereKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+/**
+ * Vigenere key recovery as a pipeline of stages run on a shared executor.
+ * <br>
+ * <br> 1. Periods : key lengths ranked by column IC ({@link IndexCoincidence#calcKeyPeriodIC}) and
+ * by {@link KasiskiExamination}, best of each are tried.
+ * <br> 2. Columns : every column of every tried period is solved as a task, a column is read
+ * strided over ciphertext without copying, its shift is the one whose decryption has lowest
+ * chi-square against monogram table.
+ * <br> 3. Refine : with a digram table, shifts of each column are retried among its best
+ * chi-square shifts while digram fitness of decryption improves. Keys of all periods are compared
+ * on same score, a key of a multiple of true period is reduced to it.
+ * <br>
+ * <br> Key bytes follow VigenereCrypt arithmetic, Pi = (Ci - Ki) mod m, solution key is a
+ * {@link VigenereKey}. Intermediate results are pushed to a {@link Listener} as soon as a stage
+ * produces them.
+ */
+public final class VigenereSolver {
+
+  public static final int DEFAULT_PERIOD_CANDIDATES = 3;
+  public static final int DEFAULT_REFINE_SHIFTS = 3;
+  private static final int KASISKI_MIN_LENGTH = KasiskiExamination.DEFAULT_MIN_LENGTH;
+  private static final int BYTE_VALUES = 256;
+
+  private final ChisquareStatistic monograms;
+  private final FitnessMeasure digrams;
+  private final int modulus;
+  private final Executor executor;
+  private int periodCandidates = DEFAULT_PERIOD_CANDIDATES;
+  private int refineShifts = DEFAULT_REFINE_SHIFTS;
+
+  /**
+   * Solver on shared executor of one thread per available core.
+   */
+  public VigenereSolver(ChisquareStatistic monograms, FitnessMeasure digrams, int modulus) {
+    this(monograms, digrams, modulus, SharedExecutor.INSTANCE);
+  }
+
+  /**
+   * @param monograms language monogram chi-square
+   * @param digrams   language digram fitness, null to skip refine stage
+   * @param modulus   modulus of Vigenere key
+   * @param executor  executor running stages
+   */
+  public VigenereSolver(ChisquareStatistic monograms, FitnessMeasure digrams, int modulus,
+      Executor executor) {
+    if (monograms == null || executor == null) {
+      throw new IllegalArgumentException("Monogram table and executor can't be null.");
+    }
+    if (modulus <= 0) {
+      throw new IllegalArgumentException("Modulus must be bigger than 0.");
+    }
+    this.monograms = monograms;
+    this.digrams = digrams;
+    this.modulus = modulus;
+    this.executor = executor;
+  }
+
+  /**
+   * @param periodCandidates number of best periods taken from IC and from Kasiski ranking
+   */
+  public VigenereSolver setPeriodCandidates(int periodCandidates) {
+    if (periodCandidates < 1) {
+      throw new IllegalArgumentException("Period candidates must be bigger than 0.");
+    }
+    this.periodCandidates = periodCandidates;
+    return this;
+  }
+
+  /**
+   * @param refineShifts number of best chi-square shifts of a column retried by refine stage
+   */
+  public VigenereSolver setRefineShifts(int refineShifts) {
+    if (refineShifts < 1) {
+      throw new IllegalArgumentException("Refine shifts must be bigger than 0.");
+    }
+    this.refineShifts = refineShifts;
+    return this;
+  }
+
+  public Solution solve(byte[] ciphertext, int maxKeyLength) {
+    return solveAsync(ciphertext, maxKeyLength, null).join();
+  }
+
+  /**
+   * @param ciphertext   Vigenere ciphertext
+   * @param maxKeyLength biggest key length tried
+   * @param listener     receiver of intermediate results, null for none
+   * @return best key of tried periods, reduced to its shortest period
+   */
+  public CompletableFuture<Solution> solveAsync(byte[] ciphertext, int maxKeyLength,
+      Listener listener) {
+    if (ciphertext == null || ciphertext.length == 0) {
+      throw new IllegalArgumentException(FrequencyAnalysis.CONTENT_CAN_T_BE_EMPTY);
+    }
+    if (maxKeyLength < 1 || maxKeyLength > ciphertext.length) {
+      throw new IllegalArgumentException("Max key length must be in [1, ciphertext length].");
+    }
+    final byte[] text = ciphertext.clone();
+    final Listener l = listener == null ? new Listener() {
+    } : listener;
+    return CompletableFuture.supplyAsync(() -> periods(text, maxKeyLength), executor)
+        .thenCompose(periods -> {
+          l.periods(periods);
+          List<CompletableFuture<Solution>> solutions = new ArrayList<>();
+          for (int period : periods) {
+            solutions.add(solvePeriod(text, period, l));
+          }
+          return CompletableFuture.allOf(solutions.toArray(CompletableFuture[]::new))
+              .thenApply(v -> best(solutions));
+        });
+  }
+
+  /**
+   * @return best periods by IC followed by best periods by Kasiski, without repeats
+   */
+  int[] periods(byte[] ciphertext, int maxKeyLength) {
+    double[] ics = IndexCoincidence.calcKeyPeriodIC(ciphertext, 1, 1, maxKeyLength);
+    Set<Integer> periods = new LinkedHashSet<>();
+    IntStream.rangeClosed(1, maxKeyLength).boxed()
+        .sorted(Comparator.<Integer>comparingDouble(p -> ics[p]).reversed()
+            .thenComparing(Comparator.naturalOrder()))
+        .limit(periodCandidates)
+        .forEach(periods::add);
+    new KasiskiExamination(ciphertext).rankKeyLengths(KASISKI_MIN_LENGTH, maxKeyLength).stream()
+        .limit(periodCandidates)
+        .map(Map.Entry::getKey)
+        .forEach(periods::add);
+    return periods.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private CompletableFuture<Solution> solvePeriod(byte[] ciphertext, int period, Listener l) {
+    List<CompletableFuture<int[]>> columns = new ArrayList<>(period);
+    for (int column = 0; column < period; column++) {
+      final int c = column;
+      columns.add(CompletableFuture.supplyAsync(() -> {
+        int[] shifts = rankShifts(ciphertext, period, c);
+        l.column(period, c, (byte) shifts[0]);
+        return shifts;
+      }, executor));
+    }
+    return CompletableFuture.allOf(columns.toArray(CompletableFuture[]::new))
+        .thenApplyAsync(v -> {
+          int[][] shifts = columns.stream().map(CompletableFuture::join).toArray(int[][]::new);
+          return refine(ciphertext, period, shifts, l);
+        }, executor);
+  }
+
+  /**
+   * Letter alphabet is case insensitive, shifts differing by a case offset give same letter counts.
+   * Shifts are ranked first by number of bytes decrypted outside printable ASCII text, then by
+   * chi-square, and only shifts with fewest such bytes are kept.
+   *
+   * @return best shifts of column, at most refineShifts
+   */
+  int[] rankShifts(byte[] ciphertext, int period, int column) {
+    int[] histogram = new int[BYTE_VALUES];
+    int total = 0;
+    for (int i = column; i < ciphertext.length; i += period) {
+      histogram[ciphertext[i] & 0xFF]++;
+      total++;
+    }
+    ScoringAlphabet alphabet = monograms.getAlphabet();
+    int[] counts = new int[alphabet.size()];
+    int shifts = Math.min(modulus, BYTE_VALUES);
+    int[] nonText = new int[shifts];
+    double[] chisquares = new double[shifts];
+    int fewest = Integer.MAX_VALUE;
+    for (int shift = 0; shift < shifts; shift++) {
+      Arrays.fill(counts, 0);
+      for (int value = 0; value < BYTE_VALUES; value++) {
+        if (histogram[value] != 0) {
+          byte plain = decrypt((byte) value, (byte) shift);
+          int index = alphabet.indexOf(plain);
+          if (index != ScoringAlphabet.ABSENT) {
+            counts[index] += histogram[value];
+          } else if (!isText(plain)) {
+            nonText[shift] += histogram[value];
+          }
+        }
+      }
+      //column length as total, shifts decrypting to few letters score badly
+      chisquares[shift] = monograms.score(counts, total, 0);
+      fewest = Math.min(fewest, nonText[shift]);
+    }
+    final int min = fewest;
+    return IntStream.range(0, shifts).filter(s -> nonText[s] == min).boxed()
+        .sorted(Comparator.comparingDouble(s -> chisquares[s]))
+        .limit(refineShifts)
+        .mapToInt(Integer::intValue)
+        .toArray();
+  }
+
+  private static boolean isText(byte b) {
+    return (b >= ' ' && b < 0x7F) || b == '\n' || b == '\r' || b == '\t';
+  }
+
+  /**
+   * Coordinate ascent over columns, each column takes best of its ranked shifts until no column
+   * improves.
+   */
+  private Solution refine(byte[] ciphertext, int period, int[][] shifts, Listener l) {
+    byte[] key = new byte[period];
+    for (int c = 0; c < period; c++) {
+      key[c] = (byte) shifts[c][0];
+    }
+    byte[] plaintext = decrypt(ciphertext, key);
+    double score = score(plaintext);
+    l.key(period, key.clone(), score);
+    boolean improved = digrams != null;
+    while (improved) {
+      improved = false;
+      for (int c = 0; c < period; c++) {
+        byte current = key[c];
+        byte best = current;
+        for (int shift : shifts[c]) {
+          if ((byte) shift == current) {
+            continue;
+          }
+          decryptColumn(ciphertext, period, c, (byte) shift, plaintext);
+          double candidate = score(plaintext);
+          if (candidate > score) {
+            score = candidate;
+            best = (byte) shift;
+          }
+        }
+        decryptColumn(ciphertext, period, c, best, plaintext);
+        if (best != current) {
+          key[c] = best;
+          improved = true;
+          l.key(period, key.clone(), score);
+        }
+      }
+    }
+    return new Solution(reduce(key), modulus, score);
+  }
+
+  /**
+   * @return digram fitness of plaintext with non letters charged floor probability, negative
+   * chi-square without digram table
+   */
+  private double score(byte[] plaintext) {
+    if (digrams == null) {
+      return -monograms.score(plaintext);
+    }
+    return digrams.score(plaintext, 0, plaintext.length, Double.NEGATIVE_INFINITY);
+  }
+
+  /**
+   * Keys of a multiple of true period repeat, higher score wins and equal scores go to shorter
+   * key.
+   */
+  private static Solution best(List<CompletableFuture<Solution>> solutions) {
+    return solutions.stream().map(CompletableFuture::join)
+        .max(Comparator.comparingDouble(Solution::getScore)
+            .thenComparing(s -> s.key.length, Comparator.reverseOrder()))
+        .orElseThrow();
+  }
+
+  /**
+   * @return key cut to its shortest period
+   */
+  static byte[] reduce(byte[] key) {
+    for (int period = 1; period < key.length; period++) {
+      if (key.length % period != 0) {
+        continue;
+      }
+      boolean repeats = true;
+      for (int i = period; i < key.length && repeats; i++) {
+        repeats = key[i] == key[i - period];
+      }
+      if (repeats) {
+        return Arrays.copyOf(key, period);
+      }
+    }
+    return key;
+  }
+
+  private byte decrypt(byte c, byte k) {
+    return (byte) ((c - k) % modulus);
+  }
+
+  private byte[] decrypt(byte[] ciphertext, byte[] key) {
+    byte[] plaintext = new byte[ciphertext.length];
+    for (int c = 0; c < key.length; c++) {
+      decryptColumn(ciphertext, key.length, c, key[c], plaintext);
+    }
+    return plaintext;
+  }
+
+  private void decryptColumn(byte[] ciphertext, int period, int column, byte k, byte[] plaintext) {
+    for (int i = column; i < ciphertext.length; i += period) {
+      plaintext[i] = decrypt(ciphertext[i], k);
+    }
+  }
+
+  /**
+   * Receiver of intermediate results, called from executor threads.
+   */
+  public interface Listener {
+
+    /**
+     * @param periods key lengths to be tried
+     */
+    default void periods(int[] periods) {
+    }
+
+    /**
+     * @param shift lowest chi-square shift of column
+     */
+    default void column(int period, int column, byte shift) {
+    }
+
+    /**
+     * @param key   current key of period, improved by refine stage
+     * @param score score of key
+     */
+    default void key(int period, byte[] key, double score) {
+    }
+
+  }
+
+  /**
+   * Key found by solver.
+   */
+  public static final class Solution {
+
+    private final byte[] key;
+    private final int modulus;
+    private final double score;
+
+    private Solution(byte[] key, int modulus, double score) {
+      this.key = key;
+      this.modulus = modulus;
+      this.score = score;
+    }
+
+    public VigenereKey getKey() {
+      return new VigenereKey(modulus, key);
+    }
+
+    /**
+     * @return digram fitness of decryption with non letters at floor probability, or negative
+     * monogram chi-square without digram table
+     */
+    public double getScore() {
+      return score;
+    }
+
+    public byte[] decrypt(byte[] ciphertext) {
+      byte[] plaintext = new byte[ciphertext.length];
+      for (int i = 0, j = 0; i < ciphertext.length; i++) {
+        plaintext[i] = (byte) ((ciphertext[i] - key[j]) % modulus);
+        if (++j == key.length) {
+          j = 0;
+        }
+      }
+      return plaintext;
+    }
+
+  }
+
+  /**
+   * Executor shared by solvers, bounded to available cores, created on first use.
+   */
+  private static final class SharedExecutor {
+
+    private static final ExecutorService INSTANCE = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), runnable -> {
+          Thread thread = new Thread(runnable, "vigenere-solver");
+          thread.setDaemon(true);
+          return thread;
+        });
+
+  }
+
+}
@@ -0,0 +1,338 @@
+package io.wonderland.rq.ds;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * N-gram counts of a byte text, n in [1,4].
+ * <br>
+ * <br> Text is scanned once with a sliding window, every gram is packed big-endian into an int key
+ * (first byte highest). Monograms and digrams are counted in a dense array of 256^n counts, longer
+ * grams in an open addressing int-long map, so counting allocates nothing per gram. Counts are long,
+ * a monogram of a multi-GB corpus passes 2^31.
+ * <br>
+ * <br> Counters of disjoint parts of a text are combined by {@link #merge(GramCounter)}, a counter
+ * itself is not thread safe.
+ */
+public final class GramCounter {
+
+  public static final int MAX_GRAM_LENGTH = 4;
+
+  private static final int DENSE_MAX_GRAM_LENGTH = 2;
+  private static final int INITIAL_CAPACITY = 1 << 10;
+  private static final long EMPTY_COUNT = 0;
+  private static final int SCRATCH_SIZE = 1 << 16;
+
+  private final int gramLength;
+  //dense counts, gram key is index
+  private long[] dense;
+  //open addressing, slot is free while its count is 0
+  private int[] keys;
+  private long[] counts;
+  private int mask;
+  private int distinct;
+  private long total;
+
+  public GramCounter(int gramLength) {
+    if (gramLength < 1 || gramLength > MAX_GRAM_LENGTH) {
+      throw new IllegalArgumentException("Gram length must be in [1," + MAX_GRAM_LENGTH + "]");
+    }
+    this.gramLength = gramLength;
+    if (gramLength <= DENSE_MAX_GRAM_LENGTH) {
+      this.dense = new long[1 << (8 * gramLength)];
+    } else {
+      this.keys = new int[INITIAL_CAPACITY];
+      this.counts = new long[INITIAL_CAPACITY];
+      this.mask = INITIAL_CAPACITY - 1;
+    }
+  }
+
+  /**
+   * @param bytes      text
+   * @param gramLength n of n-gram
+   * @return counts of every gram of length n of text, overlapping grams included
+   */
+  public static GramCounter count(byte[] bytes, int gramLength) {
+    GramCounter counter = new GramCounter(gramLength);
+    counter.add(bytes, 0, bytes.length);
+    return counter;
+  }
+
+  /**
+   * Count every gram lying entirely inside bytes[from,to).
+   */
+  public void add(byte[] bytes, int from, int to) {
+    if (from < 0 || to > bytes.length || from > to) {
+      throw new IndexOutOfBoundsException("Range [" + from + "," + to + ") out of text bounds.");
+    }
+    if (to - from < gramLength) {
+      return;
+    }
+    //all ones for n = 4, shift by 32 would be a no-op
+    final int windowMask = gramLength == MAX_GRAM_LENGTH ? -1 : (1 << (8 * gramLength)) - 1;
+    int key = 0;
+    int i = from;
+    for (int end = from + gramLength - 1; i < end; i++) {
+      key = (key << 8) | (bytes[i] & 0xFF);
+    }
+    if (dense != null) {
+      final long[] d = dense;
+      for (; i < to; i++) {
+        key = ((key << 8) | (bytes[i] & 0xFF)) & windowMask;
+        d[key]++;
+      }
+    } else {
+      for (; i < to; i++) {
+        key = ((key << 8) | (bytes[i] & 0xFF)) & windowMask;
+        increment(key, 1);
+      }
+    }
+    total += to - from - gramLength + 1;
+  }
+
+  /**
+   * Count every gram lying entirely inside buffer[from,to), indexes are absolute and buffer position
+   * is not changed. Direct and mapped buffers are read through a scratch array.
+   */
+  public void add(ByteBuffer buffer, int from, int to) {
+    if (buffer.hasArray()) {
+      int offset = buffer.arrayOffset();
+      add(buffer.array(), offset + from, offset + to);
+      return;
+    }
+    ByteBuffer view = buffer.duplicate();
+    byte[] scratch = new byte[Math.min(SCRATCH_SIZE, to - from)];
+    int pos = from;
+    while (to - pos >= gramLength) {
+      int len = Math.min(scratch.length, to - pos);
+      view.position(pos);
+      view.get(scratch, 0, len);
+      add(scratch, 0, len);
+      if (pos + len == to) {
+        break;
+      }
+      //next window starts with last n-1 bytes, grams crossing windows are counted once
+      pos += len - gramLength + 1;
+    }
+  }
+
+  /**
+   * Count non-overlapping units of n bytes starting at from, as characters encoded on n bytes. An
+   * incomplete unit at the end is ignored.
+   */
+  public void addUnits(byte[] bytes, int from, int to) {
+    if (from < 0 || to > bytes.length || from > to) {
+      throw new IndexOutOfBoundsException("Range [" + from + "," + to + ") out of text bounds.");
+    }
+    final int n = gramLength;
+    int i = from;
+    for (; i + n <= to; i += n) {
+      int key = pack(bytes, i, n);
+      if (dense != null) {
+        dense[key]++;
+      } else {
+        increment(key, 1);
+      }
+    }
+    total += (i - from) / n;
+  }
+
+  /**
+   * {@link #addUnits(byte[], int, int)} over buffer[from,to), indexes are absolute.
+   */
+  public void addUnits(ByteBuffer buffer, int from, int to) {
+    if (buffer.hasArray()) {
+      int offset = buffer.arrayOffset();
+      addUnits(buffer.array(), offset + from, offset + to);
+      return;
+    }
+    ByteBuffer view = buffer.duplicate();
+    //whole units per window
+    byte[] scratch = new byte[Math.min(SCRATCH_SIZE / gramLength * gramLength, to - from)];
+    for (int pos = from; to - pos >= gramLength; ) {
+      int len = Math.min(scratch.length, to - pos);
+      view.position(pos);
+      view.get(scratch, 0, len);
+      addUnits(scratch, 0, len);
+      pos += len;
+    }
+  }
+
+  /**
+   * Add counts of other to this counter.
+   *
+   * @param other counter of same gram length
+   * @return this counter
+   */
+  public GramCounter merge(GramCounter other) {
+    if (other.gramLength != gramLength) {
+      throw new IllegalArgumentException("Can't merge counters of different gram length.");
+    }
+    if (dense != null) {
+      final long[] d = dense;
+      final long[] o = other.dense;
+      for (int key = 0; key < d.length; key++) {
+        d[key] += o[key];
+      }
+    } else {
+      other.forEach(this::increment);
+    }
+    total += other.total;
+    return this;
+  }
+
+  public int getGramLength() {
+    return gramLength;
+  }
+
+  /**
+   * @return number of grams counted
+   */
+  public long getTotal() {
+    return total;
+  }
+
+  /**
+   * @return number of distinct grams counted
+   */
+  public int size() {
+    if (dense == null) {
+      return distinct;
+    }
+    int size = 0;
+    for (long c : dense) {
+      if (c != EMPTY_COUNT) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * @return sum of count * (count - 1) over distinct grams, ordered pairs of equal grams
+   * @throws ArithmeticException if sum overflows long, a gram counted more than about 3 x 10^9 times
+   */
+  public long coincidences() {
+    long sum = 0;
+    final long[] c = dense != null ? dense : counts;
+    for (long count : c) {
+      if (count > 1) {
+        sum = Math.addExact(sum, Math.multiplyExact(count, count - 1));
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * @param key gram packed by {@link #pack(byte[], int, int)}
+   * @return count of gram, 0 if not seen
+   */
+  public long get(int key) {
+    if (dense != null) {
+      return key >= 0 && key < dense.length ? dense[key] : 0;
+    }
+    for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+      if (counts[slot] == EMPTY_COUNT) {
+        return 0;
+      } else if (keys[slot] == key) {
+        return counts[slot];
+      }
+    }
+  }
+
+  public void forEach(GramConsumer consumer) {
+    if (dense != null) {
+      for (int key = 0; key < dense.length; key++) {
+        if (dense[key] != EMPTY_COUNT) {
+          consumer.accept(key, dense[key]);
+        }
+      }
+    } else {
+      for (int slot = 0; slot < counts.length; slot++) {
+        if (counts[slot] != EMPTY_COUNT) {
+          consumer.accept(keys[slot], counts[slot]);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return counts keyed by gram string, grams decoding to same string are summed.
+   */
+  public Map<String, Long> toMap() {
+    Map<String, Long> map = new HashMap<>();
+    forEach((key, count) -> map.merge(new String(unpack(key, gramLength)), count, Long::sum));
+    return map;
+  }
+
+  /**
+   * @return n bytes starting at off packed big-endian into an int
+   */
+  public static int pack(byte[] bytes, int off, int gramLength) {
+    int key = 0;
+    for (int i = off; i < off + gramLength; i++) {
+      key = (key << 8) | (bytes[i] & 0xFF);
+    }
+    return key;
+  }
+
+  public static byte[] unpack(int key, int gramLength) {
+    byte[] gram = new byte[gramLength];
+    for (int i = gramLength - 1; i >= 0; i--) {
+      gram[i] = (byte) key;
+      key >>>= 8;
+    }
+    return gram;
+  }
+
+  private void increment(int key, long count) {
+    int slot = slot(key);
+    while (counts[slot] != EMPTY_COUNT) {
+      if (keys[slot] == key) {
+        counts[slot] += count;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    counts[slot] = count;
+    //keep load factor under 1/2
+    if (++distinct > (mask + 1) >>> 1) {
+      rehash();
+    }
+  }
+
+  private void rehash() {
+    int[] oldKeys = keys;
+    long[] oldCounts = counts;
+    int capacity = oldCounts.length << 1;
+    this.keys = new int[capacity];
+    this.counts = new long[capacity];
+    this.mask = capacity - 1;
+    for (int i = 0; i < oldCounts.length; i++) {
+      if (oldCounts[i] != EMPTY_COUNT) {
+        int slot = slot(oldKeys[i]);
+        while (counts[slot] != EMPTY_COUNT) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        counts[slot] = oldCounts[i];
+      }
+    }
+  }
+
+  private int slot(int key) {
+    //fibonacci hashing, high bits of product folded into low ones
+    int h = key * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  @FunctionalInterface
+  public interface GramConsumer {
+
+    void accept(int key, long count);
+
+  }
+
+}
@@ -0,0 +1,59 @@
+package io.wonderland.rq.ds;
+
+/**
+ * Result of Most Probable Pair algorithm on frequency arrays. Row r holds best ciphertext
+ * characters of language character r, closest frequency first.
+ * <br>
+ * <br> Rows are stored flat in two parallel arrays, entry (r, rank) at r * width + rank.
+ */
+public final class MPPTable {
+
+  private final int rows;
+  private final int width;
+  private final int[] candidates;
+  private final double[] freqDiffs;
+
+  public MPPTable(int rows, int width) {
+    if (rows < 0 || width < 0) {
+      throw new IllegalArgumentException("Rows and width can't be negative.");
+    }
+    this.rows = rows;
+    this.width = width;
+    this.candidates = new int[rows * width];
+    this.freqDiffs = new double[rows * width];
+  }
+
+  /**
+   * @return number of language characters
+   */
+  public int rows() {
+    return rows;
+  }
+
+  /**
+   * @return number of candidates of every row
+   */
+  public int width() {
+    return width;
+  }
+
+  /**
+   * @return index of ciphertext character ranked rank for language character row
+   */
+  public int candidate(int row, int rank) {
+    return candidates[row * width + rank];
+  }
+
+  /**
+   * @return ciphertext frequency - language frequency of entry
+   */
+  public double freqDiff(int row, int rank) {
+    return freqDiffs[row * width + rank];
+  }
+
+  public void set(int row, int rank, int candidate, double freqDiff) {
+    candidates[row * width + rank] = candidate;
+    freqDiffs[row * width + rank] = freqDiff;
+  }
+
+}
@@ -0,0 +1,194 @@
+package io.wonderland.rq.ds;
+
+import java.util.Arrays;
+
+/**
+ * Suffix array and LCP array of a byte text, an index of all substrings of text built once and
+ * queried many times.
+ * <br>
+ * <br> Suffix array : sa[i] is start of i-th smallest suffix, built by prefix doubling with radix
+ * sort of rank pairs in O(n log n).
+ * <br> LCP array : lcp[i] is length of longest common prefix of suffixes sa[i-1] and sa[i],
+ * lcp[0] = 0, built by Kasai algorithm in O(n).
+ * <br>
+ * <br> Suffixes sharing a prefix of length k are adjacent in sa, a maximal run of lcp >= k is one
+ * substring of length k repeated at every start of the run.
+ */
+public final class SuffixArray {
+
+  private static final int ALPHABET_SIZE = 256;
+
+  private final byte[] text;
+  private final int[] sa;
+  private final int[] lcp;
+
+  public SuffixArray(byte[] text) {
+    this.text = text.clone();
+    this.sa = suffixes(this.text);
+    this.lcp = lcp(this.text, this.sa);
+  }
+
+  public int length() {
+    return text.length;
+  }
+
+  public byte[] getText() {
+    return text.clone();
+  }
+
+  /**
+   * @return start of i-th smallest suffix
+   */
+  public int suffix(int i) {
+    return sa[i];
+  }
+
+  /**
+   * @return longest common prefix of suffix i-1 and i of sorted order, 0 for i = 0
+   */
+  public int lcp(int i) {
+    return lcp[i];
+  }
+
+  /**
+   * Visit every substring of length minLength repeated in text, with all its starts.
+   *
+   * @param minLength length of repeated substrings, at least 1
+   * @param consumer  receives ascending starts of a repeated substring, array is reused between
+   *                  calls
+   */
+  public void forEachRepeat(int minLength, RepeatConsumer consumer) {
+    if (minLength < 1) {
+      throw new IllegalArgumentException("Repeat length must be bigger than 0.");
+    }
+    int[] starts = new int[Math.max(text.length, 1)];
+    int i = 1;
+    while (i < text.length) {
+      if (lcp[i] < minLength) {
+        i++;
+        continue;
+      }
+      //sa[i-1..j) share a prefix of minLength
+      int j = i + 1;
+      while (j < text.length && lcp[j] >= minLength) {
+        j++;
+      }
+      int count = j - i + 1;
+      System.arraycopy(sa, i - 1, starts, 0, count);
+      Arrays.sort(starts, 0, count);
+      consumer.accept(starts, count);
+      i = j;
+    }
+  }
+
+  static int[] suffixes(byte[] text) {
+    int n = text.length;
+    int[] sa = new int[n];
+    if (n == 0) {
+      return sa;
+    }
+    int[] rank = new int[n];
+    int[] tmp = new int[n];
+    int[] count = new int[Math.max(ALPHABET_SIZE, n)];
+
+    //sort by first byte
+    for (byte b : text) {
+      count[b & 0xFF]++;
+    }
+    for (int c = 1; c < ALPHABET_SIZE; c++) {
+      count[c] += count[c - 1];
+    }
+    for (int i = n - 1; i >= 0; i--) {
+      sa[--count[text[i] & 0xFF]] = i;
+    }
+    int classes = 1;
+    rank[sa[0]] = 0;
+    for (int i = 1; i < n; i++) {
+      if (text[sa[i]] != text[sa[i - 1]]) {
+        classes++;
+      }
+      rank[sa[i]] = classes - 1;
+    }
+
+    //sorted by first h bytes, sort by first 2h bytes as pairs (rank[i], rank[i + h])
+    for (int h = 1; h < n && classes < n; h <<= 1) {
+      //order by second key, suffixes without a second half come first
+      int p = 0;
+      for (int i = n - h; i < n; i++) {
+        tmp[p++] = i;
+      }
+      for (int i = 0; i < n; i++) {
+        if (sa[i] >= h) {
+          tmp[p++] = sa[i] - h;
+        }
+      }
+      //stable counting sort by first key
+      Arrays.fill(count, 0, classes, 0);
+      for (int i = 0; i < n; i++) {
+        count[rank[i]]++;
+      }
+      for (int c = 1; c < classes; c++) {
+        count[c] += count[c - 1];
+      }
+      for (int i = n - 1; i >= 0; i--) {
+        sa[--count[rank[tmp[i]]]] = tmp[i];
+      }
+      //new ranks into tmp
+      tmp[sa[0]] = 0;
+      classes = 1;
+      for (int i = 1; i < n; i++) {
+        int a = sa[i - 1];
+        int b = sa[i];
+        if (rank[a] != rank[b] || secondRank(rank, a + h) != secondRank(rank, b + h)) {
+          classes++;
+        }
+        tmp[b] = classes - 1;
+      }
+      int[] swap = rank;
+      rank = tmp;
+      tmp = swap;
+    }
+    return sa;
+  }
+
+  static int[] lcp(byte[] text, int[] sa) {
+    int n = text.length;
+    int[] lcp = new int[n];
+    int[] rank = new int[n];
+    for (int i = 0; i < n; i++) {
+      rank[sa[i]] = i;
+    }
+    int h = 0;
+    for (int i = 0; i < n; i++) {
+      if (rank[i] == 0) {
+        h = 0;
+        continue;
+      }
+      int j = sa[rank[i] - 1];
+      while (i + h < n && j + h < n && text[i + h] == text[j + h]) {
+        h++;
+      }
+      lcp[rank[i]] = h;
+      if (h > 0) {
+        h--;
+      }
+    }
+    return lcp;
+  }
+
+  private static int secondRank(int[] rank, int i) {
+    return i < rank.length ? rank[i] : -1;
+  }
+
+  @FunctionalInterface
+  public interface RepeatConsumer {
+
+    /**
+     * @param starts ascending starts of one repeated substring, valid in [0,count)
+     * @param count  number of occurrences, at least 2
+     */
+    void accept(int[] starts, int count);
+
+  }
+
+}
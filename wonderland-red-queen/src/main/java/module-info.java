@@ -6,6 +6,7 @@ module wonderland.redqueen {
   requires wonderland.protos;
   requires wonderland.garden;
   requires wonderland.struct;
+  requires alice;
 
   //make package content visible outside module.
   exports io.wonderland.rq;
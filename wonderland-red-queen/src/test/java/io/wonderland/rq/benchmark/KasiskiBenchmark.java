@@ -0,0 +1,107 @@
+package io.wonderland.rq.benchmark;
+
+import io.wonderland.rq.cryptanalysis.KasiskiExamination;
+import io.wonderland.rq.ds.SuffixArray;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Disabled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Kasiski examination of a Vigenere ciphertext of English-like text.
+ * <br>
+ * <br> buildIndex : suffix array + LCP array construction.
+ * <br> rankKeyLengths : query on a built index, repeats of length 3 up to key length 40.
+ * <br> hashTrigrams : baseline, occurrences of every trigram collected in a
+ * HashMap&lt;String, List&lt;Integer&gt;&gt;.
+ */
+@SuppressWarnings("ALL")
+@Disabled
+@State(Scope.Thread)
+public class KasiskiBenchmark {
+
+  private static final String WORDS = "the quick brown fox jumps over the lazy dog and then "
+      + "attack at dawn while the enemy sleeps under the old bridge near the river ";
+
+  @Param({"65536", "1048576", "4194304"})
+  private int size;
+
+  private byte[] ciphertext;
+  private KasiskiExamination examination;
+
+  public static void main(String[] args) throws IOException {
+    org.openjdk.jmh.Main.main(args);
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(42);
+    String[] words = WORDS.split(" ");
+    byte[] key = "wonderland".getBytes(StandardCharsets.US_ASCII);
+    ciphertext = new byte[size];
+    int i = 0;
+    while (i < size) {
+      for (char c : words[random.nextInt(words.length)].toCharArray()) {
+        if (i < size) {
+          ciphertext[i] = (byte) ('a' + (c - 'a' + key[i % key.length] - 'a') % 26);
+          i++;
+        }
+      }
+    }
+    examination = new KasiskiExamination(ciphertext);
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void buildIndex(Blackhole blackhole) {
+    blackhole.consume(new SuffixArray(ciphertext));
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void rankKeyLengths(Blackhole blackhole) {
+    blackhole.consume(examination.rankKeyLengths(3, 40));
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void hashTrigrams(Blackhole blackhole) {
+    Map<String, List<Integer>> occurrences = new HashMap<>();
+    for (int i = 0; i + 3 <= ciphertext.length; i++) {
+      occurrences.computeIfAbsent(new String(ciphertext, i, 3, StandardCharsets.US_ASCII),
+          k -> new ArrayList<>()).add(i);
+    }
+    blackhole.consume(occurrences);
+  }
+
+}
@@ -0,0 +1,121 @@
+package io.wonderland.rq.benchmark;
+
+import io.wonderland.alice.crypto.StreamCipher;
+import io.wonderland.alice.crypto.key.secretkey.AffineKey;
+import io.wonderland.alice.crypto.key.secretkey.CaesarKey;
+import io.wonderland.alice.crypto.key.secretkey.RailfenceKey;
+import io.wonderland.alice.crypto.params.KeyParameter;
+import io.wonderland.alice.crypto.symmetric.AffineCrypt;
+import io.wonderland.alice.crypto.symmetric.CaesarCrypt;
+import io.wonderland.alice.crypto.symmetric.RailfenceCrypt;
+import io.wonderland.rq.cryptanalysis.FitnessMeasure;
+import io.wonderland.rq.cryptanalysis.Keyspace;
+import io.wonderland.rq.cryptanalysis.KeyspaceSearch;
+import java.io.IOException;
+import java.security.Key;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Disabled;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Brute-force search of Caesar, Affine (m = 256) and Rail fence keyspaces, English trigram table of
+ * wonderland-garden-files read from classpath.
+ * <br>
+ * <br> search : whole keyspace searched for top 10 candidates, candidates counter reports
+ * deciphered and scored keys per second.
+ */
+@SuppressWarnings("ALL")
+@Disabled
+@State(Scope.Thread)
+public class KeyspaceSearchBenchmark {
+
+  //gram table built by wonderland-garden-files
+  private static final String TRIGRAMS = "letter_freq/en/trigram_freq.bin";
+
+  @Param({"caesar", "affine", "railfence"})
+  private String cipher;
+
+  @Param({"256", "4096"})
+  private int size;
+
+  private KeyspaceSearch<?> search;
+  private long keys;
+  private byte[] ciphertext;
+
+  public static void main(String[] args) throws IOException {
+    org.openjdk.jmh.Main.main(args);
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    FitnessMeasure trigrams = FitnessMeasure.of(ScoringBenchmark.table(TRIGRAMS));
+    byte[] plaintext = new byte[size];
+    Random random = new Random(42);
+    for (int i = 0; i < size; i++) {
+      plaintext[i] = (byte) (random.nextInt(5) == 0 ? ' ' : 'a' + random.nextInt(26));
+    }
+    switch (cipher) {
+      case "caesar":
+        ciphertext = encrypt(new CaesarCrypt(), new CaesarKey(3), plaintext);
+        search = new KeyspaceSearch<>(CaesarCrypt::new, Keyspace.caesar(Keyspace.BYTE_VALUES),
+            trigrams);
+        keys = Keyspace.BYTE_VALUES;
+        break;
+      case "affine":
+        ciphertext = encrypt(new AffineCrypt(), new AffineKey(77, 13, 256), plaintext);
+        search = new KeyspaceSearch<>(AffineCrypt::new, Keyspace.affine(256), trigrams);
+        keys = Keyspace.affine(256).size();
+        break;
+      default:
+        ciphertext = encrypt(new RailfenceCrypt(), new RailfenceKey(7), plaintext);
+        search = new KeyspaceSearch<>(RailfenceCrypt::new, Keyspace.railfence(size), trigrams);
+        keys = size;
+    }
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public void search(Counters counters, Blackhole blackhole) {
+    blackhole.consume(search.search(ciphertext));
+    counters.candidates += keys;
+  }
+
+  private static byte[] encrypt(StreamCipher cipher, Key key, byte[] plaintext) {
+    byte[] ciphertext = new byte[plaintext.length];
+    cipher.init(true, new KeyParameter<>(key));
+    cipher.processBytes(plaintext, 0, plaintext.length, ciphertext, 0);
+    return ciphertext;
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Counters {
+
+    public long candidates;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      candidates = 0;
+    }
+
+  }
+
+}
@@ -0,0 +1,128 @@
+package io.wonderland.rq.benchmark;
+
+import io.wonderland.base.GramTable;
+import io.wonderland.rq.cryptanalysis.ChisquareStatistic;
+import io.wonderland.rq.cryptanalysis.FitnessMeasure;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Disabled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Scoring of one candidate plaintext, English gram tables of wonderland-garden-files read from
+ * classpath.
+ * <br>
+ * <br> trigramFitness : rolling lookup into dense double[] log-probability table.
+ * <br> chisquare : letter counts into caller scratch, chi-square against double[] probabilities.
+ * <br> mapFitness : baseline, trigram String keys looked up in a HashMap&lt;String, Double&gt;.
+ * <br>
+ * <br> Run with -prof gc, engine scorers allocate nothing (gc.alloc.rate.norm ~ 0).
+ */
+@SuppressWarnings("ALL")
+@Disabled
+@State(Scope.Thread)
+public class ScoringBenchmark {
+
+  //gram tables built by wonderland-garden-files
+  private static final String LETTER_FREQ = "letter_freq/en/";
+
+  @Param({"64", "256", "2048"})
+  private int size;
+
+  private FitnessMeasure trigrams;
+  private ChisquareStatistic monograms;
+  private Map<String, Double> trigramLogs;
+  private byte[] candidate;
+  private int[] counts;
+
+  public static void main(String[] args) throws IOException {
+    org.openjdk.jmh.Main.main(args);
+  }
+
+  static GramTable table(String name) throws IOException {
+    try (InputStream in = ScoringBenchmark.class.getClassLoader().getResourceAsStream(name)) {
+      if (in == null) {
+        throw new IOException("Gram table " + name + " not on classpath.");
+      }
+      return GramTable.read(in);
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    trigrams = FitnessMeasure.of(table(LETTER_FREQ + "trigram_freq.bin"));
+    monograms = ChisquareStatistic.of(table(LETTER_FREQ + "monogram_freq.bin"));
+    counts = new int[monograms.getAlphabet().size()];
+
+    trigramLogs = new HashMap<>();
+    byte[] gram = new byte[3];
+    int letters = trigrams.getAlphabet().size();
+    for (int a = 0; a < letters; a++) {
+      for (int b = 0; b < letters; b++) {
+        for (int c = 0; c < letters; c++) {
+          gram[0] = trigrams.getAlphabet().letter(a);
+          gram[1] = trigrams.getAlphabet().letter(b);
+          gram[2] = trigrams.getAlphabet().letter(c);
+          trigramLogs.put(new String(gram), trigrams.score(gram));
+        }
+      }
+    }
+
+    candidate = new byte[size];
+    Random random = new Random(42);
+    for (int i = 0; i < size; i++) {
+      candidate[i] = (byte) ('A' + random.nextInt(26));
+    }
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public void trigramFitness(Blackhole blackhole) {
+    blackhole.consume(trigrams.score(candidate));
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public void chisquare(Blackhole blackhole) {
+    blackhole.consume(monograms.score(candidate, 0, candidate.length, counts));
+  }
+
+  @Warmup(iterations = 1)
+  @Fork(value = 2)
+  @Measurement(iterations = 3)
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public void mapFitness(Blackhole blackhole) {
+    double fitness = 0;
+    for (int i = 0; i + 3 <= candidate.length; i++) {
+      fitness += trigramLogs.get(new String(candidate, i, 3));
+    }
+    blackhole.consume(fitness);
+  }
+
+}
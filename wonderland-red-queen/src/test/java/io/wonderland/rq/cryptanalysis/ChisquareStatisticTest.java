@@ -0,0 +1,47 @@
+package io.wonderland.rq.cryptanalysis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChisquareStatisticTest {
+
+  @Test
+  void score() {
+    ChisquareStatistic chisquare = ChisquareStatistic.of(Map.of("A", 50, "B", 30, "C", 20));
+    assertThat(chisquare.probability(0)).isEqualTo(0.5);
+
+    //exactly expected counts
+    assertThat(chisquare.score("AAAAABBBCC".getBytes())).isCloseTo(0, within(1e-9));
+    //A:2 B:2 C:6 of expected 5, 3, 2
+    double expected = 9 / 5.0 + 1 / 3.0 + 16 / 2.0;
+    assertThat(chisquare.score("a b c, abccccc".getBytes())).isCloseTo(expected, within(1e-9));
+
+    int[] counts = new int[3];
+    chisquare.score("CCCCCAAABB".getBytes(), 0, 10, counts);
+    //C read as A, A as B, B as C
+    assertThat(chisquare.score(counts, 10, 2)).isCloseTo(0, within(1e-9));
+  }
+
+  @Test
+  void loadNonAscii(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("monogram_freq.txt");
+    try (InputStream in = ChisquareStatisticTest.class.getClassLoader()
+        .getResourceAsStream("letter_freq/de/monogram_freq.txt")) {
+      Files.copy(in, file);
+    }
+
+    //two character keys of umlauts are out of alphabet as in FitnessMeasure
+    ChisquareStatistic chisquare = ChisquareStatistic.load(file);
+    assertThat(chisquare.getAlphabet().size()).isEqualTo(26);
+    assertThat(chisquare.score("Die Wuerde des Menschen".getBytes())).isPositive();
+  }
+
+}
@@ -0,0 +1,91 @@
+package io.wonderland.rq.cryptanalysis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import io.wonderland.base.GramTable;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FitnessMeasureTest {
+
+  private static final Map<String, Double> DIGRAMS = Map.of("TH", 50.0, "HE", 30.0, "AT", 15.0,
+      "EA", 5.0);
+
+  @Test
+  void score() {
+    FitnessMeasure fitness = FitnessMeasure.of(DIGRAMS);
+    assertThat(fitness.getGramLength()).isEqualTo(2);
+    assertThat(fitness.getAlphabet().size()).isEqualTo(4);
+
+    //TH HE, case and non letters ignored
+    double expected = Math.log10(0.5) + Math.log10(0.3);
+    assertThat(fitness.score("t-h e".getBytes())).isCloseTo(expected, within(1e-9));
+    //unknown gram gets floor probability
+    assertThat(fitness.score("HT".getBytes()))
+        .isCloseTo(Math.log10(FitnessMeasure.FLOOR_COUNT / 100), within(1e-9));
+    assertThat(fitness.getFloor())
+        .isCloseTo(Math.log10(FitnessMeasure.FLOOR_COUNT / 100), within(1e-9));
+    assertThat(fitness.score("THEAT".getBytes())).isGreaterThan(fitness.score("TAHTE".getBytes()));
+
+    //non letters charged floor, scoring stops below threshold
+    byte[] text = "t-h e".getBytes();
+    assertThat(fitness.score(text, 0, text.length, Double.NEGATIVE_INFINITY))
+        .isCloseTo(expected + 2 * fitness.getFloor(), within(1e-9));
+    assertThat(fitness.score(text, 0, text.length, expected)).isEqualTo(Double.NEGATIVE_INFINITY);
+
+    int[] indexes = new int[3];
+    text = "THE".getBytes();
+    for (int i = 0; i < text.length; i++) {
+      indexes[i] = fitness.getAlphabet().indexOf(text[i]);
+    }
+    assertThat(fitness.score(indexes, 0, 3)).isCloseTo(fitness.score(text), within(1e-9));
+  }
+
+  @Test
+  void load(@TempDir Path dir) throws IOException, URISyntaxException {
+    Path text = Path.of(FitnessMeasureTest.class.getClassLoader()
+        .getResource("trigram_freq.txt").toURI());
+    Path textCopy = Files.copy(text, dir.resolve(text.getFileName()));
+    FitnessMeasure fromText = FitnessMeasure.load(textCopy);
+
+    //table file, directly or next to text file, gives same scores as text file
+    Path table = GramTable.convert(textCopy, dir);
+    byte[] sample = "the quick brown fox jumps over the lazy dog".getBytes();
+    for (Path file : new Path[]{table, textCopy}) {
+      FitnessMeasure fromTable = FitnessMeasure.load(file);
+      assertThat(fromTable.getGramLength()).isEqualTo(fromText.getGramLength());
+      assertThat(fromTable.getFloor()).isCloseTo(fromText.getFloor(), within(1e-9));
+      assertThat(fromTable.score(sample)).isCloseTo(fromText.score(sample), within(1e-9));
+    }
+  }
+
+  @Test
+  void of() {
+    assertThatThrownBy(() -> FitnessMeasure.of(Map.of()))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> FitnessMeasure.of(Map.of("TH", 1, "THE", 1)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void ofTable() {
+    Map<String, Long> counts = Map.of("TH", 300L, "HE", 100L, "IN", 0L, "ER", 50L);
+    FitnessMeasure fromMap = FitnessMeasure.of(counts);
+    //log-probabilities of table used as they are
+    FitnessMeasure fromTable = FitnessMeasure.of(GramTable.wrap(GramTable.encode(counts)));
+
+    byte[] sample = "there in her".getBytes();
+    assertThat(fromTable.getFloor()).isCloseTo(fromMap.getFloor(), within(1e-12));
+    assertThat(fromTable.score(sample)).isCloseTo(fromMap.score(sample), within(1e-12));
+    assertThatThrownBy(() -> FitnessMeasure.of(GramTable.wrap(GramTable.encode(Map.of()))))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
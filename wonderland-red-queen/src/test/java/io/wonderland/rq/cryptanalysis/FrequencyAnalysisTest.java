@@ -0,0 +1,97 @@
+package io.wonderland.rq.cryptanalysis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.wonderland.rq.ds.GramCounter;
+import io.wonderland.struct.GramType;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import org.apache.commons.lang3.ArrayUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FrequencyAnalysisTest {
+
+  @Test
+  void calcFreq() {
+    byte[] text = "abcabcab".getBytes();
+
+    Map<String, Double> monograms = FrequencyAnalysis.calcFreq(text, GramType.MONOGRAM);
+    assertThat(monograms).containsOnly(Map.entry("a", 3.0), Map.entry("b", 3.0),
+        Map.entry("c", 2.0));
+
+    //adjacent pairs only
+    Map<String, Double> digrams = FrequencyAnalysis.calcFreq(text, GramType.DIGRAM);
+    assertThat(digrams).containsOnly(Map.entry("ab", 3.0), Map.entry("bc", 2.0),
+        Map.entry("ca", 2.0));
+
+    Map<String, Double> trigrams = FrequencyAnalysis.calcFreq(text, GramType.TRIGRAM);
+    assertThat(trigrams).containsOnly(Map.entry("abc", 2.0), Map.entry("bca", 2.0),
+        Map.entry("cab", 2.0));
+
+    Map<String, Double> quadgrams = FrequencyAnalysis.calcFreq(text, GramType.QUADGRAM);
+    assertThat(quadgrams).hasSize(3).containsEntry("abca", 2.0);
+
+    assertThat(FrequencyAnalysis.calcFreq("abc".getBytes(), GramType.QUADGRAM)).isEmpty();
+    assertThatThrownBy(() -> FrequencyAnalysis.calcFreq(new byte[0], GramType.MONOGRAM))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void countGrams() {
+    byte[] text = new byte[100_000];
+    for (int i = 0; i < text.length; i++) {
+      text[i] = (byte) (i * 7 % 251);
+    }
+    GramCounter counter = FrequencyAnalysis.countGrams(text, GramType.QUADGRAM);
+    assertThat(counter.getTotal()).isEqualTo(text.length - 3);
+    assertThat(counter.size()).isEqualTo(251);
+    assertThat(counter.get(GramCounter.pack(text, 0, 4))).isEqualTo(399);
+  }
+
+  @Test
+  void countsBeyondInt() {
+    byte[] text = "abca".getBytes();
+    for (GramType gramType : new GramType[]{GramType.MONOGRAM, GramType.TRIGRAM}) {
+      GramCounter counter = FrequencyAnalysis.countGrams(text, gramType);
+      long count = counter.get(GramCounter.pack(text, 0, counter.getGramLength()));
+      //doubling counts 32 times, as merging counters of a multi-GB corpus
+      for (int i = 0; i < 32; i++) {
+        counter.merge(counter);
+      }
+      assertThat(counter.get(GramCounter.pack(text, 0, counter.getGramLength())))
+          .isEqualTo(count << 32);
+      assertThat(counter.toMap()).containsEntry(
+          new String(text, 0, counter.getGramLength()), count << 32);
+      assertThatThrownBy(counter::coincidences).isInstanceOf(ArithmeticException.class);
+    }
+  }
+
+  @Test
+  void countGramsParallel(@TempDir Path dir) throws IOException {
+    //spans several fork/join leaves
+    byte[] text = new byte[3 * GramCountTask.THRESHOLD + 5];
+    Random random = new Random(7);
+    for (int i = 0; i < text.length; i++) {
+      text[i] = (byte) ('a' + random.nextInt(26));
+    }
+    Path file = Files.write(dir.resolve("corpus.txt"), text);
+    for (GramType gramType : GramType.values()) {
+      Map<String, Double> expected = FrequencyAnalysis.calcFreq(text, gramType);
+      assertThat(FrequencyAnalysis.calcFreqParallel(text, gramType)).isEqualTo(expected);
+      assertThat(FrequencyAnalysis.countGramsParallel(file, gramType).toMap())
+          .isEqualTo(FrequencyAnalysis.countGrams(text, gramType).toMap());
+    }
+
+    Byte[] boxed = ArrayUtils.toObject(text);
+    assertThat(FrequencyAnalysis.monocharFreqParallel(text, 2))
+        .isEqualTo(FrequencyAnalysis.monocharFreq(boxed, 2));
+    assertThat(FrequencyAnalysis.monocharFreqParallel(file, 3))
+        .isEqualTo(FrequencyAnalysis.monocharFreq(boxed, 3));
+  }
+
+}
@@ -1,14 +1,49 @@
 package io.wonderland.rq.cryptanalysis;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.junit.jupiter.api.Test;
+
 public class IndexCoincidenceTest {
 
-  /**
-   @Test void calcIC() {
-   byte[] ciphertext="vptnvffuntshtarptymjwzirappljmhhqvsubwlzzygvtyitarptyiougxiuydtgzhhvvmumshwkzgstfmekvmpkswdgbilvjljmglmjfqwioiivknulvvfemioiemojtywdsajtwmtcgluysdsumfbieugmvalvxkjduetukatymvkqzhvqvgvptytjwwldyeevquhlulwpkt".getBytes();
-   double ic= IndexCoincidence.calcIC(ciphertext,1);
-   assertThat(ic).isLessThan(0.045);
-   }
+  @Test
+  void calcIC() {
+    byte[] ciphertext = "vptnvffuntshtarptymjwzirappljmhhqvsubwlzzygvtyitarptyiougxiuydtgzhhvvmumshwkzgstfmekvmpkswdgbilvjljmglmjfqwioiivknulvvfemioiemojtywdsajtwmtcgluysdsumfbieugmvalvxkjduetukatymvkqzhvqvgvptytjwwldyeevquhlulwpkt".getBytes();
+    double ic = IndexCoincidence.calcIC(ciphertext, 1);
+    assertThat(ic).isLessThan(0.045);
+    assertThat(IndexCoincidence.calcIC(ArrayUtils.toObject(ciphertext), 1)).isEqualTo(ic);
+    assertThat(IndexCoincidence.calcIC("aaaa".getBytes(), 2)).isEqualTo(1.0);
+  }
+
+  @Test
+  void calcKeyPeriodIC() {
+    byte[] ciphertext = "vptnvffuntshtarptymjwzirappljmhhqvsubwlzzygvtyitarptyiougxiuydtgzhhvvmumshwkzgstfmekvmpkswdgbilvjljmglmjfqwioiivknulvvfemioiemojtywdsajtwmtcgluysdsumfbieugmvalvxkjduetukatymvkqzhvqvgvptytjwwldyeevquhlulwpkt".getBytes();
+    double[] ics = IndexCoincidence.calcKeyPeriodIC(ciphertext, 1, 1, 20);
+    assertThat(ics).hasSize(21);
+    assertThat(ics[1]).isBetween(0.043, 0.045);
+    assertThat(ics[7]).isBetween(0.089, 0.091);
 
+    //same columns on 2 byte characters
+    double[] wideIcs = IndexCoincidence.calcKeyPeriodIC(widen(ciphertext), 2, 5, 10);
+    assertThat(wideIcs[4]).isZero();
+    assertThat(wideIcs[7]).isEqualTo(ics[7]);
+
+    assertThatThrownBy(() -> IndexCoincidence.calcKeyPeriodIC(ciphertext, 1, 0, 20))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static byte[] widen(byte[] text) {
+    byte[] wide = new byte[text.length * 2];
+    for (int i = 0; i < text.length; i++) {
+      wide[2 * i] = 0x04;
+      wide[2 * i + 1] = text[i];
+    }
+    return wide;
+  }
+
+  /**
    @Test void calcCharIC(){
    Map<Monochar, Integer> freq = LetterFrequency.monocharFreq(
    ResourceConstants.LANGUAGE_RESOURCES.get(Language.EN).get(GramType.MONOGRAM));
@@ -16,12 +51,6 @@ public class IndexCoincidenceTest {
    assertThat(ic).isBetween(0.065,0.066);
    }
 
-   @Test void calcKeyPeriodIC(){
-   byte[] ciphertext="vptnvffuntshtarptymjwzirappljmhhqvsubwlzzygvtyitarptyiougxiuydtgzhhvvmumshwkzgstfmekvmpkswdgbilvjljmglmjfqwioiivknulvvfemioiemojtywdsajtwmtcgluysdsumfbieugmvalvxkjduetukatymvkqzhvqvgvptytjwwldyeevquhlulwpkt".getBytes();
-   Map<Integer,Double> ics= IndexCoincidence.calcKeyPeriodIC(ciphertext ,1,1,20);
-   assertThat(ics.get(1)).isBetween(0.043,0.045);
-   assertThat(ics.get(7)).isBetween(0.089,0.091);
-   }
    @Test void createCiphertextMat() {
    byte[] ciphertext="Hello world of cryptography".getBytes();
    List<Byte>[] mat1= IndexCoincidence.createCiphertextMat(ciphertext,1,2);
@@ -0,0 +1,71 @@
+package io.wonderland.rq.cryptanalysis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class KasiskiExaminationTest {
+
+  @Test
+  void distances() {
+    //"abc" at 0, 7 and 13
+    KasiskiExamination examination = new KasiskiExamination("abcxyzqabcpoiabc".getBytes());
+    assertThat(examination.distances(3)).containsExactlyInAnyOrder(7, 6);
+    assertThat(examination.distances(4)).isEmpty();
+    assertThat(examination.getIndex().length()).isEqualTo(16);
+
+    assertThatThrownBy(() -> examination.distances(0))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new KasiskiExamination(new byte[0]))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void rankKeyLengths() {
+    String plaintext = "thesunandthemanintheshadowandthemooninthenightsky";
+    byte[] key = "lemon".getBytes();
+    byte[] ciphertext = new byte[plaintext.length() * 20];
+    for (int i = 0; i < ciphertext.length; i++) {
+      int p = plaintext.charAt(i % plaintext.length()) - 'a';
+      ciphertext[i] = (byte) ('a' + (p + key[i % key.length] - 'a') % 26);
+    }
+    KasiskiExamination examination = new KasiskiExamination(ciphertext);
+
+    List<Map.Entry<Integer, Integer>> ranked = examination.rankKeyLengths(3, 20);
+    assertThat(ranked.get(0).getKey()).isEqualTo(5);
+
+    int[] gcds = examination.gcdHistogram(3, 20);
+    assertThat(gcds).hasSize(21);
+    assertThat(gcds[5]).isPositive();
+  }
+
+  @Test
+  void rankCompositeKeyLength() {
+    String[] words = {"the", "and", "of", "to", "in", "sun", "moon", "shadow", "night", "sky",
+        "man", "is", "that", "with", "light"};
+    Random random = new Random(11);
+    StringBuilder plaintext = new StringBuilder();
+    while (plaintext.length() < 1200) {
+      plaintext.append(words[random.nextInt(words.length)]);
+    }
+    byte[] key = "secret".getBytes();
+    byte[] ciphertext = new byte[plaintext.length()];
+    for (int i = 0; i < ciphertext.length; i++) {
+      int p = plaintext.charAt(i) - 'a';
+      ciphertext[i] = (byte) ('a' + (p + key[i % key.length] - 'a') % 26);
+    }
+    KasiskiExamination examination = new KasiskiExamination(ciphertext);
+
+    //2 and 3 divide at least as many distances as 6
+    int[] factors = examination.factorHistogram(3, 20);
+    assertThat(factors[2]).isGreaterThanOrEqualTo(factors[6]);
+    assertThat(factors[3]).isGreaterThanOrEqualTo(factors[6]);
+    List<Map.Entry<Integer, Integer>> ranked = examination.rankKeyLengths(3, 20);
+    assertThat(ranked.get(0).getKey()).isEqualTo(6);
+  }
+
+}
@@ -0,0 +1,93 @@
+package io.wonderland.rq.cryptanalysis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.wonderland.alice.crypto.StreamCipher;
+import io.wonderland.alice.crypto.key.secretkey.AffineKey;
+import io.wonderland.alice.crypto.key.secretkey.CaesarKey;
+import io.wonderland.alice.crypto.key.secretkey.RailfenceKey;
+import io.wonderland.alice.crypto.params.KeyParameter;
+import io.wonderland.alice.crypto.symmetric.AffineCrypt;
+import io.wonderland.alice.crypto.symmetric.CaesarCrypt;
+import io.wonderland.alice.crypto.symmetric.RailfenceCrypt;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.security.Key;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class KeyspaceSearchTest {
+
+  private static final String PLAINTEXT = "It was the best of times, it was the worst of times, it was "
+      + "the age of wisdom, it was the age of foolishness, it was the epoch of belief, it was the "
+      + "epoch of incredulity, it was the season of Light, it was the season of Darkness.";
+
+  private static FitnessMeasure trigrams;
+
+  @BeforeAll
+  static void setup() throws URISyntaxException {
+    trigrams = FitnessMeasure.load(Path.of(KeyspaceSearchTest.class.getClassLoader()
+        .getResource("trigram_freq.txt").toURI()));
+  }
+
+  @Test
+  void caesar() {
+    byte[] ciphertext = encrypt(new CaesarCrypt(), new CaesarKey(3), PLAINTEXT.getBytes());
+    List<KeyspaceSearch.Candidate<CaesarKey>> candidates = new KeyspaceSearch<>(CaesarCrypt::new,
+        Keyspace.caesar(Keyspace.BYTE_VALUES), trigrams).search(ciphertext, 5);
+
+    assertThat(candidates).hasSize(5);
+    assertThat(candidates.get(0).getKey().getShift()).isEqualTo(3);
+    assertThat(new String(candidates.get(0).getPlaintext())).isEqualTo(PLAINTEXT);
+    assertThat(candidates.get(0).getScore()).isGreaterThan(candidates.get(1).getScore());
+  }
+
+  @Test
+  void affine() {
+    byte[] ciphertext = encrypt(new AffineCrypt(), new AffineKey(77, 13, 256),
+        PLAINTEXT.getBytes());
+    Keyspace<AffineKey> keyspace = Keyspace.affine(256);
+    assertThat(keyspace.size()).isEqualTo(128 * 256);
+    assertThat(Keyspace.affine(26).size()).isEqualTo(312);
+
+    KeyspaceSearch.Candidate<AffineKey> best = new KeyspaceSearch<>(AffineCrypt::new, keyspace,
+        trigrams).search(ciphertext).get(0);
+    assertThat(best.getKey().getA().intValue()).isEqualTo(77);
+    assertThat(best.getKey().getB().intValue()).isEqualTo(13);
+    assertThat(new String(best.getPlaintext())).isEqualTo(PLAINTEXT);
+  }
+
+  @Test
+  void railfence() {
+    byte[] ciphertext = encrypt(new RailfenceCrypt(), new RailfenceKey(7), PLAINTEXT.getBytes());
+    Keyspace<RailfenceKey> keyspace = Keyspace.railfence(ciphertext.length);
+    assertThat(keyspace.size()).isEqualTo(ciphertext.length);
+
+    KeyspaceSearch.Candidate<RailfenceKey> best = new KeyspaceSearch<>(RailfenceCrypt::new,
+        keyspace, trigrams).search(ciphertext, 1).get(0);
+    assertThat(best.getKey().getRails()).isEqualTo(7);
+    assertThat(new String(best.getPlaintext())).isEqualTo(PLAINTEXT);
+  }
+
+  @Test
+  void illegalArguments() {
+    KeyspaceSearch<CaesarKey> search = new KeyspaceSearch<>(CaesarCrypt::new,
+        Keyspace.caesar(Keyspace.BYTE_VALUES), trigrams);
+    assertThatThrownBy(() -> search.search(new byte[0]))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> search.search("abc".getBytes(), 0))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> Keyspace.railfence(0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static byte[] encrypt(StreamCipher cipher, Key key, byte[] plaintext) {
+    byte[] ciphertext = new byte[plaintext.length];
+    cipher.init(true, new KeyParameter<>(key));
+    cipher.processBytes(plaintext, 0, plaintext.length, ciphertext, 0);
+    return ciphertext;
+  }
+
+}
@@ -0,0 +1,78 @@
+package io.wonderland.rq.cryptanalysis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import io.wonderland.rq.ds.MPP.MPPValue;
+import io.wonderland.rq.ds.MPPTable;
+import io.wonderland.struct.Char;
+import io.wonderland.struct.Monochar;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class MPPAlgorithmTest {
+
+  @Test
+  void calc() {
+    double[] langFreq = {0.12, 0.09, 0.01};
+    double[] ciphertextFreq = {0.02, 0.11, 0.085, 0.3};
+    MPPTable table = MPPAlgorithm.calc(langFreq, ciphertextFreq, 2);
+
+    assertThat(table.rows()).isEqualTo(3);
+    assertThat(table.width()).isEqualTo(2);
+    //0.12 closest to 0.11 then 0.085
+    assertThat(table.candidate(0, 0)).isEqualTo(1);
+    assertThat(table.candidate(0, 1)).isEqualTo(2);
+    assertThat(table.freqDiff(0, 0)).isCloseTo(-0.01, within(1e-9));
+    //0.09 closest to 0.085 then 0.11
+    assertThat(table.candidate(1, 0)).isEqualTo(2);
+    assertThat(table.candidate(1, 1)).isEqualTo(1);
+    //0.01 closest to 0.02
+    assertThat(table.candidate(2, 0)).isZero();
+
+    assertThat(MPPAlgorithm.calc(langFreq, ciphertextFreq, 10).width()).isEqualTo(4);
+    assertThat(MPPAlgorithm.calc(langFreq, new double[0], 10).width()).isZero();
+  }
+
+  @Test
+  void calcZeroFrequency() {
+    double[] langFreq = {0.12, 0.01};
+    double[] ciphertextFreq = {0, 0.11, 0.05};
+    MPPTable table = MPPAlgorithm.calc(langFreq, ciphertextFreq, 3);
+
+    //absent ciphertext character is farthest from 0.12, not closest
+    assertThat(table.candidate(0, 0)).isEqualTo(1);
+    assertThat(table.candidate(0, 1)).isEqualTo(2);
+    assertThat(table.candidate(0, 2)).isZero();
+    //and closest to 0.01 only by its real difference
+    assertThat(table.candidate(1, 0)).isZero();
+    assertThat(table.candidate(1, 1)).isEqualTo(2);
+  }
+
+  @Test
+  void calcFreqDiff() {
+    assertThat(MPPAlgorithm.calcFreqDiff(0, 0.5)).isZero();
+    assertThat(MPPAlgorithm.calcFreqDiff(0.75, 0.5)).isEqualTo(0.25);
+  }
+
+  @Test
+  void monocharCalc() {
+    Map<Monochar, Double> langFreq = Map.of(new Monochar('E'), 0.12, new Monochar('T'), 0.09);
+    Map<Monochar, Double> ciphertextFreq = Map.of(new Monochar('X'), 0.085,
+        new Monochar('Q'), 0.13, new Monochar('Z'), 0.001);
+
+    Map<Monochar, List<MPPValue<? extends Char>>> mpp = MPPAlgorithm.monocharCalc(langFreq,
+        ciphertextFreq, 1);
+    assertThat(mpp).hasSize(2);
+    assertThat(mpp.get(new Monochar('E'))).extracting(MPPValue::getKey)
+        .containsExactly(new Monochar('Q'));
+    assertThat(mpp.get(new Monochar('T'))).extracting(MPPValue::getKey)
+        .containsExactly(new Monochar('X'));
+
+    assertThat(MPPAlgorithm.monocharCalc(langFreq, ciphertextFreq).get(new Monochar('E')))
+        .hasSize(3);
+    assertThat(MPPAlgorithm.monocharCalc(langFreq, Map.of())).isEmpty();
+  }
+
+}
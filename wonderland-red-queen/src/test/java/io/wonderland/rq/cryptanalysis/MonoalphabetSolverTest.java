@@ -0,0 +1,103 @@
+package io.wonderland.rq.cryptanalysis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class MonoalphabetSolverTest {
+
+  private static final String PLAINTEXT = "It was the best of times, it was the worst of times, it was "
+      + "the age of wisdom, it was the age of foolishness, it was the epoch of belief, it was the "
+      + "epoch of incredulity, it was the season of Light, it was the season of Darkness, it was the "
+      + "spring of hope, it was the winter of despair, we had everything before us, we had nothing "
+      + "before us, we were all going direct to Heaven, we were all going direct the other way. In "
+      + "short, the period was so far like the present period, that some of its noisiest "
+      + "authorities insisted on its being received, for good or for evil, in the superlative "
+      + "degree of comparison only.";
+
+  private static FitnessMeasure trigrams;
+
+  @BeforeAll
+  static void setup() throws URISyntaxException {
+    trigrams = FitnessMeasure.load(Path.of(MonoalphabetSolverTest.class.getClassLoader()
+        .getResource("trigram_freq.txt").toURI()));
+  }
+
+  @Test
+  void solve() {
+    Map<Integer, Integer> key = randomKey(new Random(7));
+    byte[] ciphertext = encrypt(PLAINTEXT.getBytes(), key);
+
+    AtomicInteger calls = new AtomicInteger();
+    MonoalphabetSolver solver = new MonoalphabetSolver(trigrams, 16, 20_000, 20);
+    MonoalphabetSolver.Solution solution = solver.solve(ciphertext, Duration.ofMinutes(1),
+        (restart, completed, score, best) -> {
+          calls.incrementAndGet();
+          assertThat(best.getScore()).isGreaterThanOrEqualTo(score);
+        });
+
+    assertThat(calls.get()).isEqualTo(16);
+    assertThat(solution.getRestarts()).isEqualTo(16);
+    assertThat(solution.getScore()).isCloseTo(trigrams.score(solution.decrypt(ciphertext)),
+        within(1e-6));
+    assertThat(new String(solution.decrypt(ciphertext))).isEqualTo(PLAINTEXT);
+    //key enciphers plaintext back into ciphertext
+    assertThat(encrypt(PLAINTEXT.getBytes(), solution.getKey().getKey())).isEqualTo(ciphertext);
+  }
+
+  @Test
+  void solveBudget() {
+    byte[] ciphertext = encrypt(PLAINTEXT.getBytes(), randomKey(new Random(11)));
+    MonoalphabetSolver solver = new MonoalphabetSolver(trigrams, 1_000, 1_000_000, 0);
+    MonoalphabetSolver.Solution solution = solver.solve(ciphertext, Duration.ofMillis(200), null);
+    assertThat(solution.getRestarts()).isLessThan(1_000);
+    //upper and lower case of every letter
+    assertThat(solution.getKey().getKey()).hasSize(2 * trigrams.getAlphabet().size());
+  }
+
+  @Test
+  void illegalArguments() {
+    assertThatThrownBy(() -> new MonoalphabetSolver(null))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new MonoalphabetSolver(trigrams, 0, 1, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new MonoalphabetSolver(trigrams).solve(new byte[0]))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static Map<Integer, Integer> randomKey(Random random) {
+    List<Integer> letters = new ArrayList<>();
+    for (int c = 'A'; c <= 'Z'; c++) {
+      letters.add(c);
+    }
+    Collections.shuffle(letters, random);
+    Map<Integer, Integer> key = new HashMap<>();
+    for (int c = 'A'; c <= 'Z'; c++) {
+      key.put(c, letters.get(c - 'A'));
+      key.put(Character.toLowerCase(c), Character.toLowerCase(letters.get(c - 'A')));
+    }
+    return key;
+  }
+
+  private static byte[] encrypt(byte[] plaintext, Map<Integer, Integer> key) {
+    byte[] ciphertext = new byte[plaintext.length];
+    for (int i = 0; i < plaintext.length; i++) {
+      ciphertext[i] = (byte) (int) key.getOrDefault((int) plaintext[i], (int) plaintext[i]);
+    }
+    return ciphertext;
+  }
+
+}
@@ -0,0 +1,102 @@
+package io.wonderland.rq.cryptanalysis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class VigenereSolverTest {
+
+  private static final String PLAINTEXT = "It was the best of times, it was the worst of times, it was "
+      + "the age of wisdom, it was the age of foolishness, it was the epoch of belief, it was the "
+      + "epoch of incredulity, it was the season of Light, it was the season of Darkness, it was the "
+      + "spring of hope, it was the winter of despair, we had everything before us, we had nothing "
+      + "before us, we were all going direct to Heaven, we were all going direct the other way. In "
+      + "short, the period was so far like the present period, that some of its noisiest "
+      + "authorities insisted on its being received, for good or for evil, in the superlative "
+      + "degree of comparison only.";
+
+  private static ChisquareStatistic monograms;
+  private static FitnessMeasure digrams;
+
+  @BeforeAll
+  static void setup() throws URISyntaxException {
+    monograms = ChisquareStatistic.load(resource("monogram_freq.txt"));
+    digrams = FitnessMeasure.load(resource("digram_freq.txt"));
+  }
+
+  @Test
+  void solve() {
+    byte[] key = "LEMONADE".getBytes();
+    byte[] ciphertext = encrypt(PLAINTEXT.getBytes(), key, 256);
+
+    List<Integer> columns = new CopyOnWriteArrayList<>();
+    List<byte[]> keys = new CopyOnWriteArrayList<>();
+    VigenereSolver.Solution solution = new VigenereSolver(monograms, digrams, 256)
+        .solveAsync(ciphertext, 20, new VigenereSolver.Listener() {
+          @Override
+          public void column(int period, int column, byte shift) {
+            columns.add(column);
+          }
+
+          @Override
+          public void key(int period, byte[] key, double score) {
+            keys.add(key);
+          }
+        }).join();
+
+    assertThat(solution.getKey().getKey()).isEqualTo(key);
+    assertThat(solution.getKey().getModulus()).isEqualTo(256);
+    assertThat(new String(solution.decrypt(ciphertext))).isEqualTo(PLAINTEXT);
+    assertThat(columns).isNotEmpty();
+    assertThat(keys).isNotEmpty();
+  }
+
+  @Test
+  void solveWithoutDigrams() {
+    byte[] key = "KEY".getBytes();
+    byte[] ciphertext = encrypt(PLAINTEXT.getBytes(), key, 256);
+    VigenereSolver.Solution solution = new VigenereSolver(monograms, null, 256)
+        .solve(ciphertext, 10);
+    assertThat(solution.getKey().getKey()).isEqualTo(key);
+  }
+
+  @Test
+  void reduce() {
+    assertThat(VigenereSolver.reduce("ABAB".getBytes())).isEqualTo("AB".getBytes());
+    assertThat(VigenereSolver.reduce("ABA".getBytes())).isEqualTo("ABA".getBytes());
+    assertThat(VigenereSolver.reduce("AAAA".getBytes())).isEqualTo("A".getBytes());
+  }
+
+  @Test
+  void illegalArguments() {
+    VigenereSolver solver = new VigenereSolver(monograms, digrams, 256);
+    assertThatThrownBy(() -> solver.solve(new byte[0], 1))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> solver.solve("abc".getBytes(), 4))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new VigenereSolver(monograms, digrams, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static Path resource(String name) throws URISyntaxException {
+    return Path.of(VigenereSolverTest.class.getClassLoader().getResource(name).toURI());
+  }
+
+  /**
+   * VigenereCrypt arithmetic, Ci = (Pi + Ki) mod m
+   */
+  private static byte[] encrypt(byte[] plaintext, byte[] key, int modulus) {
+    byte[] ciphertext = new byte[plaintext.length];
+    for (int i = 0; i < plaintext.length; i++) {
+      ciphertext[i] = (byte) ((plaintext[i] + key[i % key.length]) % modulus);
+    }
+    return ciphertext;
+  }
+
+}
@@ -7,7 +7,7 @@ import lombok.RequiredArgsConstructor;
 @Getter
 public enum GramType {
 
-  MONOGRAM("monogram"), DIGRAM("digram"), TRIGRAM("trigram");
+  MONOGRAM("monogram"), DIGRAM("digram"), TRIGRAM("trigram"), QUADGRAM("quadgram");
 
   private final String value;
 